@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fileops;
+
+import colors.mappers.CyclicColorMapper;
+import fractalviewer.MandelbrotJuliaViewer;
+import rendering.TileRenderer;
+import rendering.Viewport;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the PNG export path used by <code>saveDiagramAs</code>, for an
+ * already rendered image of the default Mandelbrot view. Only the encoding and
+ * the writing to disk are measured, for <code>ImageIO</code> and for
+ * {@link PNGWriter} at the default level and in fast mode.
+ * @author Alonso del Arte
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PNGExportBenchmark {
+
+    private BufferedImage image;
+
+    private File file;
+
+    @Setup
+    public void setUp() throws IOException {
+        Viewport viewport = Viewport.mandelbrot(
+                MandelbrotJuliaViewer.DEFAULT_MANDELBROT_TOP_LEFT_CORNER, 256.0,
+                1080, 640, 256);
+        this.image = new CyclicColorMapper().toImage(new TileRenderer()
+                .render(viewport), 256);
+        this.file = File.createTempFile("benchmark", ".png");
+    }
+
+    @Benchmark
+    public File writeImageIO() throws IOException {
+        ImageIO.write(this.image, "PNG", this.file);
+        return this.file;
+    }
+
+    @Benchmark
+    public File writeParallel() throws IOException {
+        new PNGWriter().write(this.image, this.file);
+        return this.file;
+    }
+
+    @Benchmark
+    public File writeParallelFast() throws IOException {
+        PNGWriter.forPreviews().write(this.image, this.file);
+        return this.file;
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.file.delete();
+    }
+
+}
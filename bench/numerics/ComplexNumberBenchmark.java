@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package numerics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the ComplexNumber arithmetic used by object-based iteration
+ * code. The operands are fields of a state object so that the JIT can't fold
+ * the operations into constants.
+ * @author Alonso del Arte
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComplexNumberBenchmark {
+
+    private ComplexNumber a, b;
+
+    private final MutableComplex accumulator = new MutableComplex();
+
+    @Setup
+    public void setUp() {
+        this.a = new ComplexNumber(-0.75, 0.1);
+        this.b = new ComplexNumber(0.25, -0.5);
+    }
+
+    @Benchmark
+    public ComplexNumber times() {
+        return this.a.times(this.b);
+    }
+
+    @Benchmark
+    public ComplexNumber plus() {
+        return this.a.plus(this.b);
+    }
+
+    @Benchmark
+    public double norm() {
+        return this.a.norm();
+    }
+
+    /**
+     * One step of <i>z</i><sup>2</sup> + <i>c</i> the way the commented out
+     * code in <code>MandelbrotJuliaViewer</code> would do it.
+     * @return The next value of <i>z</i>.
+     */
+    @Benchmark
+    public ComplexNumber squareAdd() {
+        return this.a.times(this.a).plus(this.b);
+    }
+
+    /**
+     * The same step as {@link #squareAdd()}, but in place on a
+     * <code>MutableComplex</code>, so that nothing is allocated.
+     * @return The accumulator, after one step.
+     */
+    @Benchmark
+    public MutableComplex mutableSquareAdd() {
+        return this.accumulator.set(this.a).squareAdd(this.b);
+    }
+
+}
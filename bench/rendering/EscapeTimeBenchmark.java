@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import formulas.FormulaCompiler;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the per-pixel escape-time kernels, for a point that escapes
+ * quickly, a point near the boundary and a point inside the set. The kernel
+ * compiled at runtime from the text of the formula should be as fast as the
+ * hand-written one.
+ * @author Alonso del Arte
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EscapeTimeBenchmark {
+
+    @Param({"-2.5,1.0", "-0.7436,0.1318", "-0.25,0.125"})
+    public String point;
+
+    @Param({"256", "2048"})
+    public int iterMax;
+
+    private double re, im;
+
+    private IterationData data;
+
+    private FractalKernel compiledKernel;
+
+    @Setup
+    public void setUp() {
+        String[] parts = this.point.split(",");
+        this.re = Double.parseDouble(parts[0]);
+        this.im = Double.parseDouble(parts[1]);
+        this.data = new IterationData(1, 1);
+        this.compiledKernel = FormulaCompiler.compile("z^2 + c");
+    }
+
+    @Benchmark
+    public int mandelbrot() {
+        EscapeTime.mandelbrot(this.re, this.im, this.iterMax, this.data, 0);
+        return this.data.iterations[0];
+    }
+
+    @Benchmark
+    public int julia() {
+        EscapeTime.julia(this.re, this.im, -0.75, 0.1, this.iterMax, this.data,
+                0);
+        return this.data.iterations[0];
+    }
+
+    @Benchmark
+    public int compiledMandelbrot() {
+        this.compiledKernel.mandelbrot(this.re, this.im, this.iterMax,
+                this.data, 0);
+        return this.data.iterations[0];
+    }
+
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import colors.mappers.ColorMapper;
+import colors.mappers.CyclicColorMapper;
+import colors.mappers.LyapunovColorMapper;
+import fractalviewer.LyapunovViewer;
+import fractalviewer.MandelbrotJuliaViewer;
+import numerics.ComplexNumber;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of full-frame renders of the default Mandelbrot, Julia and
+ * Lyapunov views at several zoom levels. The zoom level is given as a number
+ * of halvings, so 0 is the default view at 256 pixels per unit interval, 4 is
+ * zoomed in to 4096 pixels per unit interval, and so on. Each zoom keeps the
+ * center of the default view in the center. For the Lyapunov view, the
+ * iteration maximum is the number of steps the exponent is averaged over.
+ * @author Alonso del Arte
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FrameRenderBenchmark {
+
+    private static final int WIDTH = 1080;
+
+    private static final int HEIGHT = 640;
+
+    private static final double DEFAULT_PIXELS_PER_UNIT_INTERVAL = 256.0;
+
+    private static final ComplexNumber JULIA_POINT
+            = new ComplexNumber(-0.75, 0.1);
+
+    @Param({"0", "4", "8", "12"})
+    public int zoom;
+
+    @Param({"256", "2048"})
+    public int iterMax;
+
+    private static final LyapunovKernel LYAPUNOV_KERNEL
+            = new LyapunovKernel(LyapunovViewer.DEFAULT_SEQUENCE);
+
+    private Viewport mandelbrotView, juliaView, lyapunovView;
+
+    private final TileRenderer renderer = new TileRenderer();
+
+    private final TileRenderer tracingRenderer = new TileRenderer(
+            ForkJoinPool.commonPool(), TileRenderer.DEFAULT_TILE_SIZE,
+            new BoundaryTracer());
+
+    private final TileRenderer fillingRenderer = new TileRenderer(
+            ForkJoinPool.commonPool(), TileRenderer.DEFAULT_TILE_SIZE,
+            new InteriorFill());
+
+    private final TileRenderer discFillingRenderer = new TileRenderer(
+            ForkJoinPool.commonPool(), TileRenderer.DEFAULT_TILE_SIZE,
+            new DiscFill());
+
+    private final ColorMapper colorMapper = new CyclicColorMapper();
+
+    private final ColorMapper lyapunovColorMapper = new LyapunovColorMapper();
+
+    private IterationData data;
+
+    private int[] rgb;
+
+    /**
+     * The center of the default view of the Lyapunov viewer, which shows
+     * <i>a</i> and <i>b</i> from 2 to 4.
+     */
+    private static final double LYAPUNOV_CENTER = 3.0;
+
+    private static ComplexNumber centeredCorner(double centerRe,
+            double centerIm, double pxui) {
+        return new ComplexNumber(centerRe - WIDTH / (2.0 * pxui),
+                centerIm - HEIGHT / (2.0 * pxui));
+    }
+
+    private static ComplexNumber zoomedCorner(ComplexNumber defaultCorner,
+            double pxui) {
+        double centerRe = defaultCorner.getRealPart()
+                + WIDTH / (2.0 * DEFAULT_PIXELS_PER_UNIT_INTERVAL);
+        double centerIm = defaultCorner.getImaginaryPart()
+                + HEIGHT / (2.0 * DEFAULT_PIXELS_PER_UNIT_INTERVAL);
+        return centeredCorner(centerRe, centerIm, pxui);
+    }
+
+    @Setup
+    public void setUp() {
+        double pxui = DEFAULT_PIXELS_PER_UNIT_INTERVAL * (1 << this.zoom);
+        this.mandelbrotView = Viewport.mandelbrot(zoomedCorner(
+                MandelbrotJuliaViewer.DEFAULT_MANDELBROT_TOP_LEFT_CORNER, pxui),
+                pxui, WIDTH, HEIGHT, this.iterMax);
+        this.juliaView = Viewport.julia(zoomedCorner(
+                MandelbrotJuliaViewer.DEFAULT_JULIA_TOP_LEFT_CORNER, pxui),
+                pxui, WIDTH, HEIGHT, this.iterMax, JULIA_POINT);
+        this.lyapunovView = Viewport.mandelbrot(centeredCorner(
+                LYAPUNOV_CENTER, LYAPUNOV_CENTER, pxui), pxui, WIDTH, HEIGHT,
+                this.iterMax).withKernel(LYAPUNOV_KERNEL);
+        this.data = new IterationData(WIDTH, HEIGHT);
+        this.rgb = new int[WIDTH * HEIGHT];
+    }
+
+    @Benchmark
+    public int[] renderMandelbrot() {
+        this.renderer.render(this.mandelbrotView, this.data);
+        this.colorMapper.colorize(this.data, this.iterMax, this.rgb);
+        return this.rgb;
+    }
+
+    @Benchmark
+    public int[] renderMandelbrotBoundaryTraced() {
+        this.tracingRenderer.render(this.mandelbrotView, this.data);
+        this.colorMapper.colorize(this.data, this.iterMax, this.rgb);
+        return this.rgb;
+    }
+
+    @Benchmark
+    public int[] renderMandelbrotInteriorFilled() {
+        this.fillingRenderer.render(this.mandelbrotView, this.data);
+        this.colorMapper.colorize(this.data, this.iterMax, this.rgb);
+        return this.rgb;
+    }
+
+    @Benchmark
+    public int[] renderMandelbrotDiscFilled() {
+        this.discFillingRenderer.render(this.mandelbrotView, this.data);
+        this.colorMapper.colorize(this.data, this.iterMax, this.rgb);
+        return this.rgb;
+    }
+
+    @Benchmark
+    public int[] renderJulia() {
+        this.renderer.render(this.juliaView, this.data);
+        this.colorMapper.colorize(this.data, this.iterMax, this.rgb);
+        return this.rgb;
+    }
+
+    @Benchmark
+    public int[] renderLyapunov() {
+        this.renderer.render(this.lyapunovView, this.data);
+        this.lyapunovColorMapper.colorize(this.data, this.iterMax, this.rgb);
+        return this.rgb;
+    }
+
+}
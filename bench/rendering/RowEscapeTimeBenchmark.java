@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import fractalviewer.MandelbrotJuliaViewer;
+import numerics.ComplexNumber;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the lockstep row kernel with the point-by-point kernel, on one
+ * thread, for a band of rows of the default Mandelbrot and Julia views.
+ * @author Alonso del Arte
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowEscapeTimeBenchmark {
+
+    private static final int WIDTH = 1080;
+
+    private static final int HEIGHT = 640;
+
+    @Param({"false", "true"})
+    public boolean julia;
+
+    @Param({"64", "1080"})
+    public int regionWidth;
+
+    private Viewport viewport;
+
+    private IterationData data;
+
+    private RowEscapeTime rowKernel;
+
+    @Setup
+    public void setUp() {
+        if (this.julia) {
+            this.viewport = Viewport.julia(
+                    MandelbrotJuliaViewer.DEFAULT_JULIA_TOP_LEFT_CORNER, 256.0,
+                    WIDTH, HEIGHT, 256, new ComplexNumber(-0.75, 0.1));
+        } else {
+            this.viewport = Viewport.mandelbrot(
+                    MandelbrotJuliaViewer.DEFAULT_MANDELBROT_TOP_LEFT_CORNER,
+                    256.0, WIDTH, HEIGHT, 256);
+        }
+        this.data = new IterationData(WIDTH, HEIGHT);
+        this.rowKernel = new RowEscapeTime(this.regionWidth);
+    }
+
+    @Benchmark
+    public IterationData pointByPoint() {
+        TileRenderer.renderRegion(this.viewport, 0, 288, this.regionWidth, 352,
+                this.data);
+        return this.data;
+    }
+
+    @Benchmark
+    public IterationData lockstepRows() {
+        this.rowKernel.renderRegion(this.viewport, 0, 288, this.regionWidth,
+                352, this.data);
+        return this.data;
+    }
+
+}
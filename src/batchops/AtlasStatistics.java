@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package batchops;
+
+/**
+ * Measurements of one atlas generated by {@link JuliaAtlasGenerator}.
+ * @author Alonso del Arte
+ */
+public final class AtlasStatistics {
+
+    private final int thumbnailCount;
+
+    private final long pixelCount;
+
+    private final long wallTimeNanos;
+
+    private final long totalComputeNanos;
+
+    private final long maximumComputeNanos;
+
+    public int getThumbnailCount() {
+        return this.thumbnailCount;
+    }
+
+    public long getPixelCount() {
+        return this.pixelCount;
+    }
+
+    /**
+     * Gives the elapsed time from submitting the first thumbnail to placing
+     * the last one in the atlas.
+     * @return The wall time in nanoseconds.
+     */
+    public long getWallTimeNanos() {
+        return this.wallTimeNanos;
+    }
+
+    /**
+     * Gives the sum of the compute times of the thumbnails. On a machine with
+     * several cores, this can be several times the wall time.
+     * @return The total compute time in nanoseconds.
+     */
+    public long getTotalComputeNanos() {
+        return this.totalComputeNanos;
+    }
+
+    public long getMaximumComputeNanos() {
+        return this.maximumComputeNanos;
+    }
+
+    /**
+     * Gives the thumbnail throughput.
+     * @return The number of thumbnails divided by the wall time in seconds.
+     */
+    public double getThumbnailsPerSecond() {
+        return this.thumbnailCount * 1.0E9 / Math.max(this.wallTimeNanos, 1L);
+    }
+
+    /**
+     * Gives the pixel throughput.
+     * @return The number of pixels divided by the wall time in seconds.
+     */
+    public double getPixelsPerSecond() {
+        return this.pixelCount * 1.0E9 / Math.max(this.wallTimeNanos, 1L);
+    }
+
+    /**
+     * Gives the average number of thumbnails that were being computed at the
+     * same time.
+     * @return The total compute time divided by the wall time. For example,
+     * 7.6 on a machine with 8 cores that were kept busy.
+     */
+    public double getParallelism() {
+        return (double) this.totalComputeNanos
+                / Math.max(this.wallTimeNanos, 1L);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d thumbnails in %.1f ms, %.1f thumbnails/s, "
+                + "%.2f Mpx/s, parallelism %.2f, slowest %.1f ms",
+                this.thumbnailCount, this.wallTimeNanos / 1.0E6,
+                this.getThumbnailsPerSecond(), this.getPixelsPerSecond() / 1.0E6,
+                this.getParallelism(), this.maximumComputeNanos / 1.0E6);
+    }
+
+    AtlasStatistics(int thumbnailCount, long pixelCount, long wallTimeNanos,
+            long totalComputeNanos, long maximumComputeNanos) {
+        this.thumbnailCount = thumbnailCount;
+        this.pixelCount = pixelCount;
+        this.wallTimeNanos = wallTimeNanos;
+        this.totalComputeNanos = totalComputeNanos;
+        this.maximumComputeNanos = maximumComputeNanos;
+    }
+
+}
@@ -0,0 +1,359 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package batchops;
+
+import colors.mappers.ColorMapper;
+import colors.mappers.CyclicColorMapper;
+import numerics.ComplexNumber;
+import rendering.IterationData;
+import rendering.TileRenderer;
+import rendering.Viewport;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Renders a grid of Julia set thumbnails into one atlas image, one thumbnail
+ * for each of a grid of parameters over a rectangular region of the Mandelbrot
+ * set. The thumbnails are computed in parallel, and each one is copied into the
+ * atlas as soon as it's done, in whatever order they finish.
+ * <p>This can be run from the command line without a display. See
+ * {@link #main(String[])}.</p>
+ * @author Alonso del Arte
+ */
+public final class JuliaAtlasGenerator {
+
+    /**
+     * The default width of a thumbnail, in pixels.
+     */
+    public static final int DEFAULT_THUMBNAIL_WIDTH = 160;
+
+    /**
+     * The default height of a thumbnail, in pixels.
+     */
+    public static final int DEFAULT_THUMBNAIL_HEIGHT = 120;
+
+    /**
+     * The default iteration maximum for the thumbnails.
+     */
+    public static final int DEFAULT_ITERATION_MAXIMUM = 256;
+
+    /**
+     * How much of the real line each thumbnail shows. The thumbnails are
+     * centered on 0, so they show from &minus;2 to 2 on the real axis.
+     */
+    private static final double REAL_SPAN = 4.0;
+
+    private static final String USAGE = "Usage: JuliaAtlasGenerator columns "
+            + "rows re0 im0 re1 im1 output.png [thumbnailWidth thumbnailHeight "
+            + "iterMax]";
+
+    private final ColorMapper colorMapper;
+
+    private final Executor executor;
+
+    private final int thumbnailWidth, thumbnailHeight, iterMax;
+
+    private final ComplexNumber thumbnailCorner;
+
+    private final double pixelsPerUnitInterval;
+
+    private final ThreadLocal<IterationData> scratch;
+
+    public int getThumbnailWidth() {
+        return this.thumbnailWidth;
+    }
+
+    public int getThumbnailHeight() {
+        return this.thumbnailHeight;
+    }
+
+    /**
+     * Gives the Julia parameter for a given cell of the grid. The parameters
+     * are taken at the centers of the cells, with the imaginary part
+     * increasing downwards, as in <code>MandelbrotJuliaViewer</code>.
+     * @param regionCorner The top left corner of the region of the Mandelbrot
+     * set. For example, &minus;2 &minus; 1.25<i>i</i>.
+     * @param regionOpposite The bottom right corner of the region. For example,
+     * 0.5 + 1.25<i>i</i>.
+     * @param columns How many columns in the grid. For example, 10.
+     * @param rows How many rows in the grid. For example, 10.
+     * @param column The column, from 0 to <code>columns</code> &minus; 1.
+     * @param row The row, from 0 to <code>rows</code> &minus; 1.
+     * @return The parameter. In the example, for column 0 and row 0, this
+     * would be &minus;1.875 &minus; 1.125<i>i</i>.
+     */
+    static ComplexNumber getParameter(ComplexNumber regionCorner,
+            ComplexNumber regionOpposite, int columns, int rows, int column,
+            int row) {
+        double reStep = (regionOpposite.getRealPart()
+                - regionCorner.getRealPart()) / columns;
+        double imStep = (regionOpposite.getImaginaryPart()
+                - regionCorner.getImaginaryPart()) / rows;
+        return new ComplexNumber(regionCorner.getRealPart()
+                + (column + 0.5) * reStep, regionCorner.getImaginaryPart()
+                + (row + 0.5) * imStep);
+    }
+
+    /**
+     * Gives the viewport of the thumbnail for a given Julia parameter.
+     * @param parameter The Julia parameter. For example, &minus;0.75 +
+     * 0.1<i>i</i>.
+     * @return The viewport, centered on 0.
+     */
+    Viewport thumbnailViewport(ComplexNumber parameter) {
+        return Viewport.julia(this.thumbnailCorner, this.pixelsPerUnitInterval,
+                this.thumbnailWidth, this.thumbnailHeight, this.iterMax,
+                parameter);
+    }
+
+    private Thumbnail renderThumbnail(int column, int row,
+            ComplexNumber parameter) {
+        long start = System.nanoTime();
+        IterationData data = this.scratch.get();
+        TileRenderer.renderRegion(this.thumbnailViewport(parameter), 0, 0,
+                this.thumbnailWidth, this.thumbnailHeight, data);
+        int[] rgb = new int[this.thumbnailWidth * this.thumbnailHeight];
+        this.colorMapper.colorize(data, this.iterMax, rgb);
+        return new Thumbnail(column, row, rgb, System.nanoTime() - start);
+    }
+
+    /**
+     * Renders an atlas of Julia set thumbnails. This function blocks until
+     * all the thumbnails are in the atlas.
+     * @param regionCorner The top left corner of the region of the Mandelbrot
+     * set to take the Julia parameters from. For example, &minus;2 &minus;
+     * 1.25<i>i</i>.
+     * @param regionOpposite The bottom right corner of the region. For example,
+     * 0.5 + 1.25<i>i</i>.
+     * @param columns How many thumbnails across. For example, 10.
+     * @param rows How many thumbnails down. For example, 10.
+     * @param atlas Where to put the thumbnails. Must be of type
+     * <code>TYPE_INT_RGB</code> and at least <code>columns</code> thumbnails
+     * wide and <code>rows</code> thumbnails high.
+     * @return Measurements of the run.
+     * @throws IllegalArgumentException If <code>columns</code> or
+     * <code>rows</code> is less than 1, or if <code>atlas</code> is too small.
+     * @throws InterruptedException If the calling thread is interrupted while
+     * waiting for thumbnails.
+     * @throws ExecutionException If the computation of some thumbnail fails.
+     */
+    public AtlasStatistics generate(ComplexNumber regionCorner,
+            ComplexNumber regionOpposite, int columns, int rows,
+            BufferedImage atlas) throws InterruptedException,
+            ExecutionException {
+        if (columns < 1 || rows < 1) {
+            String excMsg = "Grid of " + columns + " by " + rows
+                    + " is not valid";
+            throw new IllegalArgumentException(excMsg);
+        }
+        if (atlas.getWidth() < columns * this.thumbnailWidth
+                || atlas.getHeight() < rows * this.thumbnailHeight) {
+            String excMsg = "Atlas of " + atlas.getWidth() + " by "
+                    + atlas.getHeight() + " is too small for " + columns
+                    + " by " + rows + " thumbnails";
+            throw new IllegalArgumentException(excMsg);
+        }
+        long start = System.nanoTime();
+        CompletionService<Thumbnail> completionService
+                = new ExecutorCompletionService<>(this.executor);
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                int c = column, r = row;
+                ComplexNumber parameter = getParameter(regionCorner,
+                        regionOpposite, columns, rows, column, row);
+                completionService.submit(() -> this.renderThumbnail(c, r,
+                        parameter));
+            }
+        }
+        int count = columns * rows;
+        long totalComputeNanos = 0L;
+        long maximumComputeNanos = 0L;
+        for (int i = 0; i < count; i++) {
+            Thumbnail thumbnail = completionService.take().get();
+            atlas.setRGB(thumbnail.column * this.thumbnailWidth,
+                    thumbnail.row * this.thumbnailHeight, this.thumbnailWidth,
+                    this.thumbnailHeight, thumbnail.rgb, 0,
+                    this.thumbnailWidth);
+            totalComputeNanos += thumbnail.computeNanos;
+            maximumComputeNanos = Math.max(maximumComputeNanos,
+                    thumbnail.computeNanos);
+        }
+        return new AtlasStatistics(count,
+                (long) count * this.thumbnailWidth * this.thumbnailHeight,
+                System.nanoTime() - start, totalComputeNanos,
+                maximumComputeNanos);
+    }
+
+    /**
+     * Renders an atlas of Julia set thumbnails into a new image.
+     * @param regionCorner The top left corner of the region of the Mandelbrot
+     * set. For example, &minus;2 &minus; 1.25<i>i</i>.
+     * @param regionOpposite The bottom right corner of the region. For example,
+     * 0.5 + 1.25<i>i</i>.
+     * @param columns How many thumbnails across. For example, 10.
+     * @param rows How many thumbnails down. For example, 10.
+     * @return A new image exactly big enough for the thumbnails.
+     * @throws InterruptedException If the calling thread is interrupted while
+     * waiting for thumbnails.
+     * @throws ExecutionException If the computation of some thumbnail fails.
+     */
+    public BufferedImage generate(ComplexNumber regionCorner,
+            ComplexNumber regionOpposite, int columns, int rows)
+            throws InterruptedException, ExecutionException {
+        BufferedImage atlas = new BufferedImage(columns * this.thumbnailWidth,
+                rows * this.thumbnailHeight, BufferedImage.TYPE_INT_RGB);
+        this.generate(regionCorner, regionOpposite, columns, rows, atlas);
+        return atlas;
+    }
+
+    private static final class Thumbnail {
+
+        private final int column, row;
+
+        private final int[] rgb;
+
+        private final long computeNanos;
+
+        Thumbnail(int column, int row, int[] rgb, long computeNanos) {
+            this.column = column;
+            this.row = row;
+            this.rgb = rgb;
+            this.computeNanos = computeNanos;
+        }
+
+    }
+
+    /**
+     * Creates an atlas generator with the default thumbnail dimensions and
+     * iteration maximum.
+     * @param colorMapper The color mapper. For example, an instance of
+     * <code>CyclicColorMapper</code>.
+     * @param executor The executor to compute the thumbnails on. For example,
+     * a fixed thread pool with as many threads as there are cores.
+     */
+    public JuliaAtlasGenerator(ColorMapper colorMapper, Executor executor) {
+        this(colorMapper, executor, DEFAULT_THUMBNAIL_WIDTH,
+                DEFAULT_THUMBNAIL_HEIGHT, DEFAULT_ITERATION_MAXIMUM);
+    }
+
+    /**
+     * Creates an atlas generator. Each thumbnail shows the real axis from
+     * &minus;2 to 2, centered vertically on the real axis.
+     * @param colorMapper The color mapper. For example, an instance of
+     * <code>CyclicColorMapper</code>.
+     * @param executor The executor to compute the thumbnails on. For example,
+     * a fixed thread pool with as many threads as there are cores.
+     * @param thumbnailWidth The width of each thumbnail, in pixels. For
+     * example, 160.
+     * @param thumbnailHeight The height of each thumbnail, in pixels. For
+     * example, 120.
+     * @param iterMax The iteration maximum. For example, 256.
+     * @throws IllegalArgumentException If <code>thumbnailWidth</code>,
+     * <code>thumbnailHeight</code> or <code>iterMax</code> is less than 1.
+     * @throws NullPointerException If <code>colorMapper</code> or
+     * <code>executor</code> is null.
+     */
+    public JuliaAtlasGenerator(ColorMapper colorMapper, Executor executor,
+            int thumbnailWidth, int thumbnailHeight, int iterMax) {
+        if (colorMapper == null || executor == null) {
+            String excMsg = "Color mapper and executor must not be null";
+            throw new NullPointerException(excMsg);
+        }
+        if (thumbnailWidth < 1 || thumbnailHeight < 1) {
+            String excMsg = "Thumbnail dimensions " + thumbnailWidth + " by "
+                    + thumbnailHeight + " are not valid";
+            throw new IllegalArgumentException(excMsg);
+        }
+        if (iterMax < 1) {
+            String excMsg = "Iteration maximum " + iterMax + " is not valid";
+            throw new IllegalArgumentException(excMsg);
+        }
+        this.colorMapper = colorMapper;
+        this.executor = executor;
+        this.thumbnailWidth = thumbnailWidth;
+        this.thumbnailHeight = thumbnailHeight;
+        this.iterMax = iterMax;
+        this.pixelsPerUnitInterval = thumbnailWidth / REAL_SPAN;
+        this.thumbnailCorner = new ComplexNumber(-REAL_SPAN / 2,
+                -thumbnailHeight / (2 * this.pixelsPerUnitInterval));
+        this.scratch = ThreadLocal.withInitial(()
+                -> new IterationData(thumbnailWidth, thumbnailHeight));
+    }
+
+    /**
+     * Generates an atlas from the command line and writes it to a PNG file.
+     * For example, <code>java batchops.JuliaAtlasGenerator 10 8 -2 -1.25 0.5
+     * 1.25 atlas.png</code> gives an atlas of 80 thumbnails of 160 by 120
+     * pixels each.
+     * @param args The number of columns and rows, the real and imaginary parts
+     * of the top left and bottom right corners of the region, the output file
+     * and, optionally, the thumbnail width and height and the iteration
+     * maximum.
+     * @throws IOException If the atlas can't be written.
+     * @throws InterruptedException If interrupted while rendering.
+     * @throws ExecutionException If the computation of some thumbnail fails.
+     */
+    public static void main(String[] args) throws IOException,
+            InterruptedException, ExecutionException {
+        if (args.length != 7 && args.length != 10) {
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+        int columns = Integer.parseInt(args[0]);
+        int rows = Integer.parseInt(args[1]);
+        ComplexNumber regionCorner = new ComplexNumber(
+                Double.parseDouble(args[2]), Double.parseDouble(args[3]));
+        ComplexNumber regionOpposite = new ComplexNumber(
+                Double.parseDouble(args[4]), Double.parseDouble(args[5]));
+        File file = new File(args[6]);
+        int width = DEFAULT_THUMBNAIL_WIDTH;
+        int height = DEFAULT_THUMBNAIL_HEIGHT;
+        int iterMax = DEFAULT_ITERATION_MAXIMUM;
+        if (args.length == 10) {
+            width = Integer.parseInt(args[7]);
+            height = Integer.parseInt(args[8]);
+            iterMax = Integer.parseInt(args[9]);
+        }
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            JuliaAtlasGenerator generator = new JuliaAtlasGenerator(
+                    new CyclicColorMapper(), pool, width, height, iterMax);
+            BufferedImage atlas = new BufferedImage(columns * width,
+                    rows * height, BufferedImage.TYPE_INT_RGB);
+            AtlasStatistics stats = generator.generate(regionCorner,
+                    regionOpposite, columns, rows, atlas);
+            System.out.println(stats.toString() + " on " + threads
+                    + " threads");
+            ImageIO.write(atlas, "png", file);
+            System.out.println("Wrote " + file.getAbsolutePath());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+}
@@ -17,72 +17,131 @@
  */
 package clipboardops;
 
+import fileops.PNGWriter;
+
+import java.awt.Graphics2D;
 import java.awt.datatransfer.DataFlavor;
 import java.awt.datatransfer.Transferable;
 import java.awt.datatransfer.UnsupportedFlavorException;
 import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 
 /**
  * This is like <code>StringSelection</code>, but for images drawn using AWT and 
- * Swing. This class is immutable except for clipboard ownership status.
+ * Swing. The image is held as given, without copying, and is offered both as 
+ * <code>imageFlavor</code> and as a PNG byte stream. The PNG encoding is only 
+ * done the first time a consumer asks for that flavor, so putting a large 
+ * image on the clipboard costs nothing until it's pasted. This class is 
+ * immutable except for clipboard ownership status and the cached PNG encoding.
  * @author Alonso del Arte
  */
 public class ImageSelection implements Transferable {
     
+    /**
+     * The data flavor for images encoded in the Portable Network Graphics 
+     * format, delivered as an <code>InputStream</code>.
+     */
+    public static final DataFlavor PNG_FLAVOR 
+            = new DataFlavor("image/png; class=java.io.InputStream", 
+                    "PNG image");
+    
     private final Image heldImage;
     
-    private static final DataFlavor SUPPORTED_FLAVOR = DataFlavor.imageFlavor;
+    private byte[] encodedPNG = null;
+    
+    private static final DataFlavor[] SUPPORTED_FLAVORS 
+            = {DataFlavor.imageFlavor, PNG_FLAVOR};
     
     /**
      * Tells which "data flavors" this class supports. Specifically, 
-     * <code>imageFlavor</code> only.
-     * @return An array containing just one element: <code>imageFlavor</code>.
+     * <code>imageFlavor</code> and {@link #PNG_FLAVOR}.
+     * @return An array containing two elements: <code>imageFlavor</code>, 
+     * which is the preferred flavor, and <code>PNG_FLAVOR</code>.
      */
     @Override
     public DataFlavor[] getTransferDataFlavors() {
-        DataFlavor[] array = {DataFlavor.imageFlavor};
-        return array;
+        return SUPPORTED_FLAVORS.clone();
     }
 
     /**
      * Determines whether a given data "flavor" is supported by this class. Only 
-     * <code>imageFlavor</code> is supported.
+     * <code>imageFlavor</code> and {@link #PNG_FLAVOR} are supported.
      * @param flavor The flavor to check for support. For example, 
      * <code>javaFileListFlavor</code>.
-     * @return True only if <code>flavor</code> is <code>imageFlavor</code>. 
-     * False in any other case, like the example given above.
+     * @return True only if <code>flavor</code> is <code>imageFlavor</code> or 
+     * <code>PNG_FLAVOR</code>. False in any other case, like the example given 
+     * above.
      */
     @Override
     public boolean isDataFlavorSupported(DataFlavor flavor) {
-        return flavor.equals(SUPPORTED_FLAVOR);
+        for (DataFlavor supported : SUPPORTED_FLAVORS) {
+            if (supported.equals(flavor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private BufferedImage toBufferedImage() {
+        if (this.heldImage instanceof BufferedImage) {
+            return (BufferedImage) this.heldImage;
+        }
+        BufferedImage image = new BufferedImage(this.heldImage.getWidth(null), 
+                this.heldImage.getHeight(null), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.drawImage(this.heldImage, 0, 0, null);
+        g.dispose();
+        return image;
+    }
+    
+    synchronized boolean hasEncodedPNG() {
+        return this.encodedPNG != null;
+    }
+    
+    /**
+     * Gives the image encoded as PNG, encoding it the first time this is 
+     * called.
+     */
+    private synchronized byte[] getEncodedPNG() {
+        if (this.encodedPNG == null) {
+            this.encodedPNG = PNGWriter.forPreviews()
+                    .encode(this.toBufferedImage());
+        }
+        return this.encodedPNG;
     }
 
     /**
-     * Returns the image held by this <code>ImageSelection</code> object.
-     * @param flavor The flavor to use. Should always be 
-     * <code>imageFlavor</code>.
-     * @return The image (it may be necessary to cast it to 
-     * <code>java.awt.Image</code>).
+     * Returns the image held by this <code>ImageSelection</code> object, in 
+     * the requested flavor.
+     * @param flavor The flavor to use. Should be <code>imageFlavor</code> or 
+     * {@link #PNG_FLAVOR}.
+     * @return For <code>imageFlavor</code>, the image itself (it may be 
+     * necessary to cast it to <code>java.awt.Image</code>). For 
+     * <code>PNG_FLAVOR</code>, a new <code>InputStream</code> of the image 
+     * encoded as PNG.
      * @throws IOException If some problem other than a wrong flavor occurs.
      * @throws NullPointerException If <code>flavor</code> is null.
-     * @throws UnsupportedFlavorException If <code>flavor</code> is not 
-     * <code>imageFlavor</code>.
+     * @throws UnsupportedFlavorException If <code>flavor</code> is neither 
+     * <code>imageFlavor</code> nor <code>PNG_FLAVOR</code>.
      */
     @Override
     public Object getTransferData(DataFlavor flavor) 
             throws UnsupportedFlavorException, IOException {
-        if (!flavor.equals(SUPPORTED_FLAVOR)) {
-            throw new UnsupportedFlavorException(flavor);
+        if (flavor.equals(DataFlavor.imageFlavor)) {
+            return this.heldImage;
+        }
+        if (flavor.equals(PNG_FLAVOR)) {
+            return new ByteArrayInputStream(this.getEncodedPNG());
         }
-        return this.heldImage;
+        throw new UnsupportedFlavorException(flavor);
     }
     
     /**
      * Sole constructor.
-     * @param image The image to be made available to the system clipboard. This 
-     * image can't be changed, except by creating a new 
-     * <code>ImageSelection</code> object.
+     * @param image The image to be made available to the system clipboard. The 
+     * image is not copied, so the caller should not draw on it afterwards.
      */
     public ImageSelection(Image image) {
         if (image == null) {
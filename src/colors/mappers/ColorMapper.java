@@ -5,12 +5,88 @@
  */
 package colors.mappers;
 
-import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+import rendering.IterationData;
 
 /**
- *
+ * Maps smooth iteration values to colors. Colors are given as packed RGB
+ * integers, as used by <code>BufferedImage.TYPE_INT_RGB</code>, so that
+ * coloring a whole frame doesn't require creating any <code>Color</code>
+ * objects.
  * @author Alonso del Arte
  */
 public abstract class ColorMapper {
-    
+
+    /**
+     * Gives the color for a smooth iteration value.
+     * @param smoothValue The smooth iteration value. For example, 17.25.
+     * @param iterationMaximum The iteration maximum. Smooth values equal to or
+     * greater than this should be considered points inside the set. For
+     * example, 256.
+     * @return The color as a packed RGB integer. For example, 0x000000 for
+     * black. Implementations should not allocate any objects, as this is
+     * called for every pixel of every frame.
+     */
+    public abstract int getRGB(double smoothValue, int iterationMaximum);
+
+    /**
+     * Gives the color for a smooth iteration value in a given basin of
+     * attraction. Mappers that can tell basins apart should override this;
+     * by default the basin is ignored.
+     * @param smoothValue The smooth iteration value. For example, 17.25.
+     * @param basin The basin number. For example, 2. For escape-time kernels
+     * this is always 0.
+     * @param iterationMaximum The iteration maximum. For example, 256.
+     * @return The color as a packed RGB integer.
+     */
+    public int getRGB(double smoothValue, int basin, int iterationMaximum) {
+        return this.getRGB(smoothValue, iterationMaximum);
+    }
+
+    /**
+     * Colors all the pixels of some iteration data. This allocates nothing,
+     * provided that {@link #getRGB(double, int, int)} allocates nothing.
+     * @param data The iteration data.
+     * @param iterationMaximum The iteration maximum the data was computed with.
+     * For example, 256.
+     * @param rgb Where to write the colors, in row-major order. Should be at
+     * least as long as the number of pixels of <code>data</code>.
+     */
+    public void colorize(IterationData data, int iterationMaximum, int[] rgb) {
+        float[] smoothValues = data.getSmoothValues();
+        byte[] basins = data.getBasins();
+        for (int i = 0; i < smoothValues.length; i++) {
+            rgb[i] = this.getRGB(smoothValues[i], basins[i], iterationMaximum);
+        }
+    }
+
+    /**
+     * Colors some iteration data into a new image. The pixels are written
+     * straight into the image's backing array.
+     * @param data The iteration data.
+     * @param iterationMaximum The iteration maximum the data was computed with.
+     * For example, 256.
+     * @return A new image of type <code>TYPE_INT_RGB</code> with the same
+     * dimensions as <code>data</code>.
+     */
+    public BufferedImage toImage(IterationData data, int iterationMaximum) {
+        BufferedImage image = new BufferedImage(data.getWidth(),
+                data.getHeight(), BufferedImage.TYPE_INT_RGB);
+        this.colorize(data, iterationMaximum, pixelsOf(image));
+        return image;
+    }
+
+    /**
+     * Gives the backing array of an image of type <code>TYPE_INT_RGB</code>.
+     * Writing to the array changes the image without any copying.
+     * @param image The image. Must be of type <code>TYPE_INT_RGB</code> or
+     * <code>TYPE_INT_ARGB</code>.
+     * @return The backing array, in row-major order.
+     */
+    public static int[] pixelsOf(BufferedImage image) {
+        return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+
 }
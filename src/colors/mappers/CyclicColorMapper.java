@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package colors.mappers;
+
+/**
+ * Colors escaping points by cycling the red, green and blue channels at
+ * different periods, and colors points inside the set black. Since the smooth
+ * iteration value is used, there are no visible bands between consecutive
+ * iteration counts. Different basins of attraction get the cycle at different
+ * phases, so that neighboring basins of a Newton fractal contrast.
+ * @author Alonso del Arte
+ */
+public class CyclicColorMapper extends ColorMapper {
+
+    private static final double RED_PERIOD = 170.0;
+
+    private static final double GREEN_PERIOD = 85.0;
+
+    private static final double BLUE_PERIOD = 16.0;
+
+    /**
+     * How far along the cycle to shift each basin. This is about a third of
+     * the red period and two thirds of the green period, so the first few
+     * basins differ in every channel.
+     */
+    private static final double BASIN_PHASE_SHIFT = 57.0;
+
+    private static int channel(double value, double period) {
+        double phase = value / period;
+        phase -= Math.floor(phase);
+        double level = phase < 0.5 ? 2.0 * phase : 2.0 - 2.0 * phase;
+        return (int) (255.0 * level);
+    }
+
+    /**
+     * Gives the color for a smooth iteration value.
+     * @param smoothValue The smooth iteration value. For example, 17.25.
+     * @param iterationMaximum The iteration maximum. For example, 256.
+     * @return Black (0x000000) if <code>smoothValue</code> is equal to or
+     * greater than <code>iterationMaximum</code>, a mix of red, green and blue
+     * otherwise.
+     */
+    @Override
+    public int getRGB(double smoothValue, int iterationMaximum) {
+        if (smoothValue >= iterationMaximum) {
+            return 0;
+        }
+        int r = channel(smoothValue, RED_PERIOD);
+        int g = channel(smoothValue, GREEN_PERIOD);
+        int b = channel(smoothValue, BLUE_PERIOD);
+        return (r << 16) | (g << 8) | b;
+    }
+
+    /**
+     * Gives the color for a smooth iteration value in a given basin.
+     * @param smoothValue The smooth iteration value. For example, 5.5.
+     * @param basin The basin number. For example, 2.
+     * @param iterationMaximum The iteration maximum. For example, 256.
+     * @return Black (0x000000) if <code>smoothValue</code> is equal to or
+     * greater than <code>iterationMaximum</code>, otherwise the color for
+     * <code>smoothValue</code> shifted along the cycle according to
+     * <code>basin</code>.
+     */
+    @Override
+    public int getRGB(double smoothValue, int basin, int iterationMaximum) {
+        if (smoothValue >= iterationMaximum) {
+            return 0;
+        }
+        return this.getRGB(smoothValue + basin * BASIN_PHASE_SHIFT,
+                Integer.MAX_VALUE);
+    }
+
+}
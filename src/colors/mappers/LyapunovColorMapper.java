@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package colors.mappers;
+
+/**
+ * Colors Lyapunov exponents, as computed by
+ * <code>rendering.LyapunovKernel</code>, in the traditional way: stable points,
+ * with negative exponents, in shades of gold, brighter the more stable; and
+ * chaotic points, with positive exponents, in shades of blue, brighter the
+ * more chaotic. Points with an exponent of 0, at the edge of chaos, are black.
+ * The iteration maximum plays no part.
+ * @author Alonso del Arte
+ */
+public class LyapunovColorMapper extends ColorMapper {
+
+    private static final int GOLD_RED = 255;
+
+    private static final int GOLD_GREEN = 200;
+
+    private static final int GOLD_BLUE = 40;
+
+    private static final int BLUE_GREEN = 96;
+
+    private static final int BLUE_BLUE = 255;
+
+    /**
+     * Gives the color for a Lyapunov exponent.
+     * @param smoothValue The Lyapunov exponent. For example, &minus;0.5.
+     * @param iterationMaximum Ignored.
+     * @return Gold for negative exponents and blue for positive exponents,
+     * shading to black as the exponent gets closer to 0. Infinite exponents
+     * get the brightest gold or blue.
+     */
+    @Override
+    public int getRGB(double smoothValue, int iterationMaximum) {
+        double level = 1.0 - Math.exp(-Math.abs(smoothValue));
+        if (smoothValue < 0.0) {
+            return ((int) (GOLD_RED * level) << 16)
+                    | ((int) (GOLD_GREEN * level) << 8)
+                    | (int) (GOLD_BLUE * level);
+        }
+        if (smoothValue > 0.0) {
+            return ((int) (BLUE_GREEN * level) << 8)
+                    | (int) (BLUE_BLUE * level);
+        }
+        return 0;
+    }
+
+}
@@ -0,0 +1,303 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fileops;
+
+import numerics.ComplexNumber;
+import rendering.IterationData;
+import rendering.QuadraticKernel;
+import rendering.Viewport;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A saved render in raw form, so that it can be recolored later without
+ * recomputing it. The file has a 64-byte header followed by the iteration
+ * counts, as 32-bit integers, and then the smooth iteration values, as 32-bit
+ * floats, both in row-major order. Everything is little-endian. The header is
+ * laid out as follows:
+ * <table>
+ * <caption>Header fields</caption>
+ * <tr><th>Offset</th><th>Type</th><th>Field</th></tr>
+ * <tr><td>0</td><td>4 bytes</td><td>The magic number "FVID"</td></tr>
+ * <tr><td>4</td><td>int</td><td>Format version, currently 1</td></tr>
+ * <tr><td>8</td><td>int</td><td>Fractal kind: 0 for the Mandelbrot set, 1 for
+ * a Julia set</td></tr>
+ * <tr><td>12</td><td>int</td><td>Width in pixels</td></tr>
+ * <tr><td>16</td><td>int</td><td>Height in pixels</td></tr>
+ * <tr><td>20</td><td>int</td><td>Iteration maximum</td></tr>
+ * <tr><td>24</td><td>double</td><td>Real part of the top left corner</td></tr>
+ * <tr><td>32</td><td>double</td><td>Imaginary part of the top left
+ * corner</td></tr>
+ * <tr><td>40</td><td>double</td><td>Pixels per unit interval</td></tr>
+ * <tr><td>48</td><td>double</td><td>Real part of the Julia parameter, 0 for
+ * the Mandelbrot set</td></tr>
+ * <tr><td>56</td><td>double</td><td>Imaginary part of the Julia parameter, 0
+ * for the Mandelbrot set</td></tr>
+ * </table>
+ * <p>Both reading and writing go through memory mapped file channels, so the
+ * arrays are moved in bulk without any per-pixel calls. The distance
+ * estimates are not saved, so those of a read file are all 0.</p>
+ * @author Alonso del Arte
+ */
+public final class IterationDataFile {
+
+    /**
+     * The file extension, including the dot.
+     */
+    public static final String EXTENSION = ".fvid";
+
+    static final int VERSION = 1;
+
+    static final int HEADER_BYTES = 64;
+
+    private static final byte[] MAGIC = {'F', 'V', 'I', 'D'};
+
+    private static final int KIND_MANDELBROT = 0, KIND_JULIA = 1;
+
+    /**
+     * The most bytes to map at once. A multiple of 4, so that no value
+     * straddles two mappings.
+     */
+    private static final int MAXIMUM_MAPPING_BYTES = 1 << 30;
+
+    private final Viewport viewport;
+
+    private final IterationData data;
+
+    public Viewport getViewport() {
+        return this.viewport;
+    }
+
+    public IterationData getData() {
+        return this.data;
+    }
+
+    private static MappedByteBuffer map(FileChannel channel,
+            FileChannel.MapMode mode, long position, long size)
+            throws IOException {
+        MappedByteBuffer buffer = channel.map(mode, position, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    private static void writeInts(FileChannel channel, long position,
+            int[] values) throws IOException {
+        int perMapping = MAXIMUM_MAPPING_BYTES / Integer.BYTES;
+        for (int i = 0; i < values.length; i += perMapping) {
+            int count = Math.min(perMapping, values.length - i);
+            map(channel, FileChannel.MapMode.READ_WRITE,
+                    position + (long) i * Integer.BYTES,
+                    (long) count * Integer.BYTES).asIntBuffer()
+                    .put(values, i, count);
+        }
+    }
+
+    private static void writeFloats(FileChannel channel, long position,
+            float[] values) throws IOException {
+        int perMapping = MAXIMUM_MAPPING_BYTES / Float.BYTES;
+        for (int i = 0; i < values.length; i += perMapping) {
+            int count = Math.min(perMapping, values.length - i);
+            map(channel, FileChannel.MapMode.READ_WRITE,
+                    position + (long) i * Float.BYTES,
+                    (long) count * Float.BYTES).asFloatBuffer()
+                    .put(values, i, count);
+        }
+    }
+
+    private static void readInts(FileChannel channel, long position,
+            int[] values) throws IOException {
+        int perMapping = MAXIMUM_MAPPING_BYTES / Integer.BYTES;
+        for (int i = 0; i < values.length; i += perMapping) {
+            int count = Math.min(perMapping, values.length - i);
+            map(channel, FileChannel.MapMode.READ_ONLY,
+                    position + (long) i * Integer.BYTES,
+                    (long) count * Integer.BYTES).asIntBuffer()
+                    .get(values, i, count);
+        }
+    }
+
+    private static void readFloats(FileChannel channel, long position,
+            float[] values) throws IOException {
+        int perMapping = MAXIMUM_MAPPING_BYTES / Float.BYTES;
+        for (int i = 0; i < values.length; i += perMapping) {
+            int count = Math.min(perMapping, values.length - i);
+            map(channel, FileChannel.MapMode.READ_ONLY,
+                    position + (long) i * Float.BYTES,
+                    (long) count * Float.BYTES).asFloatBuffer()
+                    .get(values, i, count);
+        }
+    }
+
+    private static long fileSize(int width, int height) {
+        return HEADER_BYTES + (long) width * height
+                * (Integer.BYTES + Float.BYTES);
+    }
+
+    /**
+     * Writes this render to a file. If the file already exists, it's
+     * overwritten.
+     * @param file The file to write to. For example, "Mandelbrot Set
+     * pxui256.fvid".
+     * @throws IOException If the file can't be written to.
+     */
+    public void write(File file) throws IOException {
+        int width = this.data.getWidth();
+        int height = this.data.getHeight();
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = map(channel, FileChannel.MapMode.READ_WRITE,
+                    0, HEADER_BYTES);
+            header.put(MAGIC);
+            header.putInt(VERSION);
+            header.putInt(this.viewport.isJulia() ? KIND_JULIA
+                    : KIND_MANDELBROT);
+            header.putInt(width).putInt(height);
+            header.putInt(this.viewport.getIterationMaximum());
+            ComplexNumber corner = this.viewport.getTopLeftCorner();
+            header.putDouble(corner.getRealPart());
+            header.putDouble(corner.getImaginaryPart());
+            header.putDouble(this.viewport.getPixelsPerUnitInterval());
+            if (this.viewport.isJulia()) {
+                ComplexNumber c = this.viewport.getJuliaPoint();
+                header.putDouble(c.getRealPart());
+                header.putDouble(c.getImaginaryPart());
+            } else {
+                header.putDouble(0.0).putDouble(0.0);
+            }
+            long pixels = (long) width * height;
+            writeInts(channel, HEADER_BYTES, this.data.getIterationCounts());
+            writeFloats(channel, HEADER_BYTES + pixels * Integer.BYTES,
+                    this.data.getSmoothValues());
+        }
+    }
+
+    /**
+     * Reads a render from a file.
+     * @param file The file to read. For example, "Mandelbrot Set
+     * pxui256.fvid".
+     * @return The render, with its viewport.
+     * @throws IOException If the file can't be read, if it's not an iteration
+     * data file, if it's of a later version, or if it's truncated.
+     */
+    public static IterationDataFile read(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                String excMsg = file.getName()
+                        + " is too short to be an iteration data file";
+                throw new IOException(excMsg);
+            }
+            ByteBuffer header = map(channel, FileChannel.MapMode.READ_ONLY,
+                    0, HEADER_BYTES);
+            byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                String excMsg = file.getName()
+                        + " is not an iteration data file";
+                throw new IOException(excMsg);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                String excMsg = "Version " + version + " of " + file.getName()
+                        + " is not supported";
+                throw new IOException(excMsg);
+            }
+            int kind = header.getInt();
+            int width = header.getInt();
+            int height = header.getInt();
+            int iterMax = header.getInt();
+            double cornerRe = header.getDouble();
+            double cornerIm = header.getDouble();
+            double pxui = header.getDouble();
+            double cRe = header.getDouble();
+            double cIm = header.getDouble();
+            if (width < 1 || height < 1
+                    || channel.size() != fileSize(width, height)) {
+                String excMsg = "Size of " + file.getName()
+                        + " does not match dimensions " + width + " by "
+                        + height;
+                throw new IOException(excMsg);
+            }
+            Viewport viewport;
+            try {
+                ComplexNumber corner = new ComplexNumber(cornerRe, cornerIm);
+                switch (kind) {
+                    case KIND_MANDELBROT:
+                        viewport = Viewport.mandelbrot(corner, pxui, width,
+                                height, iterMax);
+                        break;
+                    case KIND_JULIA:
+                        viewport = Viewport.julia(corner, pxui, width, height,
+                                iterMax, new ComplexNumber(cRe, cIm));
+                        break;
+                    default:
+                        String excMsg = "Fractal kind " + kind + " of "
+                                + file.getName() + " is not recognized";
+                        throw new IOException(excMsg);
+                }
+            } catch (IllegalArgumentException iae) {
+                String excMsg = "Header of " + file.getName()
+                        + " is not valid: " + iae.getMessage();
+                throw new IOException(excMsg, iae);
+            }
+            IterationData data = new IterationData(width, height);
+            long pixels = (long) width * height;
+            readInts(channel, HEADER_BYTES, data.getIterationCounts());
+            readFloats(channel, HEADER_BYTES + pixels * Integer.BYTES,
+                    data.getSmoothValues());
+            return new IterationDataFile(viewport, data);
+        }
+    }
+
+    /**
+     * Pairs a render with the viewport it was rendered for, for writing to a
+     * file.
+     * @param viewport The viewport. For example, the default Mandelbrot view
+     * at 256 pixels per unit interval, 1080 by 640.
+     * @param data The iteration data rendered for <code>viewport</code>.
+     * @throws IllegalArgumentException If the dimensions of
+     * <code>data</code> don't match those of <code>viewport</code>, or if the
+     * viewport's formula is not <i>z</i><sup>2</sup> + <i>c</i>, the only one
+     * the header has room for.
+     */
+    public IterationDataFile(Viewport viewport, IterationData data) {
+        if (!(viewport.getKernel() instanceof QuadraticKernel)) {
+            String excMsg = "Can't save iteration data for "
+                    + viewport.getKernel().getName() + ", only for z^2 + c";
+            throw new IllegalArgumentException(excMsg);
+        }
+        if (viewport.getWidth() != data.getWidth()
+                || viewport.getHeight() != data.getHeight()) {
+            String excMsg = "Data dimensions " + data.getWidth() + " by "
+                    + data.getHeight() + " do not match viewport dimensions "
+                    + viewport.getWidth() + " by " + viewport.getHeight();
+            throw new IllegalArgumentException(excMsg);
+        }
+        this.viewport = viewport;
+        this.data = data;
+    }
+
+}
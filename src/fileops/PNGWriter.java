@@ -0,0 +1,464 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fileops;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes images as Portable Network Graphics (PNG) files, compressing in
+ * parallel. The image is split into horizontal stripes, and each stripe is
+ * filtered and deflated as an independent piece of a single zlib stream, the
+ * same way as pigz does it: every stripe but the last ends with a sync flush
+ * so that the pieces can simply be concatenated, each stripe is primed with
+ * the last 32 kilobytes of the stripe before it so that little compression is
+ * lost, and the Adler-32 checksums of the stripes are combined at the end.
+ * Stripes are written out in order as soon as they're ready, each as an IDAT
+ * chunk of its own.
+ * <p>The output is always 8-bit truecolor without alpha. In fast mode, meant
+ * for previews, every row uses the Sub filter and the fastest compression;
+ * otherwise, the filter for each row is chosen adaptively, as libpng does by
+ * default, and the given compression level is used.</p>
+ * @author Alonso del Arte
+ */
+public final class PNGWriter {
+
+    /**
+     * The default compression level, the same as zlib's default.
+     */
+    public static final int DEFAULT_COMPRESSION_LEVEL = 6;
+
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r',
+        '\n', 0x1A, '\n'};
+
+    private static final int BYTES_PER_PIXEL = 3;
+
+    /**
+     * About how many bytes of filtered image data to put in each stripe.
+     */
+    private static final int STRIPE_BYTES = 1 << 17;
+
+    /**
+     * The size of the deflate window, and so the most dictionary worth
+     * carrying over from one stripe to the next.
+     */
+    private static final int DICTIONARY_BYTES = 1 << 15;
+
+    private static final int ADLER_BASE = 65521;
+
+    private static final int FILTER_NONE = 0, FILTER_SUB = 1, FILTER_UP = 2,
+            FILTER_AVERAGE = 3, FILTER_PAETH = 4;
+
+    private final int compressionLevel;
+
+    private final boolean fastMode;
+
+    private final Executor executor;
+
+    public int getCompressionLevel() {
+        return this.compressionLevel;
+    }
+
+    public boolean isFastMode() {
+        return this.fastMode;
+    }
+
+    /**
+     * Combines the Adler-32 checksums of two consecutive pieces of data into
+     * the checksum of the whole, as zlib's <code>adler32_combine()</code>
+     * does.
+     * @param first The checksum of the first piece.
+     * @param second The checksum of the second piece.
+     * @param secondLength The length of the second piece, in bytes.
+     * @return The checksum of the first piece followed by the second.
+     */
+    static long combineAdler32(long first, long second, long secondLength) {
+        long remainder = secondLength % ADLER_BASE;
+        long sum1 = first & 0xFFFF;
+        long sum2 = (remainder * sum1) % ADLER_BASE;
+        sum1 += (second & 0xFFFF) + ADLER_BASE - 1;
+        sum2 += ((first >>> 16) & 0xFFFF) + ((second >>> 16) & 0xFFFF)
+                + ADLER_BASE - remainder;
+        sum1 %= ADLER_BASE;
+        sum2 %= ADLER_BASE;
+        return (sum2 << 16) | sum1;
+    }
+
+    private static void readRow(BufferedImage image, int y, int[] pixels,
+            byte[] row) {
+        int type = image.getType();
+        if (type == BufferedImage.TYPE_INT_RGB
+                || type == BufferedImage.TYPE_INT_ARGB) {
+            image.getRaster().getDataElements(0, y, pixels.length, 1, pixels);
+        } else {
+            image.getRGB(0, y, pixels.length, 1, pixels, 0, pixels.length);
+        }
+        for (int x = 0, i = 0; x < pixels.length; x++) {
+            int rgb = pixels[x];
+            row[i++] = (byte) (rgb >> 16);
+            row[i++] = (byte) (rgb >> 8);
+            row[i++] = (byte) rgb;
+        }
+    }
+
+    private static int paeth(int a, int b, int c) {
+        int p = a + b - c;
+        int pa = Math.abs(p - a), pb = Math.abs(p - b), pc = Math.abs(p - c);
+        if (pa <= pb && pa <= pc) {
+            return a;
+        }
+        return pb <= pc ? b : c;
+    }
+
+    private static void filterRow(int filter, byte[] row, byte[] previous,
+            byte[] out, int outOffset) {
+        out[outOffset] = (byte) filter;
+        for (int i = 0; i < row.length; i++) {
+            int raw = row[i] & 0xFF;
+            int left = i >= BYTES_PER_PIXEL ? row[i - BYTES_PER_PIXEL] & 0xFF
+                    : 0;
+            int up = previous[i] & 0xFF;
+            int upLeft = i >= BYTES_PER_PIXEL
+                    ? previous[i - BYTES_PER_PIXEL] & 0xFF : 0;
+            int predicted;
+            switch (filter) {
+                case FILTER_SUB:
+                    predicted = left;
+                    break;
+                case FILTER_UP:
+                    predicted = up;
+                    break;
+                case FILTER_AVERAGE:
+                    predicted = (left + up) >>> 1;
+                    break;
+                case FILTER_PAETH:
+                    predicted = paeth(left, up, upLeft);
+                    break;
+                default:
+                    predicted = 0;
+            }
+            out[outOffset + 1 + i] = (byte) (raw - predicted);
+        }
+    }
+
+    private static long sumOfAbsolutes(byte[] data, int offset, int length) {
+        long sum = 0L;
+        for (int i = offset + 1; i < offset + length; i++) {
+            sum += Math.abs((int) data[i]);
+        }
+        return sum;
+    }
+
+    /**
+     * Filters the rows of one stripe into a new array. Each row is preceded by
+     * its filter type byte.
+     */
+    private byte[] filterStripe(BufferedImage image, int y0, int y1) {
+        int width = image.getWidth();
+        int rowBytes = width * BYTES_PER_PIXEL;
+        int[] pixels = new int[width];
+        byte[] row = new byte[rowBytes];
+        byte[] previous = new byte[rowBytes];
+        if (y0 > 0) {
+            readRow(image, y0 - 1, pixels, previous);
+        }
+        byte[] filtered = new byte[(y1 - y0) * (rowBytes + 1)];
+        byte[] candidate = this.fastMode ? null : new byte[rowBytes + 1];
+        for (int y = y0; y < y1; y++) {
+            readRow(image, y, pixels, row);
+            int offset = (y - y0) * (rowBytes + 1);
+            if (this.fastMode) {
+                filterRow(FILTER_SUB, row, previous, filtered, offset);
+            } else {
+                filterRow(FILTER_NONE, row, previous, filtered, offset);
+                long best = sumOfAbsolutes(filtered, offset, rowBytes + 1);
+                for (int filter = FILTER_SUB; filter <= FILTER_PAETH;
+                        filter++) {
+                    filterRow(filter, row, previous, candidate, 0);
+                    long sum = sumOfAbsolutes(candidate, 0, rowBytes + 1);
+                    if (sum < best) {
+                        best = sum;
+                        System.arraycopy(candidate, 0, filtered, offset,
+                                rowBytes + 1);
+                    }
+                }
+            }
+            byte[] swap = previous;
+            previous = row;
+            row = swap;
+        }
+        return filtered;
+    }
+
+    private static final class Stripe {
+
+        private final byte[] compressed;
+
+        private final long adler;
+
+        private final int length;
+
+        Stripe(byte[] compressed, long adler, int length) {
+            this.compressed = compressed;
+            this.adler = adler;
+            this.length = length;
+        }
+
+    }
+
+    private Stripe deflateStripe(byte[] filtered, byte[] previousFiltered,
+            boolean last) {
+        Deflater deflater = new Deflater(this.fastMode
+                ? Deflater.BEST_SPEED : this.compressionLevel, true);
+        try {
+            if (previousFiltered != null) {
+                int dictionaryLength = Math.min(DICTIONARY_BYTES,
+                        previousFiltered.length);
+                deflater.setDictionary(previousFiltered,
+                        previousFiltered.length - dictionaryLength,
+                        dictionaryLength);
+            }
+            deflater.setInput(filtered);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(
+                    filtered.length / 4 + 64);
+            byte[] buffer = new byte[1 << 16];
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    int count = deflater.deflate(buffer);
+                    out.write(buffer, 0, count);
+                }
+            } else {
+                int count;
+                do {
+                    count = deflater.deflate(buffer, 0, buffer.length,
+                            Deflater.SYNC_FLUSH);
+                    out.write(buffer, 0, count);
+                } while (count == buffer.length);
+            }
+            Adler32 adler = new Adler32();
+            adler.update(filtered);
+            return new Stripe(out.toByteArray(), adler.getValue(),
+                    filtered.length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void writeFully(WritableByteChannel channel,
+            ByteBuffer... buffers) throws IOException {
+        for (ByteBuffer buffer : buffers) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    private static void writeChunk(WritableByteChannel channel, String type,
+            byte[] prefix, byte[] data, byte[] suffix) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(prefix);
+        crc.update(data);
+        crc.update(suffix);
+        ByteBuffer header = ByteBuffer.allocate(8);
+        header.putInt(prefix.length + data.length + suffix.length);
+        header.put(typeBytes);
+        header.flip();
+        ByteBuffer trailer = ByteBuffer.allocate(4);
+        trailer.putInt((int) crc.getValue());
+        trailer.flip();
+        writeFully(channel, header, ByteBuffer.wrap(prefix),
+                ByteBuffer.wrap(data), ByteBuffer.wrap(suffix), trailer);
+    }
+
+    private byte[] zlibHeader() {
+        int levelFlag;
+        if (this.fastMode || this.compressionLevel < 2) {
+            levelFlag = 0;
+        } else if (this.compressionLevel < 6) {
+            levelFlag = 1;
+        } else if (this.compressionLevel == 6) {
+            levelFlag = 2;
+        } else {
+            levelFlag = 3;
+        }
+        int cmf = 0x78;
+        int flg = levelFlag << 6;
+        flg += 31 - ((cmf << 8) + flg) % 31;
+        return new byte[]{(byte) cmf, (byte) flg};
+    }
+
+    /**
+     * Writes an image in PNG format to a channel. The channel is not closed.
+     * @param image The image to write. For example, a 1080 by 640 rendering of
+     * the Mandelbrot set.
+     * @param channel The channel to write to.
+     * @throws IOException If the channel can't be written to, or if the
+     * compression fails.
+     */
+    public void write(BufferedImage image, WritableByteChannel channel)
+            throws IOException {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int rowBytes = width * BYTES_PER_PIXEL + 1;
+        int rowsPerStripe = Math.max(1, STRIPE_BYTES / rowBytes);
+        int stripeCount = (height + rowsPerStripe - 1) / rowsPerStripe;
+        List<CompletableFuture<byte[]>> filtered = new ArrayList<>();
+        for (int i = 0; i < stripeCount; i++) {
+            int y0 = i * rowsPerStripe;
+            int y1 = Math.min(y0 + rowsPerStripe, height);
+            filtered.add(CompletableFuture.supplyAsync(()
+                    -> this.filterStripe(image, y0, y1), this.executor));
+        }
+        List<CompletableFuture<Stripe>> stripes = new ArrayList<>();
+        for (int i = 0; i < stripeCount; i++) {
+            boolean last = i == stripeCount - 1;
+            if (i == 0) {
+                stripes.add(filtered.get(0).thenApplyAsync(data
+                        -> this.deflateStripe(data, null, last),
+                        this.executor));
+            } else {
+                stripes.add(filtered.get(i).thenCombineAsync(
+                        filtered.get(i - 1), (data, previous)
+                                -> this.deflateStripe(data, previous, last),
+                        this.executor));
+            }
+        }
+        ByteBuffer header = ByteBuffer.allocate(13);
+        header.putInt(width).putInt(height);
+        header.put((byte) 8).put((byte) 2).put((byte) 0).put((byte) 0)
+                .put((byte) 0);
+        byte[] none = new byte[0];
+        writeFully(channel, ByteBuffer.wrap(SIGNATURE));
+        writeChunk(channel, "IHDR", none, header.array(), none);
+        long adler = 1L;
+        try {
+            for (int i = 0; i < stripeCount; i++) {
+                Stripe stripe = stripes.get(i).join();
+                adler = combineAdler32(adler, stripe.adler, stripe.length);
+                byte[] prefix = i == 0 ? this.zlibHeader() : none;
+                byte[] suffix = none;
+                if (i == stripeCount - 1) {
+                    suffix = ByteBuffer.allocate(4).putInt((int) adler)
+                            .array();
+                }
+                writeChunk(channel, "IDAT", prefix, stripe.compressed, suffix);
+            }
+        } catch (CompletionException ce) {
+            throw new IOException("Compression failed", ce.getCause());
+        }
+        writeChunk(channel, "IEND", none, none, none);
+    }
+
+    /**
+     * Writes an image to a PNG file, through a file channel. If the file
+     * already exists, it's overwritten.
+     * @param image The image to write.
+     * @param file The file to write to. For example, "Mandelbrot Set
+     * pxui256.png".
+     * @throws IOException If the file can't be written to.
+     */
+    public void write(BufferedImage image, File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            this.write(image, channel);
+        }
+    }
+
+    /**
+     * Encodes an image in PNG format in memory.
+     * @param image The image to encode.
+     * @return The contents of the PNG file.
+     */
+    public byte[] encode(BufferedImage image) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            this.write(image, Channels.newChannel(out));
+        } catch (IOException ioe) {
+            // Writing to memory doesn't fail for I/O reasons
+            throw new IllegalStateException(ioe);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Gives a writer in fast mode, for previews, on the common fork/join pool.
+     * @return A writer that uses the Sub filter and the fastest compression.
+     */
+    public static PNGWriter forPreviews() {
+        return new PNGWriter(Deflater.BEST_SPEED, true,
+                ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a writer with the default compression level, on the common
+     * fork/join pool.
+     */
+    public PNGWriter() {
+        this(DEFAULT_COMPRESSION_LEVEL, false, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a writer.
+     * @param compressionLevel The compression level, from 0 (no compression)
+     * to 9 (best compression). Ignored in fast mode. For example, 6.
+     * @param fastMode Whether to favor speed over size, as for previews.
+     * @param executor The executor to compress the stripes on. For example,
+     * the common fork/join pool.
+     * @throws IllegalArgumentException If <code>compressionLevel</code> is
+     * not from 0 to 9.
+     * @throws NullPointerException If <code>executor</code> is null.
+     */
+    public PNGWriter(int compressionLevel, boolean fastMode,
+            Executor executor) {
+        if (compressionLevel < Deflater.NO_COMPRESSION
+                || compressionLevel > Deflater.BEST_COMPRESSION) {
+            String excMsg = "Compression level " + compressionLevel
+                    + " is not valid";
+            throw new IllegalArgumentException(excMsg);
+        }
+        if (executor == null) {
+            String excMsg = "Executor must not be null";
+            throw new NullPointerException(excMsg);
+        }
+        this.compressionLevel = compressionLevel;
+        this.fastMode = fastMode;
+        this.executor = executor;
+    }
+
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package formulas;
+
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes a class file with a constant pool and methods, and no fields,
+ * interfaces or attributes other than <code>Code</code>. The class file
+ * version is 49 (Java 5), the last one for which the virtual machine infers
+ * the types of local variables and stack entries by itself, so the methods
+ * need no stack map frames.
+ * @author Alonso del Arte
+ */
+final class ClassFileWriter {
+
+    private static final int MAJOR_VERSION = 49;
+
+    static final int ACC_PUBLIC = 0x0001;
+
+    static final int ACC_PRIVATE = 0x0002;
+
+    static final int ACC_PROTECTED = 0x0004;
+
+    static final int ACC_STATIC = 0x0008;
+
+    static final int ACC_FINAL = 0x0010;
+
+    private static final int ACC_SUPER = 0x0020;
+
+    private static final int CONSTANT_UTF8 = 1;
+
+    private static final int CONSTANT_DOUBLE = 6;
+
+    private static final int CONSTANT_CLASS = 7;
+
+    private static final int CONSTANT_STRING = 8;
+
+    private static final int CONSTANT_METHODREF = 10;
+
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+
+    private final Map<String, Integer> poolIndices = new HashMap<>();
+
+    private int poolCount = 1;
+
+    private final ByteArrayOutputStream methods = new ByteArrayOutputStream();
+
+    private int methodCount = 0;
+
+    private final int thisClass, superClass, codeName;
+
+    static void u1(ByteArrayOutputStream out, int value) {
+        out.write(value);
+    }
+
+    static void u2(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    static void u4(ByteArrayOutputStream out, int value) {
+        u2(out, value >>> 16);
+        u2(out, value);
+    }
+
+    private int poolEntry(String key, int tag, byte[] contents, int slots) {
+        Integer existing = this.poolIndices.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        int index = this.poolCount;
+        if (index + slots > 0xFFFF) {
+            String excMsg = "Constant pool is full";
+            throw new IllegalStateException(excMsg);
+        }
+        u1(this.pool, tag);
+        this.pool.write(contents, 0, contents.length);
+        this.poolCount += slots;
+        this.poolIndices.put(key, index);
+        return index;
+    }
+
+    private static byte[] u2Bytes(int value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(2);
+        u2(out, value);
+        return out.toByteArray();
+    }
+
+    private static byte[] u2u2(int first, int second) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4);
+        u2(out, first);
+        u2(out, second);
+        return out.toByteArray();
+    }
+
+    /**
+     * Adds a <code>CONSTANT_Utf8</code> entry. The names and descriptors this
+     * class is used with are ASCII, for which modified UTF-8 is plain ASCII.
+     * @param text The text. For example, "iterate".
+     * @return The index of the entry.
+     */
+    int utf8(String text) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        u2(out, text.length());
+        for (int i = 0; i < text.length(); i++) {
+            u1(out, text.charAt(i));
+        }
+        return this.poolEntry("U" + text, CONSTANT_UTF8, out.toByteArray(),
+                1);
+    }
+
+    int classRef(String internalName) {
+        int nameIndex = this.utf8(internalName);
+        return this.poolEntry("C" + internalName, CONSTANT_CLASS,
+                u2Bytes(nameIndex), 1);
+    }
+
+    int string(String text) {
+        int textIndex = this.utf8(text);
+        return this.poolEntry("S" + text, CONSTANT_STRING, u2Bytes(textIndex),
+                1);
+    }
+
+    /**
+     * Adds a <code>CONSTANT_Double</code> entry, which takes up two indices of
+     * the constant pool.
+     * @param value The value. For example, 65536.0.
+     * @return The index of the entry, for the <code>ldc2_w</code> instruction.
+     */
+    int doubleConstant(double value) {
+        long bits = Double.doubleToRawLongBits(value);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8);
+        u4(out, (int) (bits >>> 32));
+        u4(out, (int) bits);
+        return this.poolEntry("D" + bits, CONSTANT_DOUBLE, out.toByteArray(),
+                2);
+    }
+
+    int methodRef(String owner, String name, String descriptor) {
+        int classIndex = this.classRef(owner);
+        int nameIndex = this.utf8(name);
+        int descriptorIndex = this.utf8(descriptor);
+        int nameAndType = this.poolEntry("N" + name + descriptor,
+                CONSTANT_NAME_AND_TYPE, u2u2(nameIndex, descriptorIndex), 1);
+        return this.poolEntry("M" + owner + "." + name + descriptor,
+                CONSTANT_METHODREF, u2u2(classIndex, nameAndType), 1);
+    }
+
+    /**
+     * Adds a method.
+     * @param access The access flags. For example, {@link #ACC_PUBLIC}.
+     * @param name The name. For example, "iterate".
+     * @param descriptor The descriptor. For example, "()V".
+     * @param maxStack The most stack words the code uses at any point.
+     * @param maxLocals How many local variable slots the code uses, counting
+     * <code>this</code> and the parameters.
+     * @param code The bytecode.
+     */
+    void addMethod(int access, String name, String descriptor, int maxStack,
+            int maxLocals, byte[] code) {
+        u2(this.methods, access);
+        u2(this.methods, this.utf8(name));
+        u2(this.methods, this.utf8(descriptor));
+        u2(this.methods, 1);
+        u2(this.methods, this.codeName);
+        u4(this.methods, 12 + code.length);
+        u2(this.methods, maxStack);
+        u2(this.methods, maxLocals);
+        u4(this.methods, code.length);
+        this.methods.write(code, 0, code.length);
+        u2(this.methods, 0);
+        u2(this.methods, 0);
+        this.methodCount++;
+    }
+
+    byte[] toByteArray() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(
+                this.pool.size() + this.methods.size() + 32);
+        u4(out, 0xCAFEBABE);
+        u2(out, 0);
+        u2(out, MAJOR_VERSION);
+        u2(out, this.poolCount);
+        out.write(this.pool.toByteArray(), 0, this.pool.size());
+        u2(out, ACC_PUBLIC | ACC_FINAL | ACC_SUPER);
+        u2(out, this.thisClass);
+        u2(out, this.superClass);
+        u2(out, 0);
+        u2(out, 0);
+        u2(out, this.methodCount);
+        out.write(this.methods.toByteArray(), 0, this.methods.size());
+        u2(out, 0);
+        return out.toByteArray();
+    }
+
+    /**
+     * Starts a class file for a public final class.
+     * @param internalName The name of the class, with slashes. For example,
+     * "formulas/GeneratedKernel1".
+     * @param superName The name of the superclass, with slashes. For example,
+     * "formulas/CompiledKernel".
+     */
+    ClassFileWriter(String internalName, String superName) {
+        this.thisClass = this.classRef(internalName);
+        this.superClass = this.classRef(superName);
+        this.codeName = this.utf8("Code");
+    }
+
+}
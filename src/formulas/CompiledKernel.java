@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package formulas;
+
+import rendering.FractalKernel;
+
+/**
+ * The superclass of the kernels generated by {@link FormulaCompiler}. Like
+ * the hand-written kernels, each generated subclass has a private static
+ * method that iterates a single point, as straight-line arithmetic on
+ * primitive doubles, and its own <code>mandelbrot()</code>,
+ * <code>julia()</code> and <code>renderRegion()</code> that call it. So the
+ * call inside the pixel loop of each generated kernel has just the one target
+ * and gets inlined, however many custom formulas are in use.
+ * <p>This class supplies the name of the formula and equality by name.</p>
+ * @author Alonso del Arte
+ */
+public abstract class CompiledKernel extends FractalKernel {
+
+    private final String name;
+
+    /**
+     * Gives the formula of this kernel.
+     * @return The formula in canonical form. For example, "z^3 - z + c".
+     */
+    @Override
+    public final String getName() {
+        return this.name;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof CompiledKernel
+                && ((CompiledKernel) obj).name.equals(this.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.name.hashCode();
+    }
+
+    /**
+     * Sets the name of the kernel. Only the generated subclasses call this.
+     * @param name The formula in canonical form. For example, "z^3 - z + c".
+     */
+    protected CompiledKernel(String name) {
+        this.name = name;
+    }
+
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package formulas;
+
+/**
+ * A node of a parsed formula: a variable, a complex constant, a negation, a
+ * sum, difference, product or quotient of two nodes, or a node raised to a
+ * whole number power. The factory functions fold constant operands right
+ * away, so that a constant like &minus;0.75 + 0.1<i>i</i> ends up as a single
+ * node rather than as a tree to be evaluated on every iteration.
+ * @author Alonso del Arte
+ */
+final class Expression {
+
+    static final char Z = 'z';
+
+    static final char C = 'c';
+
+    static final char CONSTANT = 'k';
+
+    static final char NEGATE = 'n';
+
+    static final char PLUS = '+';
+
+    static final char MINUS = '-';
+
+    static final char TIMES = '*';
+
+    static final char DIVIDE = '/';
+
+    static final char POWER = '^';
+
+    final char kind;
+
+    final Expression left, right;
+
+    final double re, im;
+
+    final int exponent;
+
+    boolean isConstant() {
+        return this.kind == CONSTANT;
+    }
+
+    /**
+     * Gives the degree of this expression as a polynomial in <i>z</i>, taking
+     * a quotient to have the degree of the numerator minus the degree of the
+     * denominator. This is what determines how fast an orbit escapes to
+     * infinity, and so what base of logarithm gives smooth iteration values.
+     * @return The degree. For example, 3 for <i>z</i><sup>3</sup> &minus;
+     * <i>z</i> + <i>c</i>.
+     */
+    int degree() {
+        switch (this.kind) {
+            case Z:
+                return 1;
+            case C:
+            case CONSTANT:
+                return 0;
+            case NEGATE:
+                return this.left.degree();
+            case PLUS:
+            case MINUS:
+                return Math.max(this.left.degree(), this.right.degree());
+            case TIMES:
+                return this.left.degree() + this.right.degree();
+            case DIVIDE:
+                return this.left.degree() - this.right.degree();
+            default:
+                return this.left.degree() * this.exponent;
+        }
+    }
+
+    private int precedence() {
+        switch (this.kind) {
+            case PLUS:
+            case MINUS:
+                return 1;
+            case TIMES:
+            case DIVIDE:
+                return 2;
+            case NEGATE:
+                return 3;
+            case POWER:
+                return 4;
+            case CONSTANT:
+                if (this.re != 0.0 && this.im != 0.0) {
+                    return 1;
+                }
+                return (this.re < 0.0 || this.im < 0.0) ? 3 : 5;
+            default:
+                return 5;
+        }
+    }
+
+    private static String format(double x) {
+        if (x == Math.rint(x) && Math.abs(x) < 1.0E15) {
+            return Long.toString((long) x);
+        }
+        return Double.toString(x);
+    }
+
+    private static String formatConstant(double re, double im) {
+        if (im == 0.0) {
+            return format(re);
+        }
+        String imagPart;
+        if (Math.abs(im) == 1.0) {
+            imagPart = "i";
+        } else {
+            imagPart = format(Math.abs(im)) + "i";
+        }
+        if (re == 0.0) {
+            return (im < 0.0 ? "-" : "") + imagPart;
+        }
+        return format(re) + (im < 0.0 ? " - " : " + ") + imagPart;
+    }
+
+    private static String wrap(Expression operand, boolean parenthesize) {
+        return parenthesize ? "(" + operand + ")" : operand.toString();
+    }
+
+    /**
+     * Writes this expression in a canonical form, with spaces around the
+     * additive and multiplicative operators and no redundant parentheses.
+     * Two formulas that differ only in spacing or in redundant parentheses
+     * have the same canonical form.
+     * @return The canonical form, in ASCII. For example, "z^3 - z + c".
+     */
+    @Override
+    public String toString() {
+        int precedence = this.precedence();
+        switch (this.kind) {
+            case Z:
+            case C:
+                return Character.toString(this.kind);
+            case CONSTANT:
+                return formatConstant(this.re, this.im);
+            case NEGATE:
+                return "-" + wrap(this.left,
+                        this.left.precedence() < precedence);
+            case POWER:
+                return wrap(this.left, this.left.precedence() <= precedence)
+                        + "^" + this.exponent;
+            default:
+                return wrap(this.left, this.left.precedence() < precedence)
+                        + " " + this.kind + " "
+                        + wrap(this.right,
+                                this.right.precedence() <= precedence);
+        }
+    }
+
+    private Expression(char kind, Expression left, Expression right,
+            double re, double im, int exponent) {
+        this.kind = kind;
+        this.left = left;
+        this.right = right;
+        this.re = re;
+        this.im = im;
+        this.exponent = exponent;
+    }
+
+    static Expression variable(char name) {
+        return new Expression(name, null, null, 0.0, 0.0, 0);
+    }
+
+    /**
+     * Creates a constant node.
+     * @param re The real part. For example, &minus;0.75.
+     * @param im The imaginary part. For example, 0.1.
+     * @return A new constant node.
+     * @throws ArithmeticException If either part is not finite, as happens
+     * when a constant is divided by 0.
+     */
+    static Expression constant(double re, double im) {
+        if (!Double.isFinite(re) || !Double.isFinite(im)) {
+            String excMsg = "Constant " + re + " + " + im + "i is not finite";
+            throw new ArithmeticException(excMsg);
+        }
+        return new Expression(CONSTANT, null, null, re, im, 0);
+    }
+
+    static Expression negate(Expression operand) {
+        if (operand.isConstant()) {
+            return constant(-operand.re, -operand.im);
+        }
+        return new Expression(NEGATE, operand, null, 0.0, 0.0, 0);
+    }
+
+    /**
+     * Creates a node for a binary operation, or a constant node if both
+     * operands are constants.
+     * @param operator One of {@link #PLUS}, {@link #MINUS}, {@link #TIMES}
+     * and {@link #DIVIDE}.
+     * @param left The left operand.
+     * @param right The right operand.
+     * @return A new node.
+     * @throws ArithmeticException If both operands are constants and the
+     * right one is 0 for division.
+     */
+    static Expression binary(char operator, Expression left,
+            Expression right) {
+        if (left.isConstant() && right.isConstant()) {
+            double a = left.re, b = left.im, c = right.re, d = right.im;
+            switch (operator) {
+                case PLUS:
+                    return constant(a + c, b + d);
+                case MINUS:
+                    return constant(a - c, b - d);
+                case TIMES:
+                    return constant(a * c - b * d, a * d + b * c);
+                default:
+                    double norm = c * c + d * d;
+                    return constant((a * c + b * d) / norm,
+                            (b * c - a * d) / norm);
+            }
+        }
+        return new Expression(operator, left, right, 0.0, 0.0, 0);
+    }
+
+    static Expression power(Expression base, int exponent) {
+        if (base.isConstant()) {
+            Expression result = constant(1.0, 0.0);
+            for (int k = 0; k < exponent; k++) {
+                result = binary(TIMES, result, base);
+            }
+            return result;
+        }
+        return new Expression(POWER, base, null, 0.0, 0.0, exponent);
+    }
+
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package formulas;
+
+/**
+ * An iteration formula in <i>z</i> and <i>c</i>, such as
+ * <i>z</i><sup>3</sup> &minus; <i>z</i> + <i>c</i>, parsed from text. The
+ * grammar has the variables <code>z</code> and <code>c</code>, the imaginary
+ * unit <code>i</code>, decimal numbers, imaginary numbers like
+ * <code>0.5i</code>, the operators <code>+ - * /</code>,
+ * whole number powers with <code>^</code> and parentheses. A product may be
+ * written without the asterisk, as in <code>2z^2</code> or
+ * <code>z(z + c)</code>. Negation binds less tightly than a power, so
+ * <code>-z^2</code> is &minus;(<i>z</i><sup>2</sup>).
+ * <p>To be an escape-time formula, the formula must have degree at least 2 in
+ * <i>z</i>, counting the degree of a quotient as the degree of the numerator
+ * minus the degree of the denominator.</p>
+ * @author Alonso del Arte
+ */
+public final class Formula {
+
+    /**
+     * The highest power allowed after <code>^</code>.
+     */
+    public static final int MAXIMUM_EXPONENT = 64;
+
+    private final Expression expression;
+
+    private final String canonicalText;
+
+    private final int degree;
+
+    Expression getExpression() {
+        return this.expression;
+    }
+
+    /**
+     * Gives the degree of this formula in <i>z</i>.
+     * @return The degree, at least 2. For example, 3 for
+     * <i>z</i><sup>3</sup> &minus; <i>z</i> + <i>c</i>.
+     */
+    public int getDegree() {
+        return this.degree;
+    }
+
+    /**
+     * Gives this formula in canonical form.
+     * @return The formula with spaces around <code>+ - * /</code> and without
+     * redundant parentheses. For example, "z^3 - z + c" for a formula that was
+     * parsed from "(z^3)-z+c".
+     */
+    @Override
+    public String toString() {
+        return this.canonicalText;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Formula
+                && ((Formula) obj).canonicalText.equals(this.canonicalText);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.canonicalText.hashCode();
+    }
+
+    private Formula(Expression expression) {
+        this.expression = expression;
+        this.canonicalText = expression.toString();
+        this.degree = expression.degree();
+    }
+
+    /**
+     * Parses a formula.
+     * @param text The formula. For example, "z^3 - z + c".
+     * @return The parsed formula.
+     * @throws IllegalArgumentException If the text can't be parsed, or if the
+     * formula's degree in <i>z</i> is less than 2. The exception message gives
+     * the position of the problem, for display to the user.
+     */
+    public static Formula parse(String text) {
+        Parser parser = new Parser(text);
+        Expression expression = parser.parseSum();
+        parser.skipWhitespace();
+        if (parser.position < text.length()) {
+            throw parser.unexpected();
+        }
+        Formula formula = new Formula(expression);
+        if (formula.degree < 2) {
+            String excMsg = "Formula " + formula + " has degree "
+                    + formula.degree + " in z, but needs degree 2 or more";
+            throw new IllegalArgumentException(excMsg);
+        }
+        return formula;
+    }
+
+    /**
+     * A recursive descent parser, one function per level of precedence.
+     */
+    private static final class Parser {
+
+        private final String text;
+
+        private int position = 0;
+
+        private void skipWhitespace() {
+            while (this.position < this.text.length()
+                    && Character.isWhitespace(this.text.charAt(this.position))) {
+                this.position++;
+            }
+        }
+
+        private char peek() {
+            this.skipWhitespace();
+            return this.position < this.text.length()
+                    ? this.text.charAt(this.position) : '\0';
+        }
+
+        private IllegalArgumentException unexpected() {
+            String excMsg;
+            if (this.position < this.text.length()) {
+                excMsg = "Unexpected '" + this.text.charAt(this.position)
+                        + "' at position " + (this.position + 1)
+                        + " of formula " + this.text;
+            } else {
+                excMsg = "Unexpected end of formula " + this.text;
+            }
+            return new IllegalArgumentException(excMsg);
+        }
+
+        private static boolean isDigit(char ch) {
+            return ch >= '0' && ch <= '9';
+        }
+
+        private static boolean startsFactor(char ch) {
+            return ch == 'z' || ch == 'c' || ch == 'i' || ch == '('
+                    || ch == '.' || isDigit(ch);
+        }
+
+        private Expression combine(char operator, Expression left,
+                Expression right, int operatorPosition) {
+            try {
+                return Expression.binary(operator, left, right);
+            } catch (ArithmeticException ae) {
+                this.position = operatorPosition;
+                String excMsg = "Division by zero at position "
+                        + (operatorPosition + 1) + " of formula " + this.text;
+                throw new IllegalArgumentException(excMsg, ae);
+            }
+        }
+
+        private Expression parseSum() {
+            Expression sum = this.parseProduct();
+            char ch = this.peek();
+            while (ch == '+' || ch == '-') {
+                int operatorPosition = this.position++;
+                sum = this.combine(ch, sum, this.parseProduct(),
+                        operatorPosition);
+                ch = this.peek();
+            }
+            return sum;
+        }
+
+        private Expression parseProduct() {
+            Expression product = this.parseUnary();
+            char ch = this.peek();
+            while (ch == '*' || ch == '/' || startsFactor(ch)) {
+                int operatorPosition = this.position;
+                Expression factor;
+                if (startsFactor(ch)) {
+                    factor = this.parsePower();
+                    ch = '*';
+                } else {
+                    this.position++;
+                    factor = this.parseUnary();
+                }
+                product = this.combine(ch, product, factor, operatorPosition);
+                ch = this.peek();
+            }
+            return product;
+        }
+
+        private Expression parseUnary() {
+            char ch = this.peek();
+            if (ch == '-') {
+                this.position++;
+                return Expression.negate(this.parseUnary());
+            }
+            if (ch == '+') {
+                this.position++;
+                return this.parseUnary();
+            }
+            return this.parsePower();
+        }
+
+        private Expression parsePower() {
+            Expression base = this.parsePrimary();
+            if (this.peek() != '^') {
+                return base;
+            }
+            this.position++;
+            this.skipWhitespace();
+            int start = this.position;
+            while (this.position < this.text.length()
+                    && this.position - start < 3
+                    && isDigit(this.text.charAt(this.position))) {
+                this.position++;
+            }
+            if (this.position == start || (this.position < this.text.length()
+                    && this.text.charAt(this.position) == '.')) {
+                throw this.unexpected();
+            }
+            int exponent = Integer.parseInt(this.text.substring(start,
+                    this.position));
+            if (exponent > MAXIMUM_EXPONENT) {
+                String excMsg = "Exponent " + exponent + " at position "
+                        + (start + 1) + " exceeds maximum "
+                        + MAXIMUM_EXPONENT;
+                throw new IllegalArgumentException(excMsg);
+            }
+            return Expression.power(base, exponent);
+        }
+
+        private Expression parseNumber() {
+            int start = this.position;
+            int length = this.text.length();
+            while (this.position < length
+                    && (isDigit(this.text.charAt(this.position))
+                    || this.text.charAt(this.position) == '.')) {
+                this.position++;
+            }
+            if (this.position + 1 < length
+                    && (this.text.charAt(this.position) == 'e'
+                    || this.text.charAt(this.position) == 'E')) {
+                int mark = this.position++;
+                char sign = this.text.charAt(this.position);
+                if (sign == '+' || sign == '-') {
+                    this.position++;
+                }
+                int digitsStart = this.position;
+                while (this.position < length
+                        && isDigit(this.text.charAt(this.position))) {
+                    this.position++;
+                }
+                if (this.position == digitsStart) {
+                    this.position = mark;
+                }
+            }
+            try {
+                double value = Double.parseDouble(this.text.substring(start,
+                        this.position));
+                if (this.position < length
+                        && this.text.charAt(this.position) == 'i') {
+                    this.position++;
+                    return Expression.constant(0.0, value);
+                }
+                return Expression.constant(value, 0.0);
+            } catch (NumberFormatException | ArithmeticException e) {
+                this.position = start;
+                String excMsg = "Invalid number at position " + (start + 1)
+                        + " of formula " + this.text;
+                throw new IllegalArgumentException(excMsg, e);
+            }
+        }
+
+        private Expression parsePrimary() {
+            char ch = this.peek();
+            switch (ch) {
+                case 'z':
+                case 'c':
+                    this.position++;
+                    return Expression.variable(ch);
+                case 'i':
+                    this.position++;
+                    return Expression.constant(0.0, 1.0);
+                case '(':
+                    this.position++;
+                    Expression inner = this.parseSum();
+                    if (this.peek() != ')') {
+                        throw this.unexpected();
+                    }
+                    this.position++;
+                    return inner;
+                default:
+                    if (ch == '.' || isDigit(ch)) {
+                        return this.parseNumber();
+                    }
+                    throw this.unexpected();
+            }
+        }
+
+        private Parser(String text) {
+            this.text = text;
+        }
+
+    }
+
+}
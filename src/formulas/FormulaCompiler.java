@@ -0,0 +1,820 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package formulas;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import rendering.EscapeTime;
+
+/**
+ * Compiles formulas to kernels at runtime. The formula is expanded into
+ * real and imaginary operations on primitive doubles, together with the
+ * derivative by the chain rule for the distance estimates, and written as the
+ * bytecode of a static method of a subclass of {@link CompiledKernel}, whose
+ * <code>mandelbrot()</code>, <code>julia()</code> and
+ * <code>renderRegion()</code> call it. The JIT compiler then treats a custom
+ * formula like any of the hand-written kernels: there is no expression tree
+ * to walk, no object allocation in the iteration loop, and the call in the
+ * pixel loop goes to the one formula of the class.
+ * <p>Operations on constants are done at compile time, and operations with 0
+ * or 1 are left out, so <code>z^2 + c</code> compiles to the same arithmetic
+ * as {@link rendering.QuadraticKernel} for <i>z</i>. Powers are computed by
+ * repeated squaring.</p>
+ * <p>Each compiled class gets its own class loader, so it can be unloaded
+ * once no longer in use. Compiled kernels are cached by canonical formula,
+ * so compiling the same formula again, however it's spaced, gives the same
+ * kernel for as long as the kernel is in use. The cache only holds the
+ * kernels weakly, so that it doesn't keep them from being unloaded.</p>
+ * @author Alonso del Arte
+ */
+public final class FormulaCompiler {
+
+    private static final String SUPERCLASS = "formulas/CompiledKernel";
+
+    private static final String CLASS_NAME_PREFIX = "formulas/GeneratedKernel";
+
+    private static final String ITERATE_DESCRIPTOR
+            = "(DDDDDDDILrendering/IterationData;I)V";
+
+    private static final String VIEWPORT = "rendering/Viewport";
+
+    private static final String ITERATION_DATA = "rendering/IterationData";
+
+    private static final AtomicInteger CLASS_NUMBERS = new AtomicInteger();
+
+    private static final Map<Formula, WeakReference<CompiledKernel>> CACHE
+            = new HashMap<>();
+
+    private static final int ICONST_0 = 0x03;
+
+    private static final int DCONST_0 = 0x0E;
+
+    private static final int DCONST_1 = 0x0F;
+
+    private static final int LDC_W = 0x13;
+
+    private static final int LDC2_W = 0x14;
+
+    private static final int ILOAD = 0x15;
+
+    private static final int DLOAD = 0x18;
+
+    private static final int ALOAD = 0x19;
+
+    private static final int ALOAD_0 = 0x2A;
+
+    private static final int ISTORE = 0x36;
+
+    private static final int DSTORE = 0x39;
+
+    private static final int IADD = 0x60;
+
+    private static final int DADD = 0x63;
+
+    private static final int DSUB = 0x67;
+
+    private static final int IMUL = 0x68;
+
+    private static final int DMUL = 0x6B;
+
+    private static final int DDIV = 0x6F;
+
+    private static final int DNEG = 0x77;
+
+    private static final int IINC = 0x84;
+
+    private static final int I2D = 0x87;
+
+    private static final int DCMPG = 0x98;
+
+    private static final int IFEQ = 0x99;
+
+    private static final int IFGE = 0x9C;
+
+    private static final int IF_ICMPGE = 0xA2;
+
+    private static final int GOTO = 0xA7;
+
+    private static final int RETURN = 0xB1;
+
+    private static final int INVOKEVIRTUAL = 0xB6;
+
+    private static final int INVOKESPECIAL = 0xB7;
+
+    private static final int INVOKESTATIC = 0xB8;
+
+    private static final int WIDE = 0xC4;
+
+    // Local variable slots of the static iterate()
+    private static final int Z_RE = 0, Z_IM = 2, DZ_RE = 4, DZ_IM = 6;
+
+    private static final int DC_RE = 8, C_RE = 10, C_IM = 12;
+
+    private static final int ITER_MAX = 14, DATA = 15, INDEX = 16;
+
+    private static final int NORM = 17, COUNT = 19, FIRST_TEMPORARY = 20;
+
+    private static final int ITERATE_MAX_STACK = 12;
+
+    // Local variable slots of renderRegion(), after this in slot 0
+    private static final int REGION_VIEWPORT = 1, REGION_X0 = 2,
+            REGION_Y0 = 3, REGION_X1 = 4, REGION_Y1 = 5, REGION_DATA = 6;
+
+    private static final int REGION_WIDTH = 7, REGION_ITER_MAX = 8,
+            REGION_C_RE = 9, REGION_C_IM = 11;
+
+    private static final int REGION_Y = 13, REGION_IM = 14,
+            REGION_INDEX = 16, REGION_X = 17, REGION_LOCALS = 18;
+
+    /**
+     * The most stack words used by the methods that call
+     * <code>iterate()</code>, which takes seven doubles and three ints or
+     * references.
+     */
+    private static final int CALLER_MAX_STACK = 17;
+
+    /**
+     * The most bytes of bytecode for <code>iterate()</code>. HotSpot doesn't
+     * compile methods longer than this to native code, and a formula that's
+     * only interpreted would be no faster than walking the expression tree.
+     */
+    static final int MAXIMUM_CODE_LENGTH = 8000;
+
+    private final String className;
+
+    private final ClassFileWriter classFile;
+
+    private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+
+    private int nextLocal = FIRST_TEMPORARY;
+
+    /**
+     * A real number operand: either a constant known at compile time or a
+     * local variable slot holding a double.
+     */
+    private static final class Scalar {
+
+        private final int slot;
+
+        private final double value;
+
+        private boolean is(double constant) {
+            return this.slot < 0 && this.value == constant;
+        }
+
+        private Scalar(int slot, double value) {
+            this.slot = slot;
+            this.value = value;
+        }
+
+    }
+
+    /**
+     * A complex number operand together with its derivative, as a dual
+     * number.
+     */
+    private static final class Dual {
+
+        private final Scalar re, im, dRe, dIm;
+
+        private Dual(Scalar re, Scalar im, Scalar dRe, Scalar dIm) {
+            this.re = re;
+            this.im = im;
+            this.dRe = dRe;
+            this.dIm = dIm;
+        }
+
+    }
+
+    private static Scalar constant(double value) {
+        return new Scalar(-1, value);
+    }
+
+    private static Scalar local(int slot) {
+        return new Scalar(slot, 0.0);
+    }
+
+    private void localInstruction(int opcode, int slot) {
+        if (slot < 256) {
+            ClassFileWriter.u1(this.code, opcode);
+            ClassFileWriter.u1(this.code, slot);
+        } else {
+            ClassFileWriter.u1(this.code, WIDE);
+            ClassFileWriter.u1(this.code, opcode);
+            ClassFileWriter.u2(this.code, slot);
+        }
+    }
+
+    private void loadConstant(double value) {
+        if (Double.doubleToRawLongBits(value) == 0L) {
+            ClassFileWriter.u1(this.code, DCONST_0);
+        } else if (value == 1.0) {
+            ClassFileWriter.u1(this.code, DCONST_1);
+        } else {
+            ClassFileWriter.u1(this.code, LDC2_W);
+            ClassFileWriter.u2(this.code,
+                    this.classFile.doubleConstant(value));
+        }
+    }
+
+    private void load(Scalar operand) {
+        if (operand.slot < 0) {
+            this.loadConstant(operand.value);
+        } else {
+            this.localInstruction(DLOAD, operand.slot);
+        }
+    }
+
+    private Scalar storeTemporary() {
+        int slot = this.nextLocal;
+        this.nextLocal += 2;
+        this.localInstruction(DSTORE, slot);
+        return local(slot);
+    }
+
+    private Scalar emit(int opcode, Scalar a, Scalar b) {
+        this.load(a);
+        this.load(b);
+        ClassFileWriter.u1(this.code, opcode);
+        return this.storeTemporary();
+    }
+
+    private Scalar add(Scalar a, Scalar b) {
+        if (a.slot < 0 && b.slot < 0) {
+            return constant(a.value + b.value);
+        }
+        if (a.is(0.0)) {
+            return b;
+        }
+        if (b.is(0.0)) {
+            return a;
+        }
+        return this.emit(DADD, a, b);
+    }
+
+    private Scalar negate(Scalar a) {
+        if (a.slot < 0) {
+            return constant(-a.value);
+        }
+        this.load(a);
+        ClassFileWriter.u1(this.code, DNEG);
+        return this.storeTemporary();
+    }
+
+    private Scalar subtract(Scalar a, Scalar b) {
+        if (a.slot < 0 && b.slot < 0) {
+            return constant(a.value - b.value);
+        }
+        if (b.is(0.0)) {
+            return a;
+        }
+        if (a.is(0.0)) {
+            return this.negate(b);
+        }
+        return this.emit(DSUB, a, b);
+    }
+
+    private Scalar multiply(Scalar a, Scalar b) {
+        if (a.slot < 0 && b.slot < 0) {
+            return constant(a.value * b.value);
+        }
+        if (a.is(0.0) || b.is(0.0)) {
+            return constant(0.0);
+        }
+        if (a.is(1.0)) {
+            return b;
+        }
+        if (b.is(1.0)) {
+            return a;
+        }
+        if (a.is(-1.0)) {
+            return this.negate(b);
+        }
+        if (b.is(-1.0)) {
+            return this.negate(a);
+        }
+        return this.emit(DMUL, a, b);
+    }
+
+    private Scalar divide(Scalar a, Scalar b) {
+        if (a.slot < 0 && b.slot < 0) {
+            return constant(a.value / b.value);
+        }
+        if (a.is(0.0)) {
+            return constant(0.0);
+        }
+        if (b.is(1.0)) {
+            return a;
+        }
+        return this.emit(DDIV, a, b);
+    }
+
+    private Scalar[] complexTimes(Scalar aRe, Scalar aIm, Scalar bRe,
+            Scalar bIm) {
+        return new Scalar[] {
+            this.subtract(this.multiply(aRe, bRe), this.multiply(aIm, bIm)),
+            this.add(this.multiply(aRe, bIm), this.multiply(aIm, bRe))
+        };
+    }
+
+    private Scalar[] complexDivide(Scalar aRe, Scalar aIm, Scalar bRe,
+            Scalar bIm) {
+        if (bIm.is(0.0)) {
+            return new Scalar[] {this.divide(aRe, bRe), this.divide(aIm, bRe)};
+        }
+        Scalar norm = this.add(this.multiply(bRe, bRe),
+                this.multiply(bIm, bIm));
+        Scalar re = this.add(this.multiply(aRe, bRe), this.multiply(aIm, bIm));
+        Scalar im = this.subtract(this.multiply(aIm, bRe),
+                this.multiply(aRe, bIm));
+        return new Scalar[] {this.divide(re, norm), this.divide(im, norm)};
+    }
+
+    private Dual times(Dual a, Dual b) {
+        Scalar[] value = this.complexTimes(a.re, a.im, b.re, b.im);
+        // (ab)' = a'b + ab'
+        Scalar[] left = this.complexTimes(a.dRe, a.dIm, b.re, b.im);
+        Scalar[] right = this.complexTimes(a.re, a.im, b.dRe, b.dIm);
+        return new Dual(value[0], value[1], this.add(left[0], right[0]),
+                this.add(left[1], right[1]));
+    }
+
+    private Dual divide(Dual a, Dual b) {
+        Scalar[] quotient = this.complexDivide(a.re, a.im, b.re, b.im);
+        // (a/b)' = (a' - (a/b)b')/b
+        Scalar[] product = this.complexTimes(quotient[0], quotient[1], b.dRe,
+                b.dIm);
+        Scalar[] derivative = this.complexDivide(
+                this.subtract(a.dRe, product[0]),
+                this.subtract(a.dIm, product[1]), b.re, b.im);
+        return new Dual(quotient[0], quotient[1], derivative[0],
+                derivative[1]);
+    }
+
+    private Dual power(Dual base, int exponent) {
+        Dual result = new Dual(constant(1.0), constant(0.0), constant(0.0),
+                constant(0.0));
+        Dual square = base;
+        int remaining = exponent;
+        while (remaining > 0) {
+            if ((remaining & 1) == 1) {
+                result = this.times(result, square);
+            }
+            remaining >>>= 1;
+            if (remaining > 0) {
+                square = this.times(square, square);
+            }
+        }
+        return result;
+    }
+
+    private Dual compile(Expression expression) {
+        switch (expression.kind) {
+            case Expression.Z:
+                return new Dual(local(Z_RE), local(Z_IM), local(DZ_RE),
+                        local(DZ_IM));
+            case Expression.C:
+                return new Dual(local(C_RE), local(C_IM), local(DC_RE),
+                        constant(0.0));
+            case Expression.CONSTANT:
+                return new Dual(constant(expression.re),
+                        constant(expression.im), constant(0.0),
+                        constant(0.0));
+            case Expression.NEGATE:
+                Dual operand = this.compile(expression.left);
+                return new Dual(this.negate(operand.re),
+                        this.negate(operand.im), this.negate(operand.dRe),
+                        this.negate(operand.dIm));
+            case Expression.POWER:
+                return this.power(this.compile(expression.left),
+                        expression.exponent);
+            default:
+                Dual a = this.compile(expression.left);
+                Dual b = this.compile(expression.right);
+                switch (expression.kind) {
+                    case Expression.PLUS:
+                        return new Dual(this.add(a.re, b.re),
+                                this.add(a.im, b.im), this.add(a.dRe, b.dRe),
+                                this.add(a.dIm, b.dIm));
+                    case Expression.MINUS:
+                        return new Dual(this.subtract(a.re, b.re),
+                                this.subtract(a.im, b.im),
+                                this.subtract(a.dRe, b.dRe),
+                                this.subtract(a.dIm, b.dIm));
+                    case Expression.TIMES:
+                        return this.times(a, b);
+                    default:
+                        return this.divide(a, b);
+                }
+        }
+    }
+
+    private void loadNorm(int reSlot, int imSlot) {
+        this.localInstruction(DLOAD, reSlot);
+        this.localInstruction(DLOAD, reSlot);
+        ClassFileWriter.u1(this.code, DMUL);
+        this.localInstruction(DLOAD, imSlot);
+        this.localInstruction(DLOAD, imSlot);
+        ClassFileWriter.u1(this.code, DMUL);
+        ClassFileWriter.u1(this.code, DADD);
+    }
+
+    private static void patchBranch(byte[] bytes, int at, int target) {
+        int offset = target - at;
+        bytes[at + 1] = (byte) (offset >> 8);
+        bytes[at + 2] = (byte) offset;
+    }
+
+    /**
+     * Writes the static <code>iterate()</code>, whose parameters are the
+     * starting <i>z</i> and derivative, the derivative of <i>c</i> (1.0 for
+     * the parameter plane, 0.0 for a dynamical plane), <i>c</i>, the
+     * iteration maximum, and where to record the result. The bytecode is that
+     * of this Java code, with the body of the loop being the compiled
+     * formula:
+     * <pre>    double norm = zRe * zRe + zIm * zIm;
+     *    int count = 0;
+     *    while (norm &lt; ESCAPE_RADIUS_SQUARED &amp;&amp; count &lt; iterMax) {
+     *        // compute f(z, c) and its derivative into temporaries
+     *        zRe = ...; zIm = ...; dzRe = ...; dzIm = ...;
+     *        norm = zRe * zRe + zIm * zIm;
+     *        count++;
+     *    }
+     *    EscapeTime.record(count, iterMax, norm, dzRe * dzRe + dzIm * dzIm,
+     *            LOG_DEGREE, data, index);</pre>
+     * A norm that's NaN, as from division by 0, ends the loop.
+     * @throws IllegalArgumentException If the bytecode would be longer than
+     * {@link #MAXIMUM_CODE_LENGTH}.
+     */
+    private byte[] compileIterate(Formula formula) {
+        this.loadNorm(Z_RE, Z_IM);
+        this.localInstruction(DSTORE, NORM);
+        ClassFileWriter.u1(this.code, ICONST_0);
+        this.localInstruction(ISTORE, COUNT);
+        int loopStart = this.code.size();
+        this.localInstruction(DLOAD, NORM);
+        this.loadConstant(EscapeTime.ESCAPE_RADIUS_SQUARED);
+        ClassFileWriter.u1(this.code, DCMPG);
+        int escapedBranch = this.code.size();
+        ClassFileWriter.u1(this.code, IFGE);
+        ClassFileWriter.u2(this.code, 0);
+        this.localInstruction(ILOAD, COUNT);
+        this.localInstruction(ILOAD, ITER_MAX);
+        int maximumBranch = this.code.size();
+        ClassFileWriter.u1(this.code, IF_ICMPGE);
+        ClassFileWriter.u2(this.code, 0);
+        Dual next = this.compile(formula.getExpression());
+        // All four are loaded before any is stored, since a part of the next
+        // z may be a part of the current z, as in i * z
+        this.load(next.re);
+        this.load(next.im);
+        this.load(next.dRe);
+        this.load(next.dIm);
+        this.localInstruction(DSTORE, DZ_IM);
+        this.localInstruction(DSTORE, DZ_RE);
+        this.localInstruction(DSTORE, Z_IM);
+        this.localInstruction(DSTORE, Z_RE);
+        this.loadNorm(Z_RE, Z_IM);
+        this.localInstruction(DSTORE, NORM);
+        ClassFileWriter.u1(this.code, IINC);
+        ClassFileWriter.u1(this.code, COUNT);
+        ClassFileWriter.u1(this.code, 1);
+        int loopBranch = this.code.size();
+        ClassFileWriter.u1(this.code, GOTO);
+        ClassFileWriter.u2(this.code, 0);
+        int loopEnd = this.code.size();
+        this.localInstruction(ILOAD, COUNT);
+        this.localInstruction(ILOAD, ITER_MAX);
+        this.localInstruction(DLOAD, NORM);
+        this.loadNorm(DZ_RE, DZ_IM);
+        this.loadConstant(Math.log(formula.getDegree()));
+        this.localInstruction(ALOAD, DATA);
+        this.localInstruction(ILOAD, INDEX);
+        ClassFileWriter.u1(this.code, INVOKESTATIC);
+        ClassFileWriter.u2(this.code, this.classFile.methodRef(
+                "rendering/EscapeTime", "record",
+                "(IIDDDLrendering/IterationData;I)V"));
+        ClassFileWriter.u1(this.code, RETURN);
+        byte[] bytes = this.code.toByteArray();
+        if (bytes.length > MAXIMUM_CODE_LENGTH) {
+            String excMsg = "Formula " + formula + " is too long to compile";
+            throw new IllegalArgumentException(excMsg);
+        }
+        patchBranch(bytes, escapedBranch, loopEnd);
+        patchBranch(bytes, maximumBranch, loopEnd);
+        patchBranch(bytes, loopBranch, loopStart);
+        return bytes;
+    }
+
+    private void invokeIterate(ByteArrayOutputStream method) {
+        ClassFileWriter.u1(method, INVOKESTATIC);
+        ClassFileWriter.u2(method, this.classFile.methodRef(this.className,
+                "iterate", ITERATE_DESCRIPTOR));
+    }
+
+    private void invokeVirtual(ByteArrayOutputStream method, String owner,
+            String name, String descriptor) {
+        ClassFileWriter.u1(method, INVOKEVIRTUAL);
+        ClassFileWriter.u2(method, this.classFile.methodRef(owner, name,
+                descriptor));
+    }
+
+    private static void localInstruction(ByteArrayOutputStream method,
+            int opcode, int slot) {
+        ClassFileWriter.u1(method, opcode);
+        ClassFileWriter.u1(method, slot);
+    }
+
+    /**
+     * Writes <code>mandelbrot()</code>, which is <code>iterate(0.0, 0.0, 0.0,
+     * 0.0, 1.0, cRe, cIm, iterMax, data, index)</code>.
+     */
+    private byte[] compileMandelbrot() {
+        ByteArrayOutputStream method = new ByteArrayOutputStream();
+        for (int i = 0; i < 4; i++) {
+            ClassFileWriter.u1(method, DCONST_0);
+        }
+        ClassFileWriter.u1(method, DCONST_1);
+        localInstruction(method, DLOAD, 1);
+        localInstruction(method, DLOAD, 3);
+        localInstruction(method, ILOAD, 5);
+        localInstruction(method, ALOAD, 6);
+        localInstruction(method, ILOAD, 7);
+        this.invokeIterate(method);
+        ClassFileWriter.u1(method, RETURN);
+        return method.toByteArray();
+    }
+
+    /**
+     * Writes <code>julia()</code>, which is <code>iterate(zRe, zIm, 1.0, 0.0,
+     * 0.0, cRe, cIm, iterMax, data, index)</code>.
+     */
+    private byte[] compileJulia() {
+        ByteArrayOutputStream method = new ByteArrayOutputStream();
+        localInstruction(method, DLOAD, 1);
+        localInstruction(method, DLOAD, 3);
+        ClassFileWriter.u1(method, DCONST_1);
+        ClassFileWriter.u1(method, DCONST_0);
+        ClassFileWriter.u1(method, DCONST_0);
+        localInstruction(method, DLOAD, 5);
+        localInstruction(method, DLOAD, 7);
+        localInstruction(method, ILOAD, 9);
+        localInstruction(method, ALOAD, 10);
+        localInstruction(method, ILOAD, 11);
+        this.invokeIterate(method);
+        ClassFileWriter.u1(method, RETURN);
+        return method.toByteArray();
+    }
+
+    private void loadRealPartAtX(ByteArrayOutputStream method) {
+        localInstruction(method, ALOAD, REGION_VIEWPORT);
+        localInstruction(method, ILOAD, REGION_X);
+        ClassFileWriter.u1(method, I2D);
+        this.invokeVirtual(method, VIEWPORT, "getRealPartAt", "(D)D");
+    }
+
+    /**
+     * Writes the loop over the pixels of a region, for either the dynamical
+     * planes or the parameter plane, followed by a return.
+     * @param method Where to write the loop.
+     * @param julia Whether the loop is for the dynamical planes, for which
+     * <code>cRe</code> and <code>cIm</code> must already be set.
+     * @param branches Where to add the position and target of each branch
+     * in the loop, to be patched once the method is written.
+     */
+    private void compileRegionLoop(ByteArrayOutputStream method,
+            boolean julia, List<int[]> branches) {
+        localInstruction(method, ILOAD, REGION_Y0);
+        localInstruction(method, ISTORE, REGION_Y);
+        int rowStart = method.size();
+        localInstruction(method, ILOAD, REGION_Y);
+        localInstruction(method, ILOAD, REGION_Y1);
+        int rowsDoneBranch = method.size();
+        ClassFileWriter.u1(method, IF_ICMPGE);
+        ClassFileWriter.u2(method, 0);
+        localInstruction(method, ALOAD, REGION_VIEWPORT);
+        localInstruction(method, ILOAD, REGION_Y);
+        ClassFileWriter.u1(method, I2D);
+        this.invokeVirtual(method, VIEWPORT, "getImaginaryPartAt", "(D)D");
+        localInstruction(method, DSTORE, REGION_IM);
+        localInstruction(method, ILOAD, REGION_Y);
+        localInstruction(method, ILOAD, REGION_WIDTH);
+        ClassFileWriter.u1(method, IMUL);
+        localInstruction(method, ILOAD, REGION_X0);
+        ClassFileWriter.u1(method, IADD);
+        localInstruction(method, ISTORE, REGION_INDEX);
+        localInstruction(method, ILOAD, REGION_X0);
+        localInstruction(method, ISTORE, REGION_X);
+        int columnStart = method.size();
+        localInstruction(method, ILOAD, REGION_X);
+        localInstruction(method, ILOAD, REGION_X1);
+        int columnsDoneBranch = method.size();
+        ClassFileWriter.u1(method, IF_ICMPGE);
+        ClassFileWriter.u2(method, 0);
+        if (julia) {
+            this.loadRealPartAtX(method);
+            localInstruction(method, DLOAD, REGION_IM);
+            ClassFileWriter.u1(method, DCONST_1);
+            ClassFileWriter.u1(method, DCONST_0);
+            ClassFileWriter.u1(method, DCONST_0);
+            localInstruction(method, DLOAD, REGION_C_RE);
+            localInstruction(method, DLOAD, REGION_C_IM);
+        } else {
+            for (int i = 0; i < 4; i++) {
+                ClassFileWriter.u1(method, DCONST_0);
+            }
+            ClassFileWriter.u1(method, DCONST_1);
+            this.loadRealPartAtX(method);
+            localInstruction(method, DLOAD, REGION_IM);
+        }
+        localInstruction(method, ILOAD, REGION_ITER_MAX);
+        localInstruction(method, ALOAD, REGION_DATA);
+        localInstruction(method, ILOAD, REGION_INDEX);
+        this.invokeIterate(method);
+        ClassFileWriter.u1(method, IINC);
+        ClassFileWriter.u1(method, REGION_INDEX);
+        ClassFileWriter.u1(method, 1);
+        ClassFileWriter.u1(method, IINC);
+        ClassFileWriter.u1(method, REGION_X);
+        ClassFileWriter.u1(method, 1);
+        branches.add(new int[] {method.size(), columnStart});
+        ClassFileWriter.u1(method, GOTO);
+        ClassFileWriter.u2(method, 0);
+        branches.add(new int[] {columnsDoneBranch, method.size()});
+        ClassFileWriter.u1(method, IINC);
+        ClassFileWriter.u1(method, REGION_Y);
+        ClassFileWriter.u1(method, 1);
+        branches.add(new int[] {method.size(), rowStart});
+        ClassFileWriter.u1(method, GOTO);
+        ClassFileWriter.u2(method, 0);
+        branches.add(new int[] {rowsDoneBranch, method.size()});
+        ClassFileWriter.u1(method, RETURN);
+    }
+
+    /**
+     * Writes <code>renderRegion()</code>. The bytecode is that of the
+     * <code>renderRegion()</code> of the hand-written kernels, such as
+     * {@link rendering.BurningShipKernel}, with a loop for the dynamical
+     * planes and a loop for the parameter plane, each calling the static
+     * <code>iterate()</code> of the class being written.
+     */
+    private byte[] compileRenderRegion() {
+        ByteArrayOutputStream method = new ByteArrayOutputStream();
+        List<int[]> branches = new ArrayList<>();
+        localInstruction(method, ALOAD, REGION_DATA);
+        this.invokeVirtual(method, ITERATION_DATA, "getWidth", "()I");
+        localInstruction(method, ISTORE, REGION_WIDTH);
+        localInstruction(method, ALOAD, REGION_VIEWPORT);
+        this.invokeVirtual(method, VIEWPORT, "getIterationMaximum", "()I");
+        localInstruction(method, ISTORE, REGION_ITER_MAX);
+        localInstruction(method, ALOAD, REGION_VIEWPORT);
+        this.invokeVirtual(method, VIEWPORT, "isJulia", "()Z");
+        int parameterPlaneBranch = method.size();
+        ClassFileWriter.u1(method, IFEQ);
+        ClassFileWriter.u2(method, 0);
+        localInstruction(method, ALOAD, REGION_VIEWPORT);
+        this.invokeVirtual(method, VIEWPORT, "getJuliaRe", "()D");
+        localInstruction(method, DSTORE, REGION_C_RE);
+        localInstruction(method, ALOAD, REGION_VIEWPORT);
+        this.invokeVirtual(method, VIEWPORT, "getJuliaIm", "()D");
+        localInstruction(method, DSTORE, REGION_C_IM);
+        this.compileRegionLoop(method, true, branches);
+        branches.add(new int[] {parameterPlaneBranch, method.size()});
+        this.compileRegionLoop(method, false, branches);
+        byte[] bytes = method.toByteArray();
+        for (int[] branch : branches) {
+            patchBranch(bytes, branch[0], branch[1]);
+        }
+        return bytes;
+    }
+
+    private byte[] compileConstructor(String name) {
+        ByteArrayOutputStream constructor = new ByteArrayOutputStream();
+        ClassFileWriter.u1(constructor, ALOAD_0);
+        ClassFileWriter.u1(constructor, LDC_W);
+        ClassFileWriter.u2(constructor, this.classFile.string(name));
+        ClassFileWriter.u1(constructor, INVOKESPECIAL);
+        ClassFileWriter.u2(constructor, this.classFile.methodRef(SUPERCLASS,
+                "<init>", "(Ljava/lang/String;)V"));
+        ClassFileWriter.u1(constructor, RETURN);
+        return constructor.toByteArray();
+    }
+
+    private FormulaCompiler(String className) {
+        this.className = className;
+        this.classFile = new ClassFileWriter(className, SUPERCLASS);
+    }
+
+    /**
+     * Gives the class file for a formula's kernel.
+     * @param formula The formula. For example, <i>z</i><sup>3</sup> &minus;
+     * <i>z</i> + <i>c</i>.
+     * @param className The name for the class, with slashes. For example,
+     * "formulas/GeneratedKernel1".
+     * @return The class file.
+     * @throws IllegalArgumentException If the formula is too long to be
+     * compiled to native code.
+     */
+    static byte[] toClassFile(Formula formula, String className) {
+        FormulaCompiler compiler = new FormulaCompiler(className);
+        byte[] iterate = compiler.compileIterate(formula);
+        compiler.classFile.addMethod(ClassFileWriter.ACC_PRIVATE
+                | ClassFileWriter.ACC_STATIC, "iterate", ITERATE_DESCRIPTOR,
+                ITERATE_MAX_STACK, compiler.nextLocal, iterate);
+        compiler.classFile.addMethod(ClassFileWriter.ACC_PUBLIC,
+                "mandelbrot", "(DDILrendering/IterationData;I)V",
+                CALLER_MAX_STACK, 8, compiler.compileMandelbrot());
+        compiler.classFile.addMethod(ClassFileWriter.ACC_PUBLIC, "julia",
+                "(DDDDILrendering/IterationData;I)V", CALLER_MAX_STACK, 12,
+                compiler.compileJulia());
+        compiler.classFile.addMethod(ClassFileWriter.ACC_PUBLIC,
+                "renderRegion",
+                "(Lrendering/Viewport;IIIILrendering/IterationData;)V",
+                CALLER_MAX_STACK, REGION_LOCALS,
+                compiler.compileRenderRegion());
+        compiler.classFile.addMethod(ClassFileWriter.ACC_PUBLIC, "<init>",
+                "()V", 2, 1, compiler.compileConstructor(formula.toString()));
+        return compiler.classFile.toByteArray();
+    }
+
+    private static final class KernelLoader extends ClassLoader {
+
+        private Class<?> define(String className, byte[] classFile) {
+            return this.defineClass(className, classFile, 0,
+                    classFile.length);
+        }
+
+        private KernelLoader() {
+            super(CompiledKernel.class.getClassLoader());
+        }
+
+    }
+
+    private static CompiledKernel load(Formula formula) {
+        String className = CLASS_NAME_PREFIX + CLASS_NUMBERS.incrementAndGet();
+        byte[] classFile = toClassFile(formula, className);
+        Class<?> kernelClass = new KernelLoader()
+                .define(className.replace('/', '.'), classFile);
+        try {
+            return (CompiledKernel) kernelClass.getConstructor().newInstance();
+        } catch (ReflectiveOperationException roe) {
+            String excMsg = "Could not instantiate kernel for " + formula;
+            throw new IllegalStateException(excMsg, roe);
+        }
+    }
+
+    /**
+     * Compiles a formula to a kernel, or gives the kernel already compiled for
+     * it if that kernel is still in use.
+     * @param formula The formula. For example, <i>z</i><sup>3</sup> &minus;
+     * <i>z</i> + <i>c</i>.
+     * @return The kernel, whose name is the formula in canonical form.
+     * @throws IllegalArgumentException If the formula is too long to be
+     * compiled to native code.
+     */
+    public static CompiledKernel compile(Formula formula) {
+        synchronized (CACHE) {
+            CACHE.values().removeIf(reference -> reference.get() == null);
+            WeakReference<CompiledKernel> reference = CACHE.get(formula);
+            CompiledKernel kernel = reference == null ? null
+                    : reference.get();
+            if (kernel == null) {
+                kernel = load(formula);
+                CACHE.put(formula, new WeakReference<>(kernel));
+            }
+            return kernel;
+        }
+    }
+
+    /**
+     * Parses and compiles a formula.
+     * @param text The formula. For example, "z^3 - z + c".
+     * @return The kernel, whose name is the formula in canonical form.
+     * @throws IllegalArgumentException If the formula can't be parsed, if its
+     * degree in <i>z</i> is less than 2, or if it's too long to compile.
+     */
+    public static CompiledKernel compile(String text) {
+        return compile(Formula.parse(text));
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fractalviewer;
+
+import colors.mappers.ColorMapper;
+import rendering.BuddhabrotRenderer;
+import rendering.Viewport;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.swing.JPanel;
+import javax.swing.Timer;
+
+/**
+ * Shows the orbit density of the Mandelbrot set as it builds up. Sampling runs
+ * without end on threads of its own, at minimum priority, so that it doesn't
+ * take the rendering pool away from the main view. A timer on the event
+ * dispatch thread redraws the totals so far a few times a second.
+ * @author Alonso del Arte
+ */
+public final class BuddhabrotPanel extends JPanel {
+
+    private static final long serialVersionUID = 4549625417730562L;
+
+    /**
+     * How often to redraw the totals, in milliseconds.
+     */
+    private static final int REFRESH_INTERVAL = 250;
+
+    private final BuddhabrotRenderer renderer;
+
+    private final ExecutorService executor;
+
+    private final BufferedImage image;
+
+    private final Timer refreshTimer;
+
+    /**
+     * Gives the renderer whose totals this panel shows.
+     * @return The renderer.
+     */
+    public BuddhabrotRenderer getRenderer() {
+        return this.renderer;
+    }
+
+    /**
+     * Starts sampling, if it hasn't been started yet, and the timer that
+     * redraws the totals.
+     */
+    public void start() {
+        if (!this.refreshTimer.isRunning()) {
+            this.renderer.start(Long.MAX_VALUE);
+            this.refreshTimer.start();
+        }
+    }
+
+    /**
+     * Stops sampling and redrawing, and shuts down the sampling threads.
+     */
+    public void dispose() {
+        this.refreshTimer.stop();
+        this.renderer.cancel();
+        this.executor.shutdown();
+    }
+
+    private void refresh() {
+        this.renderer.colorize(ColorMapper.pixelsOf(this.image));
+        this.repaint();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        g.drawImage(this.image, 0, 0, null);
+    }
+
+    /**
+     * Creates an orbit density panel. The importance map is computed right
+     * away, but sampling doesn't start until {@link #start()} is called.
+     * @param viewport The viewport, of the Mandelbrot set, to plot orbits on.
+     * For example, the viewport of the main view.
+     * @throws IllegalArgumentException If <code>viewport</code> is not of the
+     * Mandelbrot set for <i>z</i><sup>2</sup> + <i>c</i>.
+     */
+    public BuddhabrotPanel(Viewport viewport) {
+        int threadCount = Runtime.getRuntime().availableProcessors();
+        this.executor = Executors.newFixedThreadPool(threadCount, runnable -> {
+            Thread thread = new Thread(runnable, "Buddhabrot sampler");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        try {
+            this.renderer = new BuddhabrotRenderer(viewport,
+                    BuddhabrotRenderer.DEFAULT_MINIMUM_ITERATIONS, threadCount,
+                    this.executor);
+        } catch (IllegalArgumentException iae) {
+            this.executor.shutdown();
+            throw iae;
+        }
+        this.image = new BufferedImage(viewport.getWidth(),
+                viewport.getHeight(), BufferedImage.TYPE_INT_RGB);
+        this.refreshTimer = new Timer(REFRESH_INTERVAL, event
+                -> this.refresh());
+        this.setBackground(Color.BLACK);
+        this.setPreferredSize(new Dimension(viewport.getWidth(),
+                viewport.getHeight()));
+    }
+
+}
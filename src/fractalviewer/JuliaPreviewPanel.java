@@ -0,0 +1,282 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fractalviewer;
+
+import colors.mappers.ColorMapper;
+import numerics.ComplexNumber;
+import rendering.FractalKernel;
+import rendering.IterationData;
+import rendering.QuadraticKernel;
+import rendering.TileRenderer;
+import rendering.Viewport;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+
+/**
+ * Small, low resolution preview of the Julia set for a point that changes
+ * often, such as the point under the mouse in the Mandelbrot set. The preview
+ * is rendered on its own thread, at minimum priority, so that it doesn't hold
+ * up the event dispatch thread nor take the rendering pool away from the main
+ * view.
+ * <p>Only the most recently requested point is kept. If several points are
+ * requested while a preview is being rendered, all but the last are dropped,
+ * and the preview being rendered is abandoned as soon as a newer point comes
+ * in, so that the preview never falls behind the mouse.</p>
+ * @author Alonso del Arte
+ */
+public final class JuliaPreviewPanel extends JPanel {
+
+    private static final long serialVersionUID = 4549625417730561L;
+
+    /**
+     * The default width of the preview, in pixels.
+     */
+    public static final int DEFAULT_WIDTH = 192;
+
+    /**
+     * The default height of the preview, in pixels.
+     */
+    public static final int DEFAULT_HEIGHT = 120;
+
+    /**
+     * The default iteration maximum for the preview. This is deliberately low,
+     * as the preview only needs to show the overall shape of the Julia set.
+     */
+    public static final int DEFAULT_ITERATION_MAXIMUM = 128;
+
+    /**
+     * How much of the real line the preview shows. The preview is centered on
+     * 0, so it shows from &minus;2 to 2 on the real axis.
+     */
+    private static final double REAL_SPAN = 4.0;
+
+    /**
+     * How many rows to render between checks for a newer point.
+     */
+    private static final int ROWS_PER_CHECK = 8;
+
+    private final int previewWidth, previewHeight, iterMax;
+
+    private final ComplexNumber topLeftCorner;
+
+    private final double pixelsPerUnitInterval;
+
+    private final ColorMapper colorMapper;
+
+    private final AtomicReference<ComplexNumber> pendingPoint
+            = new AtomicReference<>();
+
+    private final IterationData data;
+
+    private final Object imageLock = new Object();
+
+    private BufferedImage frontImage, backImage;
+
+    private volatile ComplexNumber renderedPoint = null;
+
+    private volatile long renderedCount = 0L;
+
+    private volatile long abandonedCount = 0L;
+
+    private volatile FractalKernel kernel = new QuadraticKernel();
+
+    private final Thread renderThread;
+
+    /**
+     * Gives the point for which the preview currently shown was rendered.
+     * @return The point, or null if no preview has been rendered yet.
+     */
+    public ComplexNumber getRenderedPoint() {
+        return this.renderedPoint;
+    }
+
+    /**
+     * Tells how many previews have been rendered to completion.
+     * @return The count. For example, 12.
+     */
+    public long getRenderedCount() {
+        return this.renderedCount;
+    }
+
+    /**
+     * Tells how many previews were abandoned partway because a newer point
+     * was requested. Points that were replaced before rendering even started
+     * are not counted.
+     * @return The count. For example, 3.
+     */
+    public long getAbandonedCount() {
+        return this.abandonedCount;
+    }
+
+    /**
+     * Changes the formula of the previews. This takes effect from the next
+     * preview requested.
+     * @param newKernel The kernel for the formula. For example, a
+     * <code>TricornKernel</code>.
+     * @throws NullPointerException If <code>newKernel</code> is null.
+     */
+    public void setKernel(FractalKernel newKernel) {
+        if (newKernel == null) {
+            String excMsg = "Kernel must not be null";
+            throw new NullPointerException(excMsg);
+        }
+        this.kernel = newKernel;
+    }
+
+    /**
+     * Asks for a preview of the Julia set for a given point. This returns
+     * immediately, without waiting for the preview to be rendered, and so it
+     * is safe to call from the event dispatch thread on every mouse move.
+     * @param point The Julia parameter. For example, &minus;0.75 +
+     * 0.1<i>i</i>.
+     * @throws NullPointerException If <code>point</code> is null.
+     */
+    public void requestPreview(ComplexNumber point) {
+        if (point == null) {
+            String excMsg = "Point must not be null";
+            throw new NullPointerException(excMsg);
+        }
+        this.pendingPoint.set(point);
+        LockSupport.unpark(this.renderThread);
+    }
+
+    /**
+     * Stops the render thread. Previews requested after this are ignored.
+     */
+    public void dispose() {
+        this.renderThread.interrupt();
+    }
+
+    Viewport previewViewport(ComplexNumber point) {
+        return Viewport.julia(this.topLeftCorner, this.pixelsPerUnitInterval,
+                this.previewWidth, this.previewHeight, this.iterMax, point)
+                .withKernel(this.kernel);
+    }
+
+    private void runRenderLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            ComplexNumber point = this.pendingPoint.getAndSet(null);
+            if (point == null) {
+                LockSupport.park(this);
+            } else if (this.renderPreview(point)) {
+                this.renderedPoint = point;
+                this.renderedCount++;
+                SwingUtilities.invokeLater(this::repaint);
+            } else {
+                this.abandonedCount++;
+            }
+        }
+    }
+
+    private boolean renderPreview(ComplexNumber point) {
+        Viewport viewport = this.previewViewport(point);
+        for (int y = 0; y < this.previewHeight; y += ROWS_PER_CHECK) {
+            if (this.pendingPoint.get() != null) {
+                return false;
+            }
+            int y1 = Math.min(y + ROWS_PER_CHECK, this.previewHeight);
+            TileRenderer.renderRegion(viewport, 0, y, this.previewWidth, y1,
+                    this.data);
+        }
+        this.colorMapper.colorize(this.data, this.iterMax,
+                ColorMapper.pixelsOf(this.backImage));
+        synchronized (this.imageLock) {
+            BufferedImage swap = this.frontImage;
+            this.frontImage = this.backImage;
+            this.backImage = swap;
+        }
+        return true;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (this.renderedPoint != null) {
+            synchronized (this.imageLock) {
+                g.drawImage(this.frontImage, 0, 0, null);
+            }
+        }
+    }
+
+    /**
+     * Creates a preview panel with the default dimensions and iteration
+     * maximum. The render thread is started right away.
+     * @param colorMapper The color mapper. For example, an instance of
+     * <code>CyclicColorMapper</code>.
+     */
+    public JuliaPreviewPanel(ColorMapper colorMapper) {
+        this(colorMapper, DEFAULT_WIDTH, DEFAULT_HEIGHT,
+                DEFAULT_ITERATION_MAXIMUM);
+    }
+
+    /**
+     * Creates a preview panel. The render thread is started right away. The
+     * preview shows the real axis from &minus;2 to 2, centered vertically on
+     * the real axis.
+     * @param colorMapper The color mapper. For example, an instance of
+     * <code>CyclicColorMapper</code>.
+     * @param width The width of the preview, in pixels. For example, 192.
+     * @param height The height of the preview, in pixels. For example, 120.
+     * @param iterMax The iteration maximum. For example, 128.
+     * @throws IllegalArgumentException If <code>width</code>,
+     * <code>height</code> or <code>iterMax</code> is less than 1.
+     * @throws NullPointerException If <code>colorMapper</code> is null.
+     */
+    public JuliaPreviewPanel(ColorMapper colorMapper, int width, int height,
+            int iterMax) {
+        if (colorMapper == null) {
+            String excMsg = "Color mapper must not be null";
+            throw new NullPointerException(excMsg);
+        }
+        if (width < 1 || height < 1) {
+            String excMsg = "Dimensions " + width + " by " + height
+                    + " are not valid";
+            throw new IllegalArgumentException(excMsg);
+        }
+        if (iterMax < 1) {
+            String excMsg = "Iteration maximum " + iterMax + " is not valid";
+            throw new IllegalArgumentException(excMsg);
+        }
+        this.colorMapper = colorMapper;
+        this.previewWidth = width;
+        this.previewHeight = height;
+        this.iterMax = iterMax;
+        this.pixelsPerUnitInterval = width / REAL_SPAN;
+        this.topLeftCorner = new ComplexNumber(-REAL_SPAN / 2,
+                -height / (2 * this.pixelsPerUnitInterval));
+        this.data = new IterationData(width, height);
+        this.frontImage = new BufferedImage(width, height,
+                BufferedImage.TYPE_INT_RGB);
+        this.backImage = new BufferedImage(width, height,
+                BufferedImage.TYPE_INT_RGB);
+        this.setBackground(Color.BLACK);
+        this.setPreferredSize(new Dimension(width, height));
+        this.renderThread = new Thread(this::runRenderLoop, "Julia preview");
+        this.renderThread.setDaemon(true);
+        this.renderThread.setPriority(Thread.MIN_PRIORITY);
+        this.renderThread.start();
+    }
+
+}
@@ -0,0 +1,452 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fractalviewer;
+
+import colors.mappers.ColorMapper;
+import colors.mappers.LyapunovColorMapper;
+import fileops.FileChooserWithOverwriteGuard;
+import fileops.PNGFileFilter;
+import fileops.PNGWriter;
+import numerics.ComplexNumber;
+import rendering.IterationData;
+import rendering.LyapunovKernel;
+import rendering.TileKey;
+import rendering.Viewport;
+
+import java.awt.BorderLayout;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.event.ActionEvent;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import javax.swing.JFileChooser;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JMenu;
+import javax.swing.JMenuBar;
+import javax.swing.JMenuItem;
+import javax.swing.JOptionPane;
+import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
+
+/**
+ * Viewer for Lyapunov fractals of the logistic map, with <i>a</i> on the
+ * horizontal axis and <i>b</i> on the vertical axis, increasing downwards. The
+ * view is made of tiles rendered by {@link LyapunovKernel} through the same
+ * tile engine as the Mandelbrot and Julia sets, so the tiles are rendered in
+ * parallel, nearest the center first, and kept in the same cache.
+ * <p>Clicking a point centers the view on it.</p>
+ * @author Alonso del Arte
+ */
+public final class LyapunovViewer extends Viewer {
+
+    private static final long serialVersionUID = 4549625417730563L;
+
+    private static final boolean MAC_OS_FLAG = System.getProperty("os.name")
+            .equals("Mac OS X");
+
+    /**
+     * The modifier for menu shortcuts, Command on macOS and Control
+     * elsewhere, as in {@link MandelbrotJuliaViewer}.
+     */
+    private static final int MASK_CTRL_COMMAND = MAC_OS_FLAG
+            ? InputEvent.META_DOWN_MASK : InputEvent.CTRL_DOWN_MASK;
+
+    /**
+     * The sequence shown at first.
+     */
+    public static final String DEFAULT_SEQUENCE = "AB";
+
+    /**
+     * The top left corner of the view at first, which with the default size
+     * and zoom shows <i>a</i> and <i>b</i> from 2 to 4, where most of the
+     * structure is.
+     */
+    public static final ComplexNumber DEFAULT_TOP_LEFT_CORNER
+            = new ComplexNumber(2.0, 2.0);
+
+    private static final int DEFAULT_SIZE = 512;
+
+    private static final int DEFAULT_PIXELS_PER_UNIT_INTERVAL = 256;
+
+    private static final int MINIMUM_PIXELS_PER_UNIT_INTERVAL = 64;
+
+    private static final int MAXIMUM_PIXELS_PER_UNIT_INTERVAL = 1 << 24;
+
+    /**
+     * The default number of steps of the logistic map to average the exponent
+     * over, after the warm-up.
+     */
+    public static final int DEFAULT_ITERATION_MAXIMUM = 512;
+
+    private final ColorMapper colorMapper = new LyapunovColorMapper();
+
+    private final int maxX, maxY;
+
+    private final int iterMax;
+
+    private LyapunovKernel kernel;
+
+    private ComplexNumber topLeftCorner;
+
+    private int pixelsPerUnitInterval;
+
+    private BufferedImage lastFrame;
+
+    /**
+     * Whether the last frame is being saved, in which case the next frame has
+     * to be composed into a new buffer.
+     */
+    private boolean lastFrameShared = false;
+
+    /**
+     * Whether the last frame had all its tiles, so that it can be saved as
+     * is.
+     */
+    private boolean lastFrameComplete = false;
+
+    private JFrame frame;
+
+    private JLabel readout;
+
+    private JMenuItem zoomInMenuItem, zoomOutMenuItem;
+
+    private String prevSavePathname = null;
+
+    public LyapunovKernel getKernel() {
+        return this.kernel;
+    }
+
+    /**
+     * Gives the viewport of the current view.
+     * @return The viewport, with a Lyapunov kernel. It's a Mandelbrot set
+     * viewport only in the sense that there's no Julia parameter.
+     */
+    Viewport getViewport() {
+        return Viewport.mandelbrot(this.topLeftCorner,
+                this.pixelsPerUnitInterval, this.maxX, this.maxY,
+                this.iterMax).withKernel(this.kernel);
+    }
+
+    /**
+     * Gives the point of the plane at a given pixel.
+     * @param x The horizontal position. For example, 256.
+     * @param y The vertical position. For example, 256.
+     * @return The point, with <i>a</i> as the real part and <i>b</i> as the
+     * imaginary part. For example, 3.0 + 3.0<i>i</i>.
+     */
+    ComplexNumber getNumber(int x, int y) {
+        return new ComplexNumber(this.topLeftCorner.getRealPart()
+                + (double) x / this.pixelsPerUnitInterval,
+                this.topLeftCorner.getImaginaryPart()
+                + (double) y / this.pixelsPerUnitInterval);
+    }
+
+    /**
+     * Moves the view so that a given pixel is at the center, at the same zoom.
+     * @param x The horizontal position. For example, 100.
+     * @param y The vertical position. For example, 400.
+     */
+    void centerOn(int x, int y) {
+        this.topLeftCorner = this.getNumber(x - this.maxX / 2,
+                y - this.maxY / 2);
+        this.repaint();
+    }
+
+    /**
+     * Changes the zoom, keeping the same point at the center.
+     * @param pxui The new number of pixels per unit interval, which must be a
+     * power of 2 for the tiles to line up.
+     */
+    private void setPixelsPerUnitInterval(int pxui) {
+        ComplexNumber center = this.getNumber(this.maxX / 2, this.maxY / 2);
+        this.pixelsPerUnitInterval = pxui;
+        this.topLeftCorner = new ComplexNumber(center.getRealPart()
+                - (double) (this.maxX / 2) / pxui, center.getImaginaryPart()
+                - (double) (this.maxY / 2) / pxui);
+        this.zoomInMenuItem.setEnabled(pxui < MAXIMUM_PIXELS_PER_UNIT_INTERVAL);
+        this.zoomOutMenuItem.setEnabled(pxui
+                > MINIMUM_PIXELS_PER_UNIT_INTERVAL);
+        this.repaint();
+    }
+
+    private void zoomIn() {
+        this.setPixelsPerUnitInterval(this.pixelsPerUnitInterval * 2);
+    }
+
+    private void zoomOut() {
+        this.setPixelsPerUnitInterval(this.pixelsPerUnitInterval / 2);
+    }
+
+    /**
+     * Asks the user for a sequence of A and B, and switches to it. If the
+     * sequence is not valid, the user is told why and asked again.
+     */
+    private void chooseSequence() {
+        String text = (String) JOptionPane.showInputDialog(this.frame,
+                "Sequence of A and B, such as AABAB", "Sequence",
+                JOptionPane.QUESTION_MESSAGE, null, null,
+                this.kernel.getSequence());
+        while (text != null) {
+            try {
+                this.kernel = new LyapunovKernel(text.trim());
+                this.frame.setTitle(this.kernel.getName());
+                this.repaint();
+                return;
+            } catch (IllegalArgumentException iae) {
+                text = (String) JOptionPane.showInputDialog(this.frame,
+                        iae.getMessage(), "Sequence",
+                        JOptionPane.ERROR_MESSAGE, null, null, text);
+            }
+        }
+    }
+
+    /**
+     * Saves the frame that's on screen to a PNG file chosen by the user, off
+     * the event dispatch thread. If some tiles of the frame were still
+     * missing, the view is rendered whole instead.
+     */
+    private void saveDiagramAs() {
+        Viewport viewport = this.getViewport();
+        BufferedImage diagram = this.lastFrameComplete ? this.lastFrame : null;
+        // Painting continues while the file chooser is open
+        this.lastFrameShared = true;
+        FileChooserWithOverwriteGuard fileChooser
+                = new FileChooserWithOverwriteGuard();
+        fileChooser.addChoosableFileFilter(new PNGFileFilter());
+        if (this.prevSavePathname != null) {
+            fileChooser.setCurrentDirectory(new File(this.prevSavePathname));
+        }
+        fileChooser.setSelectedFile(new File("Lyapunov "
+                + this.kernel.getSequence() + " pxui"
+                + this.pixelsPerUnitInterval + ".png"));
+        if (fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = fileChooser.getSelectedFile();
+        this.prevSavePathname = file.getAbsoluteFile().getParent();
+        if (diagram == null) {
+            new DiagramSaver(viewport, file).start();
+        } else {
+            new FrameSaver(this.frame, viewport, diagram, file).start();
+        }
+    }
+
+    /**
+     * Renders a viewport, colors it and saves it as a PNG file.
+     */
+    private final class DiagramSaver extends BackgroundSaver {
+
+        @Override
+        protected Void doInBackground() throws IOException {
+            IterationData data = this.renderInBands(90);
+            if (data == null) {
+                return null;
+            }
+            this.publish("Writing " + this.file.getName());
+            new PNGWriter().write(colorMapper.toImage(data,
+                    this.viewport.getIterationMaximum()), this.file);
+            return null;
+        }
+
+        DiagramSaver(Viewport viewport, File file) {
+            super(LyapunovViewer.this.frame, viewport, file);
+        }
+
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        this.composeFrame();
+        g.drawImage(this.lastFrame, 0, 0, null);
+    }
+
+    /**
+     * Draws the tiles of the current view that are ready into the frame
+     * buffer, and requests the ones that aren't, nearest to the center first.
+     */
+    private void composeFrame() {
+        if (this.lastFrame == null || this.lastFrameShared) {
+            this.lastFrame = new BufferedImage(this.maxX, this.maxY,
+                    BufferedImage.TYPE_INT_RGB);
+            this.lastFrameShared = false;
+        }
+        List<TileKey> missing = this.composeFrame(this.lastFrame,
+                this.getViewport(), this.maxX / 2.0, this.maxY / 2.0,
+                (zoom, tileX, tileY) -> TileKey.mandelbrot(zoom, tileX,
+                        tileY, this.iterMax).withKernel(this.kernel),
+                this.colorMapper);
+        this.lastFrameComplete = missing.isEmpty();
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent ae) {
+        String cmd = ae.getActionCommand();
+        switch (cmd) {
+            case "saveDiagramAs":
+                this.saveDiagramAs();
+                break;
+            case "close":
+                this.frame.dispose();
+                break;
+            case "chooseSequence":
+                this.chooseSequence();
+                break;
+            case "zoomIn":
+                this.zoomIn();
+                break;
+            case "zoomOut":
+                this.zoomOut();
+                break;
+            default:
+                System.err.println("Command " + cmd + " not recognized");
+        }
+    }
+
+    @Override
+    public void mouseClicked(MouseEvent me) {
+        this.centerOn(me.getX(), me.getY());
+    }
+
+    @Override
+    public void mouseEntered(MouseEvent me) {
+        //
+    }
+
+    @Override
+    public void mouseExited(MouseEvent me) {
+        //
+    }
+
+    @Override
+    public void mousePressed(MouseEvent me) {
+        //
+    }
+
+    @Override
+    public void mouseReleased(MouseEvent me) {
+        //
+    }
+
+    @Override
+    public void mouseMoved(MouseEvent me) {
+        ComplexNumber point = this.getNumber(me.getX(), me.getY());
+        this.readout.setText("a = " + point.getRealPart() + ", b = "
+                + point.getImaginaryPart());
+    }
+
+    @Override
+    public void mouseDragged(MouseEvent me) {
+        //
+    }
+
+    private JMenuBar setUpMenuBar() {
+        JMenuBar menuBar = new JMenuBar();
+        JMenu menu = new JMenu("File");
+        menu.setMnemonic(KeyEvent.VK_F);
+        menu.add(this.makeMenuItem("Save diagram as...",
+                "Save currently displayed diagram to a PNG file",
+                "saveDiagramAs", KeyStroke.getKeyStroke(KeyEvent.VK_S,
+                        MASK_CTRL_COMMAND | InputEvent.SHIFT_DOWN_MASK)));
+        menu.addSeparator();
+        menu.add(this.makeMenuItem("Close", "Close the window", "close",
+                KeyStroke.getKeyStroke(KeyEvent.VK_W, MASK_CTRL_COMMAND)));
+        menuBar.add(menu);
+        menu = new JMenu("View");
+        menu.setMnemonic(KeyEvent.VK_V);
+        menu.add(this.makeMenuItem("Sequence...",
+                "Choose the sequence of A and B", "chooseSequence",
+                KeyStroke.getKeyStroke(KeyEvent.VK_Q, 0)));
+        menu.addSeparator();
+        this.zoomInMenuItem = menu.add(this.makeMenuItem("Zoom in",
+                "Zoom in, keeping the center", "zoomIn",
+                KeyStroke.getKeyStroke(KeyEvent.VK_ADD, MASK_CTRL_COMMAND)));
+        this.zoomOutMenuItem = menu.add(this.makeMenuItem("Zoom out",
+                "Zoom out, keeping the center", "zoomOut",
+                KeyStroke.getKeyStroke(KeyEvent.VK_SUBTRACT,
+                        MASK_CTRL_COMMAND)));
+        menuBar.add(menu);
+        return menuBar;
+    }
+
+    /**
+     * Shows this viewer in a new window.
+     */
+    public void setUpFrame() {
+        this.frame = new JFrame(this.kernel.getName());
+        this.frame.setJMenuBar(this.setUpMenuBar());
+        this.frame.add(this, BorderLayout.CENTER);
+        this.readout = new JLabel(" ");
+        this.frame.add(this.readout, BorderLayout.PAGE_END);
+        this.frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        this.frame.pack();
+        this.frame.setVisible(true);
+        this.addMouseListener(this);
+        this.addMouseMotionListener(this);
+    }
+
+    /**
+     * Creates a viewer for the default sequence, showing <i>a</i> and
+     * <i>b</i> from 2 to 4. Call {@link #setUpFrame()} to show it.
+     */
+    public LyapunovViewer() {
+        this(new LyapunovKernel(DEFAULT_SEQUENCE));
+    }
+
+    /**
+     * Creates a viewer showing <i>a</i> and <i>b</i> from 2 to 4. Call
+     * {@link #setUpFrame()} to show it.
+     * @param kernel The kernel for the sequence to show first. For example,
+     * the kernel for AABAB.
+     * @throws NullPointerException If <code>kernel</code> is null.
+     */
+    public LyapunovViewer(LyapunovKernel kernel) {
+        if (kernel == null) {
+            String excMsg = "Kernel must not be null";
+            throw new NullPointerException(excMsg);
+        }
+        this.kernel = kernel;
+        this.topLeftCorner = DEFAULT_TOP_LEFT_CORNER;
+        this.pixelsPerUnitInterval = DEFAULT_PIXELS_PER_UNIT_INTERVAL;
+        this.iterMax = DEFAULT_ITERATION_MAXIMUM;
+        this.maxX = DEFAULT_SIZE;
+        this.maxY = DEFAULT_SIZE;
+        this.setBackground(Color.BLACK);
+        this.setPreferredSize(new Dimension(this.maxX, this.maxY));
+    }
+
+    /**
+     * Shows a Lyapunov fractal viewer.
+     * @param args The sequence to show first, such as AABAB. If there are no
+     * arguments, the default sequence AB is shown.
+     */
+    public static void main(String[] args) {
+        LyapunovKernel kernel = new LyapunovKernel(args.length > 0 ? args[0]
+                : DEFAULT_SEQUENCE);
+        SwingUtilities.invokeLater(() -> new LyapunovViewer(kernel)
+                .setUpFrame());
+    }
+
+}
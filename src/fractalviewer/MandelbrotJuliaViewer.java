@@ -17,16 +17,41 @@
 package fractalviewer;
 
 import clipboardops.ImageSelection;
+import colors.mappers.ColorMapper;
+import colors.mappers.CyclicColorMapper;
 import fileops.FileChooserWithOverwriteGuard;
+import fileops.IterationDataFile;
+import fileops.IterationDataFileFilter;
 import fileops.PNGFileFilter;
+import fileops.PNGWriter;
+import formulas.FormulaCompiler;
 import numerics.ComplexNumber;
+import numerics.MutableComplex;
+import rendering.AdaptiveSupersampler;
+import rendering.BurningShipKernel;
+import rendering.FractalKernel;
+import rendering.IterationData;
+import rendering.IterationMaximumPolicy;
+import rendering.MultibrotKernel;
+import rendering.NewtonKernel;
+import rendering.QuadraticKernel;
+import rendering.RenderListener;
+import rendering.RenderMetrics;
+import rendering.RenderStats;
+import rendering.TileCache;
+import rendering.TileEngine;
+import rendering.TileKey;
+import rendering.TilePrefetcher;
+import rendering.TilePriority;
+import rendering.TileRenderer;
+import rendering.TricornKernel;
+import rendering.Viewport;
 
 import java.awt.BorderLayout;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Event;
 import java.awt.Graphics;
-import java.awt.Graphics2D;
 import java.awt.datatransfer.Clipboard;
 import java.awt.datatransfer.ClipboardOwner;
 import java.awt.datatransfer.StringSelection;
@@ -37,11 +62,17 @@ import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
 
-import javax.imageio.ImageIO;
+import javax.swing.ButtonGroup;
 import javax.swing.JCheckBoxMenuItem;
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
@@ -51,8 +82,10 @@ import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
+import javax.swing.JRadioButtonMenuItem;
 import javax.swing.JTextField;
 import javax.swing.KeyStroke;
+import javax.swing.SwingWorker;
 import javax.swing.filechooser.FileFilter;
 
 public final class MandelbrotJuliaViewer extends Viewer {
@@ -62,6 +95,15 @@ public final class MandelbrotJuliaViewer extends Viewer {
 
     private static int maskCtrlCommand;
 
+    /**
+     * Whether to publish render statistics through JMX. Set the system
+     * property fractalviewer.renderStats.jmx to true to turn this on.
+     */
+    private static final boolean RENDER_STATS_JMX_FLAG
+            = Boolean.getBoolean("fractalviewer.renderStats.jmx");
+
+    private static final Color OVERLAY_BACKGROUND = new Color(0, 0, 0, 160);
+
     /**
      * The complex number 0.0 + 0.0<i>i</i>.
      */
@@ -115,7 +157,11 @@ public final class MandelbrotJuliaViewer extends Viewer {
 
     private JFrame frame;
 
-    private JTextField readoutRe, readoutIm;
+    private final JTextField readoutRe
+            = new JTextField(BASELINE_READOUT_FIELD_COLUMNS);
+
+    private final JTextField readoutIm
+            = new JTextField(BASELINE_READOUT_FIELD_COLUMNS);
 
     private JMenuItem zoomInMenuItem, zoomOutMenuItem;
 
@@ -124,6 +170,74 @@ public final class MandelbrotJuliaViewer extends Viewer {
     private boolean haveSavedBefore = false;
 
     private String prevSavePathname;
+
+    private final ColorMapper colorMapper = new CyclicColorMapper();
+
+    private final IterationMaximumPolicy iterMaxPolicy
+            = new IterationMaximumPolicy();
+
+    private final RenderStats renderStats = new RenderStats();
+
+    /**
+     * Repaints the view when a frame has been measured, so that the overlay
+     * shows the measurements of the frame on screen, which usually arrive
+     * just after its last tile.
+     */
+    private final RenderListener overlayRefresher = metrics -> this.repaint();
+
+    private boolean showRenderStats = false;
+
+    private JCheckBoxMenuItem toggleRenderStats;
+
+    private JRadioButtonMenuItem selectedFormulaItem;
+
+    private final AdaptiveSupersampler supersampler
+            = new AdaptiveSupersampler(this.colorMapper);
+
+    /**
+     * The scale factors offered for saving a diagram at a different
+     * resolution.
+     */
+    private static final double[] SAVE_SCALES = {0.5, 1.0, 2.0, 3.0, 4.0};
+
+    private final JuliaPreviewPanel juliaPreview;
+
+    /**
+     * The formulas offered in the View menu. The first is the default.
+     */
+    private static final FractalKernel[] FORMULA_KERNELS = {
+        new QuadraticKernel(), new MultibrotKernel(3), new MultibrotKernel(4),
+        new BurningShipKernel(), new TricornKernel(),
+        new NewtonKernel(1.0, 0.0, 0.0, -1.0)
+    };
+
+    private FractalKernel kernel = FORMULA_KERNELS[0];
+
+    private final TileEngine tileEngine = TILE_ENGINE;
+
+    private final TilePrefetcher prefetcher = new TilePrefetcher(
+            this.tileEngine, (key, rank) -> this.requestTile(key,
+                    TilePriority.PREFETCH, rank, this.colorMapper));
+
+    private String prefetchedFor = null;
+
+    private BufferedImage lastFrame;
+
+    /**
+     * Whether the last frame has been handed to the clipboard, in which case
+     * the next frame has to be composed into a new buffer.
+     */
+    private boolean lastFrameShared = false;
+
+    /**
+     * Whether the last frame had all its tiles, so that it can be saved as
+     * is.
+     */
+    private boolean lastFrameComplete = false;
+
+    private int lastMouseX, lastMouseY;
+
+    private boolean mouseInside = false;
     
     public static final String PROGRAM_NAME = "Mandelbrot/Julia Set Viewer";
 
@@ -149,15 +263,28 @@ public final class MandelbrotJuliaViewer extends Viewer {
 
     // TODO: Write tests for this
     ComplexNumber getRelativeNumber(int x, int y) {
-        double re = 0.0;// (double) x / this.pixelsPerUnitInterval;
-        double im = 0.0;// (double) y / this.pixelsPerUnitInterval;
+        double re = (double) x / this.pixelsPerUnitInterval;
+        double im = (double) y / this.pixelsPerUnitInterval;
         return new ComplexNumber(re, im);
     }
 
-    // TODO: Write tests for this
+    /**
+     * Gives the number at a given pixel position of the current view, the
+     * same way {@link Viewport#getRealPartAt(double)} and {@link
+     * Viewport#getImaginaryPartAt(double)} do.
+     * @param x The horizontal position. For example, 540.
+     * @param y The vertical position. For example, 320.
+     * @return The number. For example, if the top left corner is &minus;2.75
+     * &minus; 1.25<i>i</i> and there are 256 pixels per unit interval, about
+     * &minus;0.640625 + 0.0<i>i</i>.
+     */
     ComplexNumber getNumber(int x, int y) {
         ComplexNumber offset = this.getRelativeNumber(x, y);
-        return this.topLeftCorner;//.plus(offset);
+        return this.topLeftCorner.plus(offset);
+    }
+
+    JuliaPreviewPanel getJuliaPreview() {
+        return this.juliaPreview;
     }
 
     // TODO: Write tests for this
@@ -173,116 +300,360 @@ public final class MandelbrotJuliaViewer extends Viewer {
     // TODO: Write tests for this
     Color iteratePointJulia(ComplexNumber c) {
         int iterCount = 0;
-//        ComplexNumber z = c;
-//        while (z.abs() < 2.0 && iterCount < this.iterMax) {
-//            z = z.times(z).plus(this.juliaPoint);
-//            iterCount++;
-//        }
-        return this.chooseColor(iterCount);
-    }
-
-    private void drawJulia(Graphics g) {
-        ComplexNumber curr;
-        Color color;
-        for (int x = 0; x < this.maxX; x++) {
-            for (int y = 0; y < this.maxY; y++) {
-                curr = this.getNumber(x, y);
-                color = this.iteratePointJulia(curr);
-                g.setColor(color);
-                g.drawRect(x, y, 1, 1);
-            }
+        MutableComplex z = new MutableComplex(c);
+        while (z.norm() < 4.0 && iterCount < this.iterMax) {
+            z.squareAdd(this.juliaPoint);
+            iterCount++;
         }
+        return this.chooseColor(iterCount);
     }
 
     // TODO: Write tests for this
     Color iteratePointMandel(ComplexNumber c) {
         int iterCount = 0;
-//        ComplexNumber z = c;
-//        while (z.abs() < 2.0 && iterCount < this.iterMax) {
-//            z = z.times(z).plus(c);
-//            iterCount++;
-//        }
-        return this.chooseColor(iterCount);
-    }
-
-    private void drawMandelbrot(Graphics g) {
-        ComplexNumber curr;
-        Color color;
-        for (int x = 0; x < this.maxX; x++) {
-            for (int y = 0; y < this.maxY; y++) {
-                curr = this.getNumber(x, y);
-                color = this.iteratePointMandel(curr);
-                g.setColor(color);
-                g.drawRect(x, y, 1, 1);
-            }
+        MutableComplex z = new MutableComplex(c);
+        while (z.norm() < 4.0 && iterCount < this.iterMax) {
+            z.squareAdd(c);
+            iterCount++;
         }
+        return this.chooseColor(iterCount);
     }
 
     @Override
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
+        this.composeFrame();
+        g.drawImage(this.lastFrame, 0, 0, null);
+        if (this.showRenderStats) {
+            this.drawRenderStats(g);
+        }
+    }
+
+    private TileKey getTileKey(int zoom, int tileX, int tileY) {
         if (this.juliaFlag) {
-            this.drawJulia(g);
+            return TileKey.julia(zoom, tileX, tileY, this.iterMax,
+                    this.juliaPoint).withKernel(this.kernel);
+        }
+        return TileKey.mandelbrot(zoom, tileX, tileY, this.iterMax)
+                .withKernel(this.kernel);
+    }
+
+    /**
+     * Draws the tiles of the current view that are ready into the frame
+     * buffer, and requests the ones that aren't, nearest to the mouse (or to
+     * the center, if the mouse is elsewhere) first. Once the frame is
+     * complete, the tiles the user is likely to want next are prefetched.
+     */
+    private void composeFrame() {
+        if (this.lastFrame == null || this.lastFrameShared
+                || this.lastFrame.getWidth() != this.maxX
+                || this.lastFrame.getHeight() != this.maxY) {
+            this.lastFrame = new BufferedImage(this.maxX, this.maxY,
+                    BufferedImage.TYPE_INT_RGB);
+            this.lastFrameShared = false;
+        }
+        double focusX = this.mouseInside ? this.lastMouseX : this.maxX / 2.0;
+        double focusY = this.mouseInside ? this.lastMouseY : this.maxY / 2.0;
+        List<TileKey> missing = this.composeFrame(this.lastFrame,
+                this.getViewport(), focusX, focusY, this::getTileKey,
+                this.colorMapper);
+        this.lastFrameComplete = missing.isEmpty();
+        if (missing.isEmpty()) {
+            this.prefetchLikelyNextTiles();
+            return;
+        }
+        this.prefetcher.cancel();
+        this.prefetchedFor = null;
+    }
+
+    /**
+     * Once every tile of the view is ready, starts rendering the tiles for the
+     * next zoom in, a margin of one tile around the view and the next zoom
+     * out, in that order, at low priority. The corners are worked out the same
+     * way as in {@link #zoomIn()} and {@link #zoomOut()}.
+     */
+    private void prefetchLikelyNextTiles() {
+        Viewport current = this.getViewport();
+        String description = current.toString();
+        if (description.equals(this.prefetchedFor)) {
+            return;
+        }
+        this.prefetchedFor = description;
+        ComplexNumber zoomCorner = this.getNumber(this.maxX / 4,
+                this.maxY / 4);
+        Viewport zoomedIn = null, zoomedOut = null;
+        if (this.pixelsPerUnitInterval < MAXIMUM_PIXELS_PER_UNIT_INTERVAL) {
+            zoomedIn = this.getViewport(zoomCorner,
+                    this.pixelsPerUnitInterval * 2);
+        }
+        if (this.pixelsPerUnitInterval > MINIMUM_PIXELS_PER_UNIT_INTERVAL) {
+            zoomedOut = this.getViewport(zoomCorner,
+                    this.pixelsPerUnitInterval / 2);
+        }
+        Viewport in = zoomedIn, out = zoomedOut;
+        this.prefetcher.prefetch(() -> {
+            List<TileKey> keys = new ArrayList<>();
+            if (in != null) {
+                keys.addAll(this.tileEngine.tilesCovering(in
+                        .withIterationMaximum(this.iterMaxPolicy
+                                .chooseIterationMaximum(in)), 0));
+            }
+            keys.addAll(this.tileEngine.tilesCovering(current, 1));
+            if (out != null) {
+                keys.addAll(this.tileEngine.tilesCovering(out
+                        .withIterationMaximum(this.iterMaxPolicy
+                                .chooseIterationMaximum(out)), 0));
+            }
+            return keys;
+        });
+    }
+
+    private void drawRenderStats(Graphics g) {
+        List<String> lines = new ArrayList<>();
+        TileCache<TileKey, IterationData> tiles = this.tileEngine.getCache();
+        lines.add(String.format("View tiles: %d cached, %d waiting, "
+                + "%d rendered", tiles.size(),
+                this.tileEngine.getScheduler().getWaitingCount(),
+                tiles.getLoadCount()));
+        RenderMetrics metrics = this.renderStats.getLastMetrics();
+        if (metrics != null) {
+            lines.add(String.format("Last frame: %.1f ms, %.2f Mpx/s",
+                    metrics.getWallTimeNanos() / 1.0E6,
+                    metrics.getPixelsPerSecond() / 1.0E6));
+            lines.add(String.format("Tiles rendered: %d, slowest %.1f ms",
+                    metrics.getTileCount(),
+                    metrics.getMaximumTileTimeNanos() / 1.0E6));
+            lines.add(String.format("Iterations: %d, %.1f%% at iterMax %d",
+                    metrics.getTotalIterations(),
+                    100.0 * metrics.getMaxedFraction(),
+                    metrics.getViewport().getIterationMaximum()));
+        }
+        int lineHeight = g.getFontMetrics().getHeight();
+        g.setColor(OVERLAY_BACKGROUND);
+        g.fillRect(4, 4, 320, lineHeight * lines.size() + 8);
+        g.setColor(Color.WHITE);
+        for (int i = 0; i < lines.size(); i++) {
+            g.drawString(lines.get(i), 10, 4 + lineHeight * (i + 1));
+        }
+    }
+
+    private void setToggleRenderStats() {
+        this.showRenderStats = this.toggleRenderStats.isSelected();
+        if (this.showRenderStats) {
+            this.frameMeter.addRenderListener(this.renderStats);
+            this.frameMeter.addRenderListener(this.overlayRefresher);
         } else {
-            this.drawMandelbrot(g);
+            this.frameMeter.removeRenderListener(this.overlayRefresher);
+            if (!RENDER_STATS_JMX_FLAG) {
+                this.frameMeter.removeRenderListener(this.renderStats);
+            }
         }
+        this.repaint();
     }
 
-    private void saveDiagramAs() {
-        BufferedImage diagram = new BufferedImage(this.maxX,
-                this.maxY, BufferedImage.TYPE_INT_RGB);
-        Graphics2D graph = diagram.createGraphics();
-        this.paint(graph);
-        String suggestedFilename;
+    // TODO: Write tests for this
+    Viewport getViewport() {
+        return this.getViewport(this.topLeftCorner,
+                this.pixelsPerUnitInterval);
+    }
+
+    private Viewport getViewport(ComplexNumber corner, int pxui) {
+        if (this.juliaFlag) {
+            return Viewport.julia(corner, pxui, this.maxX, this.maxY,
+                    this.iterMax, this.juliaPoint).withKernel(this.kernel);
+        }
+        return Viewport.mandelbrot(corner, pxui, this.maxX, this.maxY,
+                this.iterMax).withKernel(this.kernel);
+    }
+
+    private String getSuggestedFilename(String extension) {
         if (this.juliaFlag) {
             String pointStr = this.juliaPoint.toString().replace("\u2212", "n")
                     .replace(".", "d").replace("+", "p");
-            suggestedFilename = "Julia Set " + pointStr + " pxui"
-                    + this.pixelsPerUnitInterval + ".png";
-        } else {
-            suggestedFilename = "Mandelbrot Set pxui"
-                    + this.pixelsPerUnitInterval + ".png";
+            return "Julia Set " + pointStr + " pxui"
+                    + this.pixelsPerUnitInterval + extension;
         }
-        File diagramFile = new File(suggestedFilename);
+        return "Mandelbrot Set pxui" + this.pixelsPerUnitInterval + extension;
+    }
+
+    /**
+     * Asks the user for a file to save to.
+     * @param suggestedFilename The filename to suggest. For example,
+     * "Mandelbrot Set pxui256.png".
+     * @param filter The file filter. For example, a <code>PNGFileFilter</code>.
+     * @return The chosen file, or null if the user canceled or there was an
+     * error, in which case the user has already been told.
+     */
+    private File chooseFileToSave(String suggestedFilename, FileFilter filter) {
         FileChooserWithOverwriteGuard fileChooser
                 = new FileChooserWithOverwriteGuard();
-        FileFilter pngFilter = new PNGFileFilter();
-        fileChooser.addChoosableFileFilter(pngFilter);
+        fileChooser.addChoosableFileFilter(filter);
         if (this.haveSavedBefore) {
             fileChooser.setCurrentDirectory(new File(prevSavePathname));
         }
-        fileChooser.setSelectedFile(diagramFile);
+        fileChooser.setSelectedFile(new File(suggestedFilename));
         int fcRet = fileChooser.showSaveDialog(this);
         String msg;
         switch (fcRet) {
             case JFileChooser.APPROVE_OPTION:
-                diagramFile = fileChooser.getSelectedFile();
-                String filePath = diagramFile.getAbsolutePath();
+                File file = fileChooser.getSelectedFile();
+                String filePath = file.getAbsolutePath();
                 prevSavePathname = filePath.substring(0,
                         filePath.lastIndexOf(File.separator));
                 haveSavedBefore = true;
-                try {
-                    ImageIO.write(diagram, "PNG", diagramFile);
-                } catch (IOException ioe) {
-                    msg = "Image input/output exception occurred:\n "
-                            + ioe.getMessage();
-                    JOptionPane.showMessageDialog(this.frame, msg);
-                }
-                break;
+                return file;
             case JFileChooser.CANCEL_OPTION:
                 msg = "File save canceled";
-                JOptionPane.showMessageDialog(this.frame, msg);
                 break;
             case JFileChooser.ERROR_OPTION:
                 msg = "An error occurred trying to choose a file to save to";
-                JOptionPane.showMessageDialog(this.frame, msg);
                 break;
             default:
                 msg = "Unexpected option " + fcRet + " from file chooser";
-                JOptionPane.showMessageDialog(this.frame, msg);
         }
+        JOptionPane.showMessageDialog(this.frame, msg);
+        return null;
     }
-    
+
+    /**
+     * Saves the frame that's on screen, as is, off the event dispatch thread,
+     * so that the only cost is the PNG encoding. If some tiles of the frame were still missing, the view is
+     * rendered whole instead, off the event dispatch thread.
+     */
+    private void saveDiagramAs() {
+        if (!this.lastFrameComplete) {
+            this.renderAndSaveDiagram(this.getViewport());
+            return;
+        }
+        BufferedImage diagram = this.lastFrame;
+        // Painting continues while the file chooser is open
+        this.lastFrameShared = true;
+        File diagramFile = this.chooseFileToSave(
+                this.getSuggestedFilename(".png"), new PNGFileFilter());
+        if (diagramFile != null) {
+            new FrameSaver(this.frame, this.getViewport(), diagram,
+                    diagramFile).start();
+        }
+    }
+
+    /**
+     * Asks the user for a resolution, then renders the current view at that
+     * resolution and saves it.
+     */
+    private void saveDiagramAtResolution() {
+        String[] options = new String[SAVE_SCALES.length];
+        String current = null;
+        for (int i = 0; i < SAVE_SCALES.length; i++) {
+            options[i] = (int) Math.round(this.maxX * SAVE_SCALES[i]) + " by "
+                    + (int) Math.round(this.maxY * SAVE_SCALES[i]);
+            if (SAVE_SCALES[i] == 2.0) {
+                current = options[i];
+            }
+        }
+        Object choice = JOptionPane.showInputDialog(this.frame,
+                "Resolution to save at:", "Save Diagram at Resolution",
+                JOptionPane.QUESTION_MESSAGE, null, options, current);
+        if (choice == null) {
+            return;
+        }
+        double scale = SAVE_SCALES[Arrays.asList(options).indexOf(choice)];
+        this.renderAndSaveDiagram(this.getViewport().scaledTo(
+                (int) Math.round(this.maxX * scale),
+                (int) Math.round(this.maxY * scale)));
+    }
+
+    /**
+     * Asks the user for a file, then renders a viewport and saves it to that
+     * file off the event dispatch thread, showing a progress monitor that lets
+     * the user cancel.
+     * @param viewport The viewport to render, which may be at a different
+     * resolution from the view on screen.
+     */
+    private void renderAndSaveDiagram(Viewport viewport) {
+        File diagramFile = this.chooseFileToSave(
+                this.getSuggestedFilename(".png"), new PNGFileFilter());
+        if (diagramFile != null) {
+            new DiagramSaver(viewport, diagramFile).start();
+        }
+    }
+
+    /**
+     * Renders a viewport, antialiases it and saves it as a PNG file.
+     */
+    private final class DiagramSaver extends BackgroundSaver {
+
+        @Override
+        protected Void doInBackground() throws IOException {
+            IterationData data = this.renderInBands(80);
+            if (data == null) {
+                return null;
+            }
+            this.publish("Antialiasing");
+            int iterationMaximum = this.viewport.getIterationMaximum();
+            BufferedImage diagram = colorMapper.toImage(data,
+                    iterationMaximum);
+            int refined = supersampler.antialias(this.viewport, data,
+                    ColorMapper.pixelsOf(diagram));
+            if (this.isCancelled()) {
+                return null;
+            }
+            this.setProgress(90);
+            this.publish("Writing " + this.file.getName() + " (refined "
+                    + refined + " of " + data.getIterationCounts().length
+                    + " pixels)");
+            new PNGWriter().write(diagram, this.file);
+            return null;
+        }
+
+        DiagramSaver(Viewport viewport, File file) {
+            super(MandelbrotJuliaViewer.this.frame, viewport, file);
+        }
+
+    }
+
+    /**
+     * Renders a viewport and saves its raw iteration data.
+     */
+    private final class IterationDataSaver extends BackgroundSaver {
+
+        @Override
+        protected Void doInBackground() throws IOException {
+            IterationData data = this.renderInBands(90);
+            if (data == null) {
+                return null;
+            }
+            this.publish("Writing " + this.file.getName());
+            new IterationDataFile(this.viewport, data).write(this.file);
+            return null;
+        }
+
+        IterationDataSaver(Viewport viewport, File file) {
+            super(MandelbrotJuliaViewer.this.frame, viewport, file);
+        }
+
+    }
+
+    /**
+     * Asks the user for a file, then saves the raw iteration data of the
+     * current view to it off the event dispatch thread, so that it can be
+     * recolored later without being recomputed.
+     */
+    private void saveIterationDataAs() {
+        if (!(this.kernel instanceof QuadraticKernel)) {
+            String msg = "Iteration data can only be saved for "
+                    + FORMULA_KERNELS[0].getName();
+            JOptionPane.showMessageDialog(this.frame, msg);
+            return;
+        }
+        Viewport viewport = this.getViewport();
+        File dataFile = this.chooseFileToSave(
+                this.getSuggestedFilename(IterationDataFile.EXTENSION),
+                new IterationDataFileFilter());
+        if (dataFile != null) {
+            new IterationDataSaver(viewport, dataFile).start();
+        }
+    }
+
     // TODO: Write tests for this
     void copyReadoutsToClipboard() {
 //        String readouts = this.frame.getTitle() + "\n"
@@ -292,18 +663,70 @@ public final class MandelbrotJuliaViewer extends Viewer {
 //        this.ownsClipboard = true;
     }
 
+    /**
+     * Puts the frame that's on screen on the clipboard, without repainting or
+     * copying it. The next frame is composed into a new buffer, so what's on
+     * the clipboard doesn't change. The PNG flavor is only encoded if
+     * something asks for it. If some tiles of the frame were still missing,
+     * the view is rendered whole instead, off the event dispatch thread, and
+     * put on the clipboard once it's done. A view with no pixels isn't
+     * copied.
+     */
     // TODO: Write tests for this
     void copyDiagramToClipboard() {
-//        BufferedImage diagram = new BufferedImage(this.maxX, this.maxY,
-//                BufferedImage.TYPE_INT_RGB);
-//        Graphics2D graph = diagram.createGraphics();
-//        this.paint(graph);
-//        ImageSelection imgSel = new ImageSelection(diagram);
-//        this.getToolkit().getSystemClipboard().setContents(imgSel, this);
-//        this.ownsClipboard = true;
+        if (this.maxX < 1 || this.maxY < 1) {
+            return;
+        }
+        if (!this.lastFrameComplete) {
+            new DiagramCopier(this.getViewport()).execute();
+            return;
+        }
+        this.lastFrameShared = true;
+        this.putDiagramOnClipboard(this.lastFrame);
+    }
+
+    private void putDiagramOnClipboard(BufferedImage diagram) {
+        ImageSelection imgSel = new ImageSelection(diagram);
+        this.getToolkit().getSystemClipboard().setContents(imgSel, this);
+        this.ownsClipboard = true;
+    }
+
+    /**
+     * Renders a viewport and colors it, off the event dispatch thread, then
+     * puts it on the clipboard.
+     */
+    private final class DiagramCopier extends SwingWorker<BufferedImage, Void> {
+
+        private final Viewport viewport;
+
+        @Override
+        protected BufferedImage doInBackground() {
+            IterationData data = new TileRenderer().render(this.viewport);
+            return colorMapper.toImage(data,
+                    this.viewport.getIterationMaximum());
+        }
+
+        @Override
+        protected void done() {
+            try {
+                putDiagramOnClipboard(this.get());
+            } catch (ExecutionException ee) {
+                String msg = "Could not render diagram to copy:\n "
+                        + ee.getCause().getMessage();
+                JOptionPane.showMessageDialog(frame, msg);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        DiagramCopier(Viewport viewport) {
+            this.viewport = viewport;
+        }
+
     }
 
     private void toggleJuliaFlag() {
+        this.prefetcher.cancel();
         this.juliaFlag = !this.juliaFlag;
         if (this.juliaFlag) {
             String text = "Julia set for " + this.juliaPoint.toString();
@@ -318,6 +741,7 @@ public final class MandelbrotJuliaViewer extends Viewer {
             this.topLeftCorner = this.juliaTopLeftCorner;
             this.topLeftCorner = this.mandelbrotTopLeftCorner;
         }
+        this.juliaPreview.setVisible(!this.juliaFlag);
         this.checkZoomMenuEnablements();
         this.repaint();
         this.checkIterationMaximum();
@@ -332,15 +756,17 @@ public final class MandelbrotJuliaViewer extends Viewer {
         this.zoomOutMenuItem.setEnabled(zoomOutAllowed);
     }
 
+    /**
+     * Adjusts the iteration maximum to the current view, by sampling a sparse
+     * grid of the view first rather than going by the zoom level alone.
+     */
     private void checkIterationMaximum() {
-        if (this.pixelsPerUnitInterval < 32768) {
-            this.iterMax = DEFAULT_ITERATION_MAXIMUM;
-        } else {
-            this.iterMax = 2048;
-        }
+        this.iterMax = this.iterMaxPolicy
+                .chooseIterationMaximum(this.getViewport());
     }
 
     private void zoomIn() {
+        this.prefetcher.cancel();
         int replacementX = this.maxX / 4;
         int replacementY = this.maxY / 4;
         this.topLeftCorner = this.getNumber(replacementX, replacementY);
@@ -350,7 +776,74 @@ public final class MandelbrotJuliaViewer extends Viewer {
         this.checkIterationMaximum();
     }
 
+    /**
+     * Switches to another formula. Tiles of the previous formula stay cached,
+     * so switching back is quick.
+     * @param newKernel The kernel for the formula.
+     */
+    private void setKernel(FractalKernel newKernel) {
+        this.prefetcher.cancel();
+        this.prefetchedFor = null;
+        this.kernel = newKernel;
+        this.juliaPreview.setKernel(newKernel);
+        this.juliaPreview.requestPreview(this.juliaPoint);
+        this.repaint();
+    }
+
+    /**
+     * Asks the user for a formula to iterate, and switches to it. If the
+     * formula can't be compiled, the user is told why and asked again.
+     * @return True if the user gave a valid formula, false if the user
+     * canceled.
+     */
+    private boolean chooseCustomFormula() {
+        String prompt = "Formula in z and c, such as z^3 - z + c";
+        String text = (String) JOptionPane.showInputDialog(this.frame, prompt,
+                "Custom formula", JOptionPane.QUESTION_MESSAGE, null, null,
+                this.kernel.getName());
+        while (text != null) {
+            try {
+                this.setKernel(FormulaCompiler.compile(text));
+                return true;
+            } catch (IllegalArgumentException iae) {
+                text = (String) JOptionPane.showInputDialog(this.frame,
+                        iae.getMessage(), "Custom formula",
+                        JOptionPane.ERROR_MESSAGE, null, null, text);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Opens a window showing the orbit density of the current view, which
+     * builds up until the window is closed. Only the Mandelbrot set for
+     * <i>z</i><sup>2</sup> + <i>c</i> has an orbit density.
+     */
+    private void showBuddhabrot() {
+        if (this.juliaFlag || !(this.kernel instanceof QuadraticKernel)) {
+            String msg = "Orbit density is only available for the Mandelbrot"
+                    + " set of z^2 + c";
+            JOptionPane.showMessageDialog(this.frame, msg);
+            return;
+        }
+        BuddhabrotPanel panel = new BuddhabrotPanel(this.getViewport());
+        JFrame densityFrame = new JFrame("Orbit density of "
+                + this.getViewport().toString());
+        densityFrame.add(panel, BorderLayout.CENTER);
+        densityFrame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        densityFrame.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent we) {
+                panel.dispose();
+            }
+        });
+        densityFrame.pack();
+        densityFrame.setVisible(true);
+        panel.start();
+    }
+
     private void zoomOut() {
+        this.prefetcher.cancel();
         int replacementX = this.maxX / 4;
         int replacementY = this.maxY / 4;
         this.topLeftCorner = this.getNumber(replacementX, replacementY);
@@ -382,6 +875,12 @@ public final class MandelbrotJuliaViewer extends Viewer {
             case "saveDiagramAs":
                 this.saveDiagramAs();
                 break;
+            case "saveDiagramAtResolution":
+                this.saveDiagramAtResolution();
+                break;
+            case "saveIterationDataAs":
+                this.saveIterationDataAs();
+                break;
             case "close":
                 this.frame.dispose();
                 break;
@@ -397,6 +896,9 @@ public final class MandelbrotJuliaViewer extends Viewer {
             case "mjToggle":
                 this.toggleJuliaFlag();
                 break;
+            case "showBuddhabrot":
+                this.showBuddhabrot();
+                break;
             case "zoomIn":
                 this.zoomIn();
                 break;
@@ -412,6 +914,9 @@ public final class MandelbrotJuliaViewer extends Viewer {
             case "toggleReadOuts":
                 this.setToggleReadoutsEnabled();
                 break;
+            case "toggleRenderStats":
+                this.setToggleRenderStats();
+                break;
             case "showUserManual":
 //                this.showUserManual();
                 break;
@@ -430,12 +935,12 @@ public final class MandelbrotJuliaViewer extends Viewer {
 
     @Override
     public void mouseEntered(MouseEvent me) {
-        //
+        this.mouseInside = true;
     }
 
     @Override
     public void mouseExited(MouseEvent me) {
-        //
+        this.mouseInside = false;
     }
 
     @Override
@@ -452,6 +957,7 @@ public final class MandelbrotJuliaViewer extends Viewer {
                 || this.mousePressedY != mouseReleasedY) {
             int x = this.mousePressedX - mouseReleasedX;
             int y = this.mousePressedY - mouseReleasedY;
+            this.prefetcher.cancel();
             ComplexNumber offset = this.getRelativeNumber(x, y);
             this.topLeftCorner = this.topLeftCorner.plus(offset);
             this.repaint();
@@ -460,11 +966,16 @@ public final class MandelbrotJuliaViewer extends Viewer {
 
     @Override
     public void mouseMoved(MouseEvent me) {
+        this.lastMouseX = me.getX();
+        this.lastMouseY = me.getY();
         this.currPoint = this.getNumber(me.getX(), me.getY());
         this.readoutRe.setText(Double.toString(this.currPoint.getRealPart()));
         this.readoutIm.setText(Double.toString(this.currPoint
                 .getImaginaryPart()));
-        if (!juliaFlag) this.juliaPoint = this.currPoint;
+        if (!juliaFlag) {
+            this.juliaPoint = this.currPoint;
+            this.juliaPreview.requestPreview(this.juliaPoint);
+        }
     }
 
     @Override
@@ -483,6 +994,18 @@ public final class MandelbrotJuliaViewer extends Viewer {
         JMenuItem menuItem = this.makeMenuItem("Save diagram as...",
                 accDescr, "saveDiagramAs", accelerator);
         menu.add(menuItem);
+        accDescr = "Render current view at another resolution and save it";
+        accelerator = KeyStroke.getKeyStroke(KeyEvent.VK_R,
+                maskCtrlCommand + Event.SHIFT_MASK);
+        menuItem = this.makeMenuItem("Save diagram at resolution...",
+                accDescr, "saveDiagramAtResolution", accelerator);
+        menu.add(menuItem);
+        accDescr = "Save iteration data of current view for later recoloring";
+        accelerator = KeyStroke.getKeyStroke(KeyEvent.VK_D,
+                maskCtrlCommand + Event.SHIFT_MASK);
+        menuItem = this.makeMenuItem("Save iteration data as...", accDescr,
+                "saveIterationDataAs", accelerator);
+        menu.add(menuItem);
         menu.addSeparator();
         accDescr = "Close the window";
         accelerator = KeyStroke.getKeyStroke(KeyEvent.VK_W, maskCtrlCommand);
@@ -530,6 +1053,41 @@ public final class MandelbrotJuliaViewer extends Viewer {
         JMenuItem menuItem = this.makeMenuItem("Toggle Mandelbrot/Julia",
                 accDescr, "mjToggle", accelerator);
         menu.add(menuItem);
+        JMenu formulaMenu = new JMenu("Formula");
+        formulaMenu.getAccessibleContext()
+                .setAccessibleDescription("Menu to choose the formula to iterate");
+        ButtonGroup formulaGroup = new ButtonGroup();
+        for (FractalKernel formula : FORMULA_KERNELS) {
+            JRadioButtonMenuItem formulaItem = new JRadioButtonMenuItem(
+                    formula.getName(), formula.equals(this.kernel));
+            formulaItem.addActionListener(event -> {
+                this.selectedFormulaItem = formulaItem;
+                this.setKernel(formula);
+            });
+            if (formulaItem.isSelected()) {
+                this.selectedFormulaItem = formulaItem;
+            }
+            formulaGroup.add(formulaItem);
+            formulaMenu.add(formulaItem);
+        }
+        formulaMenu.addSeparator();
+        JRadioButtonMenuItem customItem
+                = new JRadioButtonMenuItem("Custom formula...");
+        customItem.addActionListener(event -> {
+            if (this.chooseCustomFormula()) {
+                this.selectedFormulaItem = customItem;
+                customItem.setText("Custom: " + this.kernel.getName());
+            } else {
+                this.selectedFormulaItem.setSelected(true);
+            }
+        });
+        formulaGroup.add(customItem);
+        formulaMenu.add(customItem);
+        menu.add(formulaMenu);
+        accDescr = "Show the orbit density of the current view as it builds up";
+        menuItem = this.makeMenuItem("Orbit density (Buddhabrot)...", accDescr,
+                "showBuddhabrot", null);
+        menu.add(menuItem);
         menu.addSeparator();
         accDescr = "Zoom in, by increasing pixels per unit interval";
         if (MAC_OS_FLAG) {
@@ -573,6 +1131,15 @@ public final class MandelbrotJuliaViewer extends Viewer {
         }
         this.toggleReadoutsEnabled.addActionListener(this);
         menu.add(this.toggleReadoutsEnabled);
+        this.toggleRenderStats = new JCheckBoxMenuItem("Show render statistics",
+                false);
+        this.toggleRenderStats.getAccessibleContext()
+                .setAccessibleDescription("Toggle whether frame timings and iteration counts are shown over the diagram");
+        this.toggleRenderStats.setActionCommand("toggleRenderStats");
+        this.toggleRenderStats.setAccelerator(KeyStroke
+                .getKeyStroke(KeyEvent.VK_F3, 0));
+        this.toggleRenderStats.addActionListener(this);
+        menu.add(this.toggleRenderStats);
         return menu;
     }
 
@@ -603,12 +1170,10 @@ public final class MandelbrotJuliaViewer extends Viewer {
     private JPanel setUpReadOuts() {
         JPanel readOutsPane = new JPanel();
         readOutsPane.add(new JLabel("Re: "));
-        this.readoutRe = new JTextField(BASELINE_READOUT_FIELD_COLUMNS);
         this.readoutRe.setText(Double.toString(this.currPoint.getRealPart()));
         this.readoutRe.setEditable(false);
         readOutsPane.add(this.readoutRe);
         readOutsPane.add(new JLabel(" Im: "));
-        this.readoutIm = new JTextField(BASELINE_READOUT_FIELD_COLUMNS);
         this.readoutIm.setText(Double.toString(this.currPoint
                 .getImaginaryPart()));
         this.readoutIm.setEditable(false);
@@ -622,27 +1187,22 @@ public final class MandelbrotJuliaViewer extends Viewer {
         } else {
             maskCtrlCommand = Event.CTRL_MASK;
         }
-        this.setBackground(Color.BLACK);
-        Dimension dimension = new Dimension(DEFAULT_HORIZ_MAX,
-                DEFAULT_VERTIC_MAX);
-        this.setPreferredSize(dimension);
-        this.maxX = DEFAULT_HORIZ_MAX;
-        this.maxY = DEFAULT_VERTIC_MAX;
-        this.mandelbrotTopLeftCorner = DEFAULT_MANDELBROT_TOP_LEFT_CORNER;
-        this.juliaTopLeftCorner = DEFAULT_JULIA_TOP_LEFT_CORNER;
-        this.pixelsPerUnitInterval = DEFAULT_PIXELS_PER_UNIT_INTERVAL;
-        this.prevMandelPxui = this.pixelsPerUnitInterval;
         String text = "Mandelbrot set";
         if (this.juliaFlag) {
             text = "Julia set for " + this.juliaPoint.toString();
-            this.topLeftCorner = this.juliaTopLeftCorner;
-        } else {
-            this.topLeftCorner = this.mandelbrotTopLeftCorner;
+        }
+        this.checkIterationMaximum();
+        if (RENDER_STATS_JMX_FLAG) {
+            this.frameMeter.addRenderListener(this.renderStats);
+            this.renderStats.register("MandelbrotJuliaViewer");
         }
         this.frame = new JFrame(text);
         this.frame.setJMenuBar(this.setUpMenuBar());
         this.frame.add(this, BorderLayout.CENTER);
         this.frame.add(this.setUpReadOuts(), BorderLayout.PAGE_END);
+        this.juliaPreview.setVisible(!this.juliaFlag);
+        this.juliaPreview.requestPreview(this.juliaPoint);
+        this.frame.add(this.juliaPreview, BorderLayout.LINE_END);
         this.frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         this.frame.pack();
         this.frame.setVisible(true);
@@ -658,6 +1218,22 @@ public final class MandelbrotJuliaViewer extends Viewer {
         this.currPoint = point;
         this.juliaPoint = this.currPoint;
         this.juliaFlag = showJulia;
+        this.setBackground(Color.BLACK);
+        Dimension dimension = new Dimension(DEFAULT_HORIZ_MAX,
+                DEFAULT_VERTIC_MAX);
+        this.setPreferredSize(dimension);
+        this.maxX = DEFAULT_HORIZ_MAX;
+        this.maxY = DEFAULT_VERTIC_MAX;
+        this.mandelbrotTopLeftCorner = DEFAULT_MANDELBROT_TOP_LEFT_CORNER;
+        this.juliaTopLeftCorner = DEFAULT_JULIA_TOP_LEFT_CORNER;
+        this.pixelsPerUnitInterval = DEFAULT_PIXELS_PER_UNIT_INTERVAL;
+        this.prevMandelPxui = this.pixelsPerUnitInterval;
+        if (this.juliaFlag) {
+            this.topLeftCorner = this.juliaTopLeftCorner;
+        } else {
+            this.topLeftCorner = this.mandelbrotTopLeftCorner;
+        }
+        this.juliaPreview = new JuliaPreviewPanel(this.colorMapper);
     }
 
 //    public static void main(String[] args) {
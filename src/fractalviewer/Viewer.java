@@ -16,6 +16,20 @@
  */
 package fractalviewer;
 
+import colors.mappers.ColorMapper;
+import fileops.PNGWriter;
+import rendering.FrameMeter;
+import rendering.InteriorFill;
+import rendering.IterationData;
+import rendering.TileCache;
+import rendering.TileEngine;
+import rendering.TileKey;
+import rendering.TilePriority;
+import rendering.TileRenderer;
+import rendering.Viewport;
+
+import java.awt.Component;
+import java.awt.Graphics2D;
 import java.awt.datatransfer.Clipboard;
 import java.awt.datatransfer.ClipboardOwner;
 import java.awt.datatransfer.Transferable;
@@ -23,10 +37,23 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.swing.JMenuItem;
+import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 import javax.swing.KeyStroke;
+import javax.swing.ProgressMonitor;
+import javax.swing.SwingWorker;
 
 /**
  *
@@ -34,9 +61,302 @@ import javax.swing.KeyStroke;
  */
 public abstract class Viewer extends JPanel implements ActionListener, 
         ClipboardOwner, MouseListener, MouseMotionListener {
+
+    static final int VIEWER_TILE_SIZE = 128;
+
+    static final int TILE_CACHE_CAPACITY = 256;
+
+    /**
+     * How many rows to render at a time when saving a diagram that has to be
+     * rendered first, so that progress can be shown and the user can cancel.
+     */
+    static final int SAVE_BAND_ROWS = 64;
+
+    /**
+     * The tile engine of all viewers. Sharing it means that the windows of
+     * different viewers don't compete for the rendering pool, as their tiles
+     * go through the same scheduler, and that they share the same cache. Tiles
+     * of different formulas have different keys, so they don't get mixed up.
+     * The inside of the set is filled in rather than iterated wherever the
+     * formula allows, which is the bulk of the time for views near the set at
+     * a high iteration maximum.
+     */
+    static final TileEngine TILE_ENGINE = new TileEngine(
+            ForkJoinPool.commonPool(), VIEWER_TILE_SIZE, TILE_CACHE_CAPACITY,
+            new InteriorFill());
     
     boolean ownsClipboard = false;
 
+    /**
+     * The colored images of the tiles this viewer has shown. The iteration
+     * data behind them is in the cache of {@link #TILE_ENGINE}, which is
+     * shared, but the coloring is up to each viewer.
+     */
+    final TileCache<TileKey, BufferedImage> tileImages
+            = new TileCache<>(TILE_CACHE_CAPACITY);
+
+    /**
+     * Measures the frames this viewer composes from tiles, for whoever adds a
+     * render listener to it.
+     */
+    final FrameMeter frameMeter = new FrameMeter(TILE_ENGINE);
+
+    /**
+     * Makes the key of a tile of a viewer's current view, with the viewer's
+     * formula and iteration maximum.
+     */
+    @FunctionalInterface
+    protected interface TileKeyFactory {
+
+        /**
+         * Makes the key of a tile.
+         * @param zoom The base 2 logarithm of the number of pixels per unit
+         * interval. For example, 8.
+         * @param tileX The horizontal position of the tile on the grid of
+         * {@link TileKey}. For example, &minus;3.
+         * @param tileY The vertical position of the tile on the grid of
+         * {@link TileKey}. For example, 2.
+         * @return The key.
+         */
+        TileKey makeKey(int zoom, int tileX, int tileY);
+
+    }
+
+    /**
+     * Asks the tile engine for a tile, and colors it once it's ready, unless
+     * the colored tile is already in {@link #tileImages}.
+     * @param key Which tile.
+     * @param priority How urgently the tile is wanted.
+     * @param distance How far the tile is from where the user is looking. For
+     * example, 240.0 pixels.
+     * @param colorMapper How to color the tile.
+     * @return A future for the colored tile. It may already be complete.
+     */
+    protected CompletableFuture<BufferedImage> requestTile(TileKey key,
+            TilePriority priority, double distance, ColorMapper colorMapper) {
+        return this.colorTile(key, TILE_ENGINE.request(key, priority,
+                distance), colorMapper);
+    }
+
+    private CompletableFuture<BufferedImage> colorTile(TileKey key,
+            CompletableFuture<IterationData> data, ColorMapper colorMapper) {
+        return this.tileImages.get(key, k -> data.thenApply(tile
+                -> colorMapper.toImage(tile, k.getIterationMaximum())));
+    }
+
+    private static double distanceToTile(TileKey key, double originX,
+            double originY, int tileSize, double focusX, double focusY) {
+        double centerX = originX + (key.getTileX() + 0.5) * tileSize;
+        double centerY = originY + (key.getTileY() + 0.5) * tileSize;
+        return Math.hypot(centerX - focusX, centerY - focusY);
+    }
+
+    /**
+     * Draws the tiles of a view that are ready into a frame buffer, and
+     * requests the ones that aren't, nearest to a focus point first. As each
+     * requested tile becomes ready, this viewer is repainted. The tiles are on
+     * the grid of {@link TileKey}, which works because the number of pixels
+     * per unit interval is always a power of 2. The tiles requested for a new
+     * view make up a frame for {@link #frameMeter}.
+     * @param frame The frame buffer, as big as the view.
+     * @param viewport The view. Its number of pixels per unit interval must
+     * be a power of 2.
+     * @param focusX The horizontal position of the point the user is looking
+     * at, such as the mouse position or the center of the view.
+     * @param focusY The vertical position of the point the user is looking
+     * at.
+     * @param keyFactory Makes the keys of the tiles.
+     * @param colorMapper How to color the tiles.
+     * @return The keys of the tiles that weren't ready and were requested,
+     * nearest the focus first. Empty if the frame is complete.
+     */
+    protected List<TileKey> composeFrame(BufferedImage frame,
+            Viewport viewport, double focusX, double focusY,
+            TileKeyFactory keyFactory, ColorMapper colorMapper) {
+        int width = frame.getWidth(), height = frame.getHeight();
+        double pixelsPerUnitInterval = viewport.getPixelsPerUnitInterval();
+        int zoom = Math.getExponent(pixelsPerUnitInterval);
+        int tileSize = TILE_ENGINE.getTileSize();
+        double originX = (TileKey.GRID_ORIGIN_RE - viewport
+                .getTopLeftCorner().getRealPart()) * pixelsPerUnitInterval;
+        double originY = (TileKey.GRID_ORIGIN_IM - viewport
+                .getTopLeftCorner().getImaginaryPart())
+                * pixelsPerUnitInterval;
+        int firstX = (int) Math.floor(-originX / tileSize);
+        int lastX = (int) Math.floor((width - 1 - originX) / tileSize);
+        int firstY = (int) Math.floor(-originY / tileSize);
+        int lastY = (int) Math.floor((height - 1 - originY) / tileSize);
+        List<TileKey> missing = new ArrayList<>();
+        Graphics2D g = frame.createGraphics();
+        g.setColor(this.getBackground());
+        g.fillRect(0, 0, width, height);
+        for (int tileY = firstY; tileY <= lastY; tileY++) {
+            for (int tileX = firstX; tileX <= lastX; tileX++) {
+                TileKey key = keyFactory.makeKey(zoom, tileX, tileY);
+                BufferedImage image = this.tileImages.getIfPresent(key);
+                if (image == null) {
+                    missing.add(key);
+                } else {
+                    g.drawImage(image, (int) Math.round(originX
+                            + tileX * tileSize), (int) Math.round(originY
+                            + tileY * tileSize), null);
+                }
+            }
+        }
+        g.dispose();
+        Comparator<TileKey> byDistance = Comparator.comparingDouble(key
+                -> distanceToTile(key, originX, originY, tileSize, focusX,
+                        focusY));
+        missing.sort(byDistance);
+        List<CompletableFuture<IterationData>> tiles = new ArrayList<>();
+        for (TileKey key : missing) {
+            CompletableFuture<IterationData> data = TILE_ENGINE.request(key,
+                    TilePriority.VISIBLE, distanceToTile(key, originX,
+                            originY, tileSize, focusX, focusY));
+            tiles.add(data);
+            this.colorTile(key, data, colorMapper).thenRun(this::repaint);
+        }
+        this.frameMeter.beginFrame(viewport, missing, tiles);
+        return missing;
+    }
+
+    /**
+     * Saves to a file off the event dispatch thread, showing the progress on
+     * a monitor that lets the user cancel. What's saved may have to be
+     * rendered first, which is done exactly, in bands of rows, with a
+     * renderer of its own rather than from the tiles on screen.
+     */
+    abstract static class BackgroundSaver extends SwingWorker<Void, String> {
+
+        final Viewport viewport;
+
+        final File file;
+
+        private final Component parent;
+
+        private final ProgressMonitor monitor;
+
+        /**
+         * Renders the viewport band by band, reporting progress as it goes.
+         * @param progressShare How much of the progress, out of 100, the
+         * rendering accounts for. For example, 80.
+         * @return The iteration data, or null if the save was canceled.
+         */
+        IterationData renderInBands(int progressShare) {
+            int width = this.viewport.getWidth();
+            int height = this.viewport.getHeight();
+            TileRenderer bandRenderer = new TileRenderer();
+            IterationData data = new IterationData(width, height);
+            for (int y0 = 0; y0 < height; y0 += SAVE_BAND_ROWS) {
+                if (this.isCancelled()) {
+                    return null;
+                }
+                int rows = Math.min(SAVE_BAND_ROWS, height - y0);
+                IterationData band = bandRenderer.render(
+                        this.viewport.region(0, y0, width, rows));
+                int offset = y0 * width;
+                int length = rows * width;
+                System.arraycopy(band.getIterationCounts(), 0,
+                        data.getIterationCounts(), offset, length);
+                System.arraycopy(band.getSmoothValues(), 0,
+                        data.getSmoothValues(), offset, length);
+                System.arraycopy(band.getDistanceEstimates(), 0,
+                        data.getDistanceEstimates(), offset, length);
+                System.arraycopy(band.getBasins(), 0, data.getBasins(),
+                        offset, length);
+                this.setProgress(progressShare * (y0 + rows) / height);
+            }
+            return data;
+        }
+
+        @Override
+        protected void process(List<String> notes) {
+            this.monitor.setNote(notes.get(notes.size() - 1));
+        }
+
+        @Override
+        protected void done() {
+            this.monitor.close();
+            String msg;
+            try {
+                this.get();
+                return;
+            } catch (CancellationException ce) {
+                msg = "File save canceled";
+            } catch (ExecutionException ee) {
+                msg = "Input/output exception occurred:\n "
+                        + ee.getCause().getMessage();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                msg = "File save interrupted";
+            }
+            JOptionPane.showMessageDialog(this.parent, msg);
+        }
+
+        /**
+         * Starts the save, canceling it if the user cancels the monitor.
+         */
+        void start() {
+            this.addPropertyChangeListener(event -> {
+                if ("progress".equals(event.getPropertyName())) {
+                    this.monitor.setProgress((Integer) event.getNewValue());
+                }
+                if (this.monitor.isCanceled()) {
+                    this.cancel(false);
+                }
+            });
+            this.execute();
+        }
+
+        /**
+         * Sets up the save. Call {@link #start()} to start it.
+         * @param parent The component to show the monitor and any error
+         * message over. For example, the viewer's window.
+         * @param viewport The view to save.
+         * @param file The file to save to.
+         */
+        BackgroundSaver(Component parent, Viewport viewport, File file) {
+            this.viewport = viewport;
+            this.file = file;
+            this.parent = parent;
+            this.monitor = new ProgressMonitor(parent, "Saving "
+                    + viewport.getWidth() + " by " + viewport.getHeight(),
+                    "Rendering", 0, 100);
+        }
+
+    }
+
+    /**
+     * Writes a frame that's already been composed from tiles to a PNG file,
+     * so that the only cost is the PNG encoding.
+     */
+    static final class FrameSaver extends BackgroundSaver {
+
+        private final BufferedImage frame;
+
+        @Override
+        protected Void doInBackground() throws IOException {
+            this.publish("Writing " + this.file.getName());
+            new PNGWriter().write(this.frame, this.file);
+            return null;
+        }
+
+        /**
+         * Sets up the save. Call {@link #start()} to start it.
+         * @param parent The component to show the monitor and any error
+         * message over. For example, the viewer's window.
+         * @param viewport The view the frame shows.
+         * @param frame The frame, which must not be drawn into any more.
+         * @param file The file to save to.
+         */
+        FrameSaver(Component parent, Viewport viewport, BufferedImage frame,
+                File file) {
+            super(parent, viewport, file);
+            this.frame = frame;
+        }
+
+    }
+
     // TODO: Write tests for this
     JMenuItem makeMenuItem(String menuItemText, String accessibleDescription,
             String actionCommand, KeyStroke accelerator) {
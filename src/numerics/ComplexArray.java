@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package numerics;
+
+/**
+ * Mutable fixed-length array of complex numbers, stored as two arrays of
+ * doubles, one for the real parts and one for the imaginary parts. Compared to
+ * an array of <code>ComplexNumber</code> references, this keeps the numbers
+ * contiguous in memory and creates no objects per number. The bulk operations
+ * are simple indexed loops over primitive arrays, which the JIT compiler can
+ * unroll and vectorize.
+ * <p>The bulk operations write to a result array that may be this array or the
+ * other operand, for in-place updates. The lengths of the operands and of the
+ * result must match. Unlike <code>ComplexNumber</code>, this class does not
+ * check that the numbers are finite.</p>
+ * @author Alonso del Arte
+ */
+public final class ComplexArray {
+
+    private final double[] realParts, imagParts;
+
+    public int length() {
+        return this.realParts.length;
+    }
+
+    /**
+     * Gives direct access to the real parts. Changes to the array are
+     * reflected in this object.
+     * @return The backing array, not a copy.
+     */
+    public double[] getRealParts() {
+        return this.realParts;
+    }
+
+    /**
+     * Gives direct access to the imaginary parts, divided by <i>i</i>. Changes
+     * to the array are reflected in this object.
+     * @return The backing array, not a copy.
+     */
+    public double[] getImaginaryParts() {
+        return this.imagParts;
+    }
+
+    /**
+     * Gives one of the numbers in this array as a <code>ComplexNumber</code>.
+     * @param index The index. For example, 0.
+     * @return The number at that index. For example, &minus;0.75 +
+     * 0.1<i>i</i>.
+     * @throws ArrayIndexOutOfBoundsException If <code>index</code> is negative
+     * or not less than the length.
+     * @throws IllegalArgumentException If the number at that index is not
+     * finite.
+     */
+    public ComplexNumber get(int index) {
+        return new ComplexNumber(this.realParts[index], this.imagParts[index]);
+    }
+
+    /**
+     * Sets one of the numbers in this array.
+     * @param index The index. For example, 0.
+     * @param re The real part. For example, &minus;0.75.
+     * @param im The imaginary part. For example, 0.1.
+     */
+    public void set(int index, double re, double im) {
+        this.realParts[index] = re;
+        this.imagParts[index] = im;
+    }
+
+    /**
+     * Sets one of the numbers in this array.
+     * @param index The index. For example, 0.
+     * @param number The number. For example, &minus;0.75 + 0.1<i>i</i>.
+     */
+    public void set(int index, ComplexNumber number) {
+        this.set(index, number.getRealPart(), number.getImaginaryPart());
+    }
+
+    /**
+     * Fills this array with evenly spaced numbers along a horizontal line, as
+     * for a row of pixels.
+     * @param re The real part of the first number. For example, &minus;2.75.
+     * @param step How much to add to the real part from one number to the
+     * next. For example, 0.00390625.
+     * @param im The imaginary part of all the numbers. For example, 0.0.
+     */
+    public void fillRow(double re, double step, double im) {
+        for (int i = 0; i < this.realParts.length; i++) {
+            this.realParts[i] = re + i * step;
+            this.imagParts[i] = im;
+        }
+    }
+
+    private void checkLength(ComplexArray other) {
+        if (other.length() != this.length()) {
+            String excMsg = "Length " + other.length()
+                    + " does not match length " + this.length();
+            throw new IllegalArgumentException(excMsg);
+        }
+    }
+
+    /**
+     * Adds the numbers of another array to the numbers of this array, element
+     * by element.
+     * @param addend The numbers to add.
+     * @param result Where to put the sums. May be this array or
+     * <code>addend</code>.
+     * @throws IllegalArgumentException If the lengths don't match.
+     */
+    public void plus(ComplexArray addend, ComplexArray result) {
+        this.checkLength(addend);
+        this.checkLength(result);
+        double[] aRe = this.realParts, aIm = this.imagParts;
+        double[] bRe = addend.realParts, bIm = addend.imagParts;
+        double[] rRe = result.realParts, rIm = result.imagParts;
+        for (int i = 0; i < aRe.length; i++) {
+            rRe[i] = aRe[i] + bRe[i];
+            rIm[i] = aIm[i] + bIm[i];
+        }
+    }
+
+    /**
+     * Multiplies the numbers of this array by the numbers of another array,
+     * element by element.
+     * @param multiplicand The numbers to multiply by.
+     * @param result Where to put the products. May be this array or
+     * <code>multiplicand</code>.
+     * @throws IllegalArgumentException If the lengths don't match.
+     */
+    public void times(ComplexArray multiplicand, ComplexArray result) {
+        this.checkLength(multiplicand);
+        this.checkLength(result);
+        double[] aRe = this.realParts, aIm = this.imagParts;
+        double[] bRe = multiplicand.realParts, bIm = multiplicand.imagParts;
+        double[] rRe = result.realParts, rIm = result.imagParts;
+        for (int i = 0; i < aRe.length; i++) {
+            double re = aRe[i] * bRe[i] - aIm[i] * bIm[i];
+            double im = aRe[i] * bIm[i] + aIm[i] * bRe[i];
+            rRe[i] = re;
+            rIm[i] = im;
+        }
+    }
+
+    /**
+     * Squares the numbers of this array, element by element.
+     * @param result Where to put the squares. May be this array.
+     * @throws IllegalArgumentException If the lengths don't match.
+     */
+    public void square(ComplexArray result) {
+        this.checkLength(result);
+        double[] aRe = this.realParts, aIm = this.imagParts;
+        double[] rRe = result.realParts, rIm = result.imagParts;
+        for (int i = 0; i < aRe.length; i++) {
+            double re = aRe[i] * aRe[i] - aIm[i] * aIm[i];
+            double im = 2.0 * aRe[i] * aIm[i];
+            rRe[i] = re;
+            rIm[i] = im;
+        }
+    }
+
+    /**
+     * Squares the numbers of this array and adds the numbers of another array,
+     * element by element. This is one step of <i>z</i><sup>2</sup> +
+     * <i>c</i> for a whole row of points at once.
+     * @param addend The numbers to add after squaring.
+     * @param result Where to put the results. May be this array or
+     * <code>addend</code>.
+     * @throws IllegalArgumentException If the lengths don't match.
+     */
+    public void squarePlus(ComplexArray addend, ComplexArray result) {
+        this.checkLength(addend);
+        this.checkLength(result);
+        double[] aRe = this.realParts, aIm = this.imagParts;
+        double[] bRe = addend.realParts, bIm = addend.imagParts;
+        double[] rRe = result.realParts, rIm = result.imagParts;
+        for (int i = 0; i < aRe.length; i++) {
+            double re = aRe[i] * aRe[i] - aIm[i] * aIm[i] + bRe[i];
+            double im = 2.0 * aRe[i] * aIm[i] + bIm[i];
+            rRe[i] = re;
+            rIm[i] = im;
+        }
+    }
+
+    /**
+     * Computes the norms of the numbers of this array. The formula is
+     * <i>N</i>(<i>a</i> + <i>bi</i>) = <i>a</i><sup>2</sup> +
+     * <i>b</i><sup>2</sup>.
+     * @param result Where to put the norms.
+     * @throws IllegalArgumentException If the length of <code>result</code>
+     * doesn't match the length of this array.
+     */
+    public void norm(double[] result) {
+        if (result.length != this.length()) {
+            String excMsg = "Length " + result.length
+                    + " does not match length " + this.length();
+            throw new IllegalArgumentException(excMsg);
+        }
+        double[] aRe = this.realParts, aIm = this.imagParts;
+        for (int i = 0; i < aRe.length; i++) {
+            result[i] = aRe[i] * aRe[i] + aIm[i] * aIm[i];
+        }
+    }
+
+    /**
+     * Creates an array of complex numbers, all 0.0 + 0.0<i>i</i>.
+     * @param length How many numbers. For example, 1080.
+     * @throws NegativeArraySizeException If <code>length</code> is negative.
+     */
+    public ComplexArray(int length) {
+        this.realParts = new double[length];
+        this.imagParts = new double[length];
+    }
+
+}
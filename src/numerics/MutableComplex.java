@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package numerics;
+
+/**
+ * Mutable complex number, for use as an accumulator in iteration loops. The
+ * arithmetic operations change this object in place instead of creating a new
+ * object, and there is no check that the parts are finite, so an escaping
+ * orbit can overflow to infinity without causing an exception. Use
+ * {@link #toComplexNumber()} to get an immutable <code>ComplexNumber</code>
+ * where one is needed.
+ * <p>Instances are not thread-safe.</p>
+ * @author Alonso del Arte
+ */
+public final class MutableComplex {
+
+    private double realPart, imagPart;
+
+    public double getRealPart() {
+        return this.realPart;
+    }
+
+    public double getImaginaryPart() {
+        return this.imagPart;
+    }
+
+    /**
+     * Gives the norm of this complex number. The formula is <i>N</i>(<i>a</i> +
+     * <i>bi</i>) = <i>a</i><sup>2</sup> + <i>b</i><sup>2</sup>.
+     * @return The norm. For example, if this number is &minus;2 + <i>i</i>,
+     * this function would return 5.0.
+     */
+    public double norm() {
+        return this.realPart * this.realPart + this.imagPart * this.imagPart;
+    }
+
+    /**
+     * Sets this number to the given real and imaginary parts.
+     * @param re The real part. For example, &minus;0.75.
+     * @param im The imaginary part. For example, 0.1.
+     * @return This object, for chaining.
+     */
+    public MutableComplex set(double re, double im) {
+        this.realPart = re;
+        this.imagPart = im;
+        return this;
+    }
+
+    /**
+     * Sets this number to the value of a <code>ComplexNumber</code>.
+     * @param number The number. For example, &minus;0.75 + 0.1<i>i</i>.
+     * @return This object, for chaining.
+     */
+    public MutableComplex set(ComplexNumber number) {
+        return this.set(number.getRealPart(), number.getImaginaryPart());
+    }
+
+    /**
+     * Adds a number to this number in place.
+     * @param addend The number to add. For example, 0.25 + 0.75<i>i</i>.
+     * @return This object, for chaining. In the example, if this number was
+     * 0.75 + 0.25<i>i</i>, it is now 1 + <i>i</i>.
+     */
+    public MutableComplex plusAssign(MutableComplex addend) {
+        this.realPart += addend.realPart;
+        this.imagPart += addend.imagPart;
+        return this;
+    }
+
+    /**
+     * Adds a number to this number in place.
+     * @param addend The number to add. For example, 0.25 + 0.75<i>i</i>.
+     * @return This object, for chaining.
+     */
+    public MutableComplex plusAssign(ComplexNumber addend) {
+        this.realPart += addend.getRealPart();
+        this.imagPart += addend.getImaginaryPart();
+        return this;
+    }
+
+    /**
+     * Multiplies this number by another number in place.
+     * @param multiplicand The number to multiply by. For example, 0.25 +
+     * 0.75<i>i</i>.
+     * @return This object, for chaining. In the example, if this number was
+     * 0.75 + 0.25<i>i</i>, it is now 0.0 + 0.625<i>i</i>.
+     */
+    public MutableComplex timesAssign(MutableComplex multiplicand) {
+        return this.timesAssign(multiplicand.realPart, multiplicand.imagPart);
+    }
+
+    /**
+     * Multiplies this number by another number in place.
+     * @param multiplicand The number to multiply by. For example, 0.25 +
+     * 0.75<i>i</i>.
+     * @return This object, for chaining.
+     */
+    public MutableComplex timesAssign(ComplexNumber multiplicand) {
+        return this.timesAssign(multiplicand.getRealPart(),
+                multiplicand.getImaginaryPart());
+    }
+
+    private MutableComplex timesAssign(double re, double im) {
+        double productRe = this.realPart * re - this.imagPart * im;
+        this.imagPart = this.realPart * im + this.imagPart * re;
+        this.realPart = productRe;
+        return this;
+    }
+
+    /**
+     * Squares this number and adds another number, in place. This is one step
+     * of <i>z</i><sup>2</sup> + <i>c</i>.
+     * @param c The number to add after squaring. For example, &minus;0.75 +
+     * 0.1<i>i</i>.
+     * @return This object, for chaining.
+     */
+    public MutableComplex squareAdd(MutableComplex c) {
+        return this.squareAdd(c.realPart, c.imagPart);
+    }
+
+    /**
+     * Squares this number and adds another number, in place. This is one step
+     * of <i>z</i><sup>2</sup> + <i>c</i>.
+     * @param c The number to add after squaring. For example, &minus;0.75 +
+     * 0.1<i>i</i>.
+     * @return This object, for chaining.
+     */
+    public MutableComplex squareAdd(ComplexNumber c) {
+        return this.squareAdd(c.getRealPart(), c.getImaginaryPart());
+    }
+
+    private MutableComplex squareAdd(double cRe, double cIm) {
+        double nextRe = this.realPart * this.realPart
+                - this.imagPart * this.imagPart + cRe;
+        this.imagPart = 2.0 * this.realPart * this.imagPart + cIm;
+        this.realPart = nextRe;
+        return this;
+    }
+
+    /**
+     * Tells whether both parts of this number are finite.
+     * @return True if neither part is infinite nor NaN.
+     */
+    public boolean isFinite() {
+        return Double.isFinite(this.realPart) && Double.isFinite(this.imagPart);
+    }
+
+    /**
+     * Gives the current value of this number as an immutable complex number.
+     * @return A new <code>ComplexNumber</code>.
+     * @throws IllegalArgumentException If either part is not finite.
+     */
+    public ComplexNumber toComplexNumber() {
+        return new ComplexNumber(this.realPart, this.imagPart);
+    }
+
+    @Override
+    public String toString() {
+        String intermediate = this.realPart + " + " + this.imagPart + "i";
+        return intermediate.replace("+ -", "- ").replace("-", "\u2212");
+    }
+
+    /**
+     * Creates a mutable complex number equal to 0.0 + 0.0<i>i</i>.
+     */
+    public MutableComplex() {
+        this(0.0, 0.0);
+    }
+
+    /**
+     * Creates a mutable complex number with the same value as a
+     * <code>ComplexNumber</code>.
+     * @param number The initial value. For example, &minus;0.75 +
+     * 0.1<i>i</i>.
+     */
+    public MutableComplex(ComplexNumber number) {
+        this(number.getRealPart(), number.getImaginaryPart());
+    }
+
+    /**
+     * Creates a mutable complex number.
+     * @param re The initial real part. For example, &minus;0.75.
+     * @param im The initial imaginary part. For example, 0.1.
+     */
+    public MutableComplex(double re, double im) {
+        this.realPart = re;
+        this.imagPart = im;
+    }
+
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import colors.mappers.ColorMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Antialiases an already colored render by supersampling only those pixels
+ * that differ a lot from their neighbors. A pixel is refined if its smooth
+ * iteration value differs from that of any of its four neighbors by more than
+ * a threshold, if it is inside the set while a neighbor is not (or vice versa),
+ * if it is in a different basin from a neighbor, or if its distance estimate
+ * says the boundary of the set is less than a pixel away. Everywhere else the
+ * colors vary so little from pixel to pixel that supersampling would not
+ * change the result noticeably.
+ * @author Alonso del Arte
+ */
+public class AdaptiveSupersampler {
+
+    /**
+     * The default number of subsamples along each side of a refined pixel.
+     */
+    public static final int DEFAULT_SUBSAMPLES_PER_SIDE = 4;
+
+    /**
+     * The default largest difference in smooth iteration values between
+     * neighboring pixels that does not require refinement.
+     */
+    public static final double DEFAULT_THRESHOLD = 1.0;
+
+    /**
+     * How many refined pixels each parallel task handles.
+     */
+    private static final int PIXELS_PER_TASK = 1024;
+
+    private final int subsamplesPerSide;
+
+    private final double threshold;
+
+    private final ColorMapper colorMapper;
+
+    private final Executor executor;
+
+    boolean needsRefinement(Viewport viewport, IterationData data, int x,
+            int y) {
+        int width = data.getWidth();
+        int height = data.getHeight();
+        int index = y * width + x;
+        int iterMax = viewport.getIterationMaximum();
+        float smooth = data.smoothValues[index];
+        boolean inside = data.iterations[index] >= iterMax;
+        if (!inside && data.distances[index]
+                * viewport.getPixelsPerUnitInterval() < 1.0) {
+            return true;
+        }
+        if (x > 0 && this.differs(data, index, index - 1, smooth, inside,
+                iterMax)) {
+            return true;
+        }
+        if (x < width - 1 && this.differs(data, index, index + 1, smooth,
+                inside, iterMax)) {
+            return true;
+        }
+        if (y > 0 && this.differs(data, index, index - width, smooth, inside,
+                iterMax)) {
+            return true;
+        }
+        return y < height - 1 && this.differs(data, index, index + width,
+                smooth, inside, iterMax);
+    }
+
+    private boolean differs(IterationData data, int index, int neighborIndex,
+            float smooth, boolean inside, int iterMax) {
+        boolean neighborInside = data.iterations[neighborIndex] >= iterMax;
+        if (inside != neighborInside) {
+            return true;
+        }
+        if (data.basins[neighborIndex] != data.basins[index]) {
+            return true;
+        }
+        return Math.abs(data.smoothValues[neighborIndex] - smooth)
+                > this.threshold;
+    }
+
+    private void refine(Viewport viewport, int[] pixels, int from, int to,
+            int[] rgb) {
+        int n = this.subsamplesPerSide;
+        int iterMax = viewport.getIterationMaximum();
+        int width = viewport.getWidth();
+        IterationData scratch = new IterationData(1, 1);
+        double step = 1.0 / n;
+        double offset = step / 2.0 - 0.5;
+        int samples = n * n;
+        for (int i = from; i < to; i++) {
+            int index = pixels[i];
+            int x = index % width;
+            int y = index / width;
+            int r = 0, g = 0, b = 0;
+            for (int sy = 0; sy < n; sy++) {
+                for (int sx = 0; sx < n; sx++) {
+                    EscapeTime.iterate(viewport, x + offset + sx * step,
+                            y + offset + sy * step, scratch, 0);
+                    int color = this.colorMapper.getRGB(
+                            scratch.smoothValues[0], scratch.basins[0],
+                            iterMax);
+                    r += (color >> 16) & 255;
+                    g += (color >> 8) & 255;
+                    b += color & 255;
+                }
+            }
+            rgb[index] = ((r / samples) << 16) | ((g / samples) << 8)
+                    | (b / samples);
+        }
+    }
+
+    /**
+     * Antialiases a render in place. Pixels that need refinement are found
+     * first, then supersampled in parallel.
+     * @param viewport The viewport that was rendered.
+     * @param data The iteration data from the render.
+     * @param rgb The colors of the render, as given by the color mapper of
+     * this supersampler. Refined pixels are overwritten with the average of
+     * their subsamples.
+     * @return How many pixels were refined. For example, 41372 out of 691200
+     * for the default view of the Mandelbrot set.
+     */
+    public int antialias(Viewport viewport, IterationData data, int[] rgb) {
+        int width = data.getWidth();
+        int height = data.getHeight();
+        int[] flagged = new int[width * height];
+        int count = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                if (this.needsRefinement(viewport, data, x, y)) {
+                    flagged[count++] = y * width + x;
+                }
+            }
+        }
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int start = 0; start < count; start += PIXELS_PER_TASK) {
+            int from = start;
+            int to = Math.min(start + PIXELS_PER_TASK, count);
+            futures.add(CompletableFuture.runAsync(()
+                    -> this.refine(viewport, flagged, from, to, rgb),
+                    this.executor));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .join();
+        return count;
+    }
+
+    /**
+     * Creates a supersampler with the default number of subsamples and the
+     * default threshold, running on the common fork/join pool.
+     * @param colorMapper The color mapper used to color the render.
+     */
+    public AdaptiveSupersampler(ColorMapper colorMapper) {
+        this(colorMapper, DEFAULT_SUBSAMPLES_PER_SIDE, DEFAULT_THRESHOLD,
+                ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a supersampler.
+     * @param colorMapper The color mapper used to color the render.
+     * @param subsamplesPerSide How many subsamples along each side of a
+     * refined pixel. For example, 4, for 16 subsamples per refined pixel.
+     * @param threshold The largest difference in smooth iteration values
+     * between neighbors that does not call for refinement. For example, 1.0.
+     * @param executor The executor to supersample on.
+     * @throws IllegalArgumentException If <code>subsamplesPerSide</code> is
+     * less than 1 or <code>threshold</code> is negative.
+     * @throws NullPointerException If <code>colorMapper</code> or
+     * <code>executor</code> is null.
+     */
+    public AdaptiveSupersampler(ColorMapper colorMapper, int subsamplesPerSide,
+            double threshold, Executor executor) {
+        if (colorMapper == null || executor == null) {
+            String excMsg = "Color mapper and executor must not be null";
+            throw new NullPointerException(excMsg);
+        }
+        if (subsamplesPerSide < 1) {
+            String excMsg = "Subsamples per side " + subsamplesPerSide
+                    + " is not valid";
+            throw new IllegalArgumentException(excMsg);
+        }
+        if (!(threshold >= 0.0)) {
+            String excMsg = "Threshold " + threshold + " is not valid";
+            throw new IllegalArgumentException(excMsg);
+        }
+        this.colorMapper = colorMapper;
+        this.subsamplesPerSide = subsamplesPerSide;
+        this.threshold = threshold;
+        this.executor = executor;
+    }
+
+}
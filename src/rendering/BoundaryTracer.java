@@ -0,0 +1,278 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+/**
+ * Renders by following the boundaries between regions of equal iteration
+ * count, and filling in the regions without iterating them. The pixels on the
+ * edge of the region to render are iterated first. Whenever an iterated pixel
+ * has a neighbor with a different iteration count (or basin), both are on a
+ * boundary, and the neighbors of the neighbor are looked at in turn, so that
+ * the iterated pixels spread along the boundaries only. Then each row is
+ * filled in between the iterated pixels, every pixel that wasn't iterated
+ * taking the iteration count of the pixel to its left.
+ * <p>Since the Mandelbrot set is connected and the regions of equal iteration
+ * count around it are bands, few features are missed this way: only islands
+ * that lie wholly inside a region without touching its boundary, such as
+ * minibrots smaller than a pixel or two. Within a band, the iteration counts
+ * filled in are exact, and the smooth values and distance estimates are
+ * interpolated along the row between the iterated pixels on either side. So
+ * smooth coloring comes out close to, but not the same as, that of the exact
+ * render, since the smooth values across a band don't change linearly.</p>
+ * @author Alonso del Arte
+ */
+public final class BoundaryTracer implements RenderMode {
+
+    private static final byte QUEUED = 1;
+
+    private static final byte ITERATED = 2;
+
+    private static boolean differ(IterationData data, int a, int b) {
+        return data.iterations[a] != data.iterations[b]
+                || data.basins[a] != data.basins[b];
+    }
+
+    /**
+     * Computes the pixels of one rectangular region of a viewport, on the
+     * calling thread, by tracing the boundaries of the regions of equal
+     * iteration count and filling them in.
+     * @param viewport The viewport.
+     * @param x0 The leftmost column, inclusive. For example, 64.
+     * @param y0 The topmost row, inclusive. For example, 128.
+     * @param x1 The rightmost column, exclusive. For example, 128.
+     * @param y1 The bottommost row, exclusive. For example, 192.
+     * @param data Where to write the results. Should have the same dimensions
+     * as <code>viewport</code>.
+     * @return How many pixels were iterated. For example, 900 out of 4096.
+     */
+    @Override
+    public int renderRegion(Viewport viewport, int x0, int y0, int x1, int y1,
+            IterationData data) {
+        if (x1 <= x0 || y1 <= y0) {
+            return 0;
+        }
+        return new Trace(viewport, x0, y0, x1, y1, data).run();
+    }
+
+    /**
+     * The scratch state for tracing one region. Positions are local to the
+     * region, indices into <code>data</code> are not.
+     */
+    private static final class Trace {
+
+        private final Viewport viewport;
+
+        private final FractalKernel kernel;
+
+        private final int x0, y0, regionWidth, regionHeight, dataWidth;
+
+        private final IterationData data;
+
+        private final byte[] flags;
+
+        private final int[] queue;
+
+        private int head = 0, tail = 0, iteratedCount = 0;
+
+        private int dataIndex(int p) {
+            return (this.y0 + p / this.regionWidth) * this.dataWidth + this.x0
+                    + p % this.regionWidth;
+        }
+
+        private void enqueue(int p) {
+            if ((this.flags[p] & QUEUED) == 0) {
+                this.flags[p] |= QUEUED;
+                this.queue[this.tail++] = p;
+            }
+        }
+
+        /**
+         * Iterates a strip of the region one pixel wide or one pixel high
+         * through the kernel's own region loop. None of its pixels may have
+         * been iterated yet.
+         */
+        private void iterateStrip(int left, int top, int right, int bottom) {
+            this.kernel.renderRegion(this.viewport, this.x0 + left,
+                    this.y0 + top, this.x0 + right, this.y0 + bottom,
+                    this.data);
+            for (int y = top; y < bottom; y++) {
+                for (int x = left; x < right; x++) {
+                    this.flags[y * this.regionWidth + x] |= ITERATED;
+                }
+            }
+            this.iteratedCount += (right - left) * (bottom - top);
+        }
+
+        /**
+         * Iterates a single pixel, unless it already has been.
+         * @return The index of the pixel in <code>data</code>.
+         */
+        private int iterate(int p) {
+            int index = this.dataIndex(p);
+            if ((this.flags[p] & ITERATED) == 0) {
+                this.flags[p] |= ITERATED;
+                this.kernel.iterateAt(this.viewport,
+                        this.x0 + p % this.regionWidth,
+                        this.y0 + p / this.regionWidth, this.data, index);
+                this.iteratedCount++;
+            }
+            return index;
+        }
+
+        private boolean differs(int center, int p) {
+            return differ(this.data, center, this.iterate(p));
+        }
+
+        private void scan(int p) {
+            int w = this.regionWidth;
+            int x = p % w, y = p / w;
+            boolean l = x > 0, r = x < w - 1, u = y > 0;
+            boolean d = y < this.regionHeight - 1;
+            int center = this.iterate(p);
+            boolean left = l && this.differs(center, p - 1);
+            boolean right = r && this.differs(center, p + 1);
+            boolean up = u && this.differs(center, p - w);
+            boolean down = d && this.differs(center, p + w);
+            if (left) {
+                this.enqueue(p - 1);
+            }
+            if (right) {
+                this.enqueue(p + 1);
+            }
+            if (up) {
+                this.enqueue(p - w);
+            }
+            if (down) {
+                this.enqueue(p + w);
+            }
+            // Diagonal neighbors, so that boundaries only a pixel wide that
+            // run diagonally are followed too
+            if ((up || left) && u && l) {
+                this.enqueue(p - w - 1);
+            }
+            if ((up || right) && u && r) {
+                this.enqueue(p - w + 1);
+            }
+            if ((down || left) && d && l) {
+                this.enqueue(p + w - 1);
+            }
+            if ((down || right) && d && r) {
+                this.enqueue(p + w + 1);
+            }
+        }
+
+        /**
+         * Fills in the pixels of a row strictly between two iterated pixels,
+         * given by their indices in <code>data</code>. The iteration counts
+         * and basins are those of the pixel to the left. If the pixel to the
+         * right is in the same band, the smooth values and distance estimates
+         * are interpolated between the two, otherwise they're those of the
+         * pixel to the left too.
+         */
+        private void fillRun(int left, int right) {
+            int[] iterations = this.data.iterations;
+            float[] smoothValues = this.data.smoothValues;
+            float[] distances = this.data.distances;
+            byte[] basins = this.data.basins;
+            boolean sameBand = !differ(this.data, left, right);
+            double smooth = smoothValues[left];
+            double distance = distances[left];
+            double smoothStep = 0.0, distanceStep = 0.0;
+            if (sameBand) {
+                double n = right - left;
+                smoothStep = (smoothValues[right] - smooth) / n;
+                distanceStep = (distances[right] - distance) / n;
+            }
+            for (int index = left + 1; index < right; index++) {
+                smooth += smoothStep;
+                distance += distanceStep;
+                iterations[index] = iterations[left];
+                smoothValues[index] = (float) smooth;
+                distances[index] = (float) distance;
+                basins[index] = basins[left];
+            }
+        }
+
+        /**
+         * Fills in the pixels that weren't iterated, row by row. Since the
+         * whole edge of the region is iterated, every run of such pixels has
+         * an iterated pixel on either side.
+         */
+        private void fill() {
+            for (int y = 0; y < this.regionHeight; y++) {
+                int p = y * this.regionWidth;
+                int index = this.dataIndex(p);
+                int last = 0;
+                for (int x = 1; x < this.regionWidth; x++) {
+                    if ((this.flags[p + x] & ITERATED) != 0) {
+                        if (x > last + 1) {
+                            this.fillRun(index + last, index + x);
+                        }
+                        last = x;
+                    }
+                }
+            }
+        }
+
+        int run() {
+            int w = this.regionWidth, h = this.regionHeight;
+            // The edge is iterated in strips, since all of it is needed; only
+            // the pixels the boundaries lead to inside it are iterated one by
+            // one
+            this.iterateStrip(0, 0, w, 1);
+            if (h > 1) {
+                this.iterateStrip(0, h - 1, w, h);
+            }
+            if (h > 2) {
+                this.iterateStrip(0, 1, 1, h - 1);
+                if (w > 1) {
+                    this.iterateStrip(w - 1, 1, w, h - 1);
+                }
+            }
+            for (int x = 0; x < w; x++) {
+                this.enqueue(x);
+                this.enqueue((h - 1) * w + x);
+            }
+            for (int y = 1; y < h - 1; y++) {
+                this.enqueue(y * w);
+                this.enqueue(y * w + w - 1);
+            }
+            while (this.head < this.tail) {
+                this.scan(this.queue[this.head++]);
+            }
+            this.fill();
+            return this.iteratedCount;
+        }
+
+        Trace(Viewport viewport, int x0, int y0, int x1, int y1,
+                IterationData data) {
+            this.viewport = viewport;
+            this.kernel = viewport.getKernel();
+            this.x0 = x0;
+            this.y0 = y0;
+            this.regionWidth = x1 - x0;
+            this.regionHeight = y1 - y0;
+            this.dataWidth = data.getWidth();
+            this.data = data;
+            int size = this.regionWidth * this.regionHeight;
+            this.flags = new byte[size];
+            this.queue = new int[size];
+        }
+
+    }
+
+}
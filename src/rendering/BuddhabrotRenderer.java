@@ -0,0 +1,424 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import colors.mappers.ColorMapper;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import numerics.ComplexNumber;
+
+/**
+ * Renders the orbit density of the Mandelbrot set, also known as the
+ * Buddhabrot. Random values of <i>c</i> are iterated, and every point of the
+ * orbit of each <i>c</i> that escapes after at least a minimum number of
+ * iterations adds 1 to a histogram over the viewport.
+ * <p>Sampling is done by several workers in parallel, each with its own
+ * <code>SplittableRandom</code> and its own <code>int</code> histogram, so the
+ * per-point increments need no synchronization at all. After each batch of
+ * samples, a worker adds its histogram to the shared totals with atomic
+ * additions and clears it, so the totals can be displayed while sampling goes
+ * on, and no lock is ever taken.</p>
+ * <p>Values of <i>c</i> are drawn uniformly from the cells of an importance
+ * map, a coarse escape-time render of the region around the Mandelbrot set
+ * computed with {@link TileRenderer}, which probes one point, the corner, of
+ * each cell. Only cells at or next to a probe that escapes after the minimum
+ * number of iterations are kept. This leaves out the interior, whose orbits
+ * never escape, and the far exterior, whose orbits are too short to count.
+ * It's an approximation, though: a cell is dropped if none of the nine probes
+ * around it escapes slowly enough, even if some other part of the cell does,
+ * so the orbits of such parts, such as thin filaments between the probes, go
+ * uncounted and the density is somewhat under-sampled where they land.</p>
+ * <p>Only <i>z</i><sup>2</sup> + <i>c</i> is supported.</p>
+ * @author Alonso del Arte
+ */
+public final class BuddhabrotRenderer {
+
+    /**
+     * The default minimum number of iterations for an orbit to be counted.
+     */
+    public static final int DEFAULT_MINIMUM_ITERATIONS = 20;
+
+    /**
+     * How many samples a worker takes between additions to the totals.
+     */
+    static final int SAMPLES_PER_BATCH = 1 << 14;
+
+    /**
+     * The width and height of the importance map, in cells.
+     */
+    static final int IMPORTANCE_MAP_SIZE = 256;
+
+    private static final double SAMPLE_RE_MIN = -2.0;
+
+    private static final double SAMPLE_IM_MIN = -1.25;
+
+    private static final double SAMPLE_SPAN = 2.5;
+
+    private static final double CELL_SIZE = SAMPLE_SPAN / IMPORTANCE_MAP_SIZE;
+
+    /**
+     * The square of the escape radius. Orbit points beyond radius 2 are
+     * outside any sensible viewport, so a larger radius would only add
+     * iterations that are never plotted.
+     */
+    private static final double ESCAPE_NORM = 4.0;
+
+    private final Viewport viewport;
+
+    private final int minimumIterations;
+
+    private final int workerCount;
+
+    private final Executor executor;
+
+    private final int[] activeCells;
+
+    private final AtomicLongArray totals;
+
+    private final AtomicLong samplesTaken = new AtomicLong();
+
+    private final AtomicLong seeds = new AtomicLong();
+
+    private volatile boolean cancelled = false;
+
+    public Viewport getViewport() {
+        return this.viewport;
+    }
+
+    public int getMinimumIterations() {
+        return this.minimumIterations;
+    }
+
+    /**
+     * Tells how many samples have been added to the totals so far.
+     * @return The count. For example, 1638400.
+     */
+    public long getSampleCount() {
+        return this.samplesTaken.get();
+    }
+
+    /**
+     * Tells how many cells of the importance map samples are drawn from.
+     * @return The count, out of {@link #IMPORTANCE_MAP_SIZE} squared.
+     */
+    int getActiveCellCount() {
+        return this.activeCells.length;
+    }
+
+    boolean isActiveCell(double re, double im) {
+        int x = (int) Math.floor((re - SAMPLE_RE_MIN) / CELL_SIZE);
+        int y = (int) Math.floor((im - SAMPLE_IM_MIN) / CELL_SIZE);
+        int cell = y * IMPORTANCE_MAP_SIZE + x;
+        for (int activeCell : this.activeCells) {
+            if (activeCell == cell) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gives how many orbit points have landed on a given pixel so far.
+     * @param x The horizontal position. For example, 0.
+     * @param y The vertical position. For example, 0.
+     * @return The count. For example, 1729.
+     */
+    public long getCount(int x, int y) {
+        return this.totals.get(y * this.viewport.getWidth() + x);
+    }
+
+    private static int[] findActiveCells(Viewport mapViewport,
+            IterationData map, int minimumIterations) {
+        int size = IMPORTANCE_MAP_SIZE;
+        int iterMax = mapViewport.getIterationMaximum();
+        boolean[] longOrbit = new boolean[size * size];
+        for (int i = 0; i < longOrbit.length; i++) {
+            longOrbit[i] = map.iterations[i] >= minimumIterations
+                    && map.iterations[i] < iterMax;
+        }
+        int[] cells = new int[size * size];
+        int count = 0;
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                boolean active = false;
+                for (int dy = -1; dy <= 1 && !active; dy++) {
+                    for (int dx = -1; dx <= 1 && !active; dx++) {
+                        int nx = x + dx, ny = y + dy;
+                        active = nx >= 0 && nx < size && ny >= 0 && ny < size
+                                && longOrbit[ny * size + nx];
+                    }
+                }
+                if (active) {
+                    cells[count++] = y * size + x;
+                }
+            }
+        }
+        int[] activeCells = new int[count];
+        System.arraycopy(cells, 0, activeCells, 0, count);
+        return activeCells;
+    }
+
+    /**
+     * Iterates <i>c</i> from <i>z</i> = 0, keeping the orbit.
+     * @return The number of iterations until escape, or the iteration
+     * maximum if the orbit didn't escape.
+     */
+    private static int orbit(double cRe, double cIm, int iterMax,
+            double[] orbitRe, double[] orbitIm) {
+        double zRe = 0.0, zIm = 0.0;
+        for (int n = 0; n < iterMax; n++) {
+            double nextRe = zRe * zRe - zIm * zIm + cRe;
+            zIm = 2.0 * zRe * zIm + cIm;
+            zRe = nextRe;
+            orbitRe[n] = zRe;
+            orbitIm[n] = zIm;
+            if (zRe * zRe + zIm * zIm > ESCAPE_NORM) {
+                return n + 1;
+            }
+        }
+        return iterMax;
+    }
+
+    private static boolean inMainCardioidOrBulb(double cRe, double cIm) {
+        double imSq = cIm * cIm;
+        double q = (cRe - 0.25) * (cRe - 0.25) + imSq;
+        if (q * (q + (cRe - 0.25)) <= 0.25 * imSq) {
+            return true;
+        }
+        return (cRe + 1.0) * (cRe + 1.0) + imSq <= 0.0625;
+    }
+
+    private void addTo(int[] local) {
+        for (int i = 0; i < local.length; i++) {
+            int count = local[i];
+            if (count != 0) {
+                this.totals.addAndGet(i, count);
+                local[i] = 0;
+            }
+        }
+    }
+
+    private void sample(SplittableRandom random, long sampleCount) {
+        int width = this.viewport.getWidth();
+        int height = this.viewport.getHeight();
+        int iterMax = this.viewport.getIterationMaximum();
+        double cornerRe = this.viewport.getRealPartAt(0.0);
+        double cornerIm = this.viewport.getImaginaryPartAt(0.0);
+        double ppu = this.viewport.getPixelsPerUnitInterval();
+        int[] cells = this.activeCells;
+        int[] local = new int[width * height];
+        double[] orbitRe = new double[iterMax];
+        double[] orbitIm = new double[iterMax];
+        long done = 0L;
+        while (done < sampleCount && !this.cancelled) {
+            long batch = Math.min(SAMPLES_PER_BATCH, sampleCount - done);
+            for (long s = 0L; s < batch; s++) {
+                int cell = cells[random.nextInt(cells.length)];
+                double cRe = SAMPLE_RE_MIN + ((cell % IMPORTANCE_MAP_SIZE)
+                        + random.nextDouble()) * CELL_SIZE;
+                double cIm = SAMPLE_IM_MIN + ((cell / IMPORTANCE_MAP_SIZE)
+                        + random.nextDouble()) * CELL_SIZE;
+                if (inMainCardioidOrBulb(cRe, cIm)) {
+                    continue;
+                }
+                int n = orbit(cRe, cIm, iterMax, orbitRe, orbitIm);
+                if (n < this.minimumIterations || n >= iterMax) {
+                    continue;
+                }
+                for (int k = 0; k < n; k++) {
+                    double px = (orbitRe[k] - cornerRe) * ppu;
+                    double py = (orbitIm[k] - cornerIm) * ppu;
+                    if (px >= 0.0 && px < width && py >= 0.0 && py < height) {
+                        local[(int) py * width + (int) px]++;
+                    }
+                }
+            }
+            this.addTo(local);
+            this.samplesTaken.addAndGet(batch);
+            done += batch;
+        }
+    }
+
+    /**
+     * Starts sampling. The samples are split evenly among the workers. This
+     * may be called again to add more samples to the same totals.
+     * @param sampleCount How many values of <i>c</i> to sample. For example,
+     * 100000000. To sample until canceled, pass <code>Long.MAX_VALUE</code>.
+     * @param seed The seed for the random number generators. The totals
+     * after all the samples are in depend only on the seed, not on how the
+     * workers were scheduled.
+     * @return A future that completes when all the workers are done, whether
+     * because they took all the samples or because they were canceled.
+     * @throws IllegalArgumentException If <code>sampleCount</code> is
+     * negative.
+     */
+    public CompletableFuture<Void> start(long sampleCount, long seed) {
+        if (sampleCount < 0L) {
+            String excMsg = "Sample count " + sampleCount + " is not valid";
+            throw new IllegalArgumentException(excMsg);
+        }
+        if (this.activeCells.length == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        // SplittableRandom is not thread-safe, so the splitting is done here
+        SplittableRandom root = new SplittableRandom(seed);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int w = 0; w < this.workerCount; w++) {
+            SplittableRandom random = root.split();
+            long share = sampleCount / this.workerCount
+                    + (w < sampleCount % this.workerCount ? 1 : 0);
+            futures.add(CompletableFuture.runAsync(()
+                    -> this.sample(random, share), this.executor));
+        }
+        return CompletableFuture.allOf(futures
+                .toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * Starts sampling with a different seed from any previous call.
+     * @param sampleCount How many values of <i>c</i> to sample. For example,
+     * 100000000. To sample until canceled, pass <code>Long.MAX_VALUE</code>.
+     * @return A future that completes when all the workers are done.
+     * @throws IllegalArgumentException If <code>sampleCount</code> is
+     * negative.
+     */
+    public CompletableFuture<Void> start(long sampleCount) {
+        return this.start(sampleCount, System.nanoTime()
+                + this.seeds.incrementAndGet());
+    }
+
+    /**
+     * Stops all sampling. Workers stop at the end of their current batch,
+     * after adding it to the totals. Sampling can't be restarted after this.
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    /**
+     * Colors the totals so far in shades of gray, from black for no orbit
+     * points to white for the most. The square root of the count is used, so
+     * that the fainter parts of the density still show.
+     * @param rgb Where to write the colors, in row-major order. Should be at
+     * least as long as the number of pixels of the viewport.
+     */
+    public void colorize(int[] rgb) {
+        int size = this.totals.length();
+        long max = 1L;
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, this.totals.get(i));
+        }
+        double scale = 255.0 / Math.sqrt(max);
+        for (int i = 0; i < size; i++) {
+            int level = (int) (Math.sqrt(this.totals.get(i)) * scale);
+            rgb[i] = (level << 16) | (level << 8) | level;
+        }
+    }
+
+    /**
+     * Colors the totals so far into a new image, as described for
+     * {@link #colorize(int[])}.
+     * @return A new image of type <code>TYPE_INT_RGB</code> with the same
+     * dimensions as the viewport.
+     */
+    public BufferedImage toImage() {
+        BufferedImage image = new BufferedImage(this.viewport.getWidth(),
+                this.viewport.getHeight(), BufferedImage.TYPE_INT_RGB);
+        this.colorize(ColorMapper.pixelsOf(image));
+        return image;
+    }
+
+    /**
+     * Creates a renderer with the default minimum iterations, with as many
+     * workers as there are processors, on the common fork/join pool.
+     * @param viewport The viewport, of the Mandelbrot set, to plot orbits on.
+     * Its iteration maximum is the most iterations an orbit may take and still
+     * be counted as escaping.
+     * @throws IllegalArgumentException If <code>viewport</code> is of a Julia
+     * set or has a kernel other than for <i>z</i><sup>2</sup> + <i>c</i>.
+     */
+    public BuddhabrotRenderer(Viewport viewport) {
+        this(viewport, DEFAULT_MINIMUM_ITERATIONS,
+                Runtime.getRuntime().availableProcessors(),
+                ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a renderer. The importance map is computed right away, on
+     * <code>executor</code>.
+     * @param viewport The viewport, of the Mandelbrot set, to plot orbits on.
+     * Its iteration maximum is the most iterations an orbit may take and still
+     * be counted as escaping. For example, a viewport with iteration maximum
+     * 1000.
+     * @param minimumIterations The fewest iterations an orbit must take to be
+     * counted. For example, 20.
+     * @param workerCount How many workers to sample with. For example, 8.
+     * @param executor The executor to run the workers on. Each worker runs
+     * until its share of samples is done, so this should not be an executor
+     * that other work must get through quickly.
+     * @throws IllegalArgumentException If <code>viewport</code> is of a Julia
+     * set or has a kernel other than for <i>z</i><sup>2</sup> + <i>c</i>, if
+     * <code>minimumIterations</code> is negative or not less than the
+     * iteration maximum, or if <code>workerCount</code> is less than 1.
+     * @throws NullPointerException If <code>executor</code> is null.
+     */
+    public BuddhabrotRenderer(Viewport viewport, int minimumIterations,
+            int workerCount, Executor executor) {
+        if (viewport.isJulia()
+                || !(viewport.getKernel() instanceof QuadraticKernel)) {
+            String excMsg = "Orbit density needs a viewport of the Mandelbrot"
+                    + " set, not " + viewport;
+            throw new IllegalArgumentException(excMsg);
+        }
+        int iterMax = viewport.getIterationMaximum();
+        if (minimumIterations < 0 || minimumIterations >= iterMax) {
+            String excMsg = "Minimum iterations " + minimumIterations
+                    + " is not valid for iteration maximum " + iterMax;
+            throw new IllegalArgumentException(excMsg);
+        }
+        if (workerCount < 1) {
+            String excMsg = "Worker count " + workerCount + " is not valid";
+            throw new IllegalArgumentException(excMsg);
+        }
+        if (executor == null) {
+            String excMsg = "Executor must not be null";
+            throw new NullPointerException(excMsg);
+        }
+        this.viewport = viewport;
+        this.minimumIterations = minimumIterations;
+        this.workerCount = workerCount;
+        this.executor = executor;
+        this.totals = new AtomicLongArray(viewport.getWidth()
+                * viewport.getHeight());
+        Viewport mapViewport = Viewport.mandelbrot(
+                new ComplexNumber(SAMPLE_RE_MIN, SAMPLE_IM_MIN),
+                1.0 / CELL_SIZE, IMPORTANCE_MAP_SIZE, IMPORTANCE_MAP_SIZE,
+                iterMax);
+        IterationData map = new TileRenderer(executor,
+                TileRenderer.DEFAULT_TILE_SIZE).render(mapViewport);
+        this.activeCells = findActiveCells(mapViewport, map,
+                minimumIterations);
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+/**
+ * The kernel for the burning ship fractal, which iterates (|Re <i>z</i>| +
+ * <i>i</i>|Im <i>z</i>|)<sup>2</sup> + <i>c</i>. Since the imaginary part
+ * increases downwards in a {@link Viewport}, the ship appears upright.
+ * <p>Taking absolute values folds <i>z</i> into the first quadrant, which
+ * preserves lengths, so away from the axes the map stretches by
+ * 2|<i>z</i>| just like squaring does. The distance estimates use that
+ * stretch factor in place of a complex derivative, which this map doesn't
+ * have.</p>
+ * @author Alonso del Arte
+ */
+public final class BurningShipKernel extends FractalKernel {
+
+    private static final double LOG_2 = Math.log(2.0);
+
+    @Override
+    public String getName() {
+        return "Burning ship";
+    }
+
+    /**
+     * Iterates a point, starting from a given <i>z</i> and derivative
+     * magnitude.
+     * @param dzStep 1.0 for the parameter plane, 0.0 for a dynamical plane.
+     */
+    private static void iterate(double zRe, double zIm, double dzAbs,
+            double dzStep, double cRe, double cIm, int iterMax,
+            IterationData data, int index) {
+        double zReSq = zRe * zRe, zImSq = zIm * zIm;
+        int count = 0;
+        while (zReSq + zImSq < EscapeTime.ESCAPE_RADIUS_SQUARED
+                && count < iterMax) {
+            dzAbs = 2.0 * Math.sqrt(zReSq + zImSq) * dzAbs + dzStep;
+            zIm = 2.0 * Math.abs(zRe * zIm) + cIm;
+            zRe = zReSq - zImSq + cRe;
+            zReSq = zRe * zRe;
+            zImSq = zIm * zIm;
+            count++;
+        }
+        EscapeTime.record(count, iterMax, zReSq + zImSq, dzAbs * dzAbs, LOG_2,
+                data, index);
+    }
+
+    @Override
+    public void mandelbrot(double cRe, double cIm, int iterMax,
+            IterationData data, int index) {
+        iterate(0.0, 0.0, 0.0, 1.0, cRe, cIm, iterMax, data, index);
+    }
+
+    @Override
+    public void julia(double zRe, double zIm, double cRe, double cIm,
+            int iterMax, IterationData data, int index) {
+        iterate(zRe, zIm, 1.0, 0.0, cRe, cIm, iterMax, data, index);
+    }
+
+    @Override
+    public void renderRegion(Viewport viewport, int x0, int y0, int x1,
+            int y1, IterationData data) {
+        int width = data.getWidth();
+        int iterMax = viewport.getIterationMaximum();
+        if (viewport.isJulia()) {
+            double cRe = viewport.getJuliaRe();
+            double cIm = viewport.getJuliaIm();
+            for (int y = y0; y < y1; y++) {
+                double im = viewport.getImaginaryPartAt(y);
+                int index = y * width + x0;
+                for (int x = x0; x < x1; x++) {
+                    iterate(viewport.getRealPartAt(x), im, 1.0, 0.0, cRe, cIm,
+                            iterMax, data, index++);
+                }
+            }
+        } else {
+            for (int y = y0; y < y1; y++) {
+                double im = viewport.getImaginaryPartAt(y);
+                int index = y * width + x0;
+                for (int x = x0; x < x1; x++) {
+                    iterate(0.0, 0.0, 0.0, 1.0, viewport.getRealPartAt(x), im,
+                            iterMax, data, index++);
+                }
+            }
+        }
+    }
+
+}
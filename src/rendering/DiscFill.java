@@ -0,0 +1,292 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+/**
+ * Renders by skipping over the parts of the outside of the set that the
+ * exterior distance estimates prove to be outside. The distance estimate of a
+ * point that escapes is a lower bound for its distance to the set, so every
+ * point of the disc of that radius around it escapes too. This mode iterates
+ * the corners of a rectangle, and if all four escape with a distance estimate
+ * that reaches across the rectangle, fills in the rest of the rectangle by
+ * interpolating between the corners, without iterating. Otherwise the
+ * rectangle is split into four that share the dividing row and column, and
+ * each of these is checked in turn, down to rectangles of {@link
+ * #MINIMUM_SIDE} pixels, whose rows are iterated through the kernel's own
+ * region loop.
+ * <p>The distance estimate is only a bound for sets whose outside can be
+ * mapped conformally onto the outside of a disc, which are the same sets for
+ * which {@link FractalKernel#canFillEnclosedInterior(Viewport)} is true. For
+ * other viewports, this mode iterates every pixel, like
+ * {@link RenderMode#EXACT}.</p>
+ * <p>The filled in pixels are certain to be outside the set, but their smooth
+ * values, distance estimates and iteration counts are interpolated, so they
+ * are close to, rather than the same as, those of the exact render. How close
+ * depends on the quality: a rectangle is only filled in if the distance
+ * estimates of its corners are at least the quality times the length of its
+ * diagonal. Far from the set, where the smooth values change slowly, the
+ * rectangles are large and few pixels are iterated.</p>
+ * @author Alonso del Arte
+ */
+public final class DiscFill implements RenderMode {
+
+    /**
+     * The quality used if none is given. A rectangle is filled in if the
+     * distance estimates of its corners are at least this many times the
+     * length of its diagonal.
+     */
+    public static final double DEFAULT_QUALITY = 2.0;
+
+    /**
+     * Rectangles with a side this many pixels or shorter that can't be filled
+     * in are not split any further; their pixels are iterated.
+     */
+    public static final int MINIMUM_SIDE = 2;
+
+    private final double quality;
+
+    public double getQuality() {
+        return this.quality;
+    }
+
+    /**
+     * Computes the pixels of one rectangular region of a viewport, on the
+     * calling thread, filling in the parts of the outside of the set that the
+     * distance estimates allow without iterating them.
+     * @param viewport The viewport.
+     * @param x0 The leftmost column, inclusive. For example, 64.
+     * @param y0 The topmost row, inclusive. For example, 128.
+     * @param x1 The rightmost column, exclusive. For example, 128.
+     * @param y1 The bottommost row, exclusive. For example, 192.
+     * @param data Where to write the results. Should have the same dimensions
+     * as <code>viewport</code>.
+     * @return How many pixels were iterated. For example, 300 out of 4096 for
+     * a region far from the set.
+     */
+    @Override
+    public int renderRegion(Viewport viewport, int x0, int y0, int x1, int y1,
+            IterationData data) {
+        if (!viewport.getKernel().canFillEnclosedInterior(viewport)) {
+            return EXACT.renderRegion(viewport, x0, y0, x1, y1, data);
+        }
+        if (x1 <= x0 || y1 <= y0) {
+            return 0;
+        }
+        return new Fill(viewport, x0, y0, x1, y1, data, this.quality).run();
+    }
+
+    /**
+     * The scratch state for filling one region. Positions are those of the
+     * viewport, as are the indices into <code>data</code>.
+     */
+    private static final class Fill {
+
+        private final Viewport viewport;
+
+        private final FractalKernel kernel;
+
+        private final int x0, y0, x1, y1, regionWidth, dataWidth, iterMax;
+
+        private final IterationData data;
+
+        /**
+         * The quality, in units of the complex plane per pixel, so that it
+         * can be compared to the distance estimates directly.
+         */
+        private final double unitQuality;
+
+        private final boolean[] iterated;
+
+        private int iteratedCount = 0;
+
+        /**
+         * Iterates the pixels of part of a row that haven't been iterated
+         * yet, whether or not they were filled in. Each run of such pixels
+         * goes through the kernel's own region loop as a region one pixel
+         * high.
+         */
+        private void iterateRow(int y, int left, int right) {
+            int p = (y - this.y0) * this.regionWidth - this.x0;
+            int x = left;
+            while (x <= right) {
+                if (this.iterated[p + x]) {
+                    x++;
+                    continue;
+                }
+                int runEnd = x;
+                while (runEnd <= right && !this.iterated[p + runEnd]) {
+                    this.iterated[p + runEnd] = true;
+                    runEnd++;
+                }
+                this.kernel.renderRegion(this.viewport, x, y, runEnd, y + 1,
+                        this.data);
+                this.iteratedCount += runEnd - x;
+                x = runEnd;
+            }
+        }
+
+        /**
+         * Iterates a single pixel, unless it already has been. A pixel that
+         * was filled in is iterated all the same.
+         * @return The index of the pixel in <code>data</code>.
+         */
+        private int iterate(int x, int y) {
+            int index = y * this.dataWidth + x;
+            int p = (y - this.y0) * this.regionWidth + x - this.x0;
+            if (!this.iterated[p]) {
+                this.iterated[p] = true;
+                this.kernel.iterateAt(this.viewport, x, y, this.data, index);
+                this.iteratedCount++;
+            }
+            return index;
+        }
+
+        /**
+         * Gives how far a corner proves the set to be, or 0 if the corner is
+         * inside the set.
+         */
+        private float reach(int index) {
+            return this.data.iterations[index] < this.iterMax
+                    ? this.data.distances[index] : 0.0F;
+        }
+
+        /**
+         * Checks a rectangle, given by its corners, inclusive.
+         */
+        private void check(int left, int top, int right, int bottom) {
+            int topLeft = this.iterate(left, top);
+            int topRight = this.iterate(right, top);
+            int bottomLeft = this.iterate(left, bottom);
+            int bottomRight = this.iterate(right, bottom);
+            int w = right - left, h = bottom - top;
+            if (w < 2 && h < 2) {
+                return;
+            }
+            double reach = Math.min(Math.min(this.reach(topLeft),
+                    this.reach(topRight)), Math.min(this.reach(bottomLeft),
+                    this.reach(bottomRight)));
+            if (reach >= this.unitQuality * Math.sqrt(w * w + h * h)) {
+                this.interpolate(left, top, right, bottom, topLeft, topRight,
+                        bottomLeft, bottomRight);
+            } else if (w <= MINIMUM_SIDE || h <= MINIMUM_SIDE) {
+                for (int y = top; y <= bottom; y++) {
+                    this.iterateRow(y, left, right);
+                }
+            } else {
+                int midX = (left + right) >>> 1, midY = (top + bottom) >>> 1;
+                this.check(left, top, midX, midY);
+                this.check(midX, top, right, midY);
+                this.check(left, midY, midX, bottom);
+                this.check(midX, midY, right, bottom);
+            }
+        }
+
+        /**
+         * Fills in the pixels of a rectangle that weren't iterated,
+         * interpolating between the corners, first down the left and right
+         * sides, then across each row. The basins are left alone, as the
+         * kernels that this mode applies to leave them alone.
+         */
+        private void interpolate(int left, int top, int right, int bottom,
+                int topLeft, int topRight, int bottomLeft, int bottomRight) {
+            int[] iterations = this.data.iterations;
+            float[] smoothValues = this.data.smoothValues;
+            float[] distances = this.data.distances;
+            double w = right - left, h = bottom - top;
+            for (int y = top; y <= bottom; y++) {
+                double v = h > 0.0 ? (y - top) / h : 0.0;
+                double count = iterations[topLeft] + v
+                        * (iterations[bottomLeft] - iterations[topLeft]);
+                double countStep = (iterations[topRight] + v
+                        * (iterations[bottomRight] - iterations[topRight])
+                        - count) / w;
+                double smooth = smoothValues[topLeft] + v
+                        * (smoothValues[bottomLeft] - smoothValues[topLeft]);
+                double smoothStep = (smoothValues[topRight] + v
+                        * (smoothValues[bottomRight] - smoothValues[topRight])
+                        - smooth) / w;
+                double distance = distances[topLeft] + v
+                        * (distances[bottomLeft] - distances[topLeft]);
+                double distanceStep = (distances[topRight] + v
+                        * (distances[bottomRight] - distances[topRight])
+                        - distance) / w;
+                int p = (y - this.y0) * this.regionWidth + left - this.x0;
+                int index = y * this.dataWidth + left;
+                for (int x = left; x <= right; x++) {
+                    if (!this.iterated[p]) {
+                        iterations[index] = (int) (count + 0.5);
+                        smoothValues[index] = (float) smooth;
+                        distances[index] = (float) distance;
+                    }
+                    count += countStep;
+                    smooth += smoothStep;
+                    distance += distanceStep;
+                    p++;
+                    index++;
+                }
+            }
+        }
+
+        int run() {
+            this.check(this.x0, this.y0, this.x1 - 1, this.y1 - 1);
+            return this.iteratedCount;
+        }
+
+        Fill(Viewport viewport, int x0, int y0, int x1, int y1,
+                IterationData data, double quality) {
+            this.viewport = viewport;
+            this.kernel = viewport.getKernel();
+            this.x0 = x0;
+            this.y0 = y0;
+            this.x1 = x1;
+            this.y1 = y1;
+            this.regionWidth = x1 - x0;
+            this.dataWidth = data.getWidth();
+            this.iterMax = viewport.getIterationMaximum();
+            this.data = data;
+            this.unitQuality = quality / viewport.getPixelsPerUnitInterval();
+            this.iterated = new boolean[this.regionWidth * (y1 - y0)];
+        }
+
+    }
+
+    /**
+     * Creates a disc filling mode of the default quality.
+     */
+    public DiscFill() {
+        this(DEFAULT_QUALITY);
+    }
+
+    /**
+     * Creates a disc filling mode.
+     * @param quality How many times the diagonal of a rectangle the distance
+     * estimates of its corners must be for it to be filled in. Higher is
+     * closer to the exact render but slower. For example, 2.0.
+     * @throws IllegalArgumentException If <code>quality</code> is less than
+     * 1.0, as then the distance estimates wouldn't prove the whole rectangle
+     * to be outside the set, or if it's infinite or NaN.
+     */
+    public DiscFill(double quality) {
+        if (!(quality >= 1.0) || Double.isInfinite(quality)) {
+            String excMsg = "Quality " + quality
+                    + " is not valid; it should be at least 1.0";
+            throw new IllegalArgumentException(excMsg);
+        }
+        this.quality = quality;
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+/**
+ * The escape-time kernels for <i>z</i><sup>2</sup> + <i>c</i>. These work on
+ * primitive doubles only, so that the per-pixel work does not create any
+ * <code>ComplexNumber</code> objects, nor any other objects. Besides the
+ * iteration count, each kernel tracks the derivative so as to also give a
+ * smooth iteration value and an exterior distance estimate.
+ * @author Alonso del Arte
+ */
+public final class EscapeTime {
+
+    /**
+     * The square of the escape radius. A radius much larger than 2 makes the
+     * smooth iteration values and the distance estimates more accurate, at the
+     * cost of a few extra iterations per escaping point.
+     */
+    public static final double ESCAPE_RADIUS_SQUARED = 65536.0;
+
+    private static final double LOG_2 = Math.log(2.0);
+
+    /**
+     * Iterates a point of the Mandelbrot set, starting from <i>z</i> = 0.
+     * @param cRe The real part of <i>c</i>. For example, &minus;0.75.
+     * @param cIm The imaginary part of <i>c</i>. For example, 0.1.
+     * @param iterMax The iteration maximum. For example, 256.
+     * @param data Where to write the iteration count, smooth value and distance
+     * estimate.
+     * @param index The index into the arrays of <code>data</code>.
+     */
+    public static void mandelbrot(double cRe, double cIm, int iterMax,
+            IterationData data, int index) {
+        double zRe = 0.0, zIm = 0.0, dzRe = 0.0, dzIm = 0.0;
+        double zReSq = 0.0, zImSq = 0.0;
+        int count = 0;
+        while (zReSq + zImSq < ESCAPE_RADIUS_SQUARED && count < iterMax) {
+            double nextDzRe = 2.0 * (zRe * dzRe - zIm * dzIm) + 1.0;
+            dzIm = 2.0 * (zRe * dzIm + zIm * dzRe);
+            dzRe = nextDzRe;
+            zIm = 2.0 * zRe * zIm + cIm;
+            zRe = zReSq - zImSq + cRe;
+            zReSq = zRe * zRe;
+            zImSq = zIm * zIm;
+            count++;
+        }
+        record(count, iterMax, zReSq + zImSq, dzRe * dzRe + dzIm * dzIm, data,
+                index);
+    }
+
+    /**
+     * Iterates a point of a Julia set.
+     * @param zRe The real part of the starting point. For example, 0.5.
+     * @param zIm The imaginary part of the starting point. For example, 0.0.
+     * @param cRe The real part of the Julia parameter <i>c</i>. For example,
+     * &minus;0.75.
+     * @param cIm The imaginary part of the Julia parameter <i>c</i>. For
+     * example, 0.1.
+     * @param iterMax The iteration maximum. For example, 256.
+     * @param data Where to write the iteration count, smooth value and distance
+     * estimate.
+     * @param index The index into the arrays of <code>data</code>.
+     */
+    public static void julia(double zRe, double zIm, double cRe, double cIm,
+            int iterMax, IterationData data, int index) {
+        double dzRe = 1.0, dzIm = 0.0;
+        double zReSq = zRe * zRe, zImSq = zIm * zIm;
+        int count = 0;
+        while (zReSq + zImSq < ESCAPE_RADIUS_SQUARED && count < iterMax) {
+            double nextDzRe = 2.0 * (zRe * dzRe - zIm * dzIm);
+            dzIm = 2.0 * (zRe * dzIm + zIm * dzRe);
+            dzRe = nextDzRe;
+            zIm = 2.0 * zRe * zIm + cIm;
+            zRe = zReSq - zImSq + cRe;
+            zReSq = zRe * zRe;
+            zImSq = zIm * zIm;
+            count++;
+        }
+        record(count, iterMax, zReSq + zImSq, dzRe * dzRe + dzIm * dzIm, data,
+                index);
+    }
+
+    /**
+     * Iterates the point at a given pixel position of a viewport, according
+     * to whether the viewport is for the Mandelbrot set or a Julia set, with
+     * the formula of the viewport's kernel.
+     * @param viewport The viewport.
+     * @param x The horizontal position, which may be fractional.
+     * @param y The vertical position, which may be fractional.
+     * @param data Where to write the results.
+     * @param index The index into the arrays of <code>data</code>.
+     */
+    public static void iterate(Viewport viewport, double x, double y,
+            IterationData data, int index) {
+        viewport.getKernel().iterateAt(viewport, x, y, data, index);
+    }
+
+    static void record(int count, int iterMax, double normZ,
+            double normDz, IterationData data, int index) {
+        record(count, iterMax, normZ, normDz, LOG_2, data, index);
+    }
+
+    /**
+     * Records the result of iterating one point. This is for kernels other
+     * than <i>z</i><sup>2</sup> + <i>c</i>.
+     * @param count How many iterations were done. For example, 17.
+     * @param iterMax The iteration maximum. If <code>count</code> reached it,
+     * the point is taken to be inside the set. For example, 256.
+     * @param normZ The norm of the last <i>z</i>. For example, 70000.0.
+     * @param normDz The norm of the derivative of the last <i>z</i>, or the
+     * square of an estimate of its magnitude. For example, 1.0E12.
+     * @param logDegree The natural logarithm of the degree of the formula, for
+     * the smooth iteration value. For example, the logarithm of 3 for
+     * <i>z</i><sup>3</sup> + <i>c</i>.
+     * @param data Where to write the iteration count, smooth value and distance
+     * estimate.
+     * @param index The index into the arrays of <code>data</code>.
+     */
+    public static void record(int count, int iterMax, double normZ,
+            double normDz, double logDegree, IterationData data, int index) {
+        data.iterations[index] = count;
+        if (count >= iterMax) {
+            data.smoothValues[index] = iterMax;
+            data.distances[index] = 0.0F;
+        } else {
+            double logAbsZ = 0.5 * Math.log(normZ);
+            double smooth = count + 1 - Math.log(logAbsZ) / logDegree;
+            data.smoothValues[index] = (float) smooth;
+            // By the Koebe quarter theorem, the true distance is at least a
+            // quarter of 2|z|log|z|/|dz|
+            double estimate = 0.5 * Math.sqrt(normZ / normDz) * logAbsZ;
+            data.distances[index] = Double.isFinite(estimate)
+                    ? (float) estimate : Float.MAX_VALUE;
+        }
+    }
+
+    private EscapeTime() {
+        // Prevent instantiation
+    }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+/**
+ * An escape-time formula, such as <i>z</i><sup>2</sup> + <i>c</i>, for both
+ * the parameter plane (like the Mandelbrot set) and the dynamical planes (like
+ * Julia sets). Each formula is a final subclass that works on primitive
+ * doubles only, like {@link EscapeTime}, and that has its own loop over the
+ * pixels of a region. The renderer calls {@link #renderRegion(Viewport, int,
+ * int, int, int, IterationData) renderRegion()} once per tile, so the call
+ * inside the pixel loop is to a method of the same class and gets inlined,
+ * whatever other formulas are in use.
+ * <p>Implementations must not allocate any objects in <code>mandelbrot()</code>,
+ * <code>julia()</code> or <code>renderRegion()</code>, and must be
+ * thread-safe, which is easiest by having no mutable state. Two kernels are
+ * equal if they are of the same class, so subclasses with parameters must
+ * override <code>equals()</code> and <code>hashCode()</code>.</p>
+ * @author Alonso del Arte
+ */
+public abstract class FractalKernel {
+
+    /**
+     * Gives the name of the formula, in ASCII.
+     * @return The name. For example, "z^3 + c".
+     */
+    public abstract String getName();
+
+    /**
+     * Iterates a point of the parameter plane, starting from <i>z</i> = 0.
+     * @param cRe The real part of <i>c</i>. For example, &minus;0.75.
+     * @param cIm The imaginary part of <i>c</i>. For example, 0.1.
+     * @param iterMax The iteration maximum. For example, 256.
+     * @param data Where to write the iteration count, smooth value and distance
+     * estimate.
+     * @param index The index into the arrays of <code>data</code>.
+     */
+    public abstract void mandelbrot(double cRe, double cIm, int iterMax,
+            IterationData data, int index);
+
+    /**
+     * Iterates a point of a dynamical plane.
+     * @param zRe The real part of the starting point. For example, 0.5.
+     * @param zIm The imaginary part of the starting point. For example, 0.0.
+     * @param cRe The real part of the parameter <i>c</i>. For example,
+     * &minus;0.75.
+     * @param cIm The imaginary part of the parameter <i>c</i>. For example,
+     * 0.1.
+     * @param iterMax The iteration maximum. For example, 256.
+     * @param data Where to write the iteration count, smooth value and distance
+     * estimate.
+     * @param index The index into the arrays of <code>data</code>.
+     */
+    public abstract void julia(double zRe, double zIm, double cRe, double cIm,
+            int iterMax, IterationData data, int index);
+
+    /**
+     * Computes the pixels of one rectangular region of a viewport, on the
+     * calling thread. Implementations should loop over the pixels calling
+     * their own static iteration functions, not the overridable
+     * <code>mandelbrot()</code> and <code>julia()</code>.
+     * @param viewport The viewport.
+     * @param x0 The leftmost column, inclusive. For example, 64.
+     * @param y0 The topmost row, inclusive. For example, 128.
+     * @param x1 The rightmost column, exclusive. For example, 128.
+     * @param y1 The bottommost row, exclusive. For example, 192.
+     * @param data Where to write the results. Should have the same dimensions
+     * as <code>viewport</code>.
+     */
+    public abstract void renderRegion(Viewport viewport, int x0, int y0,
+            int x1, int y1, IterationData data);
+
+    /**
+     * Iterates the point at a given pixel position of a viewport. This is for
+     * the occasional point, as for supersampling; whole regions should go
+     * through {@link #renderRegion(Viewport, int, int, int, int,
+     * IterationData) renderRegion()}.
+     * @param viewport The viewport.
+     * @param x The horizontal position, which may be fractional.
+     * @param y The vertical position, which may be fractional.
+     * @param data Where to write the results.
+     * @param index The index into the arrays of <code>data</code>.
+     */
+    public void iterateAt(Viewport viewport, double x, double y,
+            IterationData data, int index) {
+        double re = viewport.getRealPartAt(x);
+        double im = viewport.getImaginaryPartAt(y);
+        if (viewport.isJulia()) {
+            this.julia(re, im, viewport.getJuliaRe(), viewport.getJuliaIm(),
+                    viewport.getIterationMaximum(), data, index);
+        } else {
+            this.mandelbrot(re, im, viewport.getIterationMaximum(), data,
+                    index);
+        }
+    }
+
+    /**
+     * Tells whether, in a given viewport, a closed loop of points that don't
+     * escape can only enclose points that don't escape either. This is so when
+     * the points that don't escape make up a set without holes, like the
+     * Mandelbrot set and the connected Julia sets, and it lets
+     * {@link InteriorFill} fill such loops in without iterating what's inside
+     * them. For such sets the exterior distance estimate is also a true lower
+     * bound, which {@link DiscFill} relies on. The default is false, which is
+     * always safe.
+     * @param viewport The viewport, with this kernel.
+     * @return True if loops of points inside the set may be filled in, false
+     * otherwise.
+     */
+    public boolean canFillEnclosedInterior(Viewport viewport) {
+        return false;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj != null && obj.getClass() == this.getClass();
+    }
+
+    @Override
+    public int hashCode() {
+        return this.getClass().getName().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return this.getName();
+    }
+
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Measures frames that are put together from the tiles of a
+ * {@link TileEngine}, rather than rendered in one go by a
+ * {@link TileRenderer}. A frame is the set of tiles a viewer had to ask for to
+ * show a view: it starts when the viewer asks for them and ends when the last
+ * of them is ready. The compute time of each tile comes from the engine, to
+ * which this meter is registered as a {@link TileListener} for as long as it
+ * has render listeners of its own. The measurements are passed on to the
+ * render listeners as {@link RenderMetrics}, just like those of a
+ * <code>TileRenderer</code>.
+ * <p>Only one frame is measured at a time. A new frame supersedes the one in
+ * progress, which is then not reported.</p>
+ * <p>This class is thread-safe.</p>
+ * @author Alonso del Arte
+ */
+public final class FrameMeter implements TileListener {
+
+    private final TileEngine engine;
+
+    private final CopyOnWriteArrayList<RenderListener> listeners
+            = new CopyOnWriteArrayList<>();
+
+    private volatile Frame current = null;
+
+    private String lastFrameView = null;
+
+    public TileEngine getEngine() {
+        return this.engine;
+    }
+
+    /**
+     * Registers a listener to receive the measurements of each frame from now
+     * on. While there is at least one listener, this meter listens to the
+     * tiles of the engine. Adding a listener that's already registered does
+     * nothing.
+     * @param listener The listener to add.
+     * @throws NullPointerException If <code>listener</code> is null.
+     */
+    public synchronized void addRenderListener(RenderListener listener) {
+        if (listener == null) {
+            String excMsg = "Listener must not be null";
+            throw new NullPointerException(excMsg);
+        }
+        if (this.listeners.isEmpty()) {
+            this.engine.addTileListener(this);
+        }
+        this.listeners.addIfAbsent(listener);
+    }
+
+    /**
+     * Unregisters a listener. If the listener was not registered, this does
+     * nothing. Once there are no listeners left, this meter stops listening to
+     * the tiles of the engine.
+     * @param listener The listener to remove.
+     */
+    public synchronized void removeRenderListener(RenderListener listener) {
+        if (this.listeners.remove(listener) && this.listeners.isEmpty()) {
+            this.engine.removeTileListener(this);
+            this.current = null;
+        }
+    }
+
+    /**
+     * Starts measuring a frame. If there are no render listeners, or if the
+     * frame in progress, or the last frame, was for the same view, this does
+     * nothing, so it's fine to call this every time a view is composed.
+     * @param viewport The view the tiles are for.
+     * @param keys Which tiles had to be asked for. For example, the 24 tiles
+     * of a view that was just zoomed into.
+     * @param tiles The futures for the iteration data of the tiles, in the
+     * same order as <code>keys</code>.
+     * @throws IllegalArgumentException If <code>keys</code> and
+     * <code>tiles</code> are not the same size.
+     */
+    public void beginFrame(Viewport viewport, List<TileKey> keys,
+            List<CompletableFuture<IterationData>> tiles) {
+        if (keys.size() != tiles.size()) {
+            String excMsg = keys.size() + " keys don't match " + tiles.size()
+                    + " tiles";
+            throw new IllegalArgumentException(excMsg);
+        }
+        Frame frame;
+        synchronized (this) {
+            String view = viewport.toString();
+            if (this.listeners.isEmpty() || keys.isEmpty()
+                    || view.equals(this.lastFrameView)) {
+                return;
+            }
+            this.lastFrameView = view;
+            frame = new Frame(keys);
+            this.current = frame;
+        }
+        CompletableFuture.allOf(tiles.toArray(new CompletableFuture<?>[0]))
+                .whenComplete((v, exc) -> {
+                    long wallTimeNanos = System.nanoTime() - frame.start;
+                    if (this.current != frame) {
+                        return;
+                    }
+                    this.current = null;
+                    if (exc != null) {
+                        return;
+                    }
+                    List<IterationData> data = new ArrayList<>(tiles.size());
+                    for (CompletableFuture<IterationData> tile : tiles) {
+                        data.add(tile.join());
+                    }
+                    RenderMetrics metrics = RenderMetrics.measure(viewport,
+                            data, wallTimeNanos, frame.tileTimesNanos);
+                    for (RenderListener listener : this.listeners) {
+                        listener.frameRendered(metrics);
+                    }
+                });
+    }
+
+    /**
+     * Records the compute time of a tile, if it's part of the frame in
+     * progress. Tiles that were already rendered when the frame started count
+     * as taking no time.
+     * @param key Which tile.
+     * @param data The iteration data of the tile. Not used.
+     * @param renderNanos How long the tile took to render, in nanoseconds.
+     */
+    @Override
+    public void tileRendered(TileKey key, IterationData data,
+            long renderNanos) {
+        Frame frame = this.current;
+        if (frame != null) {
+            Integer index = frame.indices.get(key);
+            if (index != null) {
+                frame.tileTimesNanos[index] = renderNanos;
+            }
+        }
+    }
+
+    /**
+     * A frame in progress. The tile times are written by the threads that
+     * render the tiles, each to its own slot, before the tiles are handed
+     * over, and only read once all the tiles are ready.
+     */
+    private static final class Frame {
+
+        private final long start = System.nanoTime();
+
+        private final Map<TileKey, Integer> indices;
+
+        private final long[] tileTimesNanos;
+
+        Frame(List<TileKey> keys) {
+            this.indices = new HashMap<>();
+            for (int i = 0; i < keys.size(); i++) {
+                this.indices.put(keys.get(i), i);
+            }
+            this.tileTimesNanos = new long[keys.size()];
+        }
+
+    }
+
+    /**
+     * Creates a frame meter for a tile engine.
+     * @param engine The engine that renders the tiles.
+     * @throws NullPointerException If <code>engine</code> is null.
+     */
+    public FrameMeter(TileEngine engine) {
+        if (engine == null) {
+            String excMsg = "Engine must not be null";
+            throw new NullPointerException(excMsg);
+        }
+        this.engine = engine;
+    }
+
+}
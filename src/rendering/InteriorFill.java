@@ -0,0 +1,232 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+/**
+ * Renders by skipping over the inside of the set wherever it's enclosed by a
+ * loop of points that don't escape. For the Mandelbrot set this is sound
+ * because the set is connected and so is its complement: a point outside the
+ * set can be joined to infinity by a path of points outside the set, so it
+ * can't lie inside a closed loop of points of the set. The same goes for the
+ * connected Julia sets. Whether it goes for the viewport at hand is up to
+ * {@link FractalKernel#canFillEnclosedInterior(Viewport)}; if not, this mode
+ * iterates every pixel, like {@link RenderMode#EXACT}.
+ * <p>The loops looked for are the borders of rectangles. The border of the
+ * whole region is iterated first. If every pixel on it is inside the set, so
+ * is every pixel within, and those are filled in with the iteration maximum
+ * without iterating. Otherwise the rectangle is split into four that share
+ * the dividing row and column, and each of these is checked in turn, down to
+ * rectangles of {@link #MINIMUM_SIDE} pixels, which are iterated in full.
+ * Views that are mostly inside the set, which are the slowest to render at a
+ * high iteration maximum, are thus rendered mostly by iterating the borders
+ * of a few rectangles.</p>
+ * <p>Since the loop is sampled at pixel centers, an exterior filament thinner
+ * than a pixel that crosses a border between two samples can be missed. This
+ * is the same limitation as for the exact render, which samples each pixel
+ * only at its center.</p>
+ * @author Alonso del Arte
+ */
+public final class InteriorFill implements RenderMode {
+
+    /**
+     * Rectangles with a side this many pixels or shorter are not split any
+     * further; whatever inside them isn't filled in is iterated.
+     */
+    public static final int MINIMUM_SIDE = 16;
+
+    /**
+     * Computes the pixels of one rectangular region of a viewport, on the
+     * calling thread, filling in the enclosed parts of the set without
+     * iterating them.
+     * @param viewport The viewport.
+     * @param x0 The leftmost column, inclusive. For example, 64.
+     * @param y0 The topmost row, inclusive. For example, 128.
+     * @param x1 The rightmost column, exclusive. For example, 128.
+     * @param y1 The bottommost row, exclusive. For example, 192.
+     * @param data Where to write the results. Should have the same dimensions
+     * as <code>viewport</code>.
+     * @return How many pixels were iterated. For example, 252 out of 4096 for
+     * a region wholly inside the set.
+     */
+    @Override
+    public int renderRegion(Viewport viewport, int x0, int y0, int x1, int y1,
+            IterationData data) {
+        if (!viewport.getKernel().canFillEnclosedInterior(viewport)) {
+            return EXACT.renderRegion(viewport, x0, y0, x1, y1, data);
+        }
+        if (x1 <= x0 || y1 <= y0) {
+            return 0;
+        }
+        return new Fill(viewport, x0, y0, x1, y1, data).run();
+    }
+
+    /**
+     * The scratch state for filling one region. Positions are those of the
+     * viewport, as are the indices into <code>data</code>.
+     */
+    private static final class Fill {
+
+        private final Viewport viewport;
+
+        private final FractalKernel kernel;
+
+        private final int x0, y0, x1, y1, regionWidth, dataWidth, iterMax;
+
+        private final IterationData data;
+
+        private final boolean[] done;
+
+        private int iteratedCount = 0;
+
+        /**
+         * Iterates the pixels of part of a row that haven't been iterated
+         * yet. Each run of such pixels goes through the kernel's own region
+         * loop as a region one pixel high.
+         * @return True if every pixel of that part is inside the set, false
+         * if any escaped.
+         */
+        private boolean iterateRow(int y, int left, int right) {
+            int p = (y - this.y0) * this.regionWidth - this.x0;
+            int x = left;
+            while (x <= right) {
+                if (this.done[p + x]) {
+                    x++;
+                    continue;
+                }
+                int runEnd = x;
+                while (runEnd <= right && !this.done[p + runEnd]) {
+                    this.done[p + runEnd] = true;
+                    runEnd++;
+                }
+                this.kernel.renderRegion(this.viewport, x, y, runEnd, y + 1,
+                        this.data);
+                this.iteratedCount += runEnd - x;
+                x = runEnd;
+            }
+            int index = y * this.dataWidth;
+            boolean enclosed = true;
+            for (x = left; x <= right; x++) {
+                enclosed &= this.data.iterations[index + x] >= this.iterMax;
+            }
+            return enclosed;
+        }
+
+        /**
+         * Iterates the pixels of part of a column that haven't been iterated
+         * yet, as regions one pixel wide.
+         * @return True if every pixel of that part is inside the set, false
+         * if any escaped.
+         */
+        private boolean iterateColumn(int x, int top, int bottom) {
+            int p = x - this.x0 - this.y0 * this.regionWidth;
+            int y = top;
+            while (y <= bottom) {
+                if (this.done[p + y * this.regionWidth]) {
+                    y++;
+                    continue;
+                }
+                int runEnd = y;
+                while (runEnd <= bottom
+                        && !this.done[p + runEnd * this.regionWidth]) {
+                    this.done[p + runEnd * this.regionWidth] = true;
+                    runEnd++;
+                }
+                this.kernel.renderRegion(this.viewport, x, y, x + 1, runEnd,
+                        this.data);
+                this.iteratedCount += runEnd - y;
+                y = runEnd;
+            }
+            boolean enclosed = true;
+            for (y = top; y <= bottom; y++) {
+                enclosed &= this.data.iterations[y * this.dataWidth + x]
+                        >= this.iterMax;
+            }
+            return enclosed;
+        }
+
+        /**
+         * Checks a rectangle, given by its corners, inclusive.
+         */
+        private void check(int left, int top, int right, int bottom) {
+            boolean enclosed = this.iterateRow(top, left, right)
+                    & this.iterateRow(bottom, left, right)
+                    & this.iterateColumn(left, top + 1, bottom - 1)
+                    & this.iterateColumn(right, top + 1, bottom - 1);
+            if (right - left < 2 || bottom - top < 2) {
+                return;
+            }
+            if (enclosed) {
+                this.fillInside(left, top, right, bottom);
+            } else if (right - left <= MINIMUM_SIDE
+                    || bottom - top <= MINIMUM_SIDE) {
+                // The borders of the rectangles don't overlap their insides,
+                // so none of this has been iterated yet
+                this.kernel.renderRegion(this.viewport, left + 1, top + 1,
+                        right, bottom, this.data);
+                this.iteratedCount += (right - left - 1) * (bottom - top - 1);
+            } else {
+                int midX = (left + right) >>> 1, midY = (top + bottom) >>> 1;
+                this.check(left, top, midX, midY);
+                this.check(midX, top, right, midY);
+                this.check(left, midY, midX, bottom);
+                this.check(midX, midY, right, bottom);
+            }
+        }
+
+        /**
+         * Writes what the kernels write for a point that doesn't escape,
+         * leaving the basins alone as they do.
+         */
+        private void fillInside(int left, int top, int right, int bottom) {
+            float inside = this.iterMax;
+            for (int y = top + 1; y < bottom; y++) {
+                int index = y * this.dataWidth + left + 1;
+                int p = (y - this.y0) * this.regionWidth + left + 1 - this.x0;
+                for (int x = left + 1; x < right; x++) {
+                    this.data.iterations[index] = this.iterMax;
+                    this.data.smoothValues[index] = inside;
+                    this.data.distances[index] = 0.0F;
+                    this.done[p] = true;
+                    index++;
+                    p++;
+                }
+            }
+        }
+
+        int run() {
+            this.check(this.x0, this.y0, this.x1 - 1, this.y1 - 1);
+            return this.iteratedCount;
+        }
+
+        Fill(Viewport viewport, int x0, int y0, int x1, int y1,
+                IterationData data) {
+            this.viewport = viewport;
+            this.kernel = viewport.getKernel();
+            this.x0 = x0;
+            this.y0 = y0;
+            this.x1 = x1;
+            this.y1 = y1;
+            this.regionWidth = x1 - x0;
+            this.dataWidth = data.getWidth();
+            this.iterMax = viewport.getIterationMaximum();
+            this.data = data;
+            this.done = new boolean[this.regionWidth * (y1 - y0)];
+        }
+
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+/**
+ * Holds the raw per-pixel results of an escape-time render: the iteration
+ * count, the smooth (fractional) iteration value and the exterior distance
+ * estimate, and for root-finding kernels such as {@link NewtonKernel} the
+ * basin. The arrays are in row-major order, so the pixel at (<i>x</i>,
+ * <i>y</i>) is at index <i>y</i> &times; width + <i>x</i>. The arrays are
+ * exposed directly to the renderer so that the inner loops can write to them
+ * without any method call or object allocation.
+ * @author Alonso del Arte
+ */
+public final class IterationData {
+
+    private final int width, height;
+
+    final int[] iterations;
+
+    final float[] smoothValues;
+
+    final float[] distances;
+
+    final byte[] basins;
+
+    public int getWidth() {
+        return this.width;
+    }
+
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Gives the iteration count at a given pixel.
+     * @param x The horizontal position. For example, 0.
+     * @param y The vertical position. For example, 0.
+     * @return The iteration count. If the point did not escape, this is the
+     * iteration maximum of the viewport that was rendered.
+     */
+    public int getIterationCount(int x, int y) {
+        return this.iterations[y * this.width + x];
+    }
+
+    /**
+     * Gives the smooth iteration value at a given pixel.
+     * @param x The horizontal position. For example, 0.
+     * @param y The vertical position. For example, 0.
+     * @return The smooth iteration value, which for escaping points lies
+     * between the iteration count minus 1 and the iteration count plus 1.
+     * For points that did not escape, this is the iteration maximum.
+     */
+    public float getSmoothValue(int x, int y) {
+        return this.smoothValues[y * this.width + x];
+    }
+
+    /**
+     * Gives a lower bound for the distance from the point at a given pixel to
+     * the fractal. This is in units of the complex plane, not pixels.
+     * @param x The horizontal position. For example, 0.
+     * @param y The vertical position. For example, 0.
+     * @return The distance estimate. For points that did not escape, this is
+     * 0.0.
+     */
+    public float getDistanceEstimate(int x, int y) {
+        return this.distances[y * this.width + x];
+    }
+
+    /**
+     * Gives the basin of attraction at a given pixel.
+     * @param x The horizontal position. For example, 0.
+     * @param y The vertical position. For example, 0.
+     * @return The basin number. For example, 2 for the basin of the second
+     * root of a Newton kernel. For escape-time kernels, and for points that
+     * did not converge, this is 0.
+     */
+    public int getBasin(int x, int y) {
+        return this.basins[y * this.width + x];
+    }
+
+    /**
+     * Gives direct access to the iteration counts, in row-major order. Changes
+     * to the array are reflected in this object.
+     * @return The backing array, not a copy.
+     */
+    public int[] getIterationCounts() {
+        return this.iterations;
+    }
+
+    /**
+     * Gives direct access to the smooth iteration values, in row-major order.
+     * Changes to the array are reflected in this object.
+     * @return The backing array, not a copy.
+     */
+    public float[] getSmoothValues() {
+        return this.smoothValues;
+    }
+
+    /**
+     * Gives direct access to the distance estimates, in row-major order.
+     * Changes to the array are reflected in this object.
+     * @return The backing array, not a copy.
+     */
+    public float[] getDistanceEstimates() {
+        return this.distances;
+    }
+
+    /**
+     * Gives direct access to the basin numbers, in row-major order. Changes to
+     * the array are reflected in this object.
+     * @return The backing array, not a copy.
+     */
+    public byte[] getBasins() {
+        return this.basins;
+    }
+
+    /**
+     * Creates a new holder with all values zero.
+     * @param width The width in pixels. For example, 1080.
+     * @param height The height in pixels. For example, 640.
+     * @throws IllegalArgumentException If either dimension is less than 1.
+     */
+    public IterationData(int width, int height) {
+        if (width < 1 || height < 1) {
+            String excMsg = "Dimensions " + width + " by " + height
+                    + " are not valid; both should be positive";
+            throw new IllegalArgumentException(excMsg);
+        }
+        this.width = width;
+        this.height = height;
+        int size = width * height;
+        this.iterations = new int[size];
+        this.smoothValues = new float[size];
+        this.distances = new float[size];
+        this.basins = new byte[size];
+    }
+
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import java.util.Arrays;
+
+/**
+ * Chooses an iteration maximum for a viewport by looking at how long the
+ * points of a sparse grid over the viewport take to escape. The grid is
+ * iterated with a generous probe limit, and the iteration maximum is then set
+ * so that a target percentile of the escaping sample points get resolved, with
+ * some headroom. A view that is mostly made up of fast escaping points thus
+ * gets a low iteration maximum, while a deep view near the boundary of the set
+ * gets as high an iteration maximum as it needs.
+ * @author Alonso del Arte
+ */
+public class IterationMaximumPolicy {
+
+    public static final int DEFAULT_GRID_COLUMNS = 48;
+
+    public static final int DEFAULT_GRID_ROWS = 32;
+
+    public static final double DEFAULT_PERCENTILE = 0.995;
+
+    public static final int DEFAULT_MINIMUM = 128;
+
+    public static final int DEFAULT_MAXIMUM = 16384;
+
+    /**
+     * The chosen iteration maximum is this many times the escape time at the
+     * target percentile, since the grid is sparse and the percentile is only
+     * an estimate.
+     */
+    private static final double HEADROOM = 1.5;
+
+    private final int gridColumns, gridRows;
+
+    private final double percentile;
+
+    private final int minimum, maximum;
+
+    /**
+     * Samples the sparse grid over a viewport.
+     * @param viewport The viewport. Its iteration maximum is ignored, the
+     * maximum of this policy is used as the probe limit instead.
+     * @return The escape times of the sample points that escaped, sorted in
+     * ascending order. Points that didn't escape within the probe limit are
+     * left out.
+     */
+    int[] sampleEscapeTimes(Viewport viewport) {
+        Viewport probe = viewport.withIterationMaximum(this.maximum);
+        int columns = Math.min(this.gridColumns, viewport.getWidth());
+        int rows = Math.min(this.gridRows, viewport.getHeight());
+        double xStep = (double) viewport.getWidth() / columns;
+        double yStep = (double) viewport.getHeight() / rows;
+        IterationData scratch = new IterationData(columns, rows);
+        int index = 0;
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                EscapeTime.iterate(probe, (column + 0.5) * xStep,
+                        (row + 0.5) * yStep, scratch, index++);
+            }
+        }
+        int[] counts = scratch.getIterationCounts();
+        int escaped = 0;
+        for (int count : counts) {
+            if (count < this.maximum) {
+                counts[escaped++] = count;
+            }
+        }
+        int[] escapeTimes = Arrays.copyOf(counts, escaped);
+        Arrays.sort(escapeTimes);
+        return escapeTimes;
+    }
+
+    /**
+     * Chooses the iteration maximum for a viewport.
+     * @param viewport The viewport. Its current iteration maximum is ignored.
+     * @return The iteration maximum, at least the minimum of this policy and at
+     * most its maximum. For example, 256 for the default view of the
+     * Mandelbrot set with the default policy.
+     */
+    public int chooseIterationMaximum(Viewport viewport) {
+        int[] escapeTimes = this.sampleEscapeTimes(viewport);
+        if (escapeTimes.length == 0) {
+            return this.minimum;
+        }
+        int rank = (int) Math.ceil(this.percentile * escapeTimes.length) - 1;
+        int target = escapeTimes[Math.max(rank, 0)];
+        long chosen = (long) Math.ceil(target * HEADROOM);
+        return (int) Math.max(this.minimum, Math.min(chosen, this.maximum));
+    }
+
+    /**
+     * Creates a policy with the default grid, percentile, minimum and maximum.
+     */
+    public IterationMaximumPolicy() {
+        this(DEFAULT_GRID_COLUMNS, DEFAULT_GRID_ROWS, DEFAULT_PERCENTILE,
+                DEFAULT_MINIMUM, DEFAULT_MAXIMUM);
+    }
+
+    /**
+     * Creates a policy.
+     * @param gridColumns How many columns in the sample grid. For example, 48.
+     * @param gridRows How many rows in the sample grid. For example, 32.
+     * @param percentile Which fraction of the escaping sample points should be
+     * resolved. For example, 0.995.
+     * @param minimum The lowest iteration maximum to choose. For example, 128.
+     * @param maximum The highest iteration maximum to choose. This is also the
+     * probe limit for the sample points. For example, 16384.
+     * @throws IllegalArgumentException If the grid dimensions are less than 1,
+     * if the percentile is not greater than 0 and at most 1, or if the minimum
+     * is less than 1 or more than the maximum.
+     */
+    public IterationMaximumPolicy(int gridColumns, int gridRows,
+            double percentile, int minimum, int maximum) {
+        if (gridColumns < 1 || gridRows < 1) {
+            String excMsg = "Grid " + gridColumns + " by " + gridRows
+                    + " is not valid";
+            throw new IllegalArgumentException(excMsg);
+        }
+        if (!(percentile > 0.0 && percentile <= 1.0)) {
+            String excMsg = "Percentile " + percentile + " is not valid";
+            throw new IllegalArgumentException(excMsg);
+        }
+        if (minimum < 1 || minimum > maximum) {
+            String excMsg = "Minimum " + minimum + " and maximum " + maximum
+                    + " are not a valid combination";
+            throw new IllegalArgumentException(excMsg);
+        }
+        this.gridColumns = gridColumns;
+        this.gridRows = gridRows;
+        this.percentile = percentile;
+        this.minimum = minimum;
+        this.maximum = maximum;
+    }
+
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+/**
+ * The kernel for Lyapunov fractals, which are not escape-time fractals at all
+ * but which fit the same tiled rendering. Each point (<i>a</i>, <i>b</i>) of
+ * the plane, with <i>a</i> the real part and <i>b</i> the imaginary part
+ * divided by <i>i</i>, gives the logistic map <i>x</i> &#8614;
+ * <i>rx</i>(1 &minus; <i>x</i>), where <i>r</i> goes through <i>a</i> and
+ * <i>b</i> in the order of a periodic sequence such as AB or AABAB. Starting
+ * from <i>x</i> = 1/2, the map is iterated for {@link #WARM_UP_ITERATIONS}
+ * steps so that the orbit can settle, and then for as many steps as the
+ * iteration maximum, over which the Lyapunov exponent &lambda; is averaged
+ * from the logarithms of |<i>r</i>(1 &minus; 2<i>x</i>)|.
+ * <p>Rather than take a logarithm on every step, the absolute derivatives are
+ * multiplied together and the logarithm of the product is only taken when it
+ * gets close to overflow or underflow, which keeps the inner loop to a few
+ * multiplications and a comparison.</p>
+ * <p>The exponent is written to the smooth values of {@link IterationData}:
+ * negative for stable orbits, positive for chaotic ones. The iteration count
+ * is always the iteration maximum and the distance estimate is always 0. Since
+ * there is no dynamical plane for the starting point to range over, a Julia
+ * set viewport gives the same results as a Mandelbrot set viewport.</p>
+ * @author Alonso del Arte
+ */
+public final class LyapunovKernel extends FractalKernel {
+
+    /**
+     * How many steps of the logistic map are taken before the exponent starts
+     * being accumulated.
+     */
+    public static final int WARM_UP_ITERATIONS = 100;
+
+    /**
+     * The longest sequence allowed. The sequence is kept as the bits of a
+     * <code>long</code>.
+     */
+    public static final int MAXIMUM_SEQUENCE_LENGTH = 64;
+
+    /**
+     * How far the product of derivatives is allowed to get from 1 before its
+     * logarithm is added to the sum. Each derivative is at most 4 in absolute
+     * value, so the product can't overflow before the next check.
+     */
+    private static final double PRODUCT_LIMIT = 1.0E150;
+
+    private static final double PRODUCT_FLOOR = 1.0 / PRODUCT_LIMIT;
+
+    private final String sequence;
+
+    /**
+     * Bit <i>k</i> is 1 if the <i>k</i>th letter of the sequence is B.
+     */
+    private final long pattern;
+
+    private final int length;
+
+    public String getSequence() {
+        return this.sequence;
+    }
+
+    @Override
+    public String getName() {
+        return "Lyapunov " + this.sequence;
+    }
+
+    /**
+     * Computes the Lyapunov exponent for one point.
+     * @param a The value of <i>r</i> for A. For example, 3.4.
+     * @param b The value of <i>r</i> for B. For example, 2.8.
+     * @param pattern The sequence, one bit per letter, 1 for B.
+     * @param length The length of the sequence. For example, 2.
+     * @param iterMax How many steps to average over. For example, 256.
+     * @return The exponent. Positive infinity if <i>a</i> or <i>b</i> is
+     * outside the interval from 0 to 4, since then the orbit is not confined
+     * to the unit interval. Negative infinity if the orbit lands exactly on
+     * 1/2.
+     */
+    static double exponent(double a, double b, long pattern, int length,
+            int iterMax) {
+        if (!(a >= 0.0 && a <= 4.0 && b >= 0.0 && b <= 4.0)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double x = 0.5;
+        int k = 0;
+        for (int n = 0; n < WARM_UP_ITERATIONS; n++) {
+            double r = ((pattern >>> k) & 1L) == 0L ? a : b;
+            x = r * x * (1.0 - x);
+            if (++k == length) {
+                k = 0;
+            }
+        }
+        double sum = 0.0, product = 1.0;
+        for (int n = 0; n < iterMax; n++) {
+            double r = ((pattern >>> k) & 1L) == 0L ? a : b;
+            product *= Math.abs(r * (1.0 - 2.0 * x));
+            x = r * x * (1.0 - x);
+            if (++k == length) {
+                k = 0;
+            }
+            if (product > PRODUCT_LIMIT || product < PRODUCT_FLOOR) {
+                sum += Math.log(product);
+                product = 1.0;
+            }
+        }
+        return (sum + Math.log(product)) / iterMax;
+    }
+
+    private static void record(double lambda, int iterMax,
+            IterationData data, int index) {
+        data.iterations[index] = iterMax;
+        data.smoothValues[index] = (float) lambda;
+        data.distances[index] = 0.0F;
+    }
+
+    /**
+     * Computes the Lyapunov exponent for one point.
+     * @param cRe The value of <i>r</i> for A. For example, 3.4.
+     * @param cIm The value of <i>r</i> for B. For example, 2.8.
+     * @param iterMax How many steps to average over, after the warm-up. For
+     * example, 256.
+     * @param data Where to write the exponent.
+     * @param index The index into the arrays of <code>data</code>.
+     */
+    @Override
+    public void mandelbrot(double cRe, double cIm, int iterMax,
+            IterationData data, int index) {
+        record(exponent(cRe, cIm, this.pattern, this.length, iterMax),
+                iterMax, data, index);
+    }
+
+    /**
+     * Computes the Lyapunov exponent for one point. This is the same as
+     * {@link #mandelbrot(double, double, int, IterationData, int)
+     * mandelbrot()}, the parameter <i>c</i> is ignored.
+     * @param zRe The value of <i>r</i> for A. For example, 3.4.
+     * @param zIm The value of <i>r</i> for B. For example, 2.8.
+     * @param cRe Ignored.
+     * @param cIm Ignored.
+     * @param iterMax How many steps to average over, after the warm-up. For
+     * example, 256.
+     * @param data Where to write the exponent.
+     * @param index The index into the arrays of <code>data</code>.
+     */
+    @Override
+    public void julia(double zRe, double zIm, double cRe, double cIm,
+            int iterMax, IterationData data, int index) {
+        this.mandelbrot(zRe, zIm, iterMax, data, index);
+    }
+
+    @Override
+    public void renderRegion(Viewport viewport, int x0, int y0, int x1,
+            int y1, IterationData data) {
+        int width = data.getWidth();
+        int iterMax = viewport.getIterationMaximum();
+        long p = this.pattern;
+        int len = this.length;
+        for (int y = y0; y < y1; y++) {
+            double b = viewport.getImaginaryPartAt(y);
+            int index = y * width + x0;
+            for (int x = x0; x < x1; x++) {
+                record(exponent(viewport.getRealPartAt(x), b, p, len, iterMax),
+                        iterMax, data, index++);
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof LyapunovKernel)) {
+            return false;
+        }
+        return this.sequence.equals(((LyapunovKernel) obj).sequence);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.sequence.hashCode();
+    }
+
+    /**
+     * Creates a Lyapunov kernel for a given sequence.
+     * @param sequence The sequence, of the letters A and B only, in either
+     * case. For example, "AB" or "bbbbbbaaaaaa".
+     * @throws IllegalArgumentException If <code>sequence</code> is empty,
+     * longer than {@link #MAXIMUM_SEQUENCE_LENGTH} or has any character other
+     * than A or B.
+     * @throws NullPointerException If <code>sequence</code> is null.
+     */
+    public LyapunovKernel(String sequence) {
+        if (sequence == null) {
+            String excMsg = "Sequence must not be null";
+            throw new NullPointerException(excMsg);
+        }
+        String upper = sequence.toUpperCase();
+        if (upper.isEmpty() || upper.length() > MAXIMUM_SEQUENCE_LENGTH) {
+            String excMsg = "Sequence \"" + sequence + "\" should have 1 to "
+                    + MAXIMUM_SEQUENCE_LENGTH + " letters";
+            throw new IllegalArgumentException(excMsg);
+        }
+        long bits = 0L;
+        for (int k = 0; k < upper.length(); k++) {
+            char ch = upper.charAt(k);
+            if (ch == 'B') {
+                bits |= 1L << k;
+            } else if (ch != 'A') {
+                String excMsg = "Character '" + ch + "' at position " + k
+                        + " of sequence \"" + sequence
+                        + "\" is neither A nor B";
+                throw new IllegalArgumentException(excMsg);
+            }
+        }
+        this.sequence = upper;
+        this.pattern = bits;
+        this.length = upper.length();
+    }
+
+}
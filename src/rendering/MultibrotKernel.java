@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+/**
+ * The kernel for <i>z</i><sup><i>d</i></sup> + <i>c</i>, for an integer degree
+ * <i>d</i> of at least 2, which gives the multibrot sets and their Julia sets.
+ * The power is computed by repeated multiplication, so the cost of an
+ * iteration grows with the degree.
+ * @author Alonso del Arte
+ */
+public final class MultibrotKernel extends FractalKernel {
+
+    /**
+     * The highest degree allowed.
+     */
+    public static final int MAXIMUM_DEGREE = 16;
+
+    private final int degree;
+
+    private final double logDegree;
+
+    public int getDegree() {
+        return this.degree;
+    }
+
+    @Override
+    public String getName() {
+        return "z^" + this.degree + " + c";
+    }
+
+    /**
+     * Iterates a point, starting from a given <i>z</i> and derivative.
+     * @param dzStep 1.0 for the parameter plane, where the derivative is with
+     * respect to <i>c</i>, or 0.0 for a dynamical plane, where it's with
+     * respect to the starting <i>z</i>.
+     */
+    private static void iterate(int degree, double logDegree, double zRe,
+            double zIm, double dzRe, double dzIm, double dzStep, double cRe,
+            double cIm, int iterMax, IterationData data, int index) {
+        double norm = zRe * zRe + zIm * zIm;
+        int count = 0;
+        while (norm < EscapeTime.ESCAPE_RADIUS_SQUARED && count < iterMax) {
+            // z^(d - 1), for both the derivative and the next z
+            double powRe = zRe, powIm = zIm;
+            for (int k = 2; k < degree; k++) {
+                double re = powRe * zRe - powIm * zIm;
+                powIm = powRe * zIm + powIm * zRe;
+                powRe = re;
+            }
+            double nextDzRe = degree * (powRe * dzRe - powIm * dzIm) + dzStep;
+            dzIm = degree * (powRe * dzIm + powIm * dzRe);
+            dzRe = nextDzRe;
+            double nextZRe = powRe * zRe - powIm * zIm + cRe;
+            zIm = powRe * zIm + powIm * zRe + cIm;
+            zRe = nextZRe;
+            norm = zRe * zRe + zIm * zIm;
+            count++;
+        }
+        EscapeTime.record(count, iterMax, norm, dzRe * dzRe + dzIm * dzIm,
+                logDegree, data, index);
+    }
+
+    @Override
+    public void mandelbrot(double cRe, double cIm, int iterMax,
+            IterationData data, int index) {
+        iterate(this.degree, this.logDegree, 0.0, 0.0, 0.0, 0.0, 1.0, cRe,
+                cIm, iterMax, data, index);
+    }
+
+    @Override
+    public void julia(double zRe, double zIm, double cRe, double cIm,
+            int iterMax, IterationData data, int index) {
+        iterate(this.degree, this.logDegree, zRe, zIm, 1.0, 0.0, 0.0, cRe,
+                cIm, iterMax, data, index);
+    }
+
+    @Override
+    public void renderRegion(Viewport viewport, int x0, int y0, int x1,
+            int y1, IterationData data) {
+        int width = data.getWidth();
+        int iterMax = viewport.getIterationMaximum();
+        int d = this.degree;
+        double logD = this.logDegree;
+        if (viewport.isJulia()) {
+            double cRe = viewport.getJuliaRe();
+            double cIm = viewport.getJuliaIm();
+            for (int y = y0; y < y1; y++) {
+                double im = viewport.getImaginaryPartAt(y);
+                int index = y * width + x0;
+                for (int x = x0; x < x1; x++) {
+                    iterate(d, logD, viewport.getRealPartAt(x), im, 1.0, 0.0,
+                            0.0, cRe, cIm, iterMax, data, index++);
+                }
+            }
+        } else {
+            for (int y = y0; y < y1; y++) {
+                double im = viewport.getImaginaryPartAt(y);
+                int index = y * width + x0;
+                for (int x = x0; x < x1; x++) {
+                    iterate(d, logD, 0.0, 0.0, 0.0, 0.0, 1.0,
+                            viewport.getRealPartAt(x), im, iterMax, data,
+                            index++);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tells whether loops of points inside the set may be filled in. Like the
+     * Mandelbrot set, the multibrot sets are connected and have no holes, and
+     * so is the Julia set for any parameter in the multibrot set.
+     * @param viewport The viewport.
+     * @return True for the multibrot set, and for a Julia set whose parameter
+     * doesn't escape within the viewport's iteration maximum.
+     */
+    @Override
+    public boolean canFillEnclosedInterior(Viewport viewport) {
+        if (!viewport.isJulia()) {
+            return true;
+        }
+        IterationData data = new IterationData(1, 1);
+        this.mandelbrot(viewport.getJuliaRe(), viewport.getJuliaIm(),
+                viewport.getIterationMaximum(), data, 0);
+        return data.iterations[0] >= viewport.getIterationMaximum();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof MultibrotKernel
+                && ((MultibrotKernel) obj).degree == this.degree;
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode() + this.degree;
+    }
+
+    /**
+     * Creates a kernel for a given degree.
+     * @param degree The degree <i>d</i>, from 2 to {@link #MAXIMUM_DEGREE}.
+     * For example, 3. For degree 2, {@link QuadraticKernel} gives the same
+     * results and is faster.
+     * @throws IllegalArgumentException If <code>degree</code> is out of range.
+     */
+    public MultibrotKernel(int degree) {
+        if (degree < 2 || degree > MAXIMUM_DEGREE) {
+            String excMsg = "Degree " + degree + " is not valid";
+            throw new IllegalArgumentException(excMsg);
+        }
+        this.degree = degree;
+        this.logDegree = Math.log(degree);
+    }
+
+}
@@ -0,0 +1,365 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import java.util.Arrays;
+
+import numerics.ComplexNumber;
+
+/**
+ * The kernel for Newton's method on a polynomial <i>p</i>, iterating
+ * <i>z</i> &minus; <i>p</i>(<i>z</i>)/<i>p</i>&prime;(<i>z</i>) until the
+ * step is negligible. Newton's method has no parameter, so both planes show
+ * the same picture: {@link #mandelbrot(double, double, int, IterationData,
+ * int) mandelbrot()} starts from <i>c</i>, and {@link #julia(double, double,
+ * double, double, int, IterationData, int) julia()} starts from <i>z</i> and
+ * ignores <i>c</i>.
+ * <p>The roots of the polynomial are found once, by the Durand&ndash;Kerner
+ * method, when the kernel is created. When a point converges, its basin is
+ * then just the number of the nearest root, from 1 up to the degree. The
+ * iteration count is the number of steps taken, and the smooth value
+ * interpolates between counts using the quadratic convergence near a simple
+ * root. The division by <i>p</i>&prime;(<i>z</i>) is done on primitive
+ * doubles; if the derivative is so near 0 that the step would be meaningless,
+ * as at a critical point, the point is taken not to converge, with basin 0,
+ * rather than causing an exception.</p>
+ * @author Alonso del Arte
+ */
+public final class NewtonKernel extends FractalKernel {
+
+    /**
+     * The highest degree allowed.
+     */
+    public static final int MAXIMUM_DEGREE = 16;
+
+    /**
+     * The square of the step size below which a point is taken to have
+     * converged.
+     */
+    static final double TOLERANCE_SQUARED = 1.0E-12;
+
+    private static final double LOG_TOLERANCE_SQUARED
+            = Math.log(TOLERANCE_SQUARED);
+
+    /**
+     * The smallest norm of <i>p</i>&prime;(<i>z</i>) that is divided by.
+     */
+    private static final double MINIMUM_DERIVATIVE_NORM = 1.0E-300;
+
+    private static final double LOG_2 = Math.log(2.0);
+
+    private static final int ROOT_FINDING_ROUNDS = 1000;
+
+    // Leading coefficient first
+    private final double[] coeffRe, coeffIm;
+
+    private final double[] rootRe, rootIm;
+
+    private final int degree;
+
+    public int getDegree() {
+        return this.degree;
+    }
+
+    /**
+     * Gives the roots of the polynomial, as found when this kernel was
+     * created. The basin numbers correspond to the order of the roots: basin
+     * 1 is for the first root in the array, basin 2 for the second, and so on.
+     * @return A new array with the roots. For example, for <i>z</i><sup>3</sup>
+     * &minus; 1, 1, &minus;1/2 + (&radic;3/2)<i>i</i> and &minus;1/2 &minus;
+     * (&radic;3/2)<i>i</i>, in some order.
+     */
+    public ComplexNumber[] getRoots() {
+        ComplexNumber[] roots = new ComplexNumber[this.degree];
+        for (int k = 0; k < this.degree; k++) {
+            roots[k] = new ComplexNumber(this.rootRe[k], this.rootIm[k]);
+        }
+        return roots;
+    }
+
+    private static String formatCoefficient(double re, double im) {
+        if (im == 0.0) {
+            double magnitude = Math.abs(re);
+            return magnitude == Math.rint(magnitude) && magnitude < 1.0E15
+                    ? Long.toString((long) magnitude)
+                    : Double.toString(magnitude);
+        }
+        return "(" + new ComplexNumber(re, im).toASCIIString() + ")";
+    }
+
+    @Override
+    public String getName() {
+        StringBuilder name = new StringBuilder("Newton ");
+        for (int k = 0; k <= this.degree; k++) {
+            double re = this.coeffRe[k], im = this.coeffIm[k];
+            if (re == 0.0 && im == 0.0) {
+                continue;
+            }
+            boolean negative = im == 0.0 && re < 0.0;
+            if (name.length() > 7) {
+                name.append(negative ? " - " : " + ");
+            } else if (negative) {
+                name.append('-');
+            }
+            int power = this.degree - k;
+            boolean unit = im == 0.0 && Math.abs(re) == 1.0;
+            if (!unit || power == 0) {
+                name.append(formatCoefficient(re, im));
+            }
+            if (power > 0) {
+                name.append('z');
+            }
+            if (power > 1) {
+                name.append('^').append(power);
+            }
+        }
+        return name.toString();
+    }
+
+    /**
+     * Runs Newton's method from a point and records the count, smooth value
+     * and basin.
+     */
+    private static void iterate(double[] coeffRe, double[] coeffIm,
+            double[] rootRe, double[] rootIm, double zRe, double zIm,
+            int iterMax, IterationData data, int index) {
+        int degree = rootRe.length;
+        double stepNorm = Double.POSITIVE_INFINITY;
+        int count = 0;
+        while (stepNorm >= TOLERANCE_SQUARED && count < iterMax) {
+            // Horner's method for p(z) and p'(z) together
+            double pRe = coeffRe[0], pIm = coeffIm[0];
+            double dRe = 0.0, dIm = 0.0;
+            for (int k = 1; k <= degree; k++) {
+                double nextDRe = dRe * zRe - dIm * zIm + pRe;
+                dIm = dRe * zIm + dIm * zRe + pIm;
+                dRe = nextDRe;
+                double nextPRe = pRe * zRe - pIm * zIm + coeffRe[k];
+                pIm = pRe * zIm + pIm * zRe + coeffIm[k];
+                pRe = nextPRe;
+            }
+            double dNorm = dRe * dRe + dIm * dIm;
+            if (!(dNorm >= MINIMUM_DERIVATIVE_NORM)) {
+                count = iterMax;
+                break;
+            }
+            double stepRe = (pRe * dRe + pIm * dIm) / dNorm;
+            double stepIm = (pIm * dRe - pRe * dIm) / dNorm;
+            zRe -= stepRe;
+            zIm -= stepIm;
+            stepNorm = stepRe * stepRe + stepIm * stepIm;
+            count++;
+        }
+        data.iterations[index] = count;
+        data.distances[index] = 0.0F;
+        if (count >= iterMax || !(stepNorm < TOLERANCE_SQUARED)) {
+            data.smoothValues[index] = iterMax;
+            data.basins[index] = 0;
+            return;
+        }
+        int nearest = 0;
+        double nearestNorm = Double.POSITIVE_INFINITY;
+        for (int k = 0; k < degree; k++) {
+            double diffRe = zRe - rootRe[k], diffIm = zIm - rootIm[k];
+            double norm = diffRe * diffRe + diffIm * diffIm;
+            if (norm < nearestNorm) {
+                nearestNorm = norm;
+                nearest = k;
+            }
+        }
+        data.basins[index] = (byte) (nearest + 1);
+        // With quadratic convergence, the log of the step about doubles each
+        // iteration, so this fraction is between 0 and 1
+        double fraction = Math.log(Math.log(stepNorm) / LOG_TOLERANCE_SQUARED)
+                / LOG_2;
+        fraction = Math.min(Math.max(fraction, 0.0), 1.0);
+        data.smoothValues[index] = (float) (count - fraction);
+    }
+
+    @Override
+    public void mandelbrot(double cRe, double cIm, int iterMax,
+            IterationData data, int index) {
+        iterate(this.coeffRe, this.coeffIm, this.rootRe, this.rootIm, cRe,
+                cIm, iterMax, data, index);
+    }
+
+    @Override
+    public void julia(double zRe, double zIm, double cRe, double cIm,
+            int iterMax, IterationData data, int index) {
+        iterate(this.coeffRe, this.coeffIm, this.rootRe, this.rootIm, zRe,
+                zIm, iterMax, data, index);
+    }
+
+    @Override
+    public void renderRegion(Viewport viewport, int x0, int y0, int x1,
+            int y1, IterationData data) {
+        int width = data.getWidth();
+        int iterMax = viewport.getIterationMaximum();
+        double[] aRe = this.coeffRe, aIm = this.coeffIm;
+        double[] rRe = this.rootRe, rIm = this.rootIm;
+        for (int y = y0; y < y1; y++) {
+            double im = viewport.getImaginaryPartAt(y);
+            int index = y * width + x0;
+            for (int x = x0; x < x1; x++) {
+                iterate(aRe, aIm, rRe, rIm, viewport.getRealPartAt(x), im,
+                        iterMax, data, index++);
+            }
+        }
+    }
+
+    /**
+     * Finds all the roots of the polynomial at once by the Durand&ndash;Kerner
+     * method. The starting points are powers of 0.4 + 0.9<i>i</i>, which is
+     * neither real nor a root of unity, as is usual for this method.
+     * @throws ArithmeticException If the method diverges, which can only
+     * happen if the coefficients are so large or so small that the arithmetic
+     * overflows.
+     */
+    private void findRoots() {
+        int n = this.degree;
+        // Monic coefficients, so that p(z) = z^n + ...
+        double leadNorm = this.coeffRe[0] * this.coeffRe[0]
+                + this.coeffIm[0] * this.coeffIm[0];
+        double[] bRe = new double[n + 1], bIm = new double[n + 1];
+        for (int k = 0; k <= n; k++) {
+            bRe[k] = (this.coeffRe[k] * this.coeffRe[0]
+                    + this.coeffIm[k] * this.coeffIm[0]) / leadNorm;
+            bIm[k] = (this.coeffIm[k] * this.coeffRe[0]
+                    - this.coeffRe[k] * this.coeffIm[0]) / leadNorm;
+        }
+        double seedRe = 1.0, seedIm = 0.0;
+        for (int k = 0; k < n; k++) {
+            this.rootRe[k] = seedRe;
+            this.rootIm[k] = seedIm;
+            double nextRe = seedRe * 0.4 - seedIm * 0.9;
+            seedIm = seedRe * 0.9 + seedIm * 0.4;
+            seedRe = nextRe;
+        }
+        for (int round = 0; round < ROOT_FINDING_ROUNDS; round++) {
+            double largestChange = 0.0;
+            for (int i = 0; i < n; i++) {
+                double zRe = this.rootRe[i], zIm = this.rootIm[i];
+                double pRe = bRe[0], pIm = bIm[0];
+                for (int k = 1; k <= n; k++) {
+                    double nextRe = pRe * zRe - pIm * zIm + bRe[k];
+                    pIm = pRe * zIm + pIm * zRe + bIm[k];
+                    pRe = nextRe;
+                }
+                double qRe = 1.0, qIm = 0.0;
+                for (int j = 0; j < n; j++) {
+                    if (j != i) {
+                        double diffRe = zRe - this.rootRe[j];
+                        double diffIm = zIm - this.rootIm[j];
+                        double nextRe = qRe * diffRe - qIm * diffIm;
+                        qIm = qRe * diffIm + qIm * diffRe;
+                        qRe = nextRe;
+                    }
+                }
+                double qNorm = qRe * qRe + qIm * qIm;
+                if (!(qNorm >= MINIMUM_DERIVATIVE_NORM)) {
+                    // Two estimates coincide; nudge this one apart
+                    this.rootRe[i] += 1.0E-8;
+                    largestChange = Double.POSITIVE_INFINITY;
+                    continue;
+                }
+                double changeRe = (pRe * qRe + pIm * qIm) / qNorm;
+                double changeIm = (pIm * qRe - pRe * qIm) / qNorm;
+                this.rootRe[i] = zRe - changeRe;
+                this.rootIm[i] = zIm - changeIm;
+                largestChange = Math.max(largestChange,
+                        changeRe * changeRe + changeIm * changeIm);
+            }
+            if (largestChange < 1.0E-28) {
+                break;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if (!Double.isFinite(this.rootRe[i])
+                    || !Double.isFinite(this.rootIm[i])) {
+                String excMsg = "Could not find the roots of "
+                        + this.getName();
+                throw new ArithmeticException(excMsg);
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof NewtonKernel)) {
+            return false;
+        }
+        NewtonKernel other = (NewtonKernel) obj;
+        return Arrays.equals(this.coeffRe, other.coeffRe)
+                && Arrays.equals(this.coeffIm, other.coeffIm);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode() + 31 * Arrays.hashCode(this.coeffRe)
+                + Arrays.hashCode(this.coeffIm);
+    }
+
+    /**
+     * Creates a kernel for a polynomial.
+     * @param coefficients The coefficients, leading coefficient first. For
+     * example, 1, 0, 0, &minus;1 for <i>z</i><sup>3</sup> &minus; 1.
+     * @throws IllegalArgumentException If the leading coefficient is 0, or if
+     * the degree is less than 2 or more than {@link #MAXIMUM_DEGREE}.
+     * @throws ArithmeticException If the roots can't be found.
+     */
+    public NewtonKernel(ComplexNumber... coefficients) {
+        int n = coefficients.length - 1;
+        if (n < 2 || n > MAXIMUM_DEGREE) {
+            String excMsg = "Degree " + n + " is not valid";
+            throw new IllegalArgumentException(excMsg);
+        }
+        if (coefficients[0].norm() == 0.0) {
+            String excMsg = "Leading coefficient must not be 0";
+            throw new IllegalArgumentException(excMsg);
+        }
+        this.degree = n;
+        this.coeffRe = new double[n + 1];
+        this.coeffIm = new double[n + 1];
+        for (int k = 0; k <= n; k++) {
+            this.coeffRe[k] = coefficients[k].getRealPart();
+            this.coeffIm[k] = coefficients[k].getImaginaryPart();
+        }
+        this.rootRe = new double[n];
+        this.rootIm = new double[n];
+        this.findRoots();
+    }
+
+    /**
+     * Creates a kernel for a polynomial with real coefficients.
+     * @param coefficients The coefficients, leading coefficient first. For
+     * example, 1, 0, 0, &minus;1 for <i>z</i><sup>3</sup> &minus; 1.
+     * @throws IllegalArgumentException If the leading coefficient is 0, or if
+     * the degree is less than 2 or more than {@link #MAXIMUM_DEGREE}.
+     */
+    public NewtonKernel(double... coefficients) {
+        this(toComplex(coefficients));
+    }
+
+    private static ComplexNumber[] toComplex(double[] coefficients) {
+        ComplexNumber[] numbers = new ComplexNumber[coefficients.length];
+        for (int k = 0; k < coefficients.length; k++) {
+            numbers[k] = new ComplexNumber(coefficients[k], 0.0);
+        }
+        return numbers;
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+/**
+ * The kernel for <i>z</i><sup>2</sup> + <i>c</i>, which gives the Mandelbrot
+ * set and the usual Julia sets. This just calls on {@link EscapeTime}, and is
+ * the default kernel of a {@link Viewport}.
+ * @author Alonso del Arte
+ */
+public final class QuadraticKernel extends FractalKernel {
+
+    @Override
+    public String getName() {
+        return "z^2 + c";
+    }
+
+    @Override
+    public void mandelbrot(double cRe, double cIm, int iterMax,
+            IterationData data, int index) {
+        EscapeTime.mandelbrot(cRe, cIm, iterMax, data, index);
+    }
+
+    @Override
+    public void julia(double zRe, double zIm, double cRe, double cIm,
+            int iterMax, IterationData data, int index) {
+        EscapeTime.julia(zRe, zIm, cRe, cIm, iterMax, data, index);
+    }
+
+    @Override
+    public void renderRegion(Viewport viewport, int x0, int y0, int x1,
+            int y1, IterationData data) {
+        int width = data.getWidth();
+        int iterMax = viewport.getIterationMaximum();
+        if (viewport.isJulia()) {
+            double cRe = viewport.getJuliaRe();
+            double cIm = viewport.getJuliaIm();
+            for (int y = y0; y < y1; y++) {
+                double im = viewport.getImaginaryPartAt(y);
+                int index = y * width + x0;
+                for (int x = x0; x < x1; x++) {
+                    EscapeTime.julia(viewport.getRealPartAt(x), im, cRe, cIm,
+                            iterMax, data, index++);
+                }
+            }
+        } else {
+            for (int y = y0; y < y1; y++) {
+                double im = viewport.getImaginaryPartAt(y);
+                int index = y * width + x0;
+                for (int x = x0; x < x1; x++) {
+                    EscapeTime.mandelbrot(viewport.getRealPartAt(x), im,
+                            iterMax, data, index++);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tells whether loops of points inside the set may be filled in. The
+     * Mandelbrot set is connected and has no holes, and so is the Julia set
+     * for any parameter in the Mandelbrot set.
+     * @param viewport The viewport.
+     * @return True for the Mandelbrot set, and for a Julia set whose parameter
+     * doesn't escape within the viewport's iteration maximum.
+     */
+    @Override
+    public boolean canFillEnclosedInterior(Viewport viewport) {
+        if (!viewport.isJulia()) {
+            return true;
+        }
+        double cRe = viewport.getJuliaRe(), cIm = viewport.getJuliaIm();
+        double zRe = 0.0, zIm = 0.0;
+        for (int n = 0; n < viewport.getIterationMaximum(); n++) {
+            double nextRe = zRe * zRe - zIm * zIm + cRe;
+            zIm = 2.0 * zRe * zIm + cIm;
+            zRe = nextRe;
+            if (zRe * zRe + zIm * zIm > EscapeTime.ESCAPE_RADIUS_SQUARED) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
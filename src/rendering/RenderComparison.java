@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import numerics.ComplexNumber;
+
+/**
+ * Checks a {@link RenderMode} against the exact render of the same viewport,
+ * pixel by pixel, and times both. Both renders go tile by tile on the calling
+ * thread, so that the times are comparable and the count of pixels iterated
+ * doesn't depend on scheduling.
+ * <p>Run this class to compare the render modes on a few typical views.</p>
+ * @author Alonso del Arte
+ */
+public final class RenderComparison {
+
+    private final Viewport viewport;
+
+    private final long exactNanos, modeNanos;
+
+    private final long iteratedCount;
+
+    private final int mismatchCount;
+
+    private final double maximumSmoothError, meanSmoothError;
+
+    public Viewport getViewport() {
+        return this.viewport;
+    }
+
+    public long getExactNanos() {
+        return this.exactNanos;
+    }
+
+    public long getModeNanos() {
+        return this.modeNanos;
+    }
+
+    public int getPixelCount() {
+        return this.viewport.getWidth() * this.viewport.getHeight();
+    }
+
+    /**
+     * Tells how many pixels the mode iterated with the kernel. The exact
+     * render iterates all of them.
+     * @return The count. For example, 86400 out of 691200.
+     */
+    public long getIteratedCount() {
+        return this.iteratedCount;
+    }
+
+    /**
+     * Tells how many pixels the mode got a different iteration count or
+     * basin for than the exact render.
+     * @return The count. For example, 12.
+     */
+    public int getMismatchCount() {
+        return this.mismatchCount;
+    }
+
+    /**
+     * Gives the largest difference in smooth value between the mode and the
+     * exact render, among the pixels with the same iteration count.
+     * @return The difference. For example, 0.75.
+     */
+    public double getMaximumSmoothError() {
+        return this.maximumSmoothError;
+    }
+
+    /**
+     * Gives the average difference in smooth value between the mode and the
+     * exact render, among the pixels with the same iteration count.
+     * @return The difference. For example, 0.01.
+     */
+    public double getMeanSmoothError() {
+        return this.meanSmoothError;
+    }
+
+    @Override
+    public String toString() {
+        int pixels = this.getPixelCount();
+        return String.format("%s: iterated %d of %d pixels (%.1f%%), "
+                + "%.1f ms vs. %.1f ms exact, %d mismatched (%.3f%%), "
+                + "smooth error mean %.4f max %.4f", this.viewport,
+                this.iteratedCount, pixels,
+                100.0 * this.iteratedCount / pixels, this.modeNanos / 1.0E6,
+                this.exactNanos / 1.0E6, this.mismatchCount,
+                100.0 * this.mismatchCount / pixels, this.meanSmoothError,
+                this.maximumSmoothError);
+    }
+
+    private static long render(Viewport viewport, RenderMode mode,
+            int tileSize, IterationData data) {
+        int width = viewport.getWidth(), height = viewport.getHeight();
+        long count = 0L;
+        for (int y = 0; y < height; y += tileSize) {
+            int y1 = Math.min(y + tileSize, height);
+            for (int x = 0; x < width; x += tileSize) {
+                count += mode.renderRegion(viewport, x, y,
+                        Math.min(x + tileSize, width), y1, data);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Compares a render mode to the exact render, with tiles of the default
+     * size of {@link TileRenderer}.
+     * @param viewport The viewport to render. For example, the default view of
+     * the Mandelbrot set.
+     * @param mode The mode to check. For example, a {@link BoundaryTracer}.
+     * @return The comparison.
+     */
+    public static RenderComparison compare(Viewport viewport,
+            RenderMode mode) {
+        return compare(viewport, mode, TileRenderer.DEFAULT_TILE_SIZE);
+    }
+
+    /**
+     * Compares a render mode to the exact render.
+     * @param viewport The viewport to render. For example, the default view of
+     * the Mandelbrot set.
+     * @param mode The mode to check. For example, a {@link BoundaryTracer}.
+     * @param tileSize The width and height of the tiles to render with. For
+     * example, 64.
+     * @return The comparison.
+     * @throws IllegalArgumentException If <code>tileSize</code> is less than
+     * 1.
+     */
+    public static RenderComparison compare(Viewport viewport, RenderMode mode,
+            int tileSize) {
+        if (tileSize < 1) {
+            String excMsg = "Tile size " + tileSize + " is not valid";
+            throw new IllegalArgumentException(excMsg);
+        }
+        int width = viewport.getWidth(), height = viewport.getHeight();
+        IterationData exact = new IterationData(width, height);
+        IterationData approximate = new IterationData(width, height);
+        long start = System.nanoTime();
+        render(viewport, RenderMode.EXACT, tileSize, exact);
+        long exactNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        long iterated = render(viewport, mode, tileSize, approximate);
+        long modeNanos = System.nanoTime() - start;
+        int mismatches = 0, matches = 0;
+        double maxError = 0.0, totalError = 0.0;
+        for (int i = 0; i < width * height; i++) {
+            if (exact.iterations[i] != approximate.iterations[i]
+                    || exact.basins[i] != approximate.basins[i]) {
+                mismatches++;
+            } else {
+                double error = Math.abs(exact.smoothValues[i]
+                        - approximate.smoothValues[i]);
+                maxError = Math.max(maxError, error);
+                totalError += error;
+                matches++;
+            }
+        }
+        return new RenderComparison(viewport, exactNanos, modeNanos, iterated,
+                mismatches, maxError, matches == 0 ? 0.0
+                        : totalError / matches);
+    }
+
+    private RenderComparison(Viewport viewport, long exactNanos,
+            long modeNanos, long iteratedCount, int mismatchCount,
+            double maximumSmoothError, double meanSmoothError) {
+        this.viewport = viewport;
+        this.exactNanos = exactNanos;
+        this.modeNanos = modeNanos;
+        this.iteratedCount = iteratedCount;
+        this.mismatchCount = mismatchCount;
+        this.maximumSmoothError = maximumSmoothError;
+        this.meanSmoothError = meanSmoothError;
+    }
+
+    /**
+     * Compares boundary tracing, interior filling and disc filling at the
+     * default quality and at twice that to the exact render on the default
+     * view of the Mandelbrot set, at a low and a high iteration maximum, on a
+     * zoom into Seahorse Valley and on a zoomed out view, printing the
+     * results.
+     * @param args Not used.
+     */
+    public static void main(String[] args) {
+        Viewport[] views = {
+            Viewport.mandelbrot(new ComplexNumber(-2.75, -1.25), 256.0, 1080,
+                    640, 256),
+            Viewport.mandelbrot(new ComplexNumber(-2.75, -1.25), 256.0, 1080,
+                    640, 4096),
+            Viewport.mandelbrot(new ComplexNumber(-0.7625, 0.1), 32768.0, 1080,
+                    640, 1024),
+            Viewport.mandelbrot(new ComplexNumber(-17.625, -10.0), 32.0, 1080,
+                    640, 256)
+        };
+        RenderMode[] modes = {new BoundaryTracer(), new InteriorFill(),
+            new DiscFill(), new DiscFill(2.0 * DiscFill.DEFAULT_QUALITY)};
+        for (RenderMode mode : modes) {
+            String name = mode.getClass().getSimpleName();
+            if (mode instanceof DiscFill) {
+                name += ", quality " + ((DiscFill) mode).getQuality();
+            }
+            System.out.println(name);
+            for (Viewport view : views) {
+                System.out.println(compare(view, mode));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs many concurrent render requests, such as thumbnails, previews and
+ * tiles, without letting the number of threads grow with the number of
+ * requests. Each request runs on a request thread, which does the coordination
+ * and the I/O and may block cheaply, while the CPU-heavy kernel work is handed
+ * to a bounded kernel pool with one thread per core by default. A limit on the
+ * number of requests in flight gives backpressure: past the limit, new
+ * requests are rejected right away rather than queued without bound.
+ * <p>On Java 21 and later, each request gets its own virtual thread. The
+ * program is built for Java 8, so the virtual thread executor is looked up
+ * reflectively; on earlier versions, or if the system property
+ * <code>fractalviewer.virtualThreads</code> is "false", requests run on a
+ * fixed pool of {@link #FALLBACK_REQUEST_THREADS} daemon threads instead.</p>
+ * @author Alonso del Arte
+ */
+public final class RenderJobExecutor implements Executor {
+
+    /**
+     * The default limit on the number of requests in flight.
+     */
+    public static final int DEFAULT_MAXIMUM_IN_FLIGHT = 4096;
+
+    /**
+     * How many request threads to use when virtual threads aren't available.
+     */
+    public static final int FALLBACK_REQUEST_THREADS = 64;
+
+    private static final boolean VIRTUAL_THREADS_ALLOWED = !"false"
+            .equals(System.getProperty("fractalviewer.virtualThreads"));
+
+    private final ExecutorService requestExecutor;
+
+    private final boolean virtualThreads;
+
+    private final ForkJoinPool kernelPool;
+
+    private final int maximumInFlight;
+
+    private final Semaphore permits;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * Tells whether requests run on virtual threads.
+     * @return True on Java 21 and later, unless disabled by the system
+     * property; false otherwise.
+     */
+    public boolean isUsingVirtualThreads() {
+        return this.virtualThreads;
+    }
+
+    /**
+     * Gives the pool for kernel work. This can be passed to a
+     * {@link TileEngine} or a {@link TileRenderer}.
+     * @return The kernel pool, a fork/join pool of bounded parallelism.
+     */
+    public ForkJoinPool getKernelPool() {
+        return this.kernelPool;
+    }
+
+    public int getMaximumInFlight() {
+        return this.maximumInFlight;
+    }
+
+    /**
+     * Tells how many requests have been submitted but not finished.
+     * @return The count, from 0 to the limit.
+     */
+    public int getInFlightCount() {
+        return this.inFlight.get();
+    }
+
+    /**
+     * Tells the greatest number of requests that were in flight at once.
+     * @return The count. For example, 1500.
+     */
+    public int getPeakInFlightCount() {
+        return this.peakInFlight.get();
+    }
+
+    /**
+     * Tells how many requests were rejected because the limit was reached.
+     * @return The count. For example, 0.
+     */
+    public long getRejectedCount() {
+        return this.rejected.get();
+    }
+
+    /**
+     * Submits a request. The request runs on a request thread, and may use
+     * {@link #compute(Supplier)} for kernel work.
+     * @param <T> The type of the result.
+     * @param job The request.
+     * @return A future for the result of the request.
+     * @throws RejectedExecutionException If the limit on requests in flight
+     * has been reached, or if this executor has been shut down.
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> job) {
+        if (!this.permits.tryAcquire()) {
+            this.rejected.incrementAndGet();
+            String excMsg = "Limit of " + this.maximumInFlight
+                    + " requests in flight reached";
+            throw new RejectedExecutionException(excMsg);
+        }
+        int current = this.inFlight.incrementAndGet();
+        this.peakInFlight.accumulateAndGet(current, Math::max);
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            this.requestExecutor.execute(() -> {
+                T result = null;
+                Throwable failure = null;
+                try {
+                    result = job.call();
+                } catch (Exception | Error e) {
+                    failure = e;
+                }
+                // Released before completing, so that whoever is waiting on
+                // the future sees the request as no longer in flight
+                this.inFlight.decrementAndGet();
+                this.permits.release();
+                if (failure == null) {
+                    future.complete(result);
+                } else {
+                    future.completeExceptionally(failure);
+                }
+            });
+        } catch (RejectedExecutionException ree) {
+            this.inFlight.decrementAndGet();
+            this.permits.release();
+            throw ree;
+        }
+        return future;
+    }
+
+    /**
+     * Runs a request that has no result. See {@link #submit(Callable)}.
+     * @param command The request.
+     * @throws RejectedExecutionException If the limit on requests in flight
+     * has been reached, or if this executor has been shut down.
+     */
+    @Override
+    public void execute(Runnable command) {
+        this.submit(Executors.callable(command));
+    }
+
+    /**
+     * Does kernel work on the kernel pool and waits for it. Meant to be called
+     * from a request; while it waits, a virtual thread gives up its carrier,
+     * and a fallback request thread just blocks. If called from the kernel
+     * pool itself, the work is done on the calling thread.
+     * @param <T> The type of the result.
+     * @param kernelWork The work. For example, rendering a tile.
+     * @return The result of the work.
+     * @throws java.util.concurrent.CompletionException If the work throws an
+     * exception.
+     */
+    public <T> T compute(Supplier<T> kernelWork) {
+        Thread current = Thread.currentThread();
+        if (current instanceof ForkJoinWorkerThread
+                && ((ForkJoinWorkerThread) current).getPool()
+                        == this.kernelPool) {
+            return kernelWork.get();
+        }
+        return CompletableFuture.supplyAsync(kernelWork, this.kernelPool)
+                .join();
+    }
+
+    /**
+     * Stops accepting requests. Requests already submitted and kernel work
+     * already started are allowed to finish.
+     */
+    public void shutdown() {
+        this.requestExecutor.shutdown();
+        this.kernelPool.shutdown();
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        if (!VIRTUAL_THREADS_ALLOWED) {
+            return null;
+        }
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException
+                | InvocationTargetException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService newFallbackExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                FALLBACK_REQUEST_THREADS, FALLBACK_REQUEST_THREADS, 30L,
+                TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "Render request "
+                            + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Creates an executor with one kernel thread per core and the default
+     * limit on requests in flight.
+     */
+    public RenderJobExecutor() {
+        this(Runtime.getRuntime().availableProcessors(),
+                DEFAULT_MAXIMUM_IN_FLIGHT);
+    }
+
+    /**
+     * Creates an executor.
+     * @param kernelThreads How many threads for kernel work. For example, 8.
+     * @param maximumInFlight The most requests in flight at once. For example,
+     * 4096.
+     * @throws IllegalArgumentException If <code>kernelThreads</code> or
+     * <code>maximumInFlight</code> is less than 1.
+     */
+    public RenderJobExecutor(int kernelThreads, int maximumInFlight) {
+        if (kernelThreads < 1) {
+            String excMsg = "Kernel thread count " + kernelThreads
+                    + " is not valid";
+            throw new IllegalArgumentException(excMsg);
+        }
+        if (maximumInFlight < 1) {
+            String excMsg = "Maximum in flight " + maximumInFlight
+                    + " is not valid";
+            throw new IllegalArgumentException(excMsg);
+        }
+        ExecutorService virtual = newVirtualThreadExecutor();
+        this.virtualThreads = virtual != null;
+        this.requestExecutor = this.virtualThreads ? virtual
+                : newFallbackExecutor();
+        this.kernelPool = new ForkJoinPool(kernelThreads);
+        this.maximumInFlight = maximumInFlight;
+        this.permits = new Semaphore(maximumInFlight);
+    }
+
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+/**
+ * Receives measurements of frames rendered by a {@link TileRenderer}. Listeners
+ * are called on the thread that called <code>render()</code>, after all the
+ * tiles are done, so a listener should return quickly.
+ * @author Alonso del Arte
+ */
+public interface RenderListener {
+
+    /**
+     * Called after a frame has been rendered.
+     * @param metrics The measurements of the frame.
+     */
+    void frameRendered(RenderMetrics metrics);
+
+}
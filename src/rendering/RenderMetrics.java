@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Measurements of one rendered frame. Instances are only created when some
+ * {@link RenderListener} is registered with the renderer, so that rendering
+ * without listeners doesn't pay for the measuring.
+ * @author Alonso del Arte
+ */
+public final class RenderMetrics {
+
+    /**
+     * How many buckets in the iteration histogram. Bucket <i>k</i> counts the
+     * pixels with iteration counts from 2<sup><i>k</i></sup> to
+     * 2<sup><i>k</i> + 1</sup> &minus; 1, except that bucket 0 also counts
+     * pixels with an iteration count of 0.
+     */
+    public static final int HISTOGRAM_BUCKETS = 32;
+
+    private final Viewport viewport;
+
+    private final long wallTimeNanos;
+
+    private final long[] tileTimesNanos;
+
+    private final long pixelCount;
+
+    private final long totalIterations;
+
+    private final long maxedPixels;
+
+    private final long[] histogram;
+
+    public Viewport getViewport() {
+        return this.viewport;
+    }
+
+    /**
+     * Gives the elapsed time from the start of the render to the completion
+     * of the last tile.
+     * @return The wall time in nanoseconds.
+     */
+    public long getWallTimeNanos() {
+        return this.wallTimeNanos;
+    }
+
+    /**
+     * Gives the compute times of the individual tiles, in the order the tiles
+     * were submitted (row by row).
+     * @return A copy of the array of tile times, in nanoseconds.
+     */
+    public long[] getTileTimesNanos() {
+        return this.tileTimesNanos.clone();
+    }
+
+    public int getTileCount() {
+        return this.tileTimesNanos.length;
+    }
+
+    /**
+     * Gives the sum of the compute times of the tiles. On a machine with
+     * several cores, this can be several times the wall time.
+     * @return The total compute time in nanoseconds.
+     */
+    public long getTotalTileTimeNanos() {
+        long total = 0L;
+        for (long time : this.tileTimesNanos) {
+            total += time;
+        }
+        return total;
+    }
+
+    public long getMaximumTileTimeNanos() {
+        long max = 0L;
+        for (long time : this.tileTimesNanos) {
+            max = Math.max(max, time);
+        }
+        return max;
+    }
+
+    /**
+     * Gives how many pixels were rendered. For a frame rendered by a
+     * {@link TileRenderer}, this is the number of pixels of the viewport. For
+     * a frame put together from tiles by a {@link FrameMeter}, this is the
+     * number of pixels of the tiles that were waited for, which may be more
+     * or fewer than the viewport has.
+     * @return The pixel count. For example, 691200.
+     */
+    public long getPixelCount() {
+        return this.pixelCount;
+    }
+
+    /**
+     * Gives the sum of the iteration counts of all the pixels.
+     * @return The total iterations. For example, 9843012.
+     */
+    public long getTotalIterations() {
+        return this.totalIterations;
+    }
+
+    /**
+     * Gives the pixel throughput of the render.
+     * @return The number of pixels divided by the wall time in seconds.
+     */
+    public double getPixelsPerSecond() {
+        return this.getPixelCount() * 1.0E9 / Math.max(this.wallTimeNanos, 1L);
+    }
+
+    /**
+     * Gives the share of pixels that reached the iteration maximum.
+     * @return A number from 0.0 to 1.0. For example, 0.18 for the default view
+     * of the Mandelbrot set.
+     */
+    public double getMaxedFraction() {
+        return (double) this.maxedPixels / this.getPixelCount();
+    }
+
+    /**
+     * Gives the histogram of iteration counts, with buckets in powers of 2.
+     * See {@link #HISTOGRAM_BUCKETS}.
+     * @return A copy of the histogram.
+     */
+    public long[] getIterationHistogram() {
+        return this.histogram.clone();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.1f ms, %d tiles (max %.1f ms), %.2f Mpx/s, "
+                + "%d iterations, %.1f%% at iterMax",
+                this.wallTimeNanos / 1.0E6, this.getTileCount(),
+                this.getMaximumTileTimeNanos() / 1.0E6,
+                this.getPixelsPerSecond() / 1.0E6, this.totalIterations,
+                100.0 * this.getMaxedFraction());
+    }
+
+    /**
+     * Gives the histogram bucket for an iteration count.
+     * @param iterationCount The iteration count. For example, 100.
+     * @return The bucket. For example, 6.
+     */
+    static int bucketOf(int iterationCount) {
+        return iterationCount < 1 ? 0
+                : 31 - Integer.numberOfLeadingZeros(iterationCount);
+    }
+
+    /**
+     * Measures a frame from its iteration data. This takes one pass over the
+     * iteration counts.
+     * @param viewport The viewport that was rendered.
+     * @param data The iteration data.
+     * @param wallTimeNanos The wall time of the render, in nanoseconds.
+     * @param tileTimesNanos The compute time of each tile, in nanoseconds.
+     * This array is not copied, so the caller should not change it afterwards.
+     * @return The metrics.
+     */
+    static RenderMetrics measure(Viewport viewport, IterationData data,
+            long wallTimeNanos, long[] tileTimesNanos) {
+        return measure(viewport, Collections.singletonList(data),
+                wallTimeNanos, tileTimesNanos);
+    }
+
+    /**
+     * Measures a frame from the iteration data of its tiles. This takes one
+     * pass over the iteration counts of each tile.
+     * @param viewport The viewport of the frame.
+     * @param tiles The iteration data of the tiles.
+     * @param wallTimeNanos The wall time of the render, in nanoseconds.
+     * @param tileTimesNanos The compute time of each tile, in nanoseconds.
+     * This array is not copied, so the caller should not change it afterwards.
+     * @return The metrics.
+     */
+    static RenderMetrics measure(Viewport viewport, List<IterationData> tiles,
+            long wallTimeNanos, long[] tileTimesNanos) {
+        int iterMax = viewport.getIterationMaximum();
+        long pixels = 0L;
+        long total = 0L;
+        long maxed = 0L;
+        long[] histogram = new long[HISTOGRAM_BUCKETS];
+        for (IterationData data : tiles) {
+            pixels += data.iterations.length;
+            for (int count : data.iterations) {
+                total += count;
+                if (count >= iterMax) {
+                    maxed++;
+                }
+                histogram[bucketOf(count)]++;
+            }
+        }
+        return new RenderMetrics(viewport, wallTimeNanos, tileTimesNanos,
+                pixels, total, maxed, histogram);
+    }
+
+    RenderMetrics(Viewport viewport, long wallTimeNanos, long[] tileTimesNanos,
+            long pixelCount, long totalIterations, long maxedPixels,
+            long[] histogram) {
+        this.viewport = viewport;
+        this.wallTimeNanos = wallTimeNanos;
+        this.tileTimesNanos = tileTimesNanos;
+        this.pixelCount = pixelCount;
+        this.totalIterations = totalIterations;
+        this.maxedPixels = maxedPixels;
+        this.histogram = histogram;
+    }
+
+}
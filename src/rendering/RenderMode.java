@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+/**
+ * A way of filling in the pixels of a region of a viewport. The plain way,
+ * {@link #EXACT}, has the viewport's kernel iterate every pixel. Other modes
+ * iterate only some of the pixels and work out the rest from them, which is
+ * faster but may get some pixels wrong; {@link RenderComparison} measures by
+ * how much.
+ * <p>Implementations must be thread-safe, as a {@link TileRenderer} calls the
+ * same mode for several tiles at once.</p>
+ * @author Alonso del Arte
+ */
+public interface RenderMode {
+
+    /**
+     * Iterates every pixel with the viewport's kernel. This is what
+     * {@link TileRenderer#renderRegion(Viewport, int, int, int, int,
+     * IterationData)} does.
+     */
+    RenderMode EXACT = (viewport, x0, y0, x1, y1, data) -> {
+        TileRenderer.renderRegion(viewport, x0, y0, x1, y1, data);
+        return (x1 - x0) * (y1 - y0);
+    };
+
+    /**
+     * Computes the pixels of one rectangular region of a viewport, on the
+     * calling thread.
+     * @param viewport The viewport.
+     * @param x0 The leftmost column, inclusive. For example, 64.
+     * @param y0 The topmost row, inclusive. For example, 128.
+     * @param x1 The rightmost column, exclusive. For example, 128.
+     * @param y1 The bottommost row, exclusive. For example, 192.
+     * @param data Where to write the results. Should have the same dimensions
+     * as <code>viewport</code>.
+     * @return How many pixels were iterated with the kernel, as opposed to
+     * worked out from other pixels. For example, 1024.
+     */
+    int renderRegion(Viewport viewport, int x0, int y0, int x1, int y1,
+            IterationData data);
+
+}
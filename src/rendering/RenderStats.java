@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Keeps the measurements of the most recently rendered frame and a running
+ * average of the frame wall times. Can be registered as an MXBean with the
+ * platform MBean server.
+ * @author Alonso del Arte
+ */
+public class RenderStats implements RenderListener, RenderStatsMXBean {
+
+    private volatile RenderMetrics lastMetrics = null;
+
+    private long framesRendered = 0L;
+
+    private long totalWallTimeNanos = 0L;
+
+    private ObjectName registeredName = null;
+
+    public RenderMetrics getLastMetrics() {
+        return this.lastMetrics;
+    }
+
+    @Override
+    public void frameRendered(RenderMetrics metrics) {
+        synchronized (this) {
+            this.framesRendered++;
+            this.totalWallTimeNanos += metrics.getWallTimeNanos();
+        }
+        this.lastMetrics = metrics;
+    }
+
+    @Override
+    public synchronized long getFramesRendered() {
+        return this.framesRendered;
+    }
+
+    @Override
+    public double getLastWallTimeMillis() {
+        RenderMetrics metrics = this.lastMetrics;
+        return metrics == null ? 0.0 : metrics.getWallTimeNanos() / 1.0E6;
+    }
+
+    @Override
+    public double getLastMaximumTileTimeMillis() {
+        RenderMetrics metrics = this.lastMetrics;
+        return metrics == null ? 0.0
+                : metrics.getMaximumTileTimeNanos() / 1.0E6;
+    }
+
+    @Override
+    public double getLastAverageTileTimeMillis() {
+        RenderMetrics metrics = this.lastMetrics;
+        return metrics == null ? 0.0 : metrics.getTotalTileTimeNanos() / 1.0E6
+                / metrics.getTileCount();
+    }
+
+    @Override
+    public double getLastPixelsPerSecond() {
+        RenderMetrics metrics = this.lastMetrics;
+        return metrics == null ? 0.0 : metrics.getPixelsPerSecond();
+    }
+
+    @Override
+    public long getLastTotalIterations() {
+        RenderMetrics metrics = this.lastMetrics;
+        return metrics == null ? 0L : metrics.getTotalIterations();
+    }
+
+    @Override
+    public double getLastMaxedFraction() {
+        RenderMetrics metrics = this.lastMetrics;
+        return metrics == null ? 0.0 : metrics.getMaxedFraction();
+    }
+
+    @Override
+    public int getLastIterationMaximum() {
+        RenderMetrics metrics = this.lastMetrics;
+        return metrics == null ? 0
+                : metrics.getViewport().getIterationMaximum();
+    }
+
+    @Override
+    public long[] getLastIterationHistogram() {
+        RenderMetrics metrics = this.lastMetrics;
+        return metrics == null ? new long[RenderMetrics.HISTOGRAM_BUCKETS]
+                : metrics.getIterationHistogram();
+    }
+
+    @Override
+    public synchronized double getAverageWallTimeMillis() {
+        return this.framesRendered == 0L ? 0.0
+                : this.totalWallTimeNanos / 1.0E6 / this.framesRendered;
+    }
+
+    @Override
+    public synchronized void reset() {
+        this.framesRendered = 0L;
+        this.totalWallTimeNanos = 0L;
+        this.lastMetrics = null;
+    }
+
+    /**
+     * Registers this object with the platform MBean server.
+     * @param name The value for the "name" key of the object name. For
+     * example, "MandelbrotJuliaViewer". The full object name would then be
+     * "fractalviewer:type=RenderStats,name=MandelbrotJuliaViewer".
+     * @throws IllegalStateException If registration fails, for example because
+     * another object is already registered under the same name.
+     */
+    public synchronized void register(String name) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = new ObjectName("fractalviewer:type="
+                    + "RenderStats,name=" + ObjectName.quote(name));
+            server.registerMBean(this, objectName);
+            this.registeredName = objectName;
+        } catch (JMException jme) {
+            String excMsg = "Could not register render statistics as " + name;
+            throw new IllegalStateException(excMsg, jme);
+        }
+    }
+
+    /**
+     * Unregisters this object from the platform MBean server, if it was
+     * registered. Otherwise this does nothing.
+     */
+    public synchronized void unregister() {
+        if (this.registeredName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer()
+                        .unregisterMBean(this.registeredName);
+            } catch (JMException jme) {
+                System.err.println("Could not unregister "
+                        + this.registeredName + ": " + jme.getMessage());
+            }
+            this.registeredName = null;
+        }
+    }
+
+}
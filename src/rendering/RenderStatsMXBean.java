@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+/**
+ * Management interface for the render statistics, so that they can be watched
+ * with JConsole, VisualVM or any other JMX client.
+ * @author Alonso del Arte
+ */
+public interface RenderStatsMXBean {
+
+    long getFramesRendered();
+
+    double getLastWallTimeMillis();
+
+    double getLastMaximumTileTimeMillis();
+
+    double getLastAverageTileTimeMillis();
+
+    double getLastPixelsPerSecond();
+
+    long getLastTotalIterations();
+
+    double getLastMaxedFraction();
+
+    int getLastIterationMaximum();
+
+    long[] getLastIterationHistogram();
+
+    double getAverageWallTimeMillis();
+
+    void reset();
+
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Least recently used cache of completed values, with merging of concurrent
+ * loads. While a value is being computed, further requests for the same key
+ * get the same future instead of starting another computation. Once the
+ * computation completes, the value goes into the cache, evicting the least
+ * recently used value if the cache is full.
+ * <p>This class is thread-safe.</p>
+ * @param <K> The type of the keys. For example, {@link TileKey}.
+ * @param <V> The type of the values. For example, {@link IterationData}.
+ * @author Alonso del Arte
+ */
+public final class TileCache<K, V> {
+
+    private final int capacity;
+
+    private final Map<K, V> completed;
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight
+            = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong merges = new AtomicLong();
+
+    private final AtomicLong loads = new AtomicLong();
+
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Tells how many completed values are in the cache.
+     * @return The count, from 0 to the capacity.
+     */
+    public int size() {
+        synchronized (this.completed) {
+            return this.completed.size();
+        }
+    }
+
+    /**
+     * Tells how many values are being computed right now.
+     * @return The count. For example, 12.
+     */
+    public int getInFlightCount() {
+        return this.inFlight.size();
+    }
+
+    /**
+     * Tells how many requests were answered from the completed values.
+     * @return The count. For example, 1400.
+     */
+    public long getHitCount() {
+        return this.hits.get();
+    }
+
+    /**
+     * Tells how many requests were merged into a computation already in
+     * progress.
+     * @return The count. For example, 35.
+     */
+    public long getMergeCount() {
+        return this.merges.get();
+    }
+
+    /**
+     * Tells how many computations were started.
+     * @return The count. For example, 120.
+     */
+    public long getLoadCount() {
+        return this.loads.get();
+    }
+
+    /**
+     * Gives a completed value if it's in the cache, without starting a
+     * computation. This counts as a use of the value for the purpose of
+     * eviction, but not as a hit.
+     * @param key The key.
+     * @return The value, or null if it's not in the cache.
+     */
+    public V getIfPresent(K key) {
+        synchronized (this.completed) {
+            return this.completed.get(key);
+        }
+    }
+
+    /**
+     * Tells whether a value is in the cache or being computed.
+     * @param key The key.
+     * @return True if a request for <code>key</code> would not start a new
+     * computation.
+     */
+    public boolean contains(K key) {
+        synchronized (this.completed) {
+            if (this.completed.containsKey(key)) {
+                return true;
+            }
+        }
+        return this.inFlight.containsKey(key);
+    }
+
+    /**
+     * Puts a completed value in the cache, evicting the least recently used
+     * value if the cache is full.
+     * @param key The key.
+     * @param value The value.
+     */
+    public void put(K key, V value) {
+        synchronized (this.completed) {
+            this.completed.put(key, value);
+        }
+    }
+
+    /**
+     * Gives the value for a key, starting a computation only if the value is
+     * neither in the cache nor being computed already.
+     * @param key The key.
+     * @param loader The function to start the computation with. It's called
+     * on the calling thread, at most once per call to this function, and not
+     * while any lock is held. It should return quickly, for example by
+     * submitting the work to an executor.
+     * @return A future for the value. It may already be complete. If the
+     * computation fails, the future completes exceptionally and nothing is
+     * cached, so a later request starts over.
+     */
+    public CompletableFuture<V> get(K key,
+            Function<? super K, ? extends CompletableFuture<V>> loader) {
+        V value = this.getIfPresent(key);
+        if (value != null) {
+            this.hits.incrementAndGet();
+            return CompletableFuture.completedFuture(value);
+        }
+        CompletableFuture<V> promise = new CompletableFuture<>();
+        CompletableFuture<V> existing = this.inFlight.putIfAbsent(key,
+                promise);
+        if (existing != null) {
+            this.merges.incrementAndGet();
+            return existing;
+        }
+        // Another thread may have completed the value between the lookup and
+        // the registration of the promise
+        value = this.getIfPresent(key);
+        if (value != null) {
+            this.hits.incrementAndGet();
+            this.inFlight.remove(key, promise);
+            promise.complete(value);
+            return promise;
+        }
+        this.loads.incrementAndGet();
+        CompletableFuture<V> computation;
+        try {
+            computation = loader.apply(key);
+        } catch (RuntimeException re) {
+            this.inFlight.remove(key, promise);
+            promise.completeExceptionally(re);
+            return promise;
+        }
+        computation.whenComplete((result, failure) -> {
+            if (failure == null) {
+                this.put(key, result);
+                this.inFlight.remove(key, promise);
+                promise.complete(result);
+            } else {
+                this.inFlight.remove(key, promise);
+                promise.completeExceptionally(failure);
+            }
+        });
+        return promise;
+    }
+
+    /**
+     * Removes all completed values from the cache. Computations in progress
+     * are not affected.
+     */
+    public void clear() {
+        synchronized (this.completed) {
+            this.completed.clear();
+        }
+    }
+
+    /**
+     * Creates a cache.
+     * @param capacity The most completed values to keep. For example, 1024.
+     * @throws IllegalArgumentException If <code>capacity</code> is less than
+     * 1.
+     */
+    public TileCache(int capacity) {
+        if (capacity < 1) {
+            String excMsg = "Capacity " + capacity + " is not valid";
+            throw new IllegalArgumentException(excMsg);
+        }
+        this.capacity = capacity;
+        this.completed = new LinkedHashMap<K, V>(16, 0.75F, true) {
+
+            private static final long serialVersionUID = 4549626214318377L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return this.size() > TileCache.this.capacity;
+            }
+
+        };
+    }
+
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import numerics.ComplexNumber;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Renders tiles identified by {@link TileKey}, with a {@link TileCache} in
+ * front, so that a tile that was rendered recently, or that is being rendered
+ * right now, is not rendered again. Tiles that do need rendering go through a
+ * {@link TileScheduler}, so that the most urgent tiles are rendered first.
+ * @author Alonso del Arte
+ */
+public final class TileEngine {
+
+    /**
+     * The default width and height of a tile, in pixels.
+     */
+    public static final int DEFAULT_TILE_SIZE = 256;
+
+    /**
+     * The default number of tiles to keep in the cache. A tile of the default
+     * size takes up 768 kilobytes, so the default cache takes up to 96
+     * megabytes.
+     */
+    public static final int DEFAULT_CACHE_CAPACITY = 128;
+
+    private final Executor executor;
+
+    private final int tileSize;
+
+    private final TileCache<TileKey, IterationData> cache;
+
+    private final TileScheduler<IterationData> scheduler;
+
+    private final RenderMode renderMode;
+
+    private final List<TileListener> listeners = new CopyOnWriteArrayList<>();
+
+    public Executor getExecutor() {
+        return this.executor;
+    }
+
+    public TileScheduler<IterationData> getScheduler() {
+        return this.scheduler;
+    }
+
+    public int getTileSize() {
+        return this.tileSize;
+    }
+
+    public TileCache<TileKey, IterationData> getCache() {
+        return this.cache;
+    }
+
+    public RenderMode getRenderMode() {
+        return this.renderMode;
+    }
+
+    /**
+     * Registers a listener to receive each tile rendered from now on, with
+     * how long it took.
+     * @param listener The listener to add.
+     * @throws NullPointerException If <code>listener</code> is null.
+     */
+    public void addTileListener(TileListener listener) {
+        if (listener == null) {
+            String excMsg = "Listener must not be null";
+            throw new NullPointerException(excMsg);
+        }
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener. If the listener was not registered, this does
+     * nothing.
+     * @param listener The listener to remove.
+     */
+    public void removeTileListener(TileListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Gives the keys of the tiles covering a viewport, plus a margin.
+     * @param viewport The viewport. Its number of pixels per unit interval
+     * must be a power of 2, for the tiles to line up with it.
+     * @param margin How many extra tiles to include beyond each edge. For
+     * example, 1.
+     * @return The keys, row by row.
+     * @throws IllegalArgumentException If the number of pixels per unit
+     * interval of <code>viewport</code> is not a power of 2 from 1 to
+     * 2<sup>{@link TileKey#MAXIMUM_ZOOM}</sup>.
+     */
+    public List<TileKey> tilesCovering(Viewport viewport, int margin) {
+        double pxui = viewport.getPixelsPerUnitInterval();
+        int zoom = Math.getExponent(pxui);
+        if (Math.scalb(1.0, zoom) != pxui || zoom < 0
+                || zoom > TileKey.MAXIMUM_ZOOM) {
+            String excMsg = "Pixels per unit interval " + pxui
+                    + " is not a power of 2 in range";
+            throw new IllegalArgumentException(excMsg);
+        }
+        double tileSpan = this.tileSize / pxui;
+        ComplexNumber corner = viewport.getTopLeftCorner();
+        double left = corner.getRealPart() - TileKey.GRID_ORIGIN_RE;
+        double top = corner.getImaginaryPart() - TileKey.GRID_ORIGIN_IM;
+        int firstX = (int) Math.floor(left / tileSpan) - margin;
+        int firstY = (int) Math.floor(top / tileSpan) - margin;
+        int lastX = (int) Math.floor((left + (viewport.getWidth() - 1) / pxui)
+                / tileSpan) + margin;
+        int lastY = (int) Math.floor((top + (viewport.getHeight() - 1) / pxui)
+                / tileSpan) + margin;
+        int iterMax = viewport.getIterationMaximum();
+        FractalKernel kernel = viewport.getKernel();
+        List<TileKey> keys = new ArrayList<>();
+        for (int tileY = firstY; tileY <= lastY; tileY++) {
+            for (int tileX = firstX; tileX <= lastX; tileX++) {
+                TileKey key = viewport.isJulia() ? TileKey.julia(zoom, tileX,
+                        tileY, iterMax, viewport.getJuliaPoint())
+                        : TileKey.mandelbrot(zoom, tileX, tileY, iterMax);
+                keys.add(key.withKernel(kernel));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Renders one tile on the calling thread, bypassing the cache, with this
+     * engine's render mode. The tile listeners, if any, are told about it.
+     * @param key Which tile.
+     * @return The iteration data for the tile.
+     */
+    public IterationData renderTile(TileKey key) {
+        IterationData data = new IterationData(this.tileSize, this.tileSize);
+        boolean instrumented = !this.listeners.isEmpty();
+        long start = instrumented ? System.nanoTime() : 0L;
+        this.renderMode.renderRegion(key.toViewport(this.tileSize), 0, 0,
+                this.tileSize, this.tileSize, data);
+        if (instrumented) {
+            long renderNanos = System.nanoTime() - start;
+            for (TileListener listener : this.listeners) {
+                listener.tileRendered(key, data, renderNanos);
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Asks for a tile that's on screen, with no preference as to order. If the
+     * tile is neither in the cache nor being rendered already, it's rendered
+     * on the executor.
+     * @param key Which tile.
+     * @return A future for the iteration data of the tile. It may already be
+     * complete.
+     */
+    public CompletableFuture<IterationData> request(TileKey key) {
+        return this.request(key, TilePriority.VISIBLE, 0.0);
+    }
+
+    /**
+     * Asks for a tile. If the tile is neither in the cache nor being rendered
+     * already, it's scheduled for rendering on the executor. If it's waiting
+     * to be rendered at a lower urgency, it's moved up.
+     * @param key Which tile.
+     * @param priority How urgently the tile is wanted.
+     * @param distance How far the tile is from where the user is looking. For
+     * example, 240.0 pixels. See {@link TileScheduler#submit(TileKey,
+     * TilePriority, double, java.util.function.Supplier)}.
+     * @return A future for the iteration data of the tile. It may already be
+     * complete.
+     */
+    public CompletableFuture<IterationData> request(TileKey key,
+            TilePriority priority, double distance) {
+        CompletableFuture<IterationData> future = this.cache.get(key,
+                k -> this.scheduler.submit(k, priority, distance,
+                        () -> this.renderTile(k)));
+        if (!future.isDone()) {
+            this.scheduler.reprioritize(key, priority, distance);
+        }
+        return future;
+    }
+
+    /**
+     * Creates a tile engine that uses the common fork/join pool, the default
+     * tile size and a cache of the default capacity.
+     */
+    public TileEngine() {
+        this(ForkJoinPool.commonPool(), DEFAULT_TILE_SIZE,
+                DEFAULT_CACHE_CAPACITY);
+    }
+
+    /**
+     * Creates a tile engine.
+     * @param executor The executor to render the tiles on. For example, the
+     * common fork/join pool.
+     * @param tileSize The width and height of a tile in pixels. For example,
+     * 256.
+     * @param cacheCapacity How many tiles to keep in the cache. For example,
+     * 128.
+     * @throws IllegalArgumentException If <code>tileSize</code> or
+     * <code>cacheCapacity</code> is less than 1.
+     * @throws NullPointerException If <code>executor</code> is null.
+     */
+    public TileEngine(Executor executor, int tileSize, int cacheCapacity) {
+        this(executor, tileSize, cacheCapacity, RenderMode.EXACT);
+    }
+
+    /**
+     * Creates a tile engine that renders its tiles with a given mode.
+     * @param executor The executor to render the tiles on. For example, the
+     * common fork/join pool.
+     * @param tileSize The width and height of a tile in pixels. For example,
+     * 256.
+     * @param cacheCapacity How many tiles to keep in the cache. For example,
+     * 128.
+     * @param renderMode How to compute each tile. For example, an
+     * {@link InteriorFill}.
+     * @throws IllegalArgumentException If <code>tileSize</code> or
+     * <code>cacheCapacity</code> is less than 1.
+     * @throws NullPointerException If <code>executor</code> or
+     * <code>renderMode</code> is null.
+     */
+    public TileEngine(Executor executor, int tileSize, int cacheCapacity,
+            RenderMode renderMode) {
+        if (executor == null) {
+            String excMsg = "Executor must not be null";
+            throw new NullPointerException(excMsg);
+        }
+        if (tileSize < 1) {
+            String excMsg = "Tile size " + tileSize + " is not valid";
+            throw new IllegalArgumentException(excMsg);
+        }
+        if (renderMode == null) {
+            String excMsg = "Render mode must not be null";
+            throw new NullPointerException(excMsg);
+        }
+        this.executor = executor;
+        this.tileSize = tileSize;
+        this.cache = new TileCache<>(cacheCapacity);
+        this.scheduler = new TileScheduler<>(executor);
+        this.renderMode = renderMode;
+    }
+
+}
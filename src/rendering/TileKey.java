@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import numerics.ComplexNumber;
+
+/**
+ * Immutable identifier of one square tile of a diagram. Tiles are laid out on a
+ * grid anchored at {@link #GRID_ORIGIN_RE} + {@link #GRID_ORIGIN_IM}<i>i</i>,
+ * with tile (0, 0) having that number as its top left corner. At zoom level
+ * <i>z</i> there are 2<sup><i>z</i></sup> pixels per unit interval, and so the
+ * same tile indices cover smaller regions as the zoom level goes up. As in
+ * {@link Viewport}, the imaginary part increases downwards.
+ * <p>Tile keys are meant as keys for hash maps: two keys are equal if they
+ * identify the same tile of the same diagram, for the same formula, at the
+ * same iteration maximum.</p>
+ * @author Alonso del Arte
+ */
+public final class TileKey {
+
+    /**
+     * The real part of the top left corner of tile (0, 0) at every zoom level.
+     */
+    public static final double GRID_ORIGIN_RE = -2.0;
+
+    /**
+     * The imaginary part (divided by <i>i</i>) of the top left corner of tile
+     * (0, 0) at every zoom level.
+     */
+    public static final double GRID_ORIGIN_IM = -2.0;
+
+    /**
+     * The highest zoom level allowed. Beyond this, double precision doesn't
+     * have enough bits to tell neighboring pixels apart anyway.
+     */
+    public static final int MAXIMUM_ZOOM = 48;
+
+    private final int zoom, tileX, tileY, iterMax;
+
+    private final boolean juliaFlag;
+
+    private final double juliaRe, juliaIm;
+
+    private final FractalKernel kernel;
+
+    public int getZoom() {
+        return this.zoom;
+    }
+
+    public int getTileX() {
+        return this.tileX;
+    }
+
+    public int getTileY() {
+        return this.tileY;
+    }
+
+    public int getIterationMaximum() {
+        return this.iterMax;
+    }
+
+    public boolean isJulia() {
+        return this.juliaFlag;
+    }
+
+    public FractalKernel getKernel() {
+        return this.kernel;
+    }
+
+    /**
+     * Gives the key of the same tile for a different formula.
+     * @param newKernel The kernel for the formula. For example, a
+     * <code>TricornKernel</code>.
+     * @return A new key. This key is not changed.
+     * @throws NullPointerException If <code>newKernel</code> is null.
+     */
+    public TileKey withKernel(FractalKernel newKernel) {
+        return new TileKey(this.zoom, this.tileX, this.tileY, this.iterMax,
+                this.juliaFlag, this.juliaRe, this.juliaIm, newKernel);
+    }
+
+    /**
+     * Gives the number of pixels per unit interval at the zoom level of this
+     * key.
+     * @return 2<sup><i>z</i></sup>, where <i>z</i> is the zoom level. For
+     * example, 256.0 for zoom level 8.
+     */
+    public double getPixelsPerUnitInterval() {
+        return Math.scalb(1.0, this.zoom);
+    }
+
+    /**
+     * Gives the viewport covering this tile.
+     * @param tileSize The width and height of a tile in pixels. For example,
+     * 256.
+     * @return A viewport of <code>tileSize</code> by <code>tileSize</code>
+     * pixels.
+     */
+    public Viewport toViewport(int tileSize) {
+        double pxui = this.getPixelsPerUnitInterval();
+        double cornerRe = GRID_ORIGIN_RE + this.tileX * tileSize / pxui;
+        double cornerIm = GRID_ORIGIN_IM + this.tileY * tileSize / pxui;
+        return new Viewport(cornerRe, cornerIm, pxui, tileSize, tileSize,
+                this.iterMax, this.juliaFlag, this.juliaRe, this.juliaIm,
+                this.kernel);
+    }
+
+    /**
+     * Gives the key of the tile at an offset from this one, at the same zoom
+     * level.
+     * @param dx How many tiles to the right. May be negative.
+     * @param dy How many tiles down. May be negative.
+     * @return A new key. This key is not changed.
+     */
+    public TileKey offsetBy(int dx, int dy) {
+        return new TileKey(this.zoom, this.tileX + dx, this.tileY + dy,
+                this.iterMax, this.juliaFlag, this.juliaRe, this.juliaIm,
+                this.kernel);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof TileKey)) {
+            return false;
+        }
+        TileKey other = (TileKey) obj;
+        return this.zoom == other.zoom && this.tileX == other.tileX
+                && this.tileY == other.tileY && this.iterMax == other.iterMax
+                && this.juliaFlag == other.juliaFlag
+                && Double.compare(this.juliaRe, other.juliaRe) == 0
+                && Double.compare(this.juliaIm, other.juliaIm) == 0
+                && this.kernel.equals(other.kernel);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = this.zoom;
+        hash = 31 * hash + this.tileX;
+        hash = 31 * hash + this.tileY;
+        hash = 31 * hash + this.iterMax;
+        hash = 31 * hash + this.kernel.hashCode();
+        if (this.juliaFlag) {
+            hash = 31 * hash + Double.hashCode(this.juliaRe);
+            hash = 31 * hash + Double.hashCode(this.juliaIm);
+        }
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        String kind = this.juliaFlag ? "Julia set for "
+                + new ComplexNumber(this.juliaRe, this.juliaIm)
+                        .toASCIIString() : "Mandelbrot set";
+        if (!this.kernel.equals(Viewport.DEFAULT_KERNEL)) {
+            kind = this.kernel.getName() + " " + kind;
+        }
+        return kind + " tile " + this.zoom + "/" + this.tileX + "/"
+                + this.tileY + ", iterMax " + this.iterMax;
+    }
+
+    private TileKey(int zoom, int tileX, int tileY, int iterMax,
+            boolean juliaFlag, double juliaRe, double juliaIm,
+            FractalKernel kernel) {
+        if (zoom < 0 || zoom > MAXIMUM_ZOOM) {
+            String excMsg = "Zoom level " + zoom + " is not valid";
+            throw new IllegalArgumentException(excMsg);
+        }
+        if (iterMax < 1) {
+            String excMsg = "Iteration maximum " + iterMax + " is not valid";
+            throw new IllegalArgumentException(excMsg);
+        }
+        if (kernel == null) {
+            String excMsg = "Kernel must not be null";
+            throw new NullPointerException(excMsg);
+        }
+        this.zoom = zoom;
+        this.tileX = tileX;
+        this.tileY = tileY;
+        this.iterMax = iterMax;
+        this.juliaFlag = juliaFlag;
+        this.juliaRe = juliaRe;
+        this.juliaIm = juliaIm;
+        this.kernel = kernel;
+    }
+
+    /**
+     * Creates a key for a tile of the Mandelbrot set.
+     * @param zoom The zoom level, from 0 to {@link #MAXIMUM_ZOOM}. For
+     * example, 8.
+     * @param tileX The column of the tile. May be negative. For example, 3.
+     * @param tileY The row of the tile. May be negative. For example, 1.
+     * @param iterMax The iteration maximum. For example, 256.
+     * @return A new key.
+     * @throws IllegalArgumentException If <code>zoom</code> or
+     * <code>iterMax</code> is out of range.
+     */
+    public static TileKey mandelbrot(int zoom, int tileX, int tileY,
+            int iterMax) {
+        return new TileKey(zoom, tileX, tileY, iterMax, false, 0.0, 0.0,
+                Viewport.DEFAULT_KERNEL);
+    }
+
+    /**
+     * Creates a key for a tile of a Julia set.
+     * @param zoom The zoom level, from 0 to {@link #MAXIMUM_ZOOM}. For
+     * example, 8.
+     * @param tileX The column of the tile. May be negative. For example, 3.
+     * @param tileY The row of the tile. May be negative. For example, 1.
+     * @param iterMax The iteration maximum. For example, 256.
+     * @param juliaPoint The parameter <i>c</i> in <i>z</i><sup>2</sup> +
+     * <i>c</i>. For example, &minus;0.75 + 0.1<i>i</i>.
+     * @return A new key.
+     * @throws IllegalArgumentException If <code>zoom</code> or
+     * <code>iterMax</code> is out of range.
+     */
+    public static TileKey julia(int zoom, int tileX, int tileY, int iterMax,
+            ComplexNumber juliaPoint) {
+        return new TileKey(zoom, tileX, tileY, iterMax, true,
+                juliaPoint.getRealPart(), juliaPoint.getImaginaryPart(),
+                Viewport.DEFAULT_KERNEL);
+    }
+
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+/**
+ * Receives the tiles rendered by a {@link TileEngine}, with how long each took.
+ * Listeners are called on the thread that rendered the tile, before the tile
+ * is handed to whoever asked for it, so a listener should return quickly.
+ * @author Alonso del Arte
+ */
+public interface TileListener {
+
+    /**
+     * Called after a tile has been rendered.
+     * @param key Which tile.
+     * @param data The iteration data of the tile. Should not be changed.
+     * @param renderNanos How long the tile took to render, in nanoseconds.
+     */
+    void tileRendered(TileKey key, IterationData data, long renderNanos);
+
+}
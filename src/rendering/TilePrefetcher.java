@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Uses idle time to render the tiles the user is likely to want next, such as
+ * the tiles of the next zoom level or the tiles just outside the view, so that
+ * they're already in the cache when the user gets to them. Prefetched tiles are
+ * requested at {@link TilePriority#PREFETCH}, behind every visible tile, and
+ * the prefetch can be cancelled as soon as the user asks for something else.
+ * Since the tile engine may be shared by several viewers, each with its own
+ * prefetcher, a prefetcher keeps track of the tiles it requested and cancels
+ * only those.
+ * @author Alonso del Arte
+ */
+public final class TilePrefetcher {
+
+    private final TileEngine engine;
+
+    private final BiFunction<TileKey, Double, CompletableFuture<?>> requester;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Set<TileKey> pending = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong requested = new AtomicLong();
+
+    private final AtomicLong cancelled = new AtomicLong();
+
+    /**
+     * Tells how many tiles have been requested for prefetching in all.
+     * @return The count. For example, 360.
+     */
+    public long getRequestedCount() {
+        return this.requested.get();
+    }
+
+    /**
+     * Tells how many prefetch requests were cancelled before they started.
+     * @return The count. For example, 48.
+     */
+    public long getCancelledCount() {
+        return this.cancelled.get();
+    }
+
+    /**
+     * Starts a prefetch. The plan is worked out on the executor of the tile
+     * engine, not on the calling thread, since working out the plan may take
+     * some computation of its own, such as choosing iteration maximums. Any
+     * prefetch in progress is superseded, but tiles it already requested are
+     * left alone.
+     * @param plan Gives the tiles to prefetch, most likely to be wanted first.
+     * Tiles that are already in the cache or being rendered are skipped.
+     */
+    public void prefetch(Supplier<List<TileKey>> plan) {
+        long current = this.generation.incrementAndGet();
+        CompletableFuture.runAsync(() -> {
+            if (this.generation.get() != current) {
+                return;
+            }
+            List<TileKey> keys = plan.get();
+            TileCache<TileKey, IterationData> cache = this.engine.getCache();
+            for (int i = 0; i < keys.size(); i++) {
+                if (this.generation.get() != current) {
+                    return;
+                }
+                TileKey key = keys.get(i);
+                if (!cache.contains(key)) {
+                    this.pending.add(key);
+                    this.requester.apply(key, (double) i)
+                            .whenComplete((result, exc)
+                                    -> this.pending.remove(key));
+                    this.requested.incrementAndGet();
+                }
+            }
+        }, this.engine.getExecutor());
+    }
+
+    /**
+     * Cancels the prefetch in progress, if any. Tiles requested for
+     * prefetching that haven't started rendering are dropped from the
+     * schedule; tiles already rendering are allowed to finish, which takes at
+     * most one tile's time. Tiles prefetched by other prefetchers on the same
+     * engine are not affected. Call this as soon as the user asks for
+     * anything.
+     * @return How many tiles were dropped from the schedule. For example, 24.
+     */
+    public int cancel() {
+        this.generation.incrementAndGet();
+        TileScheduler<IterationData> scheduler = this.engine.getScheduler();
+        int count = 0;
+        for (TileKey key : this.pending) {
+            this.pending.remove(key);
+            if (scheduler.cancel(key, TilePriority.PREFETCH)) {
+                count++;
+            }
+        }
+        this.cancelled.addAndGet(count);
+        return count;
+    }
+
+    /**
+     * Creates a prefetcher that requests the tiles straight from the engine.
+     * @param engine The tile engine.
+     */
+    public TilePrefetcher(TileEngine engine) {
+        this(engine, (key, distance) -> engine.request(key,
+                TilePriority.PREFETCH, distance));
+    }
+
+    /**
+     * Creates a prefetcher that requests the tiles through a given function,
+     * for callers that need further work done with each tile, such as
+     * coloring it.
+     * @param engine The tile engine. Its cache is used to skip tiles already
+     * rendered, and its scheduler to cancel tiles not yet started.
+     * @param requester The function to request a tile with, given the key and
+     * the rank of the tile in the plan, which should be used as the distance.
+     * It should call {@link TileEngine#request(TileKey, TilePriority,
+     * double)} with {@link TilePriority#PREFETCH} and return promptly, with a
+     * future that completes once the tile's request does.
+     * @throws NullPointerException If <code>engine</code> or
+     * <code>requester</code> is null.
+     */
+    public TilePrefetcher(TileEngine engine,
+            BiFunction<TileKey, Double, CompletableFuture<?>> requester) {
+        if (engine == null || requester == null) {
+            String excMsg = "Engine and requester must not be null";
+            throw new NullPointerException(excMsg);
+        }
+        this.engine = engine;
+        this.requester = requester;
+    }
+
+}
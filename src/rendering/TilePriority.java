@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+/**
+ * How urgently a tile is wanted. Tiles of a more urgent priority are always
+ * started before tiles of a less urgent priority, whatever their distances.
+ * @author Alonso del Arte
+ */
+public enum TilePriority {
+
+    /**
+     * The tile is on screen now.
+     */
+    VISIBLE,
+
+    /**
+     * The tile is not on screen, but probably will be soon, for example after
+     * the next zoom or pan.
+     */
+    PREFETCH
+
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Renders a viewport by splitting it into square tiles and computing the tiles
+ * in parallel. Each tile is computed by one thread, which writes to a disjoint
+ * part of the arrays of an {@link IterationData} object, so no locking is
+ * needed.
+ * <p>Listeners can be registered to receive per-frame measurements. When none
+ * are registered, no measurements are taken at all.</p>
+ * @author Alonso del Arte
+ */
+public class TileRenderer {
+
+    /**
+     * The default width and height of a tile, in pixels.
+     */
+    public static final int DEFAULT_TILE_SIZE = 64;
+
+    private final Executor executor;
+
+    private final int tileSize;
+
+    private final RenderMode renderMode;
+
+    private final List<RenderListener> listeners
+            = new CopyOnWriteArrayList<>();
+
+    public Executor getExecutor() {
+        return this.executor;
+    }
+
+    public int getTileSize() {
+        return this.tileSize;
+    }
+
+    public RenderMode getRenderMode() {
+        return this.renderMode;
+    }
+
+    /**
+     * Registers a listener to receive the measurements of each frame rendered
+     * from now on.
+     * @param listener The listener to add.
+     * @throws NullPointerException If <code>listener</code> is null.
+     */
+    public void addRenderListener(RenderListener listener) {
+        if (listener == null) {
+            String excMsg = "Listener must not be null";
+            throw new NullPointerException(excMsg);
+        }
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Unregisters a listener. If it wasn't registered, this does nothing.
+     * @param listener The listener to remove.
+     */
+    public void removeRenderListener(RenderListener listener) {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Computes the pixels of one rectangular region of a viewport, on the
+     * calling thread, with the viewport's kernel. This allocates nothing, a
+     * property checked by <code>EscapeTimeAllocationNGTest</code>; please keep
+     * it that way.
+     * @param viewport The viewport.
+     * @param x0 The leftmost column, inclusive. For example, 64.
+     * @param y0 The topmost row, inclusive. For example, 128.
+     * @param x1 The rightmost column, exclusive. For example, 128.
+     * @param y1 The bottommost row, exclusive. For example, 192.
+     * @param data Where to write the results. Should have the same dimensions
+     * as <code>viewport</code>.
+     */
+    public static void renderRegion(Viewport viewport, int x0, int y0, int x1,
+            int y1, IterationData data) {
+        viewport.getKernel().renderRegion(viewport, x0, y0, x1, y1, data);
+    }
+
+    /**
+     * Renders a viewport, computing the tiles in parallel. This function
+     * blocks until all the tiles are done.
+     * @param viewport The viewport to render.
+     * @return The iteration data for the whole viewport.
+     */
+    public IterationData render(Viewport viewport) {
+        IterationData data = new IterationData(viewport.getWidth(),
+                viewport.getHeight());
+        this.render(viewport, data);
+        return data;
+    }
+
+    /**
+     * Renders a viewport into an existing holder, computing the tiles in
+     * parallel. This function blocks until all the tiles are done.
+     * @param viewport The viewport to render.
+     * @param data Where to write the results.
+     * @throws IllegalArgumentException If the dimensions of <code>data</code>
+     * don't match those of <code>viewport</code>.
+     */
+    public void render(Viewport viewport, IterationData data) {
+        int width = viewport.getWidth();
+        int height = viewport.getHeight();
+        if (data.getWidth() != width || data.getHeight() != height) {
+            String excMsg = "Data dimensions " + data.getWidth() + " by "
+                    + data.getHeight() + " don't match viewport dimensions "
+                    + width + " by " + height;
+            throw new IllegalArgumentException(excMsg);
+        }
+        boolean instrumented = !this.listeners.isEmpty();
+        long start = instrumented ? System.nanoTime() : 0L;
+        int columns = (width + this.tileSize - 1) / this.tileSize;
+        int rows = (height + this.tileSize - 1) / this.tileSize;
+        long[] tileTimes = instrumented ? new long[columns * rows] : null;
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        int tile = 0;
+        for (int y = 0; y < height; y += this.tileSize) {
+            int y1 = Math.min(y + this.tileSize, height);
+            for (int x = 0; x < width; x += this.tileSize) {
+                int x0 = x, y0 = y, tileIndex = tile++;
+                int x1 = Math.min(x + this.tileSize, width);
+                Runnable task;
+                if (instrumented) {
+                    task = () -> {
+                        long tileStart = System.nanoTime();
+                        this.renderMode.renderRegion(viewport, x0, y0, x1, y1,
+                                data);
+                        tileTimes[tileIndex] = System.nanoTime() - tileStart;
+                    };
+                } else {
+                    task = () -> this.renderMode.renderRegion(viewport, x0, y0,
+                            x1, y1, data);
+                }
+                futures.add(CompletableFuture.runAsync(task, this.executor));
+            }
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                .join();
+        if (instrumented) {
+            RenderMetrics metrics = RenderMetrics.measure(viewport, data,
+                    System.nanoTime() - start, tileTimes);
+            for (RenderListener listener : this.listeners) {
+                listener.frameRendered(metrics);
+            }
+        }
+    }
+
+    /**
+     * Creates a renderer that uses the common fork/join pool, the default
+     * tile size and the exact render mode.
+     */
+    public TileRenderer() {
+        this(ForkJoinPool.commonPool(), DEFAULT_TILE_SIZE);
+    }
+
+    /**
+     * Creates a renderer with the exact render mode.
+     * @param executor The executor to compute the tiles on. For example, the
+     * common fork/join pool.
+     * @param tileSize The width and height of a tile in pixels. For example,
+     * 64.
+     * @throws IllegalArgumentException If <code>tileSize</code> is less than
+     * 1.
+     * @throws NullPointerException If <code>executor</code> is null.
+     */
+    public TileRenderer(Executor executor, int tileSize) {
+        this(executor, tileSize, RenderMode.EXACT);
+    }
+
+    /**
+     * Creates a renderer.
+     * @param executor The executor to compute the tiles on. For example, the
+     * common fork/join pool.
+     * @param tileSize The width and height of a tile in pixels. For example,
+     * 64.
+     * @param renderMode How to compute each tile. For example,
+     * {@link RenderMode#EXACT}.
+     * @throws IllegalArgumentException If <code>tileSize</code> is less than
+     * 1.
+     * @throws NullPointerException If <code>executor</code> or
+     * <code>renderMode</code> is null.
+     */
+    public TileRenderer(Executor executor, int tileSize,
+            RenderMode renderMode) {
+        if (executor == null) {
+            String excMsg = "Executor must not be null";
+            throw new NullPointerException(excMsg);
+        }
+        if (tileSize < 1) {
+            String excMsg = "Tile size " + tileSize + " is not valid";
+            throw new IllegalArgumentException(excMsg);
+        }
+        if (renderMode == null) {
+            String excMsg = "Render mode must not be null";
+            throw new NullPointerException(excMsg);
+        }
+        this.executor = executor;
+        this.tileSize = tileSize;
+        this.renderMode = renderMode;
+    }
+
+}
@@ -0,0 +1,236 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Orders tile computations by urgency. Jobs wait in a priority queue, and each
+ * time the executor has a thread free, that thread takes the most urgent job
+ * waiting at that moment, rather than the oldest. Jobs are ordered first by
+ * {@link TilePriority}, then by distance from wherever the user is looking,
+ * such as the center of the view or the mouse position, and then by order of
+ * submission. So after a zoom or a pan, the tiles nearest to where the user is
+ * looking fill in first.
+ * <p>Submitting a key that's already waiting doesn't add another job; it gives
+ * back the same future, after moving the job up if the new request is more
+ * urgent.</p>
+ * @param <V> The type of the results. For example, {@link IterationData}.
+ * @author Alonso del Arte
+ */
+public final class TileScheduler<V> {
+
+    private final Executor executor;
+
+    private final PriorityBlockingQueue<Job<V>> queue
+            = new PriorityBlockingQueue<>();
+
+    private final ConcurrentHashMap<TileKey, Job<V>> waiting
+            = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    public Executor getExecutor() {
+        return this.executor;
+    }
+
+    /**
+     * Tells how many jobs are waiting to be started.
+     * @return The count. For example, 24.
+     */
+    public int getWaitingCount() {
+        return this.waiting.size();
+    }
+
+    /**
+     * Submits a job, or changes the urgency of a job for the same key that's
+     * still waiting.
+     * @param key Which tile.
+     * @param priority How urgently the tile is wanted.
+     * @param distance How far the tile is from where the user is looking, in
+     * any unit, as long as it's the same for all submissions. For example,
+     * 240.0 pixels. Nearer tiles are started first.
+     * @param computation What to compute. Called on a thread of the executor.
+     * @return A future for the result. If a job for <code>key</code> is
+     * already waiting, this is the future of that job.
+     */
+    public CompletableFuture<V> submit(TileKey key, TilePriority priority,
+            double distance, Supplier<V> computation) {
+        Job<V> job = new Job<>(key, priority, distance,
+                this.sequence.getAndIncrement(), computation,
+                new CompletableFuture<>());
+        Job<V> existing = this.waiting.putIfAbsent(key, job);
+        if (existing != null) {
+            this.reprioritize(existing, priority, distance);
+            return existing.future;
+        }
+        this.queue.add(job);
+        this.executor.execute(this::runNext);
+        return job.future;
+    }
+
+    /**
+     * Moves a waiting job up, if the new urgency is greater than the old. If
+     * there's no job waiting for the key, for example because it's already
+     * running, this does nothing.
+     * @param key Which tile.
+     * @param priority How urgently the tile is wanted now.
+     * @param distance How far the tile is from where the user is looking now.
+     */
+    public void reprioritize(TileKey key, TilePriority priority,
+            double distance) {
+        Job<V> job = this.waiting.get(key);
+        if (job != null) {
+            this.reprioritize(job, priority, distance);
+        }
+    }
+
+    private void reprioritize(Job<V> job, TilePriority priority,
+            double distance) {
+        if (job.priority.compareTo(priority) < 0 || (job.priority == priority
+                && job.distance <= distance)) {
+            return;
+        }
+        Job<V> replacement = new Job<>(job.key, priority, distance,
+                job.order, job.computation, job.future);
+        if (this.waiting.replace(job.key, job, replacement)) {
+            if (this.queue.remove(job)) {
+                this.queue.add(replacement);
+            } else {
+                // A thread took the job in the meantime
+                this.waiting.remove(job.key, replacement);
+            }
+        }
+    }
+
+    /**
+     * Cancels all the waiting jobs of a given priority. Their futures complete
+     * exceptionally with a <code>CancellationException</code>. Jobs already
+     * running are not interrupted.
+     * @param priority Which jobs to cancel. For example,
+     * {@link TilePriority#PREFETCH}.
+     * @return How many jobs were cancelled. For example, 40.
+     */
+    public int cancel(TilePriority priority) {
+        int count = 0;
+        for (Job<V> job : this.waiting.values()) {
+            if (this.cancel(job, priority)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Cancels the waiting job for a given key, if it's of a given priority.
+     * Its future completes exceptionally with a
+     * <code>CancellationException</code>. This is for callers that share the
+     * scheduler with others and must not cancel the others' jobs.
+     * @param key Which tile.
+     * @param priority The priority the job must still have to be cancelled.
+     * For example, {@link TilePriority#PREFETCH}. A job that has since been
+     * moved up to a more urgent priority is left alone.
+     * @return True if the job was cancelled, false if there was no such job
+     * waiting, for example because it's already running.
+     */
+    public boolean cancel(TileKey key, TilePriority priority) {
+        Job<V> job = this.waiting.get(key);
+        return job != null && this.cancel(job, priority);
+    }
+
+    private boolean cancel(Job<V> job, TilePriority priority) {
+        if (job.priority != priority || !this.queue.remove(job)) {
+            return false;
+        }
+        this.waiting.remove(job.key, job);
+        job.future.completeExceptionally(new CancellationException(
+                "Cancelled " + job.key.toString()));
+        return true;
+    }
+
+    private void runNext() {
+        Job<V> job = this.queue.poll();
+        if (job == null) {
+            return;
+        }
+        this.waiting.remove(job.key, job);
+        try {
+            job.future.complete(job.computation.get());
+        } catch (RuntimeException | Error e) {
+            job.future.completeExceptionally(e);
+        }
+    }
+
+    private static final class Job<V> implements Comparable<Job<V>> {
+
+        private final TileKey key;
+
+        private final TilePriority priority;
+
+        private final double distance;
+
+        private final long order;
+
+        private final Supplier<V> computation;
+
+        private final CompletableFuture<V> future;
+
+        @Override
+        public int compareTo(Job<V> other) {
+            int comparison = this.priority.compareTo(other.priority);
+            if (comparison == 0) {
+                comparison = Double.compare(this.distance, other.distance);
+            }
+            if (comparison == 0) {
+                comparison = Long.compare(this.order, other.order);
+            }
+            return comparison;
+        }
+
+        Job(TileKey key, TilePriority priority, double distance, long order,
+                Supplier<V> computation, CompletableFuture<V> future) {
+            this.key = key;
+            this.priority = priority;
+            this.distance = distance;
+            this.order = order;
+            this.computation = computation;
+            this.future = future;
+        }
+
+    }
+
+    /**
+     * Creates a scheduler.
+     * @param executor The executor to run the jobs on. For example, the common
+     * fork/join pool.
+     * @throws NullPointerException If <code>executor</code> is null.
+     */
+    public TileScheduler(Executor executor) {
+        if (executor == null) {
+            String excMsg = "Executor must not be null";
+            throw new NullPointerException(excMsg);
+        }
+        this.executor = executor;
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+/**
+ * The kernel for the tricorn, also known as the Mandelbar set, which iterates
+ * <span style="text-decoration: overline"><i>z</i></span><sup>2</sup> +
+ * <i>c</i>, that is, the square of the complex conjugate of <i>z</i> plus
+ * <i>c</i>.
+ * <p>This map is not holomorphic, so instead of a complex derivative, only
+ * its magnitude is tracked, by |<i>z</i>&prime;| &larr;
+ * 2|<i>z</i>||<i>z</i>&prime;| + 1 (or without the 1 for a dynamical plane).
+ * That still gives usable distance estimates, since locally the map is
+ * squaring followed by a reflection.</p>
+ * @author Alonso del Arte
+ */
+public final class TricornKernel extends FractalKernel {
+
+    private static final double LOG_2 = Math.log(2.0);
+
+    @Override
+    public String getName() {
+        return "Tricorn";
+    }
+
+    /**
+     * Iterates a point, starting from a given <i>z</i> and derivative
+     * magnitude.
+     * @param dzStep 1.0 for the parameter plane, 0.0 for a dynamical plane.
+     */
+    private static void iterate(double zRe, double zIm, double dzAbs,
+            double dzStep, double cRe, double cIm, int iterMax,
+            IterationData data, int index) {
+        double zReSq = zRe * zRe, zImSq = zIm * zIm;
+        int count = 0;
+        while (zReSq + zImSq < EscapeTime.ESCAPE_RADIUS_SQUARED
+                && count < iterMax) {
+            dzAbs = 2.0 * Math.sqrt(zReSq + zImSq) * dzAbs + dzStep;
+            zIm = -2.0 * zRe * zIm + cIm;
+            zRe = zReSq - zImSq + cRe;
+            zReSq = zRe * zRe;
+            zImSq = zIm * zIm;
+            count++;
+        }
+        EscapeTime.record(count, iterMax, zReSq + zImSq, dzAbs * dzAbs, LOG_2,
+                data, index);
+    }
+
+    @Override
+    public void mandelbrot(double cRe, double cIm, int iterMax,
+            IterationData data, int index) {
+        iterate(0.0, 0.0, 0.0, 1.0, cRe, cIm, iterMax, data, index);
+    }
+
+    @Override
+    public void julia(double zRe, double zIm, double cRe, double cIm,
+            int iterMax, IterationData data, int index) {
+        iterate(zRe, zIm, 1.0, 0.0, cRe, cIm, iterMax, data, index);
+    }
+
+    @Override
+    public void renderRegion(Viewport viewport, int x0, int y0, int x1,
+            int y1, IterationData data) {
+        int width = data.getWidth();
+        int iterMax = viewport.getIterationMaximum();
+        if (viewport.isJulia()) {
+            double cRe = viewport.getJuliaRe();
+            double cIm = viewport.getJuliaIm();
+            for (int y = y0; y < y1; y++) {
+                double im = viewport.getImaginaryPartAt(y);
+                int index = y * width + x0;
+                for (int x = x0; x < x1; x++) {
+                    iterate(viewport.getRealPartAt(x), im, 1.0, 0.0, cRe, cIm,
+                            iterMax, data, index++);
+                }
+            }
+        } else {
+            for (int y = y0; y < y1; y++) {
+                double im = viewport.getImaginaryPartAt(y);
+                int index = y * width + x0;
+                for (int x = x0; x < x1; x++) {
+                    iterate(0.0, 0.0, 0.0, 1.0, viewport.getRealPartAt(x), im,
+                            iterMax, data, index++);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import numerics.ComplexNumber;
+
+/**
+ * Immutable description of a region of the complex plane to be rendered as a
+ * rectangle of pixels. The pixel at (0, 0) corresponds to the top left corner,
+ * and moving one pixel to the right or down adds 1/<i>p</i> to the real part or
+ * the imaginary part, respectively, where <i>p</i> is the number of pixels per
+ * unit interval. This is the same convention used by
+ * <code>MandelbrotJuliaViewer</code>.
+ * <p>A viewport also says what formula to iterate, by way of a
+ * {@link FractalKernel}. Unless otherwise specified, that's
+ * <i>z</i><sup>2</sup> + <i>c</i>.</p>
+ * @author Alonso del Arte
+ */
+public final class Viewport {
+
+    private final double cornerRe, cornerIm;
+
+    private final double pixelsPerUnitInterval;
+
+    private final int width, height;
+
+    private final int iterationMaximum;
+
+    private final boolean juliaFlag;
+
+    private final double juliaRe, juliaIm;
+
+    private final FractalKernel kernel;
+
+    /**
+     * The kernel that viewports have unless another is given.
+     */
+    static final FractalKernel DEFAULT_KERNEL = new QuadraticKernel();
+
+    /**
+     * Gives the real part of the number at a given horizontal pixel position.
+     * The position need not be an integer, as supersampling uses fractional
+     * positions.
+     * @param x The horizontal position. For example, 540.25.
+     * @return The real part. For example, if the top left corner is &minus;2.75
+     * &minus; 1.25<i>i</i> and there are 256 pixels per unit interval, this
+     * would be about &minus;0.640625.
+     */
+    public double getRealPartAt(double x) {
+        return this.cornerRe + x / this.pixelsPerUnitInterval;
+    }
+
+    /**
+     * Gives the imaginary part (divided by <i>i</i>) of the number at a given
+     * vertical pixel position.
+     * @param y The vertical position. For example, 320.0.
+     * @return The imaginary part. For example, if the top left corner is
+     * &minus;2.75 &minus; 1.25<i>i</i> and there are 256 pixels per unit
+     * interval, this would be 0.0.
+     */
+    public double getImaginaryPartAt(double y) {
+        return this.cornerIm + y / this.pixelsPerUnitInterval;
+    }
+
+    /**
+     * Gives the top left corner of this viewport.
+     * @return The top left corner. For example, &minus;2.75 &minus;
+     * 1.25<i>i</i>.
+     */
+    public ComplexNumber getTopLeftCorner() {
+        return new ComplexNumber(this.cornerRe, this.cornerIm);
+    }
+
+    public double getPixelsPerUnitInterval() {
+        return this.pixelsPerUnitInterval;
+    }
+
+    /**
+     * Gives the size of one pixel in the complex plane.
+     * @return The reciprocal of the number of pixels per unit interval. For
+     * example, if there are 256 pixels per unit interval, 0.00390625.
+     */
+    public double getPixelSize() {
+        return 1.0 / this.pixelsPerUnitInterval;
+    }
+
+    public int getWidth() {
+        return this.width;
+    }
+
+    public int getHeight() {
+        return this.height;
+    }
+
+    public int getIterationMaximum() {
+        return this.iterationMaximum;
+    }
+
+    /**
+     * Tells whether this viewport is for a Julia set or for the Mandelbrot set.
+     * @return True for a Julia set, false for the Mandelbrot set.
+     */
+    public boolean isJulia() {
+        return this.juliaFlag;
+    }
+
+    /**
+     * Gives the Julia set parameter. Only meaningful if {@link #isJulia()}
+     * returns true.
+     * @return The parameter <i>c</i> in <i>z</i><sup>2</sup> + <i>c</i>. For
+     * example, &minus;0.75 + 0.1<i>i</i>.
+     */
+    public ComplexNumber getJuliaPoint() {
+        return new ComplexNumber(this.juliaRe, this.juliaIm);
+    }
+
+    /**
+     * Gives the kernel for the formula to iterate.
+     * @return The kernel. For example, a <code>QuadraticKernel</code> for
+     * <i>z</i><sup>2</sup> + <i>c</i>, which is the default.
+     */
+    public FractalKernel getKernel() {
+        return this.kernel;
+    }
+
+    /**
+     * Gives a viewport just like this one but with a different formula.
+     * @param newKernel The kernel for the formula. For example, a
+     * <code>BurningShipKernel</code>.
+     * @return A new viewport. This viewport is not changed.
+     * @throws NullPointerException If <code>newKernel</code> is null.
+     */
+    public Viewport withKernel(FractalKernel newKernel) {
+        return new Viewport(this.cornerRe, this.cornerIm,
+                this.pixelsPerUnitInterval, this.width, this.height,
+                this.iterationMaximum, this.juliaFlag, this.juliaRe,
+                this.juliaIm, newKernel);
+    }
+
+    /**
+     * Gives the real part of the Julia set parameter, without creating a
+     * <code>ComplexNumber</code>, for kernels to use in their pixel loops.
+     * @return The real part. For example, &minus;0.75.
+     */
+    public double getJuliaRe() {
+        return this.juliaRe;
+    }
+
+    /**
+     * Gives the imaginary part of the Julia set parameter, without creating a
+     * <code>ComplexNumber</code>.
+     * @return The imaginary part. For example, 0.1.
+     */
+    public double getJuliaIm() {
+        return this.juliaIm;
+    }
+
+    /**
+     * Gives a viewport just like this one but with a different iteration
+     * maximum.
+     * @param iterMax The new iteration maximum. For example, 2048.
+     * @return A new viewport. This viewport is not changed.
+     * @throws IllegalArgumentException If <code>iterMax</code> is less than 1.
+     */
+    public Viewport withIterationMaximum(int iterMax) {
+        return new Viewport(this.cornerRe, this.cornerIm,
+                this.pixelsPerUnitInterval, this.width, this.height, iterMax,
+                this.juliaFlag, this.juliaRe, this.juliaIm, this.kernel);
+    }
+
+    /**
+     * Gives a viewport covering the same region of the complex plane as this
+     * one but at a different resolution. The top left corner stays the same,
+     * and the number of pixels per unit interval is scaled so that the bottom
+     * right corner also stays the same.
+     * @param newWidth The new width in pixels. For example, 2160.
+     * @param newHeight The new height in pixels. For example, 1280.
+     * @return A new viewport. This viewport is not changed.
+     * @throws IllegalArgumentException If either dimension is less than 1.
+     */
+    public Viewport scaledTo(int newWidth, int newHeight) {
+        double scale = (double) newWidth / this.width;
+        return new Viewport(this.cornerRe, this.cornerIm,
+                this.pixelsPerUnitInterval * scale, newWidth, newHeight,
+                this.iterationMaximum, this.juliaFlag, this.juliaRe,
+                this.juliaIm, this.kernel);
+    }
+
+    /**
+     * Gives a viewport for a rectangular part of this one, at the same scale.
+     * Rendering the parts of a viewport separately gives the same results as
+     * rendering it whole, up to rounding of the corner, which is exact when
+     * the number of pixels per unit interval is a power of 2.
+     * @param x0 The leftmost column of the part. For example, 0.
+     * @param y0 The topmost row of the part. For example, 128.
+     * @param regionWidth The width of the part in pixels. For example, 1080.
+     * @param regionHeight The height of the part in pixels. For example, 64.
+     * @return A new viewport. This viewport is not changed.
+     * @throws IllegalArgumentException If the part does not lie entirely
+     * within this viewport, or if either dimension is less than 1.
+     */
+    public Viewport region(int x0, int y0, int regionWidth, int regionHeight) {
+        if (x0 < 0 || y0 < 0 || x0 + regionWidth > this.width
+                || y0 + regionHeight > this.height) {
+            String excMsg = "Region " + regionWidth + " by " + regionHeight
+                    + " at " + x0 + ", " + y0 + " is not within " + this.width
+                    + " by " + this.height;
+            throw new IllegalArgumentException(excMsg);
+        }
+        return new Viewport(this.getRealPartAt(x0), this.getImaginaryPartAt(y0),
+                this.pixelsPerUnitInterval, regionWidth, regionHeight,
+                this.iterationMaximum, this.juliaFlag, this.juliaRe,
+                this.juliaIm, this.kernel);
+    }
+
+    @Override
+    public String toString() {
+        String kind = this.juliaFlag ? "Julia set for "
+                + this.getJuliaPoint().toASCIIString() : "Mandelbrot set";
+        if (!this.kernel.equals(DEFAULT_KERNEL)) {
+            kind = this.kernel.getName() + " " + kind;
+        }
+        return kind + " from " + this.getTopLeftCorner().toASCIIString()
+                + " at " + this.pixelsPerUnitInterval + " pxui, " + this.width
+                + " by " + this.height + ", iterMax " + this.iterationMaximum;
+    }
+
+    /**
+     * Creates a viewport for the Mandelbrot set.
+     * @param topLeftCorner The top left corner. For example, &minus;2.75
+     * &minus; 1.25<i>i</i>.
+     * @param pixelsPerUnitInterval How many pixels per unit interval. For
+     * example, 256.
+     * @param width The width in pixels. For example, 1080.
+     * @param height The height in pixels. For example, 640.
+     * @param iterMax The iteration maximum. For example, 256.
+     * @return A new viewport.
+     * @throws IllegalArgumentException If any of the numeric parameters is
+     * out of range.
+     */
+    public static Viewport mandelbrot(ComplexNumber topLeftCorner,
+            double pixelsPerUnitInterval, int width, int height, int iterMax) {
+        return new Viewport(topLeftCorner.getRealPart(),
+                topLeftCorner.getImaginaryPart(), pixelsPerUnitInterval, width,
+                height, iterMax, false, 0.0, 0.0, DEFAULT_KERNEL);
+    }
+
+    /**
+     * Creates a viewport for a Julia set.
+     * @param topLeftCorner The top left corner. For example, &minus;2.0
+     * &minus; 1.25<i>i</i>.
+     * @param pixelsPerUnitInterval How many pixels per unit interval. For
+     * example, 256.
+     * @param width The width in pixels. For example, 1080.
+     * @param height The height in pixels. For example, 640.
+     * @param iterMax The iteration maximum. For example, 256.
+     * @param juliaPoint The parameter <i>c</i> in <i>z</i><sup>2</sup> +
+     * <i>c</i>. For example, &minus;0.75 + 0.1<i>i</i>.
+     * @return A new viewport.
+     * @throws IllegalArgumentException If any of the numeric parameters is
+     * out of range.
+     */
+    public static Viewport julia(ComplexNumber topLeftCorner,
+            double pixelsPerUnitInterval, int width, int height, int iterMax,
+            ComplexNumber juliaPoint) {
+        return new Viewport(topLeftCorner.getRealPart(),
+                topLeftCorner.getImaginaryPart(), pixelsPerUnitInterval, width,
+                height, iterMax, true, juliaPoint.getRealPart(),
+                juliaPoint.getImaginaryPart(), DEFAULT_KERNEL);
+    }
+
+    Viewport(double re, double im, double pxui, int w, int h, int iterMax,
+            boolean julia, double cRe, double cIm, FractalKernel kernel) {
+        if (kernel == null) {
+            String excMsg = "Kernel must not be null";
+            throw new NullPointerException(excMsg);
+        }
+        if (!(pxui > 0.0) || Double.isInfinite(pxui)) {
+            String excMsg = "Pixels per unit interval " + pxui
+                    + " should be positive and finite";
+            throw new IllegalArgumentException(excMsg);
+        }
+        if (w < 1 || h < 1) {
+            String excMsg = "Dimensions " + w + " by " + h
+                    + " are not valid; both should be positive";
+            throw new IllegalArgumentException(excMsg);
+        }
+        if (iterMax < 1) {
+            String excMsg = "Iteration maximum " + iterMax
+                    + " is not valid; it should be positive";
+            throw new IllegalArgumentException(excMsg);
+        }
+        this.cornerRe = re;
+        this.cornerIm = im;
+        this.pixelsPerUnitInterval = pxui;
+        this.width = w;
+        this.height = h;
+        this.iterationMaximum = iterMax;
+        this.juliaFlag = julia;
+        this.juliaRe = cRe;
+        this.juliaIm = cIm;
+        this.kernel = kernel;
+    }
+
+}
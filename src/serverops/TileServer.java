@@ -0,0 +1,395 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package serverops;
+
+import colors.mappers.ColorMapper;
+import colors.mappers.CyclicColorMapper;
+import numerics.ComplexNumber;
+import rendering.IterationData;
+import rendering.RenderJobExecutor;
+import rendering.TileCache;
+import rendering.TileEngine;
+import rendering.TileKey;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Embedded HTTP server that serves PNG tiles of the Mandelbrot set and of Julia
+ * sets in the layout used by slippy maps, so that the diagrams can be explored
+ * in a Web browser with a map library. The paths are
+ * <code>/mandelbrot/<i>z</i>/<i>x</i>/<i>y</i>.png</code> and
+ * <code>/julia/<i>z</i>/<i>x</i>/<i>y</i>.png?c=<i>re</i>,<i>im</i></code>.
+ * At zoom level 0 a single tile covers the square from &minus;2 &minus;
+ * 2<i>i</i> to 2 + 2<i>i</i>, and each zoom level splits every tile into four.
+ * The path <code>/stats</code> gives the cache statistics as plain text.
+ * <p>Tiles are rendered by a {@link TileEngine}, which has a cache of iteration
+ * data, and the encoded PNGs are kept in a cache of their own. In both caches,
+ * concurrent requests for the same tile are merged into one computation. Each
+ * tile request runs as a job of a {@link RenderJobExecutor}, which waits for
+ * the tile and sends it, while the rendering and encoding happen on its
+ * bounded kernel pool. When too many requests are in flight, further requests
+ * get a 503 response right away.</p>
+ * @author Alonso del Arte
+ */
+public final class TileServer {
+
+    /**
+     * The width and height of the tiles served, in pixels.
+     */
+    public static final int TILE_SIZE = 256;
+
+    /**
+     * The port to listen on when none is specified on the command line.
+     */
+    public static final int DEFAULT_PORT = 8080;
+
+    /**
+     * The default number of encoded tiles to keep in the cache.
+     */
+    public static final int DEFAULT_PNG_CACHE_CAPACITY = 4096;
+
+    /**
+     * The difference between the zoom level in a tile path and the zoom level
+     * of the corresponding {@link TileKey}. With 256-pixel tiles, a tile at
+     * key zoom level 6 covers 4 units, the whole square at path zoom level 0.
+     */
+    static final int ZOOM_OFFSET = 6;
+
+    /**
+     * The highest zoom level allowed in a tile path.
+     */
+    static final int MAXIMUM_PATH_ZOOM = 30;
+
+    private static final int BASE_ITERATION_MAXIMUM = 256;
+
+    private static final int MAXIMUM_ITERATION_MAXIMUM = 16384;
+
+    private static final int BACKLOG = 1024;
+
+    private static final int HANDLER_THREADS = 4;
+
+    private static final Pattern TILE_PATH = Pattern
+            .compile("/(mandelbrot|julia)/(\\d+)/(\\d+)/(\\d+)\\.png");
+
+    private static final Pattern JULIA_QUERY = Pattern
+            .compile("c=([-+0-9.eE]+),([-+0-9.eE]+)");
+
+    private final HttpServer server;
+
+    private final ExecutorService handlerPool;
+
+    private final RenderJobExecutor jobs;
+
+    /**
+     * Whether the job executor was created for this server, in which case it's
+     * shut down when the server stops.
+     */
+    private final boolean ownsJobs;
+
+    private final TileEngine engine;
+
+    private final ColorMapper colorMapper;
+
+    private final TileCache<TileKey, byte[]> pngCache;
+
+    public TileEngine getEngine() {
+        return this.engine;
+    }
+
+    public TileCache<TileKey, byte[]> getPNGCache() {
+        return this.pngCache;
+    }
+
+    public RenderJobExecutor getJobExecutor() {
+        return this.jobs;
+    }
+
+    /**
+     * Gives the port the server is listening on. This is useful if the server
+     * was created with port 0, to let the system choose a free port.
+     * @return The port. For example, 8080.
+     */
+    public int getPort() {
+        return this.server.getAddress().getPort();
+    }
+
+    /**
+     * Gives the iteration maximum for tiles at a given zoom level. The
+     * iteration maximum doubles every four zoom levels, up to a limit, so that
+     * the tiles at any one zoom level match up at the edges.
+     * @param zoom The zoom level in the tile path. For example, 8.
+     * @return The iteration maximum. For example, 1024.
+     */
+    static int iterationMaximumFor(int zoom) {
+        int doublings = Math.min(zoom / 4, 16);
+        return Math.min(BASE_ITERATION_MAXIMUM << doublings,
+                MAXIMUM_ITERATION_MAXIMUM);
+    }
+
+    /**
+     * Parses a tile path and query into a tile key.
+     * @param path The path. For example, "/mandelbrot/3/5/2.png".
+     * @param query The query, or null if there is none. For example,
+     * "c=-0.75,0.1".
+     * @return The key, or null if the path or query is not valid or the tile
+     * is outside the square.
+     */
+    static TileKey parseTileKey(String path, String query) {
+        Matcher matcher = TILE_PATH.matcher(path);
+        if (!matcher.matches()) {
+            return null;
+        }
+        int zoom, x, y;
+        try {
+            zoom = Integer.parseInt(matcher.group(2));
+            x = Integer.parseInt(matcher.group(3));
+            y = Integer.parseInt(matcher.group(4));
+        } catch (NumberFormatException nfe) {
+            return null;
+        }
+        if (zoom > MAXIMUM_PATH_ZOOM || x >= (1 << zoom)
+                || y >= (1 << zoom)) {
+            return null;
+        }
+        int iterMax = iterationMaximumFor(zoom);
+        if (matcher.group(1).equals("mandelbrot")) {
+            return TileKey.mandelbrot(zoom + ZOOM_OFFSET, x, y, iterMax);
+        }
+        if (query == null) {
+            return null;
+        }
+        Matcher queryMatcher = JULIA_QUERY.matcher(query);
+        if (!queryMatcher.matches()) {
+            return null;
+        }
+        ComplexNumber juliaPoint;
+        try {
+            juliaPoint = new ComplexNumber(
+                    Double.parseDouble(queryMatcher.group(1)),
+                    Double.parseDouble(queryMatcher.group(2)));
+        } catch (IllegalArgumentException iae) {
+            return null;
+        }
+        return TileKey.julia(zoom + ZOOM_OFFSET, x, y, iterMax, juliaPoint);
+    }
+
+    private byte[] encode(IterationData data, int iterMax) {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(this.colorMapper.toImage(data, iterMax), "png",
+                    stream);
+        } catch (IOException ioe) {
+            throw new UncheckedIOException(ioe);
+        }
+        return stream.toByteArray();
+    }
+
+    /**
+     * Gives the encoded PNG for a tile, rendering and encoding it only if it's
+     * neither cached nor in progress.
+     * @param key Which tile.
+     * @return A future for the PNG file contents.
+     */
+    public CompletableFuture<byte[]> requestPNG(TileKey key) {
+        return this.pngCache.get(key, k -> this.engine.request(k)
+                .thenApplyAsync(data -> this.encode(data,
+                        k.getIterationMaximum()), this.engine.getExecutor()));
+    }
+
+    private static void respond(HttpExchange exchange, int status,
+            String contentType, byte[] body) {
+        try {
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            if (status == 200) {
+                exchange.getResponseHeaders().set("Cache-Control",
+                        "public, max-age=86400");
+            }
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream stream = exchange.getResponseBody()) {
+                stream.write(body);
+            }
+        } catch (IOException ioe) {
+            // The client went away; there's no one left to tell
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void respondText(HttpExchange exchange, int status,
+            String text) {
+        respond(exchange, status, "text/plain; charset=UTF-8",
+                text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void handleTile(HttpExchange exchange) {
+        String path = exchange.getRequestURI().getPath();
+        String query = exchange.getRequestURI().getRawQuery();
+        TileKey key = parseTileKey(path, query);
+        if (key == null) {
+            respondText(exchange, 404, "No such tile: " + path);
+            return;
+        }
+        try {
+            this.jobs.execute(() -> {
+                try {
+                    respond(exchange, 200, "image/png",
+                            this.requestPNG(key).join());
+                } catch (CompletionException | CancellationException e) {
+                    respondText(exchange, 500, "Could not render " + key
+                            + ": " + e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException ree) {
+            respondText(exchange, 503, ree.getMessage());
+        }
+    }
+
+    private void handleStats(HttpExchange exchange) {
+        TileCache<TileKey, IterationData> tiles = this.engine.getCache();
+        String text = String.format("Tiles: %d cached, %d in flight, %d hits, "
+                + "%d merged, %d rendered%nPNGs: %d cached, %d in flight, "
+                + "%d hits, %d merged, %d encoded%nRequests: %d in flight, "
+                + "peak %d, limit %d, %d rejected, virtual threads %b%n",
+                tiles.size(),
+                tiles.getInFlightCount(), tiles.getHitCount(),
+                tiles.getMergeCount(), tiles.getLoadCount(),
+                this.pngCache.size(), this.pngCache.getInFlightCount(),
+                this.pngCache.getHitCount(), this.pngCache.getMergeCount(),
+                this.pngCache.getLoadCount(), this.jobs.getInFlightCount(),
+                this.jobs.getPeakInFlightCount(),
+                this.jobs.getMaximumInFlight(), this.jobs.getRejectedCount(),
+                this.jobs.isUsingVirtualThreads());
+        respondText(exchange, 200, text);
+    }
+
+    /**
+     * Starts accepting requests.
+     */
+    public void start() {
+        this.server.start();
+    }
+
+    /**
+     * Stops accepting requests and shuts down the request handler threads,
+     * and the job executor too if this server created it. Tiles being
+     * rendered are finished but not sent.
+     * @param delaySeconds How long to wait for exchanges in progress to
+     * finish. For example, 1.
+     */
+    public void stop(int delaySeconds) {
+        this.server.stop(delaySeconds);
+        this.handlerPool.shutdown();
+        if (this.ownsJobs) {
+            this.jobs.shutdown();
+        }
+    }
+
+    /**
+     * Creates a tile server with its own job executor, and its own tile engine
+     * on the kernel pool of that executor. The job executor is shut down when
+     * the server stops. The server doesn't accept requests until
+     * {@link #start()} is called.
+     * @param port The port to listen on. For example, 8080. If 0, the system
+     * chooses a free port.
+     * @throws IOException If the server can't listen on the port.
+     */
+    public TileServer(int port) throws IOException {
+        this(port, new RenderJobExecutor());
+    }
+
+    private TileServer(int port, RenderJobExecutor jobs) throws IOException {
+        this(port, new TileEngine(jobs.getKernelPool(), TILE_SIZE,
+                TileEngine.DEFAULT_CACHE_CAPACITY), new CyclicColorMapper(),
+                DEFAULT_PNG_CACHE_CAPACITY, jobs, true);
+    }
+
+    /**
+     * Creates a tile server. The server doesn't accept requests until
+     * {@link #start()} is called.
+     * @param port The port to listen on. For example, 8080. If 0, the system
+     * chooses a free port.
+     * @param engine The tile engine. Its tile size must be {@link #TILE_SIZE}.
+     * It may be shared with other users, such as a viewer.
+     * @param colorMapper The color mapper. For example, an instance of
+     * <code>CyclicColorMapper</code>.
+     * @param pngCacheCapacity How many encoded tiles to keep. For example,
+     * 4096.
+     * @param jobs The executor to run the tile requests on. It may be shared
+     * with other users, and it's not shut down when the server stops.
+     * @throws IOException If the server can't listen on the port.
+     * @throws IllegalArgumentException If the tile size of
+     * <code>engine</code> is not {@link #TILE_SIZE}.
+     */
+    public TileServer(int port, TileEngine engine, ColorMapper colorMapper,
+            int pngCacheCapacity, RenderJobExecutor jobs) throws IOException {
+        this(port, engine, colorMapper, pngCacheCapacity, jobs, false);
+    }
+
+    private TileServer(int port, TileEngine engine, ColorMapper colorMapper,
+            int pngCacheCapacity, RenderJobExecutor jobs, boolean ownsJobs)
+            throws IOException {
+        if (engine.getTileSize() != TILE_SIZE) {
+            String excMsg = "Tile size " + engine.getTileSize()
+                    + " should be " + TILE_SIZE;
+            throw new IllegalArgumentException(excMsg);
+        }
+        this.engine = engine;
+        this.colorMapper = colorMapper;
+        this.pngCache = new TileCache<>(pngCacheCapacity);
+        this.jobs = jobs;
+        this.ownsJobs = ownsJobs;
+        this.handlerPool = Executors.newFixedThreadPool(HANDLER_THREADS);
+        this.server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        this.server.setExecutor(this.handlerPool);
+        this.server.createContext("/mandelbrot/", this::handleTile);
+        this.server.createContext("/julia/", this::handleTile);
+        this.server.createContext("/stats", this::handleStats);
+    }
+
+    /**
+     * Runs a tile server from the command line until the process is killed.
+     * @param args The port to listen on, optionally. The default is
+     * {@link #DEFAULT_PORT}.
+     * @throws IOException If the server can't listen on the port.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        TileServer tileServer = new TileServer(port);
+        tileServer.start();
+        System.out.println("Serving tiles at http://localhost:"
+                + tileServer.getPort() + "/mandelbrot/{z}/{x}/{y}.png");
+    }
+
+}
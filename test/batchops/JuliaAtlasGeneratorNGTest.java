@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package batchops;
+
+import colors.mappers.ColorMapper;
+import colors.mappers.CyclicColorMapper;
+import numerics.ComplexNumber;
+import rendering.TileRenderer;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the JuliaAtlasGenerator class.
+ * @author Alonso del Arte
+ */
+public class JuliaAtlasGeneratorNGTest {
+
+    private static final ComplexNumber REGION_CORNER
+            = new ComplexNumber(-2.0, -1.25);
+
+    private static final ComplexNumber REGION_OPPOSITE
+            = new ComplexNumber(0.5, 1.25);
+
+    private static final ColorMapper COLOR_MAPPER = new CyclicColorMapper();
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+
+    @AfterClass
+    public void tearDownClass() {
+        this.pool.shutdown();
+    }
+
+    /**
+     * Test of the getParameter function, of the JuliaAtlasGenerator class.
+     */
+    @Test
+    public void testGetParameter() {
+        System.out.println("getParameter");
+        ComplexNumber expected = new ComplexNumber(-1.875, -1.125);
+        ComplexNumber actual = JuliaAtlasGenerator.getParameter(REGION_CORNER,
+                REGION_OPPOSITE, 10, 10, 0, 0);
+        assertEquals(actual, expected);
+        expected = new ComplexNumber(0.375, 1.125);
+        actual = JuliaAtlasGenerator.getParameter(REGION_CORNER,
+                REGION_OPPOSITE, 10, 10, 9, 9);
+        assertEquals(actual, expected);
+    }
+
+    /**
+     * Test of the generate function, of the JuliaAtlasGenerator class. Each
+     * thumbnail in the atlas should be the same as the Julia set for the
+     * parameter of its cell rendered on its own, no matter in what order the
+     * thumbnails finished.
+     * @throws InterruptedException If the test is interrupted.
+     * @throws ExecutionException If a thumbnail fails.
+     */
+    @Test
+    public void testGenerate() throws InterruptedException,
+            ExecutionException {
+        System.out.println("generate");
+        int columns = 4, rows = 3, width = 40, height = 30;
+        JuliaAtlasGenerator instance = new JuliaAtlasGenerator(COLOR_MAPPER,
+                this.pool, width, height, 128);
+        BufferedImage atlas = new BufferedImage(columns * width,
+                rows * height, BufferedImage.TYPE_INT_RGB);
+        AtlasStatistics stats = instance.generate(REGION_CORNER,
+                REGION_OPPOSITE, columns, rows, atlas);
+        assertEquals(stats.getThumbnailCount(), columns * rows);
+        assertEquals(stats.getPixelCount(), columns * rows * width * height);
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                ComplexNumber parameter = JuliaAtlasGenerator.getParameter(
+                        REGION_CORNER, REGION_OPPOSITE, columns, rows, column,
+                        row);
+                BufferedImage expected = COLOR_MAPPER.toImage(
+                        new TileRenderer().render(instance
+                                .thumbnailViewport(parameter)), 128);
+                int[] expPixels = expected.getRGB(0, 0, width, height, null, 0,
+                        width);
+                int[] actPixels = atlas.getRGB(column * width, row * height,
+                        width, height, null, 0, width);
+                assertEquals(actPixels, expPixels, "Thumbnail for "
+                        + parameter.toString());
+            }
+        }
+    }
+
+    /**
+     * Another test of the generate function, of the JuliaAtlasGenerator class.
+     * An atlas too small for the grid should be rejected.
+     * @throws InterruptedException If the test is interrupted.
+     * @throws ExecutionException If a thumbnail fails.
+     */
+    @Test(expectedExceptions = {IllegalArgumentException.class})
+    public void testGenerateRejectsSmallAtlas() throws InterruptedException,
+            ExecutionException {
+        JuliaAtlasGenerator instance = new JuliaAtlasGenerator(COLOR_MAPPER,
+                this.pool, 40, 30, 128);
+        BufferedImage atlas = new BufferedImage(100, 100,
+                BufferedImage.TYPE_INT_RGB);
+        AtlasStatistics stats = instance.generate(REGION_CORNER,
+                REGION_OPPOSITE, 4, 3, atlas);
+        System.out.println("Should not have been able to generate " + stats);
+    }
+
+}
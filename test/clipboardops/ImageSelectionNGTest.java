@@ -25,8 +25,11 @@ import java.awt.datatransfer.UnsupportedFlavorException;
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
 
+import javax.imageio.ImageIO;
+
 import static org.testng.Assert.*;
 
 import org.testng.annotations.AfterMethod;
@@ -111,7 +114,8 @@ public class ImageSelectionNGTest implements ClipboardOwner {
     @Test
     public void testGetTransferDataFlavors() {
         System.out.println("getTransferDataFlavors");
-        DataFlavor[] expected = {DataFlavor.imageFlavor};
+        DataFlavor[] expected = {DataFlavor.imageFlavor, 
+            ImageSelection.PNG_FLAVOR};
         DataFlavor[] actual = this.imgSel.getTransferDataFlavors();
         assertEquals(actual, expected);
     }
@@ -126,6 +130,18 @@ public class ImageSelectionNGTest implements ClipboardOwner {
         assert this.imgSel.isDataFlavorSupported(DataFlavor.imageFlavor) : msg;
     }
 
+    /**
+     * Another test of the isDataFlavorSupported function, of the ImageSelection 
+     * class. The PNG byte stream flavor should also be supported.
+     */
+    @Test
+    public void testIsPNGFlavorSupported() {
+        String msg = ImageSelection.PNG_FLAVOR.toString() 
+                + " should be supported";
+        assert this.imgSel.isDataFlavorSupported(ImageSelection.PNG_FLAVOR) 
+                : msg;
+    }
+
     /**
      * Another test of the isDataFlavorSupported function, of the ImageSelection 
      * class.
@@ -167,6 +183,37 @@ public class ImageSelectionNGTest implements ClipboardOwner {
         }
     }
     
+    /**
+     * Another test of the getTransferData function, of the ImageSelection 
+     * class. The PNG flavor should give a stream that decodes to the same 
+     * pixels, and the encoding should not happen before it's asked for.
+     * @throws java.awt.datatransfer.UnsupportedFlavorException This exception 
+     * should not occur for this test.
+     * @throws java.io.IOException This exception should not occur for this 
+     * test.
+     */
+    @Test
+    public void testGetTransferDataPNG() 
+            throws UnsupportedFlavorException, IOException {
+        ImageSelection selection = new ImageSelection(this.image);
+        assert !selection.hasEncodedPNG() 
+                : "PNG should not be encoded before it's requested";
+        for (int i = 0; i < 2; i++) {
+            InputStream stream = (InputStream) selection
+                    .getTransferData(ImageSelection.PNG_FLAVOR);
+            BufferedImage decoded = ImageIO.read(stream);
+            assertEquals(decoded.getWidth(), this.image.getWidth());
+            assertEquals(decoded.getHeight(), this.image.getHeight());
+            for (int y = 0; y < this.image.getHeight(); y++) {
+                for (int x = 0; x < this.image.getWidth(); x++) {
+                    assertEquals(decoded.getRGB(x, y), this.image.getRGB(x, y), 
+                            "Pixel at " + x + ", " + y);
+                }
+            }
+        }
+        assert selection.hasEncodedPNG() : "PNG should have been cached";
+    }
+    
     /**
      * Another test of the getTransferData function, of the ImageSelection 
      * class. The wrong data flavor should cause an exception.
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fileops;
+
+import java.io.File;
+
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the IterationDataFileFilter class.
+ * @author Alonso del Arte
+ */
+public class IterationDataFileFilterNGTest {
+    
+    /**
+     * Test of the accept function, of the IterationDataFileFilter class. The 
+     * filter should accept files with the *.fvid file extension, in any case.
+     */
+    @Test
+    public void testAccept() {
+        System.out.println("accept");
+        IterationDataFileFilter filter = new IterationDataFileFilter();
+        String[] filenames = {"render.fvid", "render.FVID"};
+        for (String filename : filenames) {
+            String msg = "Filter should accept " + filename;
+            assert filter.accept(new File(filename)) : msg;
+        }
+    }
+
+    /**
+     * Another test of the accept function, of the IterationDataFileFilter 
+     * class. The filter should reject files that are not iteration data files, 
+     * like PNG files, plain text files, Java source files, etc.
+     */
+    @Test
+    public void testReject() {
+        IterationDataFileFilter filter = new IterationDataFileFilter();
+        String[] filenames = {"image.png", "essay.txt", "IterationDataFile.java", 
+            "render.fvid.bak"};
+        for (String filename : filenames) {
+            String msg = "Filter should reject " + filename;
+            assert !filter.accept(new File(filename)) : msg;
+        }
+    }
+
+    /**
+     * Another test of the accept function, of the IterationDataFileFilter 
+     * class. The filter should accept directories (folders).
+     */
+    @Test
+    public void testAcceptDirectory() {
+        String homeDirPath = System.getProperty("user.home");
+        File dir = new File(homeDirPath);
+        String preMsg = dir.getAbsolutePath() + " should be a directory";
+        assert dir.isDirectory() : preMsg;
+        IterationDataFileFilter filter = new IterationDataFileFilter();
+        String msg = "Filter should accept " + dir.getName() 
+                + File.separatorChar;
+        assert filter.accept(dir) : msg;
+    }
+
+    /**
+     * Test of the getDescription function, of the IterationDataFileFilter 
+     * class. The description provided to JFileChooser should include the file 
+     * extension *.fvid.
+     */
+    @Test
+    public void testGetDescription() {
+        System.out.println("getDescription");
+        IterationDataFileFilter filter = new IterationDataFileFilter();
+        String description = filter.getDescription();
+        assert description.toLowerCase().contains("iteration data") 
+                : "Description should say what the files are";
+        assert description.toLowerCase().contains(".fvid") 
+                : "Description contains file extension *.fvid";
+    }
+    
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fileops;
+
+import numerics.ComplexNumber;
+import rendering.IterationData;
+import rendering.TileRenderer;
+import rendering.Viewport;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the IterationDataFile class.
+ * @author Alonso del Arte
+ */
+public class IterationDataFileNGTest {
+
+    private static final ComplexNumber CORNER = new ComplexNumber(-2.5, -1.25);
+
+    private static void assertRoundTrip(Viewport viewport) throws IOException {
+        IterationData data = new TileRenderer().render(viewport);
+        File file = File.createTempFile("IterationDataFileNGTest",
+                IterationDataFile.EXTENSION);
+        try {
+            new IterationDataFile(viewport, data).write(file);
+            long expectedLength = IterationDataFile.HEADER_BYTES
+                    + 8L * viewport.getWidth() * viewport.getHeight();
+            assertEquals(file.length(), expectedLength);
+            IterationDataFile read = IterationDataFile.read(file);
+            assertEquals(read.getViewport().toString(), viewport.toString());
+            assertEquals(read.getData().getIterationCounts(),
+                    data.getIterationCounts());
+            assertEquals(read.getData().getSmoothValues(),
+                    data.getSmoothValues());
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Test of the write and read functions, of the IterationDataFile class.
+     * A render of the Mandelbrot set should come back with the same viewport
+     * and the same iteration counts and smooth values.
+     * @throws IOException If the temporary file can't be written or read.
+     */
+    @Test
+    public void testRoundTripMandelbrot() throws IOException {
+        System.out.println("write, read");
+        assertRoundTrip(Viewport.mandelbrot(CORNER, 64.0, 192, 160, 128));
+    }
+
+    /**
+     * Another test of the write and read functions, of the IterationDataFile
+     * class. The Julia parameter should be kept.
+     * @throws IOException If the temporary file can't be written or read.
+     */
+    @Test
+    public void testRoundTripJulia() throws IOException {
+        assertRoundTrip(Viewport.julia(new ComplexNumber(-2.0, -1.25), 50.0,
+                200, 125, 200, new ComplexNumber(-0.75, 0.1)));
+    }
+
+    /**
+     * Another test of the read function, of the IterationDataFile class. A
+     * file that's not an iteration data file should cause an IOException.
+     * @throws IOException If the temporary file can't be written.
+     */
+    @Test
+    public void testReadRejectsOtherFile() throws IOException {
+        File file = File.createTempFile("IterationDataFileNGTest", ".png");
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.write(new byte[100]);
+        }
+        try {
+            IterationDataFile read = IterationDataFile.read(file);
+            fail("Should not have read " + read.getViewport());
+        } catch (IOException ioe) {
+            System.out.println("Reading non-iteration data file correctly "
+                    + "caused IOException");
+            System.out.println("\"" + ioe.getMessage() + "\"");
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Another test of the read function, of the IterationDataFile class. A
+     * truncated file should cause an IOException.
+     * @throws IOException If the temporary file can't be written.
+     */
+    @Test
+    public void testReadRejectsTruncatedFile() throws IOException {
+        Viewport viewport = Viewport.mandelbrot(CORNER, 16.0, 48, 40, 32);
+        File file = File.createTempFile("IterationDataFileNGTest",
+                IterationDataFile.EXTENSION);
+        try {
+            new IterationDataFile(viewport, new TileRenderer()
+                    .render(viewport)).write(file);
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.setLength(raf.length() - 4);
+            }
+            IterationDataFile read = IterationDataFile.read(file);
+            fail("Should not have read " + read.getViewport());
+        } catch (IOException ioe) {
+            System.out.println("Reading truncated file correctly caused "
+                    + "IOException");
+            System.out.println("\"" + ioe.getMessage() + "\"");
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Another test of the read function, of the IterationDataFile class. A
+     * header with a corner that's not a finite number should cause an
+     * IOException, not an IllegalArgumentException.
+     * @throws IOException If the temporary file can't be written.
+     */
+    @Test
+    public void testReadRejectsNaNCorner() throws IOException {
+        Viewport viewport = Viewport.mandelbrot(CORNER, 16.0, 48, 40, 32);
+        File file = File.createTempFile("IterationDataFileNGTest",
+                IterationDataFile.EXTENSION);
+        try {
+            new IterationDataFile(viewport, new TileRenderer()
+                    .render(viewport)).write(file);
+            try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+                raf.seek(24);
+                raf.writeLong(Long.reverseBytes(Double.doubleToLongBits(
+                        Double.NaN)));
+            }
+            IterationDataFile read = IterationDataFile.read(file);
+            fail("Should not have read " + read.getViewport());
+        } catch (IOException ioe) {
+            System.out.println("Reading file with NaN corner correctly "
+                    + "caused IOException");
+            System.out.println("\"" + ioe.getMessage() + "\"");
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Test of the constructor, of the IterationDataFile class. Data that
+     * doesn't match the viewport should be rejected.
+     */
+    @Test
+    public void testConstructorRejectsMismatchedData() {
+        Viewport viewport = Viewport.mandelbrot(CORNER, 16.0, 48, 40, 32);
+        try {
+            IterationDataFile file = new IterationDataFile(viewport,
+                    new IterationData(40, 48));
+            fail("Should not have created " + file);
+        } catch (IllegalArgumentException iae) {
+            System.out.println("Mismatched data correctly caused "
+                    + "IllegalArgumentException");
+            System.out.println("\"" + iae.getMessage() + "\"");
+        }
+    }
+
+}
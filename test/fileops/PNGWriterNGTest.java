@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fileops;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.Adler32;
+
+import javax.imageio.ImageIO;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the PNGWriter class. Output is checked by reading it back with
+ * <code>ImageIO</code>.
+ * @author Alonso del Arte
+ */
+public class PNGWriterNGTest {
+
+    /**
+     * Makes an image with gradients and some noise, tall enough to be split
+     * into several stripes.
+     */
+    private static BufferedImage makeImage(int width, int height, int type) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Random random = new Random(width * 31L + height);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int rgb = ((x * 255 / width) << 16) | ((y * 255 / height) << 8)
+                        | ((x ^ y) & 0xFF);
+                if (random.nextInt(8) == 0) {
+                    rgb = random.nextInt(0x1000000);
+                }
+                image.setRGB(x, y, 0xFF000000 | rgb);
+            }
+        }
+        return image;
+    }
+
+    private static void assertSamePixels(BufferedImage actual,
+            BufferedImage expected) {
+        assertNotNull(actual, "Image should be readable");
+        assertEquals(actual.getWidth(), expected.getWidth());
+        assertEquals(actual.getHeight(), expected.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                int expRGB = expected.getRGB(x, y) & 0xFFFFFF;
+                int actRGB = actual.getRGB(x, y) & 0xFFFFFF;
+                if (actRGB != expRGB) {
+                    String msg = "Pixel at " + x + ", " + y + " should be "
+                            + Integer.toHexString(expRGB) + " but was "
+                            + Integer.toHexString(actRGB);
+                    fail(msg);
+                }
+            }
+        }
+    }
+
+    /**
+     * Test of the encode function, of the PNGWriter class. Every compression
+     * level, and fast mode, should give an image that reads back the same,
+     * pixel for pixel.
+     * @throws IOException If reading the encoded image fails.
+     */
+    @Test
+    public void testEncode() throws IOException {
+        System.out.println("encode");
+        BufferedImage image = makeImage(300, 700, BufferedImage.TYPE_INT_RGB);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int level = 0; level <= 9; level++) {
+                for (boolean fast : new boolean[]{false, true}) {
+                    byte[] png = new PNGWriter(level, fast, executor)
+                            .encode(image);
+                    BufferedImage actual = ImageIO.read(
+                            new ByteArrayInputStream(png));
+                    assertSamePixels(actual, image);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Another test of the encode function, of the PNGWriter class. Images
+     * that aren't of an integer RGB type, as well as single row and single
+     * column images, should also come out right.
+     * @throws IOException If reading the encoded image fails.
+     */
+    @Test
+    public void testEncodeOtherShapesAndTypes() throws IOException {
+        BufferedImage[] images = {
+            makeImage(97, 53, BufferedImage.TYPE_3BYTE_BGR),
+            makeImage(64, 64, BufferedImage.TYPE_INT_ARGB),
+            makeImage(1, 900, BufferedImage.TYPE_INT_RGB),
+            makeImage(5000, 1, BufferedImage.TYPE_INT_RGB)
+        };
+        PNGWriter writer = new PNGWriter();
+        for (BufferedImage image : images) {
+            BufferedImage actual = ImageIO.read(new ByteArrayInputStream(
+                    writer.encode(image)));
+            assertSamePixels(actual, image);
+        }
+    }
+
+    /**
+     * Test of the write function, of the PNGWriter class. The file should be
+     * a valid PNG file, and an existing longer file should be overwritten, not
+     * just partly overwritten.
+     * @throws IOException If the temporary file can't be written or read.
+     */
+    @Test
+    public void testWrite() throws IOException {
+        System.out.println("write");
+        BufferedImage image = makeImage(400, 300, BufferedImage.TYPE_INT_RGB);
+        File file = File.createTempFile("PNGWriterNGTest", ".png");
+        try {
+            new PNGWriter(0, false, Runnable::run).write(image, file);
+            long uncompressedLength = file.length();
+            PNGWriter.forPreviews().write(image, file);
+            assert file.length() < uncompressedLength
+                    : "Compressed file should be shorter than uncompressed";
+            assertSamePixels(ImageIO.read(file), image);
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Test of the combineAdler32 function, of the PNGWriter class.
+     */
+    @Test
+    public void testCombineAdler32() {
+        System.out.println("combineAdler32");
+        Random random = new Random(0);
+        byte[] data = new byte[200000];
+        random.nextBytes(data);
+        Adler32 whole = new Adler32();
+        whole.update(data);
+        int[] splits = {0, 1, 5552, 65521, 100000, 199999, 200000};
+        for (int split : splits) {
+            Adler32 first = new Adler32();
+            first.update(data, 0, split);
+            Adler32 second = new Adler32();
+            second.update(data, split, data.length - split);
+            long actual = PNGWriter.combineAdler32(first.getValue(),
+                    second.getValue(), data.length - split);
+            assertEquals(actual, whole.getValue(), "Split at " + split);
+        }
+    }
+
+    /**
+     * Test of the constructor, of the PNGWriter class. Compression levels
+     * outside of 0 to 9 should be rejected.
+     */
+    @Test
+    public void testConstructorRejectsBadLevel() {
+        int[] badLevels = {-2, 10};
+        for (int level : badLevels) {
+            try {
+                PNGWriter writer = new PNGWriter(level, false,
+                        Runnable::run);
+                fail("Level " + level + " should not have given " + writer);
+            } catch (IllegalArgumentException iae) {
+                System.out.println("Level " + level
+                        + " correctly caused IllegalArgumentException");
+                System.out.println("\"" + iae.getMessage() + "\"");
+            }
+        }
+    }
+
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package formulas;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+
+import numerics.ComplexNumber;
+import rendering.EscapeTime;
+import rendering.FractalKernel;
+import rendering.IterationData;
+import rendering.MultibrotKernel;
+import rendering.QuadraticKernel;
+import rendering.Viewport;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the FormulaCompiler class and of the kernels it generates.
+ * @author Alonso del Arte
+ */
+public class FormulaCompilerNGTest {
+
+    private static final int ITER_MAX = 200;
+
+    private static final ComplexNumber CORNER = new ComplexNumber(-2.0, -1.5);
+
+    private static final ComplexNumber JULIA_POINT
+            = new ComplexNumber(-0.4, 0.6);
+
+    private static IterationData render(Viewport viewport) {
+        IterationData data = new IterationData(viewport.getWidth(),
+                viewport.getHeight());
+        viewport.getKernel().renderRegion(viewport, 0, 0, viewport.getWidth(),
+                viewport.getHeight(), data);
+        return data;
+    }
+
+    private static void assertSameResults(Viewport viewport,
+            FractalKernel expectedKernel, FractalKernel actualKernel) {
+        IterationData expected = render(viewport.withKernel(expectedKernel));
+        IterationData actual = render(viewport.withKernel(actualKernel));
+        assertEquals(actual.getIterationCounts(),
+                expected.getIterationCounts(), viewport.toString());
+        assertEquals(actual.getSmoothValues(), expected.getSmoothValues(),
+                viewport.toString());
+    }
+
+    /**
+     * Test of compile method, of class FormulaCompiler. The kernel for
+     * <i>z</i><sup>2</sup> + <i>c</i> should do the same arithmetic as the
+     * hand-written kernel, so the results should be the same to the last
+     * bit.
+     */
+    @Test
+    public void testCompileQuadratic() {
+        System.out.println("compile z^2 + c");
+        CompiledKernel kernel = FormulaCompiler.compile("z^2 + c");
+        assertEquals(kernel.getName(), "z^2 + c");
+        Viewport viewport = Viewport.mandelbrot(CORNER, 40.0, 120, 120,
+                ITER_MAX);
+        assertSameResults(viewport, new QuadraticKernel(), kernel);
+        viewport = Viewport.julia(CORNER, 40.0, 120, 120, ITER_MAX,
+                JULIA_POINT);
+        assertSameResults(viewport, new QuadraticKernel(), kernel);
+    }
+
+    /**
+     * Test of compile method, of class FormulaCompiler. The kernel for
+     * <i>z</i><sup>3</sup> + <i>c</i> should match the multibrot kernel.
+     */
+    @Test
+    public void testCompileCubic() {
+        System.out.println("compile z^3 + c");
+        CompiledKernel kernel = FormulaCompiler.compile("z^3 + c");
+        Viewport viewport = Viewport.mandelbrot(CORNER, 40.0, 120, 120,
+                ITER_MAX);
+        assertSameResults(viewport, new MultibrotKernel(3), kernel);
+        viewport = Viewport.julia(CORNER, 40.0, 120, 120, ITER_MAX,
+                JULIA_POINT);
+        assertSameResults(viewport, new MultibrotKernel(3), kernel);
+    }
+
+    /**
+     * Test of compile method, of class FormulaCompiler. Quotients and their
+     * derivatives should be computed as by hand.
+     */
+    @Test
+    public void testCompileQuotient() {
+        System.out.println("compile z^2 + 0.25/z + c");
+        CompiledKernel kernel = FormulaCompiler.compile("z^2 + 0.25/z + c");
+        Viewport viewport = Viewport.julia(CORNER, 40.0, 120, 120, ITER_MAX,
+                JULIA_POINT).withKernel(kernel);
+        IterationData actual = render(viewport);
+        IterationData expected = new IterationData(1, 1);
+        double cRe = JULIA_POINT.getRealPart();
+        double cIm = JULIA_POINT.getImaginaryPart();
+        for (int y = 0; y < viewport.getHeight(); y++) {
+            for (int x = 0; x < viewport.getWidth(); x++) {
+                double zRe = viewport.getRealPartAt(x);
+                double zIm = viewport.getImaginaryPartAt(y);
+                double dzRe = 1.0, dzIm = 0.0;
+                double norm = zRe * zRe + zIm * zIm;
+                int count = 0;
+                while (norm < EscapeTime.ESCAPE_RADIUS_SQUARED
+                        && count < ITER_MAX) {
+                    // f'(z) = 2z - 0.25/z^2
+                    double invRe = zRe / norm, invIm = -zIm / norm;
+                    double fzRe = 2.0 * zRe
+                            - 0.25 * (invRe * invRe - invIm * invIm);
+                    double fzIm = 2.0 * zIm - 0.5 * invRe * invIm;
+                    double nextDzRe = fzRe * dzRe - fzIm * dzIm;
+                    dzIm = fzRe * dzIm + fzIm * dzRe;
+                    dzRe = nextDzRe;
+                    double nextZRe = zRe * zRe - zIm * zIm
+                            + 0.25 * zRe / norm + cRe;
+                    zIm = (zRe * zIm + zIm * zRe) + -(0.25 * zIm) / norm
+                            + cIm;
+                    zRe = nextZRe;
+                    norm = zRe * zRe + zIm * zIm;
+                    count++;
+                }
+                EscapeTime.record(count, ITER_MAX, norm,
+                        dzRe * dzRe + dzIm * dzIm, Math.log(2.0), expected, 0);
+                String msg = "At " + x + ", " + y;
+                assertEquals(actual.getIterationCount(x, y),
+                        expected.getIterationCount(0, 0), msg);
+                assertEquals(actual.getSmoothValue(x, y),
+                        expected.getSmoothValue(0, 0), msg);
+                float distance = expected.getDistanceEstimate(0, 0);
+                assertEquals(actual.getDistanceEstimate(x, y), distance,
+                        1.0E-4 * distance, msg);
+            }
+        }
+    }
+
+    /**
+     * Test of renderRegion method, of class CompiledKernel. The region loop
+     * should give the same results as iterating each point on its own.
+     */
+    @Test
+    public void testRenderRegion() {
+        System.out.println("renderRegion");
+        CompiledKernel kernel = FormulaCompiler.compile("z^3 - z + c");
+        Viewport[] viewports = {Viewport.mandelbrot(CORNER, 20.0, 60, 60,
+            ITER_MAX).withKernel(kernel), Viewport.julia(CORNER, 20.0, 60, 60,
+            ITER_MAX, JULIA_POINT).withKernel(kernel)};
+        IterationData point = new IterationData(1, 1);
+        for (Viewport viewport : viewports) {
+            IterationData region = render(viewport);
+            for (int y = 0; y < viewport.getHeight(); y++) {
+                for (int x = 0; x < viewport.getWidth(); x++) {
+                    kernel.iterateAt(viewport, x, y, point, 0);
+                    String msg = viewport + " at " + x + ", " + y;
+                    assertEquals(region.getIterationCount(x, y),
+                            point.getIterationCount(0, 0), msg);
+                    assertEquals(region.getSmoothValue(x, y),
+                            point.getSmoothValue(0, 0), msg);
+                    assertEquals(region.getDistanceEstimate(x, y),
+                            point.getDistanceEstimate(0, 0), msg);
+                }
+            }
+        }
+    }
+
+    /**
+     * Test of compile method, of class FormulaCompiler. Each kernel should
+     * have pixel loops of its own, as the hand-written kernels do, rather than
+     * share one through the superclass.
+     * @throws NoSuchMethodException If renderRegion() is missing altogether,
+     * which would fail the test.
+     */
+    @Test
+    public void testCompileGivesKernelItsOwnRegionLoop()
+            throws NoSuchMethodException {
+        System.out.println("compile, region loop");
+        Class<?> kernelClass = FormulaCompiler.compile("z^4 - z + c")
+                .getClass();
+        Method method = kernelClass.getMethod("renderRegion", Viewport.class,
+                int.class, int.class, int.class, int.class,
+                IterationData.class);
+        assertEquals(method.getDeclaringClass(), kernelClass);
+    }
+
+    /**
+     * Test of compile method, of class FormulaCompiler. Compiling the same
+     * formula again, however spaced, should give the same kernel.
+     */
+    @Test
+    public void testCompileCachesKernels() {
+        System.out.println("compile, caching");
+        CompiledKernel kernel = FormulaCompiler.compile("z^2 - z + c");
+        assertSame(FormulaCompiler.compile(" z^2-(z)+c "), kernel);
+        assertNotEquals(FormulaCompiler.compile("z^2 + z + c"), kernel);
+        assertNotEquals(kernel, new QuadraticKernel());
+    }
+
+    /**
+     * Another test of compile method, of class FormulaCompiler. The cache
+     * should not keep a kernel that's no longer in use from being collected,
+     * along with its class.
+     */
+    @Test
+    public void testCompileLetsUnusedKernelsGo() {
+        WeakReference<Class<?>> kernelClass = new WeakReference<>(
+                FormulaCompiler.compile("z^2 + 7z + c").getClass());
+        for (int attempt = 0; attempt < 50 && kernelClass.get() != null;
+                attempt++) {
+            System.gc();
+        }
+        assertNull(kernelClass.get(), "Unused kernel class was not unloaded");
+    }
+
+    private static String sumOfPowers(int highestPower) {
+        StringBuilder text = new StringBuilder("c");
+        for (int power = 2; power <= highestPower; power++) {
+            text.append(" + ").append(power).append("i/(z + ").append(power)
+                    .append(")^").append(power).append(" + z^").append(power);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Test of compile method, of class FormulaCompiler. A formula of several
+     * terms should compile, but one too long for the bytecode to be compiled
+     * to native code should cause IllegalArgumentException.
+     */
+    @Test
+    public void testCompileLongFormula() {
+        System.out.println("compile, long formula");
+        CompiledKernel kernel = FormulaCompiler.compile(sumOfPowers(6));
+        IterationData data = new IterationData(1, 1);
+        kernel.mandelbrot(0.5, 0.5, ITER_MAX, data, 0);
+        assertTrue(data.getIterationCount(0, 0) < ITER_MAX);
+        String text = sumOfPowers(Formula.MAXIMUM_EXPONENT);
+        try {
+            kernel = FormulaCompiler.compile(text);
+            fail("Compiling " + text + " should not have given " + kernel);
+        } catch (IllegalArgumentException iae) {
+            System.out.println("Long formula correctly caused "
+                    + "IllegalArgumentException");
+            System.out.println("\"" + iae.getMessage() + "\"");
+        }
+    }
+
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package formulas;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the Formula class.
+ * @author Alonso del Arte
+ */
+public class FormulaNGTest {
+
+    /**
+     * Test of the toString function, of the Formula class. Spacing and
+     * redundant parentheses should not matter.
+     */
+    @Test
+    public void testToString() {
+        System.out.println("toString");
+        assertEquals(Formula.parse("z^3-z+c").toString(), "z^3 - z + c");
+        assertEquals(Formula.parse(" ((z^3)) - (z) + c ").toString(),
+                "z^3 - z + c");
+        assertEquals(Formula.parse("z^2 - (z + c)").toString(),
+                "z^2 - (z + c)");
+        assertEquals(Formula.parse("(z + c)^2").toString(), "(z + c)^2");
+        assertEquals(Formula.parse("-z^2 + c").toString(), "-z^2 + c");
+        assertEquals(Formula.parse("z^3/(z - 1)").toString(),
+                "z^3 / (z - 1)");
+    }
+
+    /**
+     * Test of parse, of the Formula class. A number followed by a factor is a
+     * product, and a number followed by <code>i</code> is an imaginary
+     * number.
+     */
+    @Test
+    public void testParseImplicitMultiplication() {
+        System.out.println("parse, implicit multiplication");
+        assertEquals(Formula.parse("2z^2 + c"),
+                Formula.parse("2 * z^2 + c"));
+        assertEquals(Formula.parse("z(z + c)"),
+                Formula.parse("z * (z + c)"));
+        assertEquals(Formula.parse("z^2 + 0.5i z").toString(),
+                "z^2 + 0.5i * z");
+    }
+
+    /**
+     * Test of parse, of the Formula class. Operations on constants should be
+     * done by the parser.
+     */
+    @Test
+    public void testParseFoldsConstants() {
+        System.out.println("parse, constant folding");
+        assertEquals(Formula.parse("z^2 + 2 * 3").toString(), "z^2 + 6");
+        assertEquals(Formula.parse("z^2 + (-0.75 + 0.1i)").toString(),
+                "z^2 + (-0.75 + 0.1i)");
+        assertEquals(Formula.parse("z^2 + i^2").toString(), "z^2 + -1");
+        assertEquals(Formula.parse("z^2 + 1/(2i)").toString(),
+                "z^2 + -0.5i");
+    }
+
+    /**
+     * Test of getDegree method, of class Formula.
+     */
+    @Test
+    public void testGetDegree() {
+        System.out.println("getDegree");
+        assertEquals(Formula.parse("z^2 + c").getDegree(), 2);
+        assertEquals(Formula.parse("z^3 - z + c").getDegree(), 3);
+        assertEquals(Formula.parse("z(z + c)^2").getDegree(), 3);
+        assertEquals(Formula.parse("z^4 / (z + 1) + c").getDegree(), 3);
+        assertEquals(Formula.parse("(z^2 + c)^2").getDegree(), 4);
+    }
+
+    /**
+     * Test of equals method, of class Formula.
+     */
+    @Test
+    public void testEquals() {
+        System.out.println("equals");
+        Formula formula = Formula.parse("z^3 - z + c");
+        Formula sameFormula = Formula.parse("z^3-(z)+c");
+        Formula differentFormula = Formula.parse("z^3 + z + c");
+        assertEquals(sameFormula, formula);
+        assertEquals(sameFormula.hashCode(), formula.hashCode());
+        assertNotEquals(differentFormula, formula);
+    }
+
+    /**
+     * Test of parse, of the Formula class. Syntax errors should cause
+     * IllegalArgumentException with a message giving the position.
+     */
+    @Test
+    public void testParseRejectsBadSyntax() {
+        String[] badFormulas = {"", "z^2 +", "z^2 $ c", "(z^2 + c",
+            "z^2 + c)", "z^ + c", "z^2.5 + c", "x^2 + c", "z^2 + 1/0",
+            "z^2 + 1e"};
+        for (String text : badFormulas) {
+            try {
+                Formula formula = Formula.parse(text);
+                fail("Parsing \"" + text + "\" should not have given "
+                        + formula);
+            } catch (IllegalArgumentException iae) {
+                System.out.println("\"" + text
+                        + "\" correctly caused IllegalArgumentException");
+                System.out.println("\"" + iae.getMessage() + "\"");
+                assertTrue(iae.getMessage().contains(text),
+                        "Message should quote the formula");
+            }
+        }
+    }
+
+    /**
+     * Test of parse, of the Formula class. A formula of degree less than 2 in
+     * <i>z</i> is not an escape-time formula.
+     */
+    @Test
+    public void testParseRejectsLowDegree() {
+        String[] lowDegreeFormulas = {"z + c", "c", "0.5z^2/z + c",
+            "1/z + c"};
+        for (String text : lowDegreeFormulas) {
+            try {
+                Formula formula = Formula.parse(text);
+                fail("Parsing \"" + text + "\" should not have given "
+                        + formula + " of degree " + formula.getDegree());
+            } catch (IllegalArgumentException iae) {
+                System.out.println("\"" + text
+                        + "\" correctly caused IllegalArgumentException");
+                System.out.println("\"" + iae.getMessage() + "\"");
+            }
+        }
+    }
+
+    /**
+     * Test of parse, of the Formula class. Exponents over the maximum should
+     * cause IllegalArgumentException.
+     */
+    @Test
+    public void testParseRejectsLargeExponent() {
+        Formula formula = Formula.parse("z^" + Formula.MAXIMUM_EXPONENT
+                + " + c");
+        assertEquals(formula.getDegree(), Formula.MAXIMUM_EXPONENT);
+        String text = "z^" + (Formula.MAXIMUM_EXPONENT + 1) + " + c";
+        try {
+            formula = Formula.parse(text);
+            fail("Parsing \"" + text + "\" should not have given " + formula);
+        } catch (IllegalArgumentException iae) {
+            System.out.println("\"" + text
+                    + "\" correctly caused IllegalArgumentException");
+            System.out.println("\"" + iae.getMessage() + "\"");
+        }
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fractalviewer;
+
+import colors.mappers.CyclicColorMapper;
+import numerics.ComplexNumber;
+import rendering.Viewport;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the JuliaPreviewPanel class.
+ * @author Alonso del Arte
+ */
+public class JuliaPreviewPanelNGTest {
+
+    private static final long TIMEOUT_MILLIS = 10000L;
+
+    private static void awaitRenderedPoint(JuliaPreviewPanel instance,
+            ComplexNumber expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!expected.equals(instance.getRenderedPoint())) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Preview for " + expected.toString()
+                        + " not rendered in time");
+            }
+            Thread.sleep(5L);
+        }
+    }
+
+    /**
+     * Test of the requestPreview function, of the JuliaPreviewPanel class.
+     * The preview should eventually be rendered for the requested point.
+     * @throws InterruptedException If the test is interrupted.
+     */
+    @Test
+    public void testRequestPreview() throws InterruptedException {
+        System.out.println("requestPreview");
+        JuliaPreviewPanel instance
+                = new JuliaPreviewPanel(new CyclicColorMapper());
+        ComplexNumber point = new ComplexNumber(-0.75, 0.1);
+        instance.requestPreview(point);
+        awaitRenderedPoint(instance, point);
+        assertEquals(instance.getRenderedCount(), 1L);
+        instance.dispose();
+    }
+
+    /**
+     * Another test of the requestPreview function, of the JuliaPreviewPanel
+     * class. When points are requested faster than previews can be rendered,
+     * the intermediate points should be dropped, and the last point requested
+     * should be the one shown in the end.
+     * @throws InterruptedException If the test is interrupted.
+     */
+    @Test
+    public void testRequestPreviewDropsIntermediatePoints()
+            throws InterruptedException {
+        JuliaPreviewPanel instance = new JuliaPreviewPanel(
+                new CyclicColorMapper(), 400, 250, 4096);
+        int requestCount = 500;
+        ComplexNumber last = null;
+        for (int i = 0; i < requestCount; i++) {
+            last = new ComplexNumber(-0.75 + i / 10000.0, 0.1);
+            instance.requestPreview(last);
+        }
+        awaitRenderedPoint(instance, last);
+        String msg = "Rendered " + instance.getRenderedCount() + " of "
+                + requestCount + " requested previews";
+        System.out.println(msg + ", abandoned "
+                + instance.getAbandonedCount());
+        assert instance.getRenderedCount() < requestCount : msg;
+        instance.dispose();
+    }
+
+    /**
+     * Test of the previewViewport function, of the JuliaPreviewPanel class.
+     * The preview should be centered on 0.
+     */
+    @Test
+    public void testPreviewViewport() {
+        System.out.println("previewViewport");
+        JuliaPreviewPanel instance = new JuliaPreviewPanel(
+                new CyclicColorMapper(), 200, 100, 64);
+        ComplexNumber point = new ComplexNumber(0.25, 0.5);
+        Viewport viewport = instance.previewViewport(point);
+        instance.dispose();
+        assertEquals(viewport.getRealPartAt(100), 0.0, 0.00000001);
+        assertEquals(viewport.getImaginaryPartAt(50), 0.0, 0.00000001);
+        assertEquals(viewport.getJuliaPoint(), point);
+        assertEquals(viewport.getIterationMaximum(), 64);
+    }
+
+    /**
+     * Test of the constructor, of the JuliaPreviewPanel class. Dimensions
+     * less than 1 should be rejected.
+     */
+    @Test(expectedExceptions = {IllegalArgumentException.class})
+    public void testConstructorRejectsBadDimensions() {
+        JuliaPreviewPanel instance = new JuliaPreviewPanel(
+                new CyclicColorMapper(), 0, 100, 128);
+        System.out.println("Should not have been able to create "
+                + instance.toString());
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fractalviewer;
+
+import numerics.ComplexNumber;
+import rendering.LyapunovKernel;
+import rendering.Viewport;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the LyapunovViewer class.
+ * @author Alonso del Arte
+ */
+public class LyapunovViewerNGTest {
+
+    /**
+     * Test of getViewport method, of class LyapunovViewer. At first, the view
+     * should show <i>a</i> and <i>b</i> from 2 to 4, with the kernel it was
+     * created with, on a grid that lines up with the tiles.
+     */
+    @Test
+    public void testGetViewport() {
+        System.out.println("getViewport");
+        LyapunovKernel kernel = new LyapunovKernel("AABAB");
+        LyapunovViewer instance = new LyapunovViewer(kernel);
+        Viewport viewport = instance.getViewport();
+        assertEquals(viewport.getKernel(), kernel);
+        assertEquals(viewport.getTopLeftCorner(),
+                LyapunovViewer.DEFAULT_TOP_LEFT_CORNER);
+        assertEquals(viewport.getRealPartAt(viewport.getWidth()), 4.0);
+        assertEquals(viewport.getImaginaryPartAt(viewport.getHeight()), 4.0);
+        double pxui = viewport.getPixelsPerUnitInterval();
+        assertEquals(Math.scalb(1.0, Math.getExponent(pxui)), pxui);
+    }
+
+    /**
+     * Test of centerOn method, of class LyapunovViewer.
+     */
+    @Test
+    public void testCenterOn() {
+        System.out.println("centerOn");
+        LyapunovViewer instance = new LyapunovViewer();
+        ComplexNumber expected = instance.getNumber(100, 400);
+        instance.centerOn(100, 400);
+        Viewport viewport = instance.getViewport();
+        ComplexNumber center = instance.getNumber(viewport.getWidth() / 2,
+                viewport.getHeight() / 2);
+        assertEquals(center, expected);
+    }
+
+}
@@ -10,6 +10,7 @@ import java.awt.Graphics;
 import java.awt.event.ActionEvent;
 import java.awt.event.MouseEvent;
 import numerics.ComplexNumber;
+import rendering.Viewport;
 
 import static org.testng.Assert.*;
 import org.testng.annotations.Test;
@@ -256,6 +257,47 @@ public class MandelbrotJuliaViewerNGTest {
         fail("The test case is a prototype.");
     }
 
+    private static void awaitPreviewOf(JuliaPreviewPanel preview,
+            ComplexNumber expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000L;
+        while (!expected.equals(preview.getRenderedPoint())) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Preview for " + expected.toString()
+                        + " not rendered in time");
+            }
+            Thread.sleep(5L);
+        }
+    }
+
+    /**
+     * Another test of mouseMoved method, of class MandelbrotJuliaViewer. The
+     * Julia preview should follow the cursor, so two different mouse
+     * positions should give previews for two different points, each the
+     * point under the cursor.
+     * @throws InterruptedException If the test is interrupted.
+     */
+    @Test
+    public void testMouseMovedRequestsPreviewUnderCursor()
+            throws InterruptedException {
+        System.out.println("mouseMoved, Julia preview");
+        MandelbrotJuliaViewer instance = new MandelbrotJuliaViewer();
+        JuliaPreviewPanel preview = instance.getJuliaPreview();
+        Viewport viewport = instance.getViewport();
+        int[][] positions = {{100, 50}, {300, 250}};
+        ComplexNumber[] points = new ComplexNumber[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            int x = positions[i][0];
+            int y = positions[i][1];
+            instance.mouseMoved(new MouseEvent(instance,
+                    MouseEvent.MOUSE_MOVED, 0L, 0, x, y, 0, false));
+            points[i] = new ComplexNumber(viewport.getRealPartAt(x),
+                    viewport.getImaginaryPartAt(y));
+            awaitPreviewOf(preview, points[i]);
+        }
+        assertNotEquals(points[1], points[0]);
+        preview.dispose();
+    }
+
     /**
      * Test of mouseDragged method, of class MandelbrotJuliaViewer.
      */
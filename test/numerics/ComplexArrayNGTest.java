@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package numerics;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the ComplexArray class.
+ * @author Alonso del Arte
+ */
+public class ComplexArrayNGTest {
+
+    private static final double TEST_DELTA = 0.00000001;
+
+    private static ComplexArray makeArray(ComplexNumber... numbers) {
+        ComplexArray array = new ComplexArray(numbers.length);
+        for (int i = 0; i < numbers.length; i++) {
+            array.set(i, numbers[i]);
+        }
+        return array;
+    }
+
+    private static ComplexNumber[] makeRandomNumbers(int length) {
+        ComplexNumber[] numbers = new ComplexNumber[length];
+        for (int i = 0; i < length; i++) {
+            numbers[i] = new ComplexNumber(Math.random() - 0.5,
+                    Math.random() - 0.5);
+        }
+        return numbers;
+    }
+
+    private static void assertMatches(ComplexArray actual,
+            ComplexNumber[] expected) {
+        assertEquals(actual.length(), expected.length);
+        for (int i = 0; i < expected.length; i++) {
+            ComplexNumber number = actual.get(i);
+            assertEquals(number.getRealPart(), expected[i].getRealPart(),
+                    TEST_DELTA, "Real part at " + i);
+            assertEquals(number.getImaginaryPart(),
+                    expected[i].getImaginaryPart(), TEST_DELTA,
+                    "Imaginary part at " + i);
+        }
+    }
+
+    /**
+     * Test of the plus function, of the ComplexArray class.
+     */
+    @Test
+    public void testPlus() {
+        System.out.println("plus");
+        ComplexNumber[] a = makeRandomNumbers(20);
+        ComplexNumber[] b = makeRandomNumbers(20);
+        ComplexNumber[] expected = new ComplexNumber[20];
+        for (int i = 0; i < 20; i++) {
+            expected[i] = a[i].plus(b[i]);
+        }
+        ComplexArray result = new ComplexArray(20);
+        makeArray(a).plus(makeArray(b), result);
+        assertMatches(result, expected);
+    }
+
+    /**
+     * Test of the times function, of the ComplexArray class. The result may be
+     * one of the operands.
+     */
+    @Test
+    public void testTimes() {
+        System.out.println("times");
+        ComplexNumber[] a = makeRandomNumbers(20);
+        ComplexNumber[] b = makeRandomNumbers(20);
+        ComplexNumber[] expected = new ComplexNumber[20];
+        for (int i = 0; i < 20; i++) {
+            expected[i] = a[i].times(b[i]);
+        }
+        ComplexArray array = makeArray(a);
+        array.times(makeArray(b), array);
+        assertMatches(array, expected);
+    }
+
+    /**
+     * Test of the square function, of the ComplexArray class.
+     */
+    @Test
+    public void testSquare() {
+        System.out.println("square");
+        ComplexNumber[] a = makeRandomNumbers(20);
+        ComplexNumber[] expected = new ComplexNumber[20];
+        for (int i = 0; i < 20; i++) {
+            expected[i] = a[i].times(a[i]);
+        }
+        ComplexArray array = makeArray(a);
+        array.square(array);
+        assertMatches(array, expected);
+    }
+
+    /**
+     * Test of the squarePlus function, of the ComplexArray class.
+     */
+    @Test
+    public void testSquarePlus() {
+        System.out.println("squarePlus");
+        ComplexNumber[] a = makeRandomNumbers(20);
+        ComplexNumber[] b = makeRandomNumbers(20);
+        ComplexNumber[] expected = new ComplexNumber[20];
+        for (int i = 0; i < 20; i++) {
+            expected[i] = a[i].times(a[i]).plus(b[i]);
+        }
+        ComplexArray array = makeArray(a);
+        array.squarePlus(makeArray(b), array);
+        assertMatches(array, expected);
+    }
+
+    /**
+     * Test of the norm function, of the ComplexArray class.
+     */
+    @Test
+    public void testNorm() {
+        System.out.println("norm");
+        ComplexNumber[] a = makeRandomNumbers(20);
+        double[] result = new double[20];
+        makeArray(a).norm(result);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(result[i], a[i].norm(), TEST_DELTA);
+        }
+    }
+
+    /**
+     * Test of the fillRow function, of the ComplexArray class.
+     */
+    @Test
+    public void testFillRow() {
+        System.out.println("fillRow");
+        ComplexArray array = new ComplexArray(5);
+        array.fillRow(-1.0, 0.5, 0.25);
+        ComplexNumber[] expected = {new ComplexNumber(-1.0, 0.25),
+            new ComplexNumber(-0.5, 0.25), new ComplexNumber(0.0, 0.25),
+            new ComplexNumber(0.5, 0.25), new ComplexNumber(1.0, 0.25)};
+        assertMatches(array, expected);
+    }
+
+    /**
+     * Another test of the plus function, of the ComplexArray class. Mismatched
+     * lengths should cause an exception.
+     */
+    @Test(expectedExceptions = {IllegalArgumentException.class})
+    public void testPlusRejectsMismatchedLengths() {
+        ComplexArray a = new ComplexArray(3);
+        ComplexArray b = new ComplexArray(4);
+        a.plus(b, a);
+    }
+
+}
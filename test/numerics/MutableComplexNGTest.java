@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package numerics;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the MutableComplex class.
+ * @author Alonso del Arte
+ */
+public class MutableComplexNGTest {
+
+    private static final double TEST_DELTA = 0.00000001;
+
+    private static void assertMatches(MutableComplex actual,
+            ComplexNumber expected) {
+        assertEquals(actual.getRealPart(), expected.getRealPart(), TEST_DELTA,
+                "Real part");
+        assertEquals(actual.getImaginaryPart(), expected.getImaginaryPart(),
+                TEST_DELTA, "Imaginary part");
+    }
+
+    /**
+     * Test of the plusAssign function, of the MutableComplex class.
+     */
+    @Test
+    public void testPlusAssign() {
+        System.out.println("plusAssign");
+        ComplexNumber a = new ComplexNumber(0.75, 0.25);
+        ComplexNumber b = new ComplexNumber(0.25, 0.75);
+        MutableComplex instance = new MutableComplex(a);
+        MutableComplex result = instance.plusAssign(b);
+        assertSame(result, instance);
+        assertMatches(instance, a.plus(b));
+        instance.plusAssign(new MutableComplex(b));
+        assertMatches(instance, a.plus(b).plus(b));
+    }
+
+    /**
+     * Test of the timesAssign function, of the MutableComplex class.
+     */
+    @Test
+    public void testTimesAssign() {
+        System.out.println("timesAssign");
+        ComplexNumber a = new ComplexNumber(0.75, 0.25);
+        ComplexNumber b = new ComplexNumber(0.25, 0.75);
+        MutableComplex instance = new MutableComplex(a);
+        instance.timesAssign(b);
+        assertMatches(instance, a.times(b));
+        instance.timesAssign(new MutableComplex(b));
+        assertMatches(instance, a.times(b).times(b));
+    }
+
+    /**
+     * Test of the squareAdd function, of the MutableComplex class. It should
+     * match <i>z</i><sup>2</sup> + <i>c</i> computed with ComplexNumber.
+     */
+    @Test
+    public void testSquareAdd() {
+        System.out.println("squareAdd");
+        ComplexNumber c = new ComplexNumber(-0.75, 0.1);
+        ComplexNumber z = new ComplexNumber(0.0, 0.0);
+        MutableComplex instance = new MutableComplex();
+        for (int i = 0; i < 20; i++) {
+            z = z.times(z).plus(c);
+            instance.squareAdd(c);
+            assertMatches(instance, z);
+        }
+    }
+
+    /**
+     * Another test of the squareAdd function, of the MutableComplex class. An
+     * escaping orbit should overflow to infinity without an exception.
+     */
+    @Test
+    public void testSquareAddOverflows() {
+        MutableComplex c = new MutableComplex(2.0, 2.0);
+        MutableComplex instance = new MutableComplex();
+        for (int i = 0; i < 100; i++) {
+            instance.squareAdd(c);
+        }
+        assert !instance.isFinite() : "Orbit of 2 + 2i should overflow";
+    }
+
+    /**
+     * Test of the toComplexNumber function, of the MutableComplex class.
+     */
+    @Test
+    public void testToComplexNumber() {
+        System.out.println("toComplexNumber");
+        ComplexNumber expected = new ComplexNumber(-1.5, 2.25);
+        MutableComplex instance = new MutableComplex().set(-1.5, 2.25);
+        assertEquals(instance.toComplexNumber(), expected);
+    }
+
+    /**
+     * Another test of the toComplexNumber function, of the MutableComplex
+     * class. A non-finite value can't be converted.
+     */
+    @Test(expectedExceptions = {IllegalArgumentException.class})
+    public void testToComplexNumberRejectsInfinity() {
+        MutableComplex instance = new MutableComplex(Double.POSITIVE_INFINITY,
+                0.0);
+        ComplexNumber number = instance.toComplexNumber();
+        System.out.println("Should not have been able to convert to "
+                + number.toString());
+    }
+
+    /**
+     * Test of the norm function, of the MutableComplex class.
+     */
+    @Test
+    public void testNorm() {
+        System.out.println("norm");
+        MutableComplex instance = new MutableComplex(-2.0, 1.0);
+        assertEquals(instance.norm(), 5.0, TEST_DELTA);
+    }
+
+}
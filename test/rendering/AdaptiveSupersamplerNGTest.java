@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import colors.mappers.ColorMapper;
+import colors.mappers.CyclicColorMapper;
+import numerics.ComplexNumber;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the AdaptiveSupersampler class.
+ * @author Alonso del Arte
+ */
+public class AdaptiveSupersamplerNGTest {
+
+    private static final ColorMapper MAPPER = new CyclicColorMapper();
+
+    private static final Viewport DEFAULT_VIEW = Viewport.mandelbrot(
+            new ComplexNumber(-2.75, -1.25), 64.0, 270, 160, 256);
+
+    /**
+     * Test of the antialias function, of the AdaptiveSupersampler class. For
+     * the default view of the Mandelbrot set, some pixels need refinement, but
+     * far fewer than all of them.
+     */
+    @Test
+    public void testAntialias() {
+        System.out.println("antialias");
+        IterationData data = new TileRenderer().render(DEFAULT_VIEW);
+        int[] rgb = new int[270 * 160];
+        MAPPER.colorize(data, 256, rgb);
+        AdaptiveSupersampler instance = new AdaptiveSupersampler(MAPPER);
+        int refined = instance.antialias(DEFAULT_VIEW, data, rgb);
+        String msg = "Refined " + refined + " should be more than 0 and less "
+                + "than half of " + rgb.length;
+        assert refined > 0 && refined < rgb.length / 2 : msg;
+    }
+
+    /**
+     * Another test of the antialias function, of the AdaptiveSupersampler
+     * class. A view entirely inside the main cardioid has nothing to refine,
+     * so the colors should not change.
+     */
+    @Test
+    public void testAntialiasLeavesUniformRegionAlone() {
+        Viewport viewport = Viewport.mandelbrot(new ComplexNumber(-0.25, -0.1),
+                512.0, 64, 64, 256);
+        IterationData data = new TileRenderer().render(viewport);
+        int[] rgb = new int[64 * 64];
+        MAPPER.colorize(data, 256, rgb);
+        int[] expected = rgb.clone();
+        AdaptiveSupersampler instance = new AdaptiveSupersampler(MAPPER);
+        assertEquals(instance.antialias(viewport, data, rgb), 0);
+        assertEquals(rgb, expected);
+    }
+
+    /**
+     * Test of the needsRefinement function, of the AdaptiveSupersampler class.
+     * A pixel on the boundary between inside and outside needs refinement.
+     */
+    @Test
+    public void testNeedsRefinement() {
+        System.out.println("needsRefinement");
+        Viewport viewport = Viewport.julia(new ComplexNumber(-2.0, -2.0), 1.0,
+                4, 4, 256, new ComplexNumber(0.0, 0.0));
+        IterationData data = new TileRenderer().render(viewport);
+        AdaptiveSupersampler instance = new AdaptiveSupersampler(MAPPER);
+        assert instance.needsRefinement(viewport, data, 1, 2)
+                : "Pixel next to unit circle should need refinement";
+    }
+
+    /**
+     * Test of the constructor, of the AdaptiveSupersampler class. Zero
+     * subsamples per side should cause an exception.
+     */
+    @Test(expectedExceptions = {IllegalArgumentException.class})
+    public void testConstructorRejectsZeroSubsamples() {
+        AdaptiveSupersampler badInstance = new AdaptiveSupersampler(MAPPER, 0,
+                1.0, ForkJoinPool.commonPool());
+        System.out.println("Should not have been able to create "
+                + badInstance.toString());
+    }
+
+}
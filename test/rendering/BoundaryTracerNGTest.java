@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import numerics.ComplexNumber;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the BoundaryTracer class.
+ * @author Alonso del Arte
+ */
+public class BoundaryTracerNGTest {
+
+    private static final Viewport VIEWPORT = Viewport.mandelbrot(
+            new ComplexNumber(-2.75, -1.25), 64.0, 270, 160, 512);
+
+    private static final BoundaryTracer TRACER = new BoundaryTracer();
+
+    /**
+     * Test of renderRegion method, of class BoundaryTracer. On the default
+     * view of the Mandelbrot set, the iteration counts should all be the same
+     * as from the exact render, with well under half the pixels iterated.
+     */
+    @Test
+    public void testRenderRegion() {
+        System.out.println("renderRegion");
+        RenderComparison comparison = RenderComparison.compare(VIEWPORT,
+                TRACER);
+        assertEquals(comparison.getMismatchCount(), 0);
+        long iterated = comparison.getIteratedCount();
+        String msg = "Iterated " + iterated + " of "
+                + comparison.getPixelCount() + " pixels";
+        assertTrue(iterated < comparison.getPixelCount() / 2, msg);
+    }
+
+    /**
+     * Test of renderRegion method, of class BoundaryTracer. A region wholly
+     * inside the set should only have its edge, and the ring of pixels just
+     * inside the edge, iterated, and all of it should be filled in as inside.
+     */
+    @Test
+    public void testRenderRegionInterior() {
+        System.out.println("renderRegion, interior");
+        Viewport viewport = Viewport.mandelbrot(new ComplexNumber(-0.3, -0.2),
+                256.0, 64, 64, 256);
+        IterationData data = new IterationData(64, 64);
+        int iterated = TRACER.renderRegion(viewport, 0, 0, 64, 64, data);
+        assertEquals(iterated, 4 * 63 + 4 * 61);
+        for (int count : data.getIterationCounts()) {
+            assertEquals(count, 256);
+        }
+    }
+
+    /**
+     * Test of renderRegion method, of class BoundaryTracer. Rendering only
+     * part of the data should not touch the rest, and should be the same as
+     * the exact render for that part.
+     */
+    @Test
+    public void testRenderRegionPart() {
+        IterationData data = new IterationData(VIEWPORT.getWidth(),
+                VIEWPORT.getHeight());
+        IterationData expected = new IterationData(1, 1);
+        TRACER.renderRegion(VIEWPORT, 40, 30, 140, 90, data);
+        for (int y = 0; y < VIEWPORT.getHeight(); y++) {
+            for (int x = 0; x < VIEWPORT.getWidth(); x++) {
+                int count = data.getIterationCount(x, y);
+                if (x >= 40 && x < 140 && y >= 30 && y < 90) {
+                    EscapeTime.iterate(VIEWPORT, x, y, expected, 0);
+                    assertEquals(count, expected.getIterationCount(0, 0),
+                            "Pixel (" + x + ", " + y + ")");
+                } else {
+                    assertEquals(count, 0, "Pixel (" + x + ", " + y + ")");
+                }
+            }
+        }
+    }
+
+    /**
+     * Test of renderRegion method, of class BoundaryTracer. Boundaries between
+     * basins should be followed even where the iteration count is the same on
+     * both sides.
+     */
+    @Test
+    public void testRenderRegionBasins() {
+        System.out.println("renderRegion, basins");
+        Viewport viewport = Viewport.mandelbrot(new ComplexNumber(-1.0, -1.0),
+                32.0, 64, 64, 16).withKernel(new HalfPlaneKernel());
+        IterationData data = new IterationData(64, 64);
+        int iterated = TRACER.renderRegion(viewport, 0, 0, 64, 64, data);
+        for (int y = 0; y < 64; y++) {
+            for (int x = 0; x < 64; x++) {
+                assertEquals(data.getBasin(x, y), x < 32 ? 1 : 2,
+                        "Basin at (" + x + ", " + y + ")");
+            }
+        }
+        String msg = "Iterated " + iterated + " pixels";
+        assertTrue(iterated < 64 * 64 / 2, msg);
+    }
+
+    /**
+     * Test of renderRegion method, of class BoundaryTracer. An empty region
+     * should not iterate anything.
+     */
+    @Test
+    public void testRenderRegionEmpty() {
+        IterationData data = new IterationData(8, 8);
+        assertEquals(TRACER.renderRegion(VIEWPORT, 4, 4, 4, 8, data), 0);
+    }
+
+    /**
+     * Test of renderRegion method, of class BoundaryTracer. A region with its
+     * corners the wrong way round should not iterate anything, nor throw an
+     * exception.
+     */
+    @Test
+    public void testRenderRegionBackwards() {
+        IterationData data = new IterationData(8, 8);
+        assertEquals(TRACER.renderRegion(VIEWPORT, 6, 2, 2, 6, data), 0);
+    }
+
+    /**
+     * Test of renderRegion method, of class BoundaryTracer. On the default
+     * view of the Mandelbrot set, the smooth values filled in across the bands
+     * should be close to those of the exact render, on average.
+     */
+    @Test
+    public void testRenderRegionSmoothValues() {
+        System.out.println("renderRegion, smooth values");
+        RenderComparison comparison = RenderComparison.compare(VIEWPORT,
+                TRACER);
+        double error = comparison.getMeanSmoothError();
+        String msg = "Mean smooth error " + error;
+        assertTrue(error < 0.02, msg);
+    }
+
+    /**
+     * A kernel with the same iteration count everywhere, but with basin 1 on
+     * the left half-plane and basin 2 on the right half-plane.
+     */
+    private static final class HalfPlaneKernel extends FractalKernel {
+
+        @Override
+        public String getName() {
+            return "Half planes";
+        }
+
+        @Override
+        public void mandelbrot(double cRe, double cIm, int iterMax,
+                IterationData data, int index) {
+            data.iterations[index] = 1;
+            data.basins[index] = (byte) (cRe < 0.0 ? 1 : 2);
+        }
+
+        @Override
+        public void julia(double zRe, double zIm, double cRe, double cIm,
+                int iterMax, IterationData data, int index) {
+            this.mandelbrot(zRe, zIm, iterMax, data, index);
+        }
+
+        @Override
+        public void renderRegion(Viewport viewport, int x0, int y0, int x1,
+                int y1, IterationData data) {
+            for (int y = y0; y < y1; y++) {
+                for (int x = x0; x < x1; x++) {
+                    this.iterateAt(viewport, x, y, data,
+                            y * data.getWidth() + x);
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import numerics.ComplexNumber;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the BuddhabrotRenderer class.
+ * @author Alonso del Arte
+ */
+public class BuddhabrotRendererNGTest {
+
+    private static final int SIZE = 64;
+
+    private static final int ITER_MAX = 200;
+
+    private static final int WORKER_COUNT = 4;
+
+    private static final long SAMPLE_COUNT = 50000L;
+
+    private static final Viewport VIEWPORT = Viewport.mandelbrot(
+            new ComplexNumber(-2.0, -1.25), SIZE / 2.5, SIZE, SIZE, ITER_MAX);
+
+    private final ExecutorService executor
+            = Executors.newFixedThreadPool(WORKER_COUNT);
+
+    @AfterClass
+    public void tearDownClass() {
+        this.executor.shutdownNow();
+    }
+
+    private BuddhabrotRenderer makeRenderer() {
+        return new BuddhabrotRenderer(VIEWPORT,
+                BuddhabrotRenderer.DEFAULT_MINIMUM_ITERATIONS, WORKER_COUNT,
+                this.executor);
+    }
+
+    private static long total(BuddhabrotRenderer renderer) {
+        long sum = 0L;
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                sum += renderer.getCount(x, y);
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Test of the importance map of the BuddhabrotRenderer class. Cells deep
+     * inside the Mandelbrot set and cells far outside it should be left out,
+     * cells on the boundary should be kept.
+     */
+    @Test
+    public void testImportanceMap() {
+        System.out.println("importance map");
+        BuddhabrotRenderer renderer = this.makeRenderer();
+        assertFalse(renderer.isActiveCell(-0.1, 0.1), "Interior");
+        assertFalse(renderer.isActiveCell(0.4, 1.1), "Far exterior");
+        assertTrue(renderer.isActiveCell(-0.75, 0.05), "Neck of cardioid");
+        int cellCount = BuddhabrotRenderer.IMPORTANCE_MAP_SIZE
+                * BuddhabrotRenderer.IMPORTANCE_MAP_SIZE;
+        int activeCount = renderer.getActiveCellCount();
+        String msg = activeCount + " of " + cellCount
+                + " cells should be a minority";
+        assertTrue(activeCount > 0 && activeCount < cellCount / 2, msg);
+    }
+
+    /**
+     * Test of start method, of class BuddhabrotRenderer. All samples should be
+     * counted, and some orbit points should land in the viewport.
+     */
+    @Test
+    public void testStart() {
+        System.out.println("start");
+        BuddhabrotRenderer renderer = this.makeRenderer();
+        renderer.start(SAMPLE_COUNT, 1729L).join();
+        assertEquals(renderer.getSampleCount(), SAMPLE_COUNT);
+        assertTrue(total(renderer) > 0L);
+    }
+
+    /**
+     * Test of start method, of class BuddhabrotRenderer. With the same seed,
+     * the totals should be the same regardless of how the workers happened to
+     * be scheduled.
+     */
+    @Test
+    public void testStartSameSeedSameTotals() {
+        System.out.println("start, same seed");
+        BuddhabrotRenderer first = this.makeRenderer();
+        BuddhabrotRenderer second = this.makeRenderer();
+        first.start(SAMPLE_COUNT, 42L).join();
+        second.start(SAMPLE_COUNT, 42L).join();
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                assertEquals(second.getCount(x, y), first.getCount(x, y),
+                        "Count at (" + x + ", " + y + ")");
+            }
+        }
+    }
+
+    /**
+     * Test of start method, of class BuddhabrotRenderer. The orbit density is
+     * symmetric about the real axis, so with enough samples the upper and
+     * lower halves should have about the same totals.
+     */
+    @Test
+    public void testStartSymmetry() {
+        System.out.println("start, symmetry");
+        BuddhabrotRenderer renderer = this.makeRenderer();
+        renderer.start(4 * SAMPLE_COUNT, 5L).join();
+        long upper = 0L, lower = 0L;
+        for (int y = 0; y < SIZE / 2; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                upper += renderer.getCount(x, y);
+                lower += renderer.getCount(x, SIZE - 1 - y);
+            }
+        }
+        double ratio = (double) upper / lower;
+        String msg = "Upper " + upper + " and lower " + lower
+                + " should be about the same";
+        assertTrue(ratio > 0.9 && ratio < 1.1, msg);
+    }
+
+    /**
+     * Test of start method, of class BuddhabrotRenderer. A negative sample
+     * count should cause an exception.
+     */
+    @Test
+    public void testStartRejectsNegativeSampleCount() {
+        BuddhabrotRenderer renderer = this.makeRenderer();
+        try {
+            renderer.start(-1L, 0L);
+            fail("Negative sample count should have caused an exception");
+        } catch (IllegalArgumentException iae) {
+            System.out.println("\"" + iae.getMessage() + "\"");
+        }
+    }
+
+    /**
+     * Test of cancel method, of class BuddhabrotRenderer. Sampling without
+     * end should stop soon after canceling.
+     */
+    @Test(timeOut = 10000)
+    public void testCancel() throws Exception {
+        System.out.println("cancel");
+        BuddhabrotRenderer renderer = this.makeRenderer();
+        CompletableFuture<Void> future
+                = renderer.start(Long.MAX_VALUE, 0L);
+        while (renderer.getSampleCount() == 0L) {
+            TimeUnit.MILLISECONDS.sleep(10L);
+        }
+        renderer.cancel();
+        future.get(5L, TimeUnit.SECONDS);
+        long count = renderer.getSampleCount();
+        assertEquals(count % BuddhabrotRenderer.SAMPLES_PER_BATCH, 0L,
+                "Only whole batches should be counted");
+    }
+
+    /**
+     * Test of toImage method, of class BuddhabrotRenderer.
+     */
+    @Test
+    public void testToImage() {
+        System.out.println("toImage");
+        BuddhabrotRenderer renderer = this.makeRenderer();
+        renderer.start(SAMPLE_COUNT, 7L).join();
+        BufferedImage image = renderer.toImage();
+        assertEquals(image.getWidth(), SIZE);
+        assertEquals(image.getHeight(), SIZE);
+        int brightest = 0;
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                int rgb = image.getRGB(x, y) & 0xFFFFFF;
+                int level = rgb & 0xFF;
+                assertEquals(rgb, (level << 16) | (level << 8) | level,
+                        "Pixel at (" + x + ", " + y + ") should be gray");
+                brightest = Math.max(brightest, level);
+            }
+        }
+        assertEquals(brightest, 255);
+    }
+
+    /**
+     * Test of constructor, of class BuddhabrotRenderer. A Julia set viewport
+     * should be rejected.
+     */
+    @Test
+    public void testConstructorRejectsJulia() {
+        Viewport viewport = Viewport.julia(new ComplexNumber(-2.0, -1.25),
+                SIZE / 2.5, SIZE, SIZE, ITER_MAX,
+                new ComplexNumber(-0.75, 0.1));
+        try {
+            BuddhabrotRenderer renderer = new BuddhabrotRenderer(viewport);
+            String msg = "Should not have been able to create " + renderer
+                    + " for " + viewport;
+            fail(msg);
+        } catch (IllegalArgumentException iae) {
+            System.out.println("\"" + iae.getMessage() + "\"");
+        }
+    }
+
+    /**
+     * Test of constructor, of class BuddhabrotRenderer. A viewport with a
+     * kernel other than for <i>z</i><sup>2</sup> + <i>c</i> should be
+     * rejected.
+     */
+    @Test
+    public void testConstructorRejectsOtherKernel() {
+        Viewport viewport = VIEWPORT.withKernel(new MultibrotKernel(3));
+        try {
+            BuddhabrotRenderer renderer = new BuddhabrotRenderer(viewport);
+            String msg = "Should not have been able to create " + renderer
+                    + " for " + viewport;
+            fail(msg);
+        } catch (IllegalArgumentException iae) {
+            System.out.println("\"" + iae.getMessage() + "\"");
+        }
+    }
+
+    /**
+     * Test of constructor, of class BuddhabrotRenderer. A minimum number of
+     * iterations not less than the iteration maximum should be rejected.
+     */
+    @Test
+    public void testConstructorRejectsMinimumIterations() {
+        try {
+            BuddhabrotRenderer renderer = new BuddhabrotRenderer(VIEWPORT,
+                    ITER_MAX, WORKER_COUNT, this.executor);
+            String msg = "Should not have been able to create " + renderer
+                    + " with minimum iterations " + ITER_MAX;
+            fail(msg);
+        } catch (IllegalArgumentException iae) {
+            System.out.println("\"" + iae.getMessage() + "\"");
+        }
+    }
+
+}
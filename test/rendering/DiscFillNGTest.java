@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import numerics.ComplexNumber;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the DiscFill class.
+ * @author Alonso del Arte
+ */
+public class DiscFillNGTest {
+
+    private static final Viewport VIEWPORT = Viewport.mandelbrot(
+            new ComplexNumber(-5.0, -2.5), 32.0, 270, 160, 512);
+
+    private static final DiscFill FILL = new DiscFill();
+
+    /**
+     * Test of renderRegion method, of class DiscFill. On a zoomed out view of
+     * the Mandelbrot set, every pixel should be inside the set if and only if
+     * it is in the exact render, the smooth values of the pixels outside
+     * should be close to the exact ones, and most pixels should not be
+     * iterated.
+     */
+    @Test
+    public void testRenderRegion() {
+        System.out.println("renderRegion");
+        int width = VIEWPORT.getWidth(), height = VIEWPORT.getHeight();
+        int iterMax = VIEWPORT.getIterationMaximum();
+        IterationData expected = new IterationData(width, height);
+        IterationData data = new IterationData(width, height);
+        RenderMode.EXACT.renderRegion(VIEWPORT, 0, 0, width, height,
+                expected);
+        int iterated = FILL.renderRegion(VIEWPORT, 0, 0, width, height, data);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                String msg = "Pixel (" + x + ", " + y + ")";
+                boolean inside = expected.getIterationCount(x, y) >= iterMax;
+                assertEquals(data.getIterationCount(x, y) >= iterMax, inside,
+                        msg);
+                if (!inside) {
+                    assertEquals(data.getSmoothValue(x, y),
+                            expected.getSmoothValue(x, y), 0.05, msg);
+                    assertTrue(data.getDistanceEstimate(x, y) > 0.0F, msg);
+                }
+            }
+        }
+        String msg = "Iterated " + iterated + " of " + (width * height)
+                + " pixels";
+        assertTrue(iterated < width * height / 4, msg);
+    }
+
+    /**
+     * Test of renderRegion method, of class DiscFill. A region far from the
+     * set should only have its corners iterated.
+     */
+    @Test
+    public void testRenderRegionFar() {
+        System.out.println("renderRegion, far");
+        Viewport viewport = Viewport.mandelbrot(new ComplexNumber(10.0, 10.0),
+                64.0, 64, 64, 256);
+        IterationData data = new IterationData(64, 64);
+        assertEquals(FILL.renderRegion(viewport, 0, 0, 64, 64, data), 4);
+        IterationData expected = new IterationData(1, 1);
+        EscapeTime.iterate(viewport, 32, 32, expected, 0);
+        assertEquals(data.getSmoothValue(32, 32),
+                expected.getSmoothValue(0, 0), 0.01);
+    }
+
+    /**
+     * Test of renderRegion method, of class DiscFill. A higher quality should
+     * iterate more pixels, and get closer to the exact render.
+     */
+    @Test
+    public void testRenderRegionQuality() {
+        System.out.println("renderRegion, quality");
+        RenderComparison low = RenderComparison.compare(VIEWPORT,
+                new DiscFill(1.0));
+        RenderComparison high = RenderComparison.compare(VIEWPORT,
+                new DiscFill(8.0));
+        assertTrue(high.getIteratedCount() > low.getIteratedCount());
+        assertTrue(high.getMeanSmoothError() < low.getMeanSmoothError());
+        assertTrue(high.getMismatchCount() < low.getMismatchCount());
+    }
+
+    /**
+     * Test of renderRegion method, of class DiscFill. For a kernel whose
+     * distance estimates are not bounds, every pixel should be iterated.
+     */
+    @Test
+    public void testRenderRegionFallsBackToExact() {
+        Viewport viewport = VIEWPORT.withKernel(new TricornKernel());
+        IterationData data = new IterationData(viewport.getWidth(),
+                viewport.getHeight());
+        assertEquals(FILL.renderRegion(viewport, 0, 0, viewport.getWidth(),
+                viewport.getHeight(), data),
+                viewport.getWidth() * viewport.getHeight());
+        Viewport disconnected = Viewport.julia(new ComplexNumber(-2.0, -2.0),
+                16.0, 64, 64, 256, new ComplexNumber(0.5, 0.0));
+        IterationData julia = new IterationData(64, 64);
+        assertEquals(FILL.renderRegion(disconnected, 0, 0, 64, 64, julia),
+                64 * 64);
+    }
+
+    /**
+     * Test of renderRegion method, of class DiscFill. A region one pixel high
+     * should be filled in properly, and an empty region should not iterate
+     * anything.
+     */
+    @Test
+    public void testRenderRegionThin() {
+        Viewport viewport = Viewport.mandelbrot(new ComplexNumber(10.0, 10.0),
+                64.0, 64, 8, 256);
+        IterationData data = new IterationData(64, 8);
+        assertEquals(FILL.renderRegion(viewport, 0, 3, 64, 4, data), 2);
+        for (int x = 0; x < 64; x++) {
+            assertTrue(data.getIterationCount(x, 3) > 0, "Pixel " + x);
+        }
+        assertEquals(FILL.renderRegion(viewport, 4, 4, 4, 8, data), 0);
+    }
+
+    /**
+     * Test of getQuality method, of class DiscFill.
+     */
+    @Test
+    public void testGetQuality() {
+        assertEquals(FILL.getQuality(), DiscFill.DEFAULT_QUALITY, 0.0);
+        assertEquals(new DiscFill(3.5).getQuality(), 3.5, 0.0);
+    }
+
+    /**
+     * Test of the DiscFill constructor. A quality below 1, for which the
+     * distance estimates would not prove the rectangles to be outside the
+     * set, should be rejected, as should infinity and NaN.
+     */
+    @Test
+    public void testConstructorRejectsBadQuality() {
+        double[] badQualities = {0.5, Double.POSITIVE_INFINITY, Double.NaN};
+        for (double quality : badQualities) {
+            try {
+                DiscFill mode = new DiscFill(quality);
+                fail("Should not have created " + mode);
+            } catch (IllegalArgumentException iae) {
+                System.out.println("Quality " + quality
+                        + " correctly caused IllegalArgumentException");
+                System.out.println("\"" + iae.getMessage() + "\"");
+            }
+        }
+    }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import colors.mappers.ColorMapper;
+import colors.mappers.CyclicColorMapper;
+import numerics.ComplexNumber;
+
+import java.lang.management.ManagementFactory;
+
+import org.testng.SkipException;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Allocation regression tests of the escape-time kernels and the coloring
+ * path. Rendering and coloring a frame into preallocated arrays should not
+ * allocate anything, no matter how many pixels the frame has. This is checked
+ * with the per-thread allocation counter of the HotSpot
+ * <code>ThreadMXBean</code>, so these tests are skipped on virtual machines
+ * that don't provide it.
+ * @author Alonso del Arte
+ */
+public class EscapeTimeAllocationNGTest {
+
+    /**
+     * How many bytes may be allocated while rendering and coloring a frame.
+     * This is not 0 because reading the allocation counter may itself
+     * allocate a little, but it's far less than even one pixel per byte of a
+     * small frame.
+     */
+    private static final long ALLOCATION_BOUND = 1024L;
+
+    private static final ColorMapper MAPPER = new CyclicColorMapper();
+
+    private static final ComplexNumber JULIA_POINT
+            = new ComplexNumber(-0.75, 0.1);
+
+    private com.sun.management.ThreadMXBean threadBean;
+
+    private long threadID;
+
+    @BeforeClass
+    public void setUpClass() {
+        java.lang.management.ThreadMXBean bean
+                = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            throw new SkipException("Thread allocation counter not available");
+        }
+        this.threadBean = (com.sun.management.ThreadMXBean) bean;
+        if (!this.threadBean.isThreadAllocatedMemorySupported()) {
+            throw new SkipException("Thread allocation counter not supported");
+        }
+        this.threadBean.setThreadAllocatedMemoryEnabled(true);
+        this.threadID = Thread.currentThread().getId();
+        this.threadBean.getThreadAllocatedBytes(this.threadID);
+    }
+
+    private long allocatedWhileRendering(Viewport viewport, IterationData data,
+            int[] rgb) {
+        int width = viewport.getWidth();
+        int height = viewport.getHeight();
+        int iterMax = viewport.getIterationMaximum();
+        long before = this.threadBean.getThreadAllocatedBytes(this.threadID);
+        TileRenderer.renderRegion(viewport, 0, 0, width, height, data);
+        MAPPER.colorize(data, iterMax, rgb);
+        long after = this.threadBean.getThreadAllocatedBytes(this.threadID);
+        return after - before;
+    }
+
+    private void assertAllocationFree(Viewport small, Viewport large) {
+        IterationData smallData = new IterationData(small.getWidth(),
+                small.getHeight());
+        IterationData largeData = new IterationData(large.getWidth(),
+                large.getHeight());
+        int[] smallRGB = new int[small.getWidth() * small.getHeight()];
+        int[] largeRGB = new int[large.getWidth() * large.getHeight()];
+        for (int i = 0; i < 3; i++) {
+            this.allocatedWhileRendering(small, smallData, smallRGB);
+            this.allocatedWhileRendering(large, largeData, largeRGB);
+        }
+        long smallBytes = this.allocatedWhileRendering(small, smallData,
+                smallRGB);
+        long largeBytes = this.allocatedWhileRendering(large, largeData,
+                largeRGB);
+        System.out.println("Allocated " + smallBytes + " bytes for "
+                + small.getWidth() + " by " + small.getHeight() + " and "
+                + largeBytes + " bytes for " + large.getWidth() + " by "
+                + large.getHeight());
+        String msg = "Rendering should allocate at most " + ALLOCATION_BOUND
+                + " bytes";
+        assert smallBytes <= ALLOCATION_BOUND : msg + ", not " + smallBytes;
+        assert largeBytes <= ALLOCATION_BOUND : msg + ", not " + largeBytes;
+    }
+
+    /**
+     * Rendering and coloring the Mandelbrot set should not allocate anything.
+     */
+    @Test
+    public void testMandelbrotAllocatesNothing() {
+        System.out.println("Mandelbrot allocation");
+        ComplexNumber corner = new ComplexNumber(-2.75, -1.25);
+        Viewport small = Viewport.mandelbrot(corner, 16.0, 64, 40, 256);
+        Viewport large = Viewport.mandelbrot(corner, 128.0, 512, 320, 256);
+        this.assertAllocationFree(small, large);
+    }
+
+    /**
+     * Rendering and coloring a Julia set should not allocate anything.
+     */
+    @Test
+    public void testJuliaAllocatesNothing() {
+        System.out.println("Julia allocation");
+        ComplexNumber corner = new ComplexNumber(-2.0, -1.25);
+        Viewport small = Viewport.julia(corner, 16.0, 64, 40, 256, JULIA_POINT);
+        Viewport large = Viewport.julia(corner, 128.0, 512, 320, 256,
+                JULIA_POINT);
+        this.assertAllocationFree(small, large);
+    }
+
+    /**
+     * Rendering with the other kernels should not allocate anything either,
+     * in either plane.
+     */
+    @Test
+    public void testOtherKernelsAllocateNothing() {
+        System.out.println("Other kernel allocation");
+        ComplexNumber corner = new ComplexNumber(-2.0, -1.25);
+        FractalKernel[] kernels = {new MultibrotKernel(3),
+            new BurningShipKernel(), new TricornKernel(),
+            new NewtonKernel(1.0, 0.0, 0.0, -1.0), new LyapunovKernel("AB")};
+        for (FractalKernel kernel : kernels) {
+            Viewport small = Viewport.mandelbrot(corner, 16.0, 64, 40, 256)
+                    .withKernel(kernel);
+            Viewport large = Viewport.julia(corner, 128.0, 512, 320, 256,
+                    JULIA_POINT).withKernel(kernel);
+            this.assertAllocationFree(small, large);
+        }
+    }
+
+}
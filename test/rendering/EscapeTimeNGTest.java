@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import numerics.ComplexNumber;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the EscapeTime class.
+ * @author Alonso del Arte
+ */
+public class EscapeTimeNGTest {
+
+    private static final int ITER_MAX = 256;
+
+    /**
+     * Test of the mandelbrot function, of the EscapeTime class. Points in the
+     * main cardioid should reach the iteration maximum, with a distance
+     * estimate of 0.
+     */
+    @Test
+    public void testMandelbrotInside() {
+        System.out.println("mandelbrot");
+        IterationData data = new IterationData(1, 1);
+        EscapeTime.mandelbrot(-0.25, 0.125, ITER_MAX, data, 0);
+        assertEquals(data.getIterationCount(0, 0), ITER_MAX);
+        assertEquals(data.getSmoothValue(0, 0), (float) ITER_MAX);
+        assertEquals(data.getDistanceEstimate(0, 0), 0.0F);
+    }
+
+    /**
+     * Another test of the mandelbrot function, of the EscapeTime class. Points
+     * far from the set should escape quickly, and the distance estimate should
+     * not exceed the actual distance to the set.
+     */
+    @Test
+    public void testMandelbrotOutside() {
+        IterationData data = new IterationData(1, 1);
+        EscapeTime.mandelbrot(3.0, 0.0, ITER_MAX, data, 0);
+        int count = data.getIterationCount(0, 0);
+        assert count < 10 : "3 should escape quickly, took " + count;
+        float distance = data.getDistanceEstimate(0, 0);
+        String msg = "Distance estimate " + distance
+                + " should be positive but not more than 2.75";
+        assert distance > 0.0F && distance <= 2.75F : msg;
+    }
+
+    /**
+     * Test of the julia function, of the EscapeTime class. With <i>c</i> = 0,
+     * the Julia set is the unit circle, so points inside the circle should not
+     * escape and points outside should.
+     */
+    @Test
+    public void testJulia() {
+        System.out.println("julia");
+        IterationData data = new IterationData(2, 1);
+        EscapeTime.julia(0.5, 0.5, 0.0, 0.0, ITER_MAX, data, 0);
+        EscapeTime.julia(1.5, 0.0, 0.0, 0.0, ITER_MAX, data, 1);
+        assertEquals(data.getIterationCount(0, 0), ITER_MAX);
+        assert data.getIterationCount(1, 0) < ITER_MAX
+                : "1.5 should escape for c = 0";
+        float distance = data.getDistanceEstimate(1, 0);
+        String msg = "Distance estimate " + distance
+                + " should not exceed actual distance 0.5";
+        assert distance > 0.0F && distance <= 0.5F : msg;
+    }
+
+    /**
+     * Test of the iterate function, of the EscapeTime class. It should give the
+     * same result as the Mandelbrot kernel for the number at the given pixel
+     * position.
+     */
+    @Test
+    public void testIterate() {
+        System.out.println("iterate");
+        Viewport viewport = Viewport.mandelbrot(
+                new ComplexNumber(-2.0, -1.0), 4.0, 16, 8, ITER_MAX);
+        IterationData expected = new IterationData(1, 1);
+        IterationData actual = new IterationData(1, 1);
+        EscapeTime.mandelbrot(-0.5, 0.25, ITER_MAX, expected, 0);
+        EscapeTime.iterate(viewport, 6.0, 5.0, actual, 0);
+        assertEquals(actual.getIterationCount(0, 0),
+                expected.getIterationCount(0, 0));
+        assertEquals(actual.getSmoothValue(0, 0),
+                expected.getSmoothValue(0, 0));
+    }
+
+}
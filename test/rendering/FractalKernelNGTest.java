@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import numerics.ComplexNumber;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the FractalKernel class and its subclasses.
+ * @author Alonso del Arte
+ */
+public class FractalKernelNGTest {
+
+    private static final int ITER_MAX = 200;
+
+    private static final ComplexNumber CORNER = new ComplexNumber(-2.0, -1.5);
+
+    private static final ComplexNumber JULIA_POINT
+            = new ComplexNumber(-0.4, 0.6);
+
+    private static final FractalKernel[] KERNELS = {new QuadraticKernel(),
+        new MultibrotKernel(3), new MultibrotKernel(5), new BurningShipKernel(),
+        new TricornKernel()};
+
+    private static void assertRegionMatchesPoints(Viewport viewport) {
+        IterationData region = new IterationData(viewport.getWidth(),
+                viewport.getHeight());
+        TileRenderer.renderRegion(viewport, 0, 0, viewport.getWidth(),
+                viewport.getHeight(), region);
+        IterationData point = new IterationData(1, 1);
+        for (int y = 0; y < viewport.getHeight(); y++) {
+            for (int x = 0; x < viewport.getWidth(); x++) {
+                viewport.getKernel().iterateAt(viewport, x, y, point, 0);
+                String msg = viewport + " at " + x + ", " + y;
+                assertEquals(region.getIterationCount(x, y),
+                        point.getIterationCount(0, 0), msg);
+                assertEquals(region.getSmoothValue(x, y),
+                        point.getSmoothValue(0, 0), msg);
+                assertEquals(region.getDistanceEstimate(x, y),
+                        point.getDistanceEstimate(0, 0), msg);
+            }
+        }
+    }
+
+    /**
+     * Test of the renderRegion function, of the FractalKernel class. For every
+     * kernel, in both planes, the specialized region loop should give the
+     * same results as iterating each point on its own.
+     */
+    @Test
+    public void testRenderRegion() {
+        System.out.println("renderRegion");
+        for (FractalKernel kernel : KERNELS) {
+            assertRegionMatchesPoints(Viewport.mandelbrot(CORNER, 20.0, 60,
+                    60, ITER_MAX).withKernel(kernel));
+            assertRegionMatchesPoints(Viewport.julia(CORNER, 20.0, 60, 60,
+                    ITER_MAX, JULIA_POINT).withKernel(kernel));
+        }
+    }
+
+    /**
+     * Test of the mandelbrot function, of the MultibrotKernel class. For
+     * degree 2, the results should be the same as for the quadratic kernel.
+     */
+    @Test
+    public void testMultibrotDegree2MatchesQuadratic() {
+        System.out.println("MultibrotKernel.mandelbrot");
+        FractalKernel quadratic = new QuadraticKernel();
+        FractalKernel multibrot = new MultibrotKernel(2);
+        IterationData expected = new IterationData(1, 1);
+        IterationData actual = new IterationData(1, 1);
+        for (double re = -2.0; re <= 0.5; re += 0.0625) {
+            for (double im = -1.25; im <= 1.25; im += 0.0625) {
+                quadratic.mandelbrot(re, im, ITER_MAX, expected, 0);
+                multibrot.mandelbrot(re, im, ITER_MAX, actual, 0);
+                String msg = "At " + re + " + " + im + "i";
+                assertEquals(actual.getIterationCount(0, 0),
+                        expected.getIterationCount(0, 0), msg);
+                assertEquals(actual.getSmoothValue(0, 0),
+                        expected.getSmoothValue(0, 0), 1E-5, msg);
+            }
+        }
+    }
+
+    /**
+     * Test of the mandelbrot function, of the BurningShipKernel and
+     * TricornKernel classes. On the real axis, both agree with the Mandelbrot
+     * set, so &minus;1.75 is in both and 0.3 is not.
+     */
+    @Test
+    public void testRealAxisAgreesWithMandelbrot() {
+        FractalKernel[] kernels = {new BurningShipKernel(),
+            new TricornKernel()};
+        IterationData data = new IterationData(2, 1);
+        for (FractalKernel kernel : kernels) {
+            kernel.mandelbrot(-1.75, 0.0, ITER_MAX, data, 0);
+            kernel.mandelbrot(0.3, 0.0, ITER_MAX, data, 1);
+            assertEquals(data.getIterationCount(0, 0), ITER_MAX,
+                    kernel + " at -1.75");
+            assert data.getIterationCount(1, 0) < ITER_MAX
+                    : kernel + " at 0.3 should escape";
+            assert data.getDistanceEstimate(1, 0) > 0.0F
+                    : kernel + " at 0.3 should have a distance estimate";
+        }
+    }
+
+    /**
+     * Test of the mandelbrot function, of the TricornKernel class. The
+     * tricorn is symmetric about the real axis, exactly so even in floating
+     * point, since negation is exact.
+     */
+    @Test
+    public void testTricornSymmetry() {
+        FractalKernel kernel = new TricornKernel();
+        IterationData data = new IterationData(2, 1);
+        for (double re = -2.0; re <= 1.0; re += 0.046875) {
+            for (double im = 0.0; im <= 1.5; im += 0.046875) {
+                kernel.mandelbrot(re, im, ITER_MAX, data, 0);
+                kernel.mandelbrot(re, -im, ITER_MAX, data, 1);
+                assertEquals(data.getSmoothValue(1, 0),
+                        data.getSmoothValue(0, 0), "At " + re + " +/- "
+                                + im + "i");
+            }
+        }
+    }
+
+    /**
+     * Test of the equals function, of the FractalKernel class. Kernels of the
+     * same class are equal, multibrot kernels only if of the same degree, and
+     * the kernel is part of what identifies a tile.
+     */
+    @Test
+    public void testEquals() {
+        System.out.println("equals");
+        assertEquals(new TricornKernel(), new TricornKernel());
+        assertEquals(new MultibrotKernel(3).hashCode(),
+                new MultibrotKernel(3).hashCode());
+        assertEquals(new MultibrotKernel(3), new MultibrotKernel(3));
+        assertNotEquals(new MultibrotKernel(3), new MultibrotKernel(4));
+        assertNotEquals(new BurningShipKernel(), new TricornKernel());
+        TileKey key = TileKey.mandelbrot(4, 1, 2, ITER_MAX);
+        assertEquals(key.withKernel(new QuadraticKernel()), key);
+        assertNotEquals(key.withKernel(new BurningShipKernel()), key);
+        assertEquals(key.withKernel(new MultibrotKernel(3)).toViewport(16)
+                .getKernel(), new MultibrotKernel(3));
+    }
+
+    /**
+     * Test of the canFillEnclosedInterior function, of the FractalKernel
+     * class. The Mandelbrot and multibrot sets have no holes, nor do their
+     * Julia sets for parameters inside them, but disconnected Julia sets do,
+     * and the other kernels make no promise.
+     */
+    @Test
+    public void testCanFillEnclosedInterior() {
+        System.out.println("canFillEnclosedInterior");
+        ComplexNumber inside = new ComplexNumber(-0.1, 0.1);
+        ComplexNumber outside = new ComplexNumber(0.5, 0.0);
+        FractalKernel[] fillable = {new QuadraticKernel(),
+            new MultibrotKernel(3)};
+        for (FractalKernel kernel : fillable) {
+            Viewport mandelbrot = Viewport.mandelbrot(CORNER, 32.0, 16, 16,
+                    ITER_MAX).withKernel(kernel);
+            assertTrue(kernel.canFillEnclosedInterior(mandelbrot));
+            Viewport connected = Viewport.julia(CORNER, 32.0, 16, 16,
+                    ITER_MAX, inside).withKernel(kernel);
+            assertTrue(kernel.canFillEnclosedInterior(connected));
+            Viewport disconnected = Viewport.julia(CORNER, 32.0, 16, 16,
+                    ITER_MAX, outside).withKernel(kernel);
+            assertFalse(kernel.canFillEnclosedInterior(disconnected));
+        }
+        FractalKernel[] others = {new BurningShipKernel(),
+            new TricornKernel()};
+        for (FractalKernel kernel : others) {
+            Viewport viewport = Viewport.mandelbrot(CORNER, 32.0, 16, 16,
+                    ITER_MAX).withKernel(kernel);
+            assertFalse(kernel.canFillEnclosedInterior(viewport));
+        }
+    }
+
+    /**
+     * Test of the MultibrotKernel constructor. Degrees below 2 or above the
+     * maximum should be rejected.
+     */
+    @Test
+    public void testMultibrotConstructorRejectsBadDegree() {
+        int[] badDegrees = {1, MultibrotKernel.MAXIMUM_DEGREE + 1};
+        for (int degree : badDegrees) {
+            try {
+                FractalKernel kernel = new MultibrotKernel(degree);
+                fail("Should not have created " + kernel);
+            } catch (IllegalArgumentException iae) {
+                System.out.println("Degree " + degree
+                        + " correctly caused IllegalArgumentException");
+                System.out.println("\"" + iae.getMessage() + "\"");
+            }
+        }
+    }
+
+}
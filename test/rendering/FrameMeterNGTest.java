@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import numerics.ComplexNumber;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the FrameMeter class. The tile engine for these tests runs its
+ * tasks only when the test says so, so that the frames start before their
+ * tiles are rendered.
+ * @author Alonso del Arte
+ */
+public class FrameMeterNGTest {
+
+    private static final int TILE_SIZE = 16;
+
+    private static final Viewport VIEWPORT = Viewport.mandelbrot(
+            new ComplexNumber(-0.5, -0.5), 16.0, 32, 32, 64);
+
+    private static final class ManualExecutor implements Executor {
+
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            this.tasks.add(command);
+        }
+
+        void runAll() {
+            while (!this.tasks.isEmpty()) {
+                this.tasks.remove(0).run();
+            }
+        }
+
+    }
+
+    private static List<CompletableFuture<IterationData>> request(
+            TileEngine engine, List<TileKey> keys) {
+        List<CompletableFuture<IterationData>> tiles = new ArrayList<>();
+        for (TileKey key : keys) {
+            tiles.add(engine.request(key));
+        }
+        return tiles;
+    }
+
+    /**
+     * Test of beginFrame method, of class FrameMeter. Once all the tiles of a
+     * frame are ready, the listeners should get the measurements of those
+     * tiles, with the compute time of each.
+     */
+    @Test
+    public void testBeginFrame() {
+        System.out.println("beginFrame");
+        ManualExecutor executor = new ManualExecutor();
+        TileEngine engine = new TileEngine(executor, TILE_SIZE, 16);
+        FrameMeter instance = new FrameMeter(engine);
+        List<RenderMetrics> received = new ArrayList<>();
+        instance.addRenderListener(received::add);
+        List<TileKey> keys = engine.tilesCovering(VIEWPORT, 0);
+        List<CompletableFuture<IterationData>> tiles = request(engine, keys);
+        instance.beginFrame(VIEWPORT, keys, tiles);
+        assertTrue(received.isEmpty(), "Frame shouldn't be done yet");
+        executor.runAll();
+        assertEquals(received.size(), 1);
+        RenderMetrics metrics = received.get(0);
+        assertSame(metrics.getViewport(), VIEWPORT);
+        assertEquals(metrics.getTileCount(), keys.size());
+        assertEquals(metrics.getPixelCount(),
+                (long) keys.size() * TILE_SIZE * TILE_SIZE);
+        long expectedIterations = 0L;
+        for (CompletableFuture<IterationData> tile : tiles) {
+            for (int count : tile.join().getIterationCounts()) {
+                expectedIterations += count;
+            }
+        }
+        assertEquals(metrics.getTotalIterations(), expectedIterations);
+        assertTrue(metrics.getTotalTileTimeNanos() > 0L,
+                "Tile times should have been recorded");
+        assertTrue(metrics.getWallTimeNanos() > 0L);
+    }
+
+    /**
+     * Test of beginFrame method, of class FrameMeter. Asking again for tiles
+     * of the view just measured, as a viewer does on every repaint, should not
+     * make another frame.
+     */
+    @Test
+    public void testBeginFrameSameView() {
+        ManualExecutor executor = new ManualExecutor();
+        TileEngine engine = new TileEngine(executor, TILE_SIZE, 16);
+        FrameMeter instance = new FrameMeter(engine);
+        List<RenderMetrics> received = new ArrayList<>();
+        instance.addRenderListener(received::add);
+        List<TileKey> keys = engine.tilesCovering(VIEWPORT, 0);
+        instance.beginFrame(VIEWPORT, keys, request(engine, keys));
+        executor.runAll();
+        List<TileKey> again = keys.subList(0, 1);
+        instance.beginFrame(VIEWPORT, again, request(engine, again));
+        executor.runAll();
+        assertEquals(received.size(), 1);
+    }
+
+    /**
+     * Test of beginFrame method, of class FrameMeter. A frame superseded by a
+     * frame for another view before its tiles are ready should not be
+     * reported.
+     */
+    @Test
+    public void testBeginFrameSuperseded() {
+        ManualExecutor executor = new ManualExecutor();
+        TileEngine engine = new TileEngine(executor, TILE_SIZE, 16);
+        FrameMeter instance = new FrameMeter(engine);
+        List<RenderMetrics> received = new ArrayList<>();
+        instance.addRenderListener(received::add);
+        List<TileKey> keys = engine.tilesCovering(VIEWPORT, 0);
+        instance.beginFrame(VIEWPORT, keys, request(engine, keys));
+        Viewport next = VIEWPORT.withIterationMaximum(128);
+        List<TileKey> nextKeys = engine.tilesCovering(next, 0);
+        instance.beginFrame(next, nextKeys, request(engine, nextKeys));
+        executor.runAll();
+        assertEquals(received.size(), 1);
+        assertSame(received.get(0).getViewport(), next);
+    }
+
+    /**
+     * Test of removeRenderListener method, of class FrameMeter. Once the last
+     * listener is removed, frames should no longer be measured.
+     */
+    @Test
+    public void testRemoveRenderListener() {
+        System.out.println("removeRenderListener");
+        ManualExecutor executor = new ManualExecutor();
+        TileEngine engine = new TileEngine(executor, TILE_SIZE, 16);
+        FrameMeter instance = new FrameMeter(engine);
+        List<RenderMetrics> received = new ArrayList<>();
+        RenderListener listener = received::add;
+        instance.addRenderListener(listener);
+        instance.removeRenderListener(listener);
+        List<TileKey> keys = engine.tilesCovering(VIEWPORT, 0);
+        instance.beginFrame(VIEWPORT, keys, request(engine, keys));
+        executor.runAll();
+        assertTrue(received.isEmpty());
+    }
+
+    /**
+     * Test of beginFrame method, of class FrameMeter. Keys and tiles of
+     * different sizes should be rejected.
+     */
+    @Test
+    public void testBeginFrameRejectsMismatch() {
+        TileEngine engine = new TileEngine(new ManualExecutor(), TILE_SIZE,
+                16);
+        FrameMeter instance = new FrameMeter(engine);
+        List<TileKey> keys = engine.tilesCovering(VIEWPORT, 0);
+        try {
+            instance.beginFrame(VIEWPORT, keys, new ArrayList<>());
+            fail("Mismatched keys and tiles should have been rejected");
+        } catch (IllegalArgumentException iae) {
+            System.out.println("Mismatch correctly caused "
+                    + "IllegalArgumentException");
+            System.out.println("\"" + iae.getMessage() + "\"");
+        }
+    }
+
+}
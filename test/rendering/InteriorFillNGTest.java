@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import numerics.ComplexNumber;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the InteriorFill class.
+ * @author Alonso del Arte
+ */
+public class InteriorFillNGTest {
+
+    private static final Viewport VIEWPORT = Viewport.mandelbrot(
+            new ComplexNumber(-2.75, -1.25), 64.0, 270, 160, 512);
+
+    private static final InteriorFill FILL = new InteriorFill();
+
+    private static final int SIZE = 64;
+
+    /**
+     * Test of renderRegion method, of class InteriorFill. On the default view
+     * of the Mandelbrot set, every pixel should be the same as from the exact
+     * render, with fewer pixels iterated.
+     */
+    @Test
+    public void testRenderRegion() {
+        System.out.println("renderRegion");
+        RenderComparison comparison = RenderComparison.compare(VIEWPORT, FILL);
+        assertEquals(comparison.getMismatchCount(), 0);
+        assertEquals(comparison.getMaximumSmoothError(), 0.0, 0.0);
+        long iterated = comparison.getIteratedCount();
+        String msg = "Iterated " + iterated + " of "
+                + comparison.getPixelCount() + " pixels";
+        assertTrue(iterated < comparison.getPixelCount(), msg);
+    }
+
+    /**
+     * Test of renderRegion method, of class InteriorFill. A region wholly
+     * inside the Mandelbrot set should only have its edge iterated, however
+     * high the iteration maximum, and all of it should be filled in as
+     * inside.
+     */
+    @Test
+    public void testRenderRegionInterior() {
+        System.out.println("renderRegion, interior");
+        int iterMax = 65536;
+        Viewport viewport = Viewport.mandelbrot(new ComplexNumber(-0.3, -0.2),
+                256.0, SIZE, SIZE, iterMax);
+        IterationData data = new IterationData(SIZE, SIZE);
+        int iterated = FILL.renderRegion(viewport, 0, 0, SIZE, SIZE, data);
+        assertEquals(iterated, 4 * (SIZE - 1));
+        for (int y = 0; y < SIZE; y++) {
+            for (int x = 0; x < SIZE; x++) {
+                String msg = "Pixel (" + x + ", " + y + ")";
+                assertEquals(data.getIterationCount(x, y), iterMax, msg);
+                assertEquals(data.getSmoothValue(x, y), (float) iterMax, msg);
+                assertEquals(data.getDistanceEstimate(x, y), 0.0F, msg);
+            }
+        }
+    }
+
+    /**
+     * Test of renderRegion method, of class InteriorFill. A region wholly
+     * inside a connected Julia set should only have its edge iterated, but a
+     * disconnected Julia set should be iterated in full, as it may have holes.
+     */
+    @Test
+    public void testRenderRegionJulia() {
+        System.out.println("renderRegion, Julia");
+        ComplexNumber corner = new ComplexNumber(-0.125, -0.125);
+        Viewport connected = Viewport.julia(corner, 256.0, SIZE, SIZE, 1024,
+                new ComplexNumber(-0.1, 0.1));
+        IterationData data = new IterationData(SIZE, SIZE);
+        assertEquals(FILL.renderRegion(connected, 0, 0, SIZE, SIZE, data),
+                4 * (SIZE - 1));
+        Viewport disconnected = Viewport.julia(corner, 256.0, SIZE, SIZE,
+                1024, new ComplexNumber(0.5, 0.0));
+        assertEquals(FILL.renderRegion(disconnected, 0, 0, SIZE, SIZE, data),
+                SIZE * SIZE);
+    }
+
+    /**
+     * Test of renderRegion method, of class InteriorFill. A multibrot set has
+     * no holes either, so its inside should be filled in too.
+     */
+    @Test
+    public void testRenderRegionMultibrot() {
+        Viewport viewport = Viewport.mandelbrot(new ComplexNumber(-0.125,
+                -0.125), 256.0, SIZE, SIZE, 1024)
+                .withKernel(new MultibrotKernel(3));
+        IterationData data = new IterationData(SIZE, SIZE);
+        assertEquals(FILL.renderRegion(viewport, 0, 0, SIZE, SIZE, data),
+                4 * (SIZE - 1));
+        assertEquals(data.getIterationCount(SIZE / 2, SIZE / 2), 1024);
+    }
+
+    /**
+     * Test of renderRegion method, of class InteriorFill. For a kernel that
+     * makes no promise about holes, every pixel should be iterated, and the
+     * results should be those of the exact render.
+     */
+    @Test
+    public void testRenderRegionFallsBackToExact() {
+        Viewport viewport = VIEWPORT.withKernel(new BurningShipKernel());
+        IterationData expected = new IterationData(viewport.getWidth(),
+                viewport.getHeight());
+        IterationData data = new IterationData(viewport.getWidth(),
+                viewport.getHeight());
+        RenderMode.EXACT.renderRegion(viewport, 0, 0, viewport.getWidth(),
+                viewport.getHeight(), expected);
+        int iterated = FILL.renderRegion(viewport, 0, 0, viewport.getWidth(),
+                viewport.getHeight(), data);
+        assertEquals(iterated, viewport.getWidth() * viewport.getHeight());
+        assertEquals(data.getIterationCounts(), expected.getIterationCounts());
+    }
+
+    /**
+     * Test of renderRegion method, of class InteriorFill. Rendering only part
+     * of the data should not touch the rest.
+     */
+    @Test
+    public void testRenderRegionPart() {
+        IterationData data = new IterationData(VIEWPORT.getWidth(),
+                VIEWPORT.getHeight());
+        IterationData expected = new IterationData(1, 1);
+        FILL.renderRegion(VIEWPORT, 120, 40, 200, 120, data);
+        for (int y = 0; y < VIEWPORT.getHeight(); y++) {
+            for (int x = 0; x < VIEWPORT.getWidth(); x++) {
+                int count = data.getIterationCount(x, y);
+                if (x >= 120 && x < 200 && y >= 40 && y < 120) {
+                    EscapeTime.iterate(VIEWPORT, x, y, expected, 0);
+                    assertEquals(count, expected.getIterationCount(0, 0),
+                            "Pixel (" + x + ", " + y + ")");
+                } else {
+                    assertEquals(count, 0, "Pixel (" + x + ", " + y + ")");
+                }
+            }
+        }
+    }
+
+    /**
+     * Test of renderRegion method, of class InteriorFill. An empty region
+     * should not iterate anything.
+     */
+    @Test
+    public void testRenderRegionEmpty() {
+        IterationData data = new IterationData(8, 8);
+        assertEquals(FILL.renderRegion(VIEWPORT, 4, 4, 8, 4, data), 0);
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import numerics.ComplexNumber;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the IterationMaximumPolicy class.
+ * @author Alonso del Arte
+ */
+public class IterationMaximumPolicyNGTest {
+
+    private static final Viewport DEFAULT_VIEW = Viewport.mandelbrot(
+            new ComplexNumber(-2.75, -1.25), 256.0, 1080, 640, 256);
+
+    /**
+     * A deep view near the boundary of the set, close to the "seahorse
+     * valley."
+     */
+    private static final Viewport DEEP_VIEW = Viewport.mandelbrot(
+            new ComplexNumber(-0.7436447860, 0.1318252536), 4.0E8, 1080, 640,
+            256);
+
+    /**
+     * Test of the chooseIterationMaximum function, of the
+     * IterationMaximumPolicy class. A deep view near the boundary should get a
+     * higher iteration maximum than the default view.
+     */
+    @Test
+    public void testChooseIterationMaximum() {
+        System.out.println("chooseIterationMaximum");
+        IterationMaximumPolicy instance = new IterationMaximumPolicy();
+        int shallow = instance.chooseIterationMaximum(DEFAULT_VIEW);
+        int deep = instance.chooseIterationMaximum(DEEP_VIEW);
+        String msg = "Deep view iterMax " + deep
+                + " should be greater than default view iterMax " + shallow;
+        assert deep > shallow : msg;
+    }
+
+    /**
+     * Another test of the chooseIterationMaximum function, of the
+     * IterationMaximumPolicy class. The result should stay within the minimum
+     * and maximum of the policy.
+     */
+    @Test
+    public void testChooseIterationMaximumStaysInRange() {
+        IterationMaximumPolicy instance = new IterationMaximumPolicy(8, 8,
+                1.0, 300, 400);
+        int actual = instance.chooseIterationMaximum(DEFAULT_VIEW);
+        String msg = "iterMax " + actual + " should be from 300 to 400";
+        assert actual >= 300 && actual <= 400 : msg;
+        Viewport inside = Viewport.mandelbrot(new ComplexNumber(-0.25, -0.1),
+                1024.0, 100, 100, 256);
+        assertEquals(instance.chooseIterationMaximum(inside), 300);
+    }
+
+    /**
+     * Test of the sampleEscapeTimes function, of the IterationMaximumPolicy
+     * class. The escape times should be sorted and should leave out points
+     * that don't escape.
+     */
+    @Test
+    public void testSampleEscapeTimes() {
+        System.out.println("sampleEscapeTimes");
+        IterationMaximumPolicy instance = new IterationMaximumPolicy();
+        int[] escapeTimes = instance.sampleEscapeTimes(DEFAULT_VIEW);
+        int total = IterationMaximumPolicy.DEFAULT_GRID_COLUMNS
+                * IterationMaximumPolicy.DEFAULT_GRID_ROWS;
+        assert escapeTimes.length > 0 && escapeTimes.length < total
+                : "Some but not all sample points should escape";
+        for (int i = 1; i < escapeTimes.length; i++) {
+            assert escapeTimes[i - 1] <= escapeTimes[i]
+                    : "Escape times should be sorted";
+        }
+    }
+
+    /**
+     * Test of the constructor, of the IterationMaximumPolicy class. A minimum
+     * greater than the maximum should cause an exception.
+     */
+    @Test(expectedExceptions = {IllegalArgumentException.class})
+    public void testConstructorRejectsMinimumOverMaximum() {
+        IterationMaximumPolicy badInstance = new IterationMaximumPolicy(8, 8,
+                0.5, 1000, 100);
+        System.out.println("Should not have been able to create "
+                + badInstance.toString());
+    }
+
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import numerics.ComplexNumber;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the LyapunovKernel class.
+ * @author Alonso del Arte
+ */
+public class LyapunovKernelNGTest {
+
+    private static final int ITER_MAX = 512;
+
+    private static final double TEST_DELTA = 1.0E-6;
+
+    private static final LyapunovKernel AB = new LyapunovKernel("AB");
+
+    private static double exponentAt(LyapunovKernel kernel, double a,
+            double b) {
+        IterationData data = new IterationData(1, 1);
+        kernel.mandelbrot(a, b, ITER_MAX, data, 0);
+        return data.getSmoothValue(0, 0);
+    }
+
+    /**
+     * Test of mandelbrot method, of class LyapunovKernel. For <i>r</i> = 5/2,
+     * the logistic map has an attracting fixed point at 3/5, where the
+     * derivative is &minus;1/2, so the exponent is log(1/2), whatever the
+     * sequence.
+     */
+    @Test
+    public void testMandelbrotFixedPoint() {
+        System.out.println("mandelbrot, fixed point");
+        double expected = Math.log(0.5);
+        assertEquals(exponentAt(AB, 2.5, 2.5), expected, TEST_DELTA);
+        assertEquals(exponentAt(new LyapunovKernel("AABAB"), 2.5, 2.5),
+                expected, TEST_DELTA);
+    }
+
+    /**
+     * Test of mandelbrot method, of class LyapunovKernel. For <i>r</i> =
+     * 16/5, the logistic map has an attracting cycle of period 2, over which
+     * the product of the derivatives is &minus;<i>r</i><sup>2</sup> +
+     * 2<i>r</i> + 4.
+     */
+    @Test
+    public void testMandelbrotPeriodTwo() {
+        System.out.println("mandelbrot, period 2");
+        double r = 3.2;
+        double expected = 0.5 * Math.log(-r * r + 2.0 * r + 4.0);
+        assertEquals(exponentAt(new LyapunovKernel("A"), r, 0.0), expected,
+                TEST_DELTA);
+    }
+
+    /**
+     * Test of mandelbrot method, of class LyapunovKernel. For <i>r</i> close
+     * to 4, the logistic map is chaotic, so the exponent should be positive.
+     */
+    @Test
+    public void testMandelbrotChaotic() {
+        System.out.println("mandelbrot, chaotic");
+        double lambda = exponentAt(AB, 3.9, 3.9);
+        String msg = "Exponent " + lambda + " should be positive";
+        assertTrue(lambda > 0.0 && lambda < Math.log(4.0), msg);
+    }
+
+    /**
+     * Test of mandelbrot method, of class LyapunovKernel. Which of
+     * <i>a</i> and <i>b</i> comes first should matter for a sequence other
+     * than AB and BA.
+     */
+    @Test
+    public void testMandelbrotUsesSequence() {
+        LyapunovKernel kernel = new LyapunovKernel("AAB");
+        double lambda = exponentAt(kernel, 3.8, 3.3);
+        double swapped = exponentAt(kernel, 3.3, 3.8);
+        String msg = "Exponents " + lambda + " and " + swapped
+                + " should differ";
+        assertNotEquals(lambda, swapped, msg);
+    }
+
+    /**
+     * Test of mandelbrot method, of class LyapunovKernel. Outside the interval
+     * from 0 to 4, the orbit is unbounded, and the exponent should be positive
+     * infinity.
+     */
+    @Test
+    public void testMandelbrotOutOfRange() {
+        System.out.println("mandelbrot, out of range");
+        assertEquals(exponentAt(AB, 4.5, 3.0), Double.POSITIVE_INFINITY);
+        assertEquals(exponentAt(AB, 3.0, -0.5), Double.POSITIVE_INFINITY);
+        IterationData data = new IterationData(1, 1);
+        AB.mandelbrot(4.5, 3.0, ITER_MAX, data, 0);
+        assertEquals(data.getIterationCount(0, 0), ITER_MAX);
+        assertEquals(data.getDistanceEstimate(0, 0), 0.0F);
+    }
+
+    /**
+     * Test of julia method, of class LyapunovKernel. The Julia parameter
+     * should be ignored.
+     */
+    @Test
+    public void testJulia() {
+        System.out.println("julia");
+        IterationData data = new IterationData(2, 1);
+        AB.mandelbrot(3.4, 2.9, ITER_MAX, data, 0);
+        AB.julia(3.4, 2.9, -0.75, 0.1, ITER_MAX, data, 1);
+        assertEquals(data.getSmoothValue(1, 0), data.getSmoothValue(0, 0));
+    }
+
+    /**
+     * Test of renderRegion method, of class LyapunovKernel. The results should
+     * be the same as from calling mandelbrot for each pixel.
+     */
+    @Test
+    public void testRenderRegion() {
+        System.out.println("renderRegion");
+        Viewport viewport = Viewport.mandelbrot(new ComplexNumber(2.0, 2.0),
+                16.0, 32, 32, 128).withKernel(AB);
+        IterationData data = new IterationData(32, 32);
+        AB.renderRegion(viewport, 0, 0, 32, 32, data);
+        IterationData expected = new IterationData(1, 1);
+        for (int y = 0; y < 32; y++) {
+            for (int x = 0; x < 32; x++) {
+                AB.mandelbrot(viewport.getRealPartAt(x),
+                        viewport.getImaginaryPartAt(y), 128, expected, 0);
+                assertEquals(data.getSmoothValue(x, y),
+                        expected.getSmoothValue(0, 0),
+                        "Pixel (" + x + ", " + y + ")");
+            }
+        }
+    }
+
+    /**
+     * Test of getName method, of class LyapunovKernel.
+     */
+    @Test
+    public void testGetName() {
+        System.out.println("getName");
+        assertEquals(new LyapunovKernel("aabab").getName(), "Lyapunov AABAB");
+    }
+
+    /**
+     * Test of equals method, of class LyapunovKernel. Kernels for the same
+     * sequence should be equal regardless of case, kernels for different
+     * sequences should not.
+     */
+    @Test
+    public void testEquals() {
+        System.out.println("equals");
+        LyapunovKernel lower = new LyapunovKernel("ab");
+        assertEquals(lower, AB);
+        assertEquals(lower.hashCode(), AB.hashCode());
+        assertNotEquals(new LyapunovKernel("BA"), AB);
+        assertNotEquals(new QuadraticKernel(), AB);
+    }
+
+    /**
+     * Test of constructor, of class LyapunovKernel. Sequences with letters
+     * other than A and B, empty sequences and sequences that are too long
+     * should be rejected.
+     */
+    @Test
+    public void testConstructorRejectsBadSequences() {
+        StringBuilder tooLong = new StringBuilder();
+        for (int i = 0; i <= LyapunovKernel.MAXIMUM_SEQUENCE_LENGTH; i++) {
+            tooLong.append('A');
+        }
+        String[] sequences = {"ABC", "", "A B", tooLong.toString()};
+        for (String sequence : sequences) {
+            try {
+                LyapunovKernel kernel = new LyapunovKernel(sequence);
+                String msg = "Should not have been able to create " + kernel
+                        + " from \"" + sequence + "\"";
+                fail(msg);
+            } catch (IllegalArgumentException iae) {
+                System.out.println("\"" + iae.getMessage() + "\"");
+            }
+        }
+    }
+
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import numerics.ComplexNumber;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the NewtonKernel class.
+ * @author Alonso del Arte
+ */
+public class NewtonKernelNGTest {
+
+    private static final int ITER_MAX = 64;
+
+    private static final double TEST_DELTA = 1.0E-12;
+
+    private static final NewtonKernel CUBIC = new NewtonKernel(1.0, 0.0, 0.0,
+            -1.0);
+
+    /**
+     * Test of getRoots method, of class NewtonKernel. The roots of
+     * <i>z</i><sup>3</sup> &minus; 1 are the cube roots of unity.
+     */
+    @Test
+    public void testGetRoots() {
+        System.out.println("getRoots");
+        ComplexNumber[] roots = CUBIC.getRoots();
+        assertEquals(roots.length, 3);
+        boolean[] found = new boolean[3];
+        for (ComplexNumber root : roots) {
+            double angle = Math.atan2(root.getImaginaryPart(),
+                    root.getRealPart());
+            int k = (int) Math.round(3.0 * angle / (2.0 * Math.PI) + 3.0) % 3;
+            assertEquals(root.getRealPart(), Math.cos(2.0 * Math.PI * k / 3.0),
+                    TEST_DELTA);
+            assertEquals(root.getImaginaryPart(),
+                    Math.sin(2.0 * Math.PI * k / 3.0), TEST_DELTA);
+            found[k] = true;
+        }
+        assertEquals(found, new boolean[] {true, true, true});
+    }
+
+    /**
+     * Test of getRoots method, of class NewtonKernel, for a polynomial with
+     * complex coefficients and a double root.
+     */
+    @Test
+    public void testGetRootsComplexCoefficients() {
+        System.out.println("getRoots, complex coefficients");
+        // (z - i)^2 (z + 2) = z^3 + (2 - 2i)z^2 - (1 + 4i)z - 2
+        NewtonKernel kernel = new NewtonKernel(new ComplexNumber(1.0, 0.0),
+                new ComplexNumber(2.0, -2.0), new ComplexNumber(-1.0, -4.0),
+                new ComplexNumber(-2.0, 0.0));
+        int nearI = 0, nearMinusTwo = 0;
+        for (ComplexNumber root : kernel.getRoots()) {
+            if (root.minus(new ComplexNumber(0.0, 1.0)).abs() < 1.0E-6) {
+                nearI++;
+            } else if (root.minus(new ComplexNumber(-2.0, 0.0)).abs()
+                    < TEST_DELTA) {
+                nearMinusTwo++;
+            }
+        }
+        assertEquals(nearI, 2);
+        assertEquals(nearMinusTwo, 1);
+    }
+
+    /**
+     * Test of mandelbrot method, of class NewtonKernel. A point near a root
+     * should converge quickly to that root's basin.
+     */
+    @Test
+    public void testBasins() {
+        System.out.println("basins");
+        ComplexNumber[] roots = CUBIC.getRoots();
+        IterationData data = new IterationData(1, 1);
+        for (int k = 0; k < roots.length; k++) {
+            CUBIC.mandelbrot(roots[k].getRealPart() * 1.1,
+                    roots[k].getImaginaryPart() * 1.1, ITER_MAX, data, 0);
+            assertEquals(data.getBasin(0, 0), k + 1);
+            int count = data.getIterationCount(0, 0);
+            assertTrue(count > 0 && count < 10, "Count " + count);
+            float smooth = data.getSmoothValue(0, 0);
+            assertTrue(smooth >= count - 1 && smooth <= count,
+                    "Smooth value " + smooth + " for count " + count);
+        }
+    }
+
+    /**
+     * Test of julia method, of class NewtonKernel. Starting at 0, where the
+     * derivative of <i>z</i><sup>3</sup> &minus; 1 is 0, should not cause
+     * any exception, and the point should count as not converging.
+     */
+    @Test
+    public void testZeroDerivative() {
+        System.out.println("zero derivative");
+        IterationData data = new IterationData(1, 1);
+        CUBIC.julia(0.0, 0.0, 0.5, 0.5, ITER_MAX, data, 0);
+        assertEquals(data.getIterationCount(0, 0), ITER_MAX);
+        assertEquals(data.getSmoothValue(0, 0), (float) ITER_MAX);
+        assertEquals(data.getBasin(0, 0), 0);
+    }
+
+    /**
+     * Test of renderRegion method, of class NewtonKernel. Rendered through
+     * the tile renderer, the results should match those of iterating each
+     * point on its own, and every basin should show up.
+     */
+    @Test
+    public void testRenderRegion() {
+        System.out.println("renderRegion");
+        Viewport viewport = Viewport.mandelbrot(new ComplexNumber(-1.5, -1.5),
+                40.0, 120, 120, ITER_MAX).withKernel(CUBIC);
+        IterationData region = new TileRenderer().render(viewport);
+        IterationData point = new IterationData(1, 1);
+        int[] basinCounts = new int[4];
+        for (int y = 0; y < viewport.getHeight(); y++) {
+            for (int x = 0; x < viewport.getWidth(); x++) {
+                CUBIC.iterateAt(viewport, x, y, point, 0);
+                String msg = "At " + x + ", " + y;
+                assertEquals(region.getIterationCount(x, y),
+                        point.getIterationCount(0, 0), msg);
+                assertEquals(region.getSmoothValue(x, y),
+                        point.getSmoothValue(0, 0), msg);
+                assertEquals(region.getBasin(x, y), point.getBasin(0, 0),
+                        msg);
+                basinCounts[region.getBasin(x, y)]++;
+            }
+        }
+        // The basins of z^3 - 1 are congruent under rotation by 120 degrees,
+        // so on a square centered at 0 they should be about equally large
+        for (int k = 1; k <= 3; k++) {
+            assertTrue(basinCounts[k] > 4000,
+                    "Basin " + k + " has " + basinCounts[k] + " pixels");
+        }
+    }
+
+    /**
+     * Test of getName method, of class NewtonKernel.
+     */
+    @Test
+    public void testGetName() {
+        System.out.println("getName");
+        assertEquals(CUBIC.getName(), "Newton z^3 - 1");
+        assertEquals(new NewtonKernel(2.0, -1.0, 0.0, 0.5).getName(),
+                "Newton 2z^3 - z^2 + 0.5");
+    }
+
+    /**
+     * Test of equals method, of class NewtonKernel.
+     */
+    @Test
+    public void testEquals() {
+        System.out.println("equals");
+        NewtonKernel sameKernel = new NewtonKernel(1.0, 0.0, 0.0, -1.0);
+        NewtonKernel differentKernel = new NewtonKernel(1.0, 0.0, -1.0);
+        assertEquals(sameKernel, CUBIC);
+        assertEquals(sameKernel.hashCode(), CUBIC.hashCode());
+        assertNotEquals(differentKernel, CUBIC);
+        assertNotEquals(CUBIC, new MultibrotKernel(3));
+    }
+
+    /**
+     * Test of constructor of class NewtonKernel. Degrees out of range and a
+     * leading coefficient of 0 should cause IllegalArgumentException.
+     */
+    @Test
+    public void testConstructorRejectsBadPolynomials() {
+        double[][] badPolynomials = {{1.0, 0.0}, {0.0, 1.0, 0.0, -1.0},
+            new double[NewtonKernel.MAXIMUM_DEGREE + 2]};
+        badPolynomials[2][0] = 1.0;
+        for (double[] coefficients : badPolynomials) {
+            try {
+                NewtonKernel kernel = new NewtonKernel(coefficients);
+                fail("Should not have created " + kernel);
+            } catch (IllegalArgumentException iae) {
+                System.out.println("Bad polynomial correctly caused "
+                        + "IllegalArgumentException");
+                System.out.println("\"" + iae.getMessage() + "\"");
+            }
+        }
+    }
+
+}
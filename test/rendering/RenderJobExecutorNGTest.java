@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import numerics.ComplexNumber;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the RenderJobExecutor class.
+ * @author Alonso del Arte
+ */
+public class RenderJobExecutorNGTest {
+
+    /**
+     * Test of the submit function, of the RenderJobExecutor class. Thousands
+     * of requests should all complete, without creating a thread for each of
+     * them, unless the threads are virtual.
+     */
+    @Test
+    public void testSubmit() {
+        System.out.println("submit");
+        RenderJobExecutor instance = new RenderJobExecutor(2, 10000);
+        int threadsBefore = Thread.activeCount();
+        int requestCount = 5000;
+        Viewport viewport = Viewport.mandelbrot(
+                new ComplexNumber(-2.0, -1.0), 8.0, 16, 16, 64);
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < requestCount; i++) {
+            futures.add(instance.submit(() -> instance.compute(() -> {
+                IterationData data = new IterationData(16, 16);
+                TileRenderer.renderRegion(viewport, 0, 0, 16, 16, data);
+                return data.getIterationCount(8, 8);
+            })));
+        }
+        int expected = futures.get(0).join();
+        for (CompletableFuture<Integer> future : futures) {
+            assertEquals((int) future.join(), expected);
+        }
+        int threadsAdded = Thread.activeCount() - threadsBefore;
+        String msg = "Added " + threadsAdded + " threads for " + requestCount
+                + " requests, virtual threads " + instance
+                        .isUsingVirtualThreads();
+        System.out.println(msg);
+        assert threadsAdded <= RenderJobExecutor.FALLBACK_REQUEST_THREADS + 8
+                : msg;
+        assertEquals(instance.getInFlightCount(), 0);
+        instance.shutdown();
+    }
+
+    /**
+     * Another test of the submit function, of the RenderJobExecutor class.
+     * Requests past the limit should be rejected right away, and accepted
+     * again once earlier requests finish.
+     * @throws InterruptedException If the test is interrupted.
+     */
+    @Test
+    public void testSubmitRejectsPastLimit() throws InterruptedException {
+        RenderJobExecutor instance = new RenderJobExecutor(1, 2);
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Object>> blocked = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            blocked.add(instance.submit(() -> {
+                release.await();
+                return null;
+            }));
+        }
+        try {
+            instance.submit(() -> 0);
+            fail("Third request should have been rejected");
+        } catch (RejectedExecutionException ree) {
+            System.out.println("Rejected as expected: " + ree.getMessage());
+        }
+        assertEquals(instance.getRejectedCount(), 1L);
+        assertEquals(instance.getPeakInFlightCount(), 2);
+        release.countDown();
+        for (CompletableFuture<Object> future : blocked) {
+            future.join();
+        }
+        assertEquals((int) instance.submit(() -> 1).join(), 1);
+        instance.shutdown();
+    }
+
+    /**
+     * Test of the compute function, of the RenderJobExecutor class. Kernel
+     * work should run on the kernel pool.
+     */
+    @Test
+    public void testCompute() {
+        System.out.println("compute");
+        RenderJobExecutor instance = new RenderJobExecutor(1, 16);
+        Thread worker = instance.submit(() -> instance
+                .compute(Thread::currentThread)).join();
+        instance.shutdown();
+        assert worker instanceof ForkJoinWorkerThread
+                : "Kernel work should run on a fork/join worker";
+        assertSame(((ForkJoinWorkerThread) worker).getPool(),
+                instance.getKernelPool());
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import numerics.ComplexArray;
+import numerics.ComplexNumber;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the RowEscapeTime class.
+ * @author Alonso del Arte
+ */
+public class RowEscapeTimeNGTest {
+
+    private static void assertSameResults(Viewport viewport) {
+        int width = viewport.getWidth();
+        int height = viewport.getHeight();
+        IterationData expected = new IterationData(width, height);
+        IterationData actual = new IterationData(width, height);
+        TileRenderer.renderRegion(viewport, 0, 0, width, height, expected);
+        RowEscapeTime instance = new RowEscapeTime(width + 3);
+        instance.renderRegion(viewport, 0, 0, width, height, actual);
+        assertEquals(actual.getIterationCounts(),
+                expected.getIterationCounts());
+        assertEquals(actual.getSmoothValues(), expected.getSmoothValues());
+        assertEquals(actual.getDistanceEstimates(),
+                expected.getDistanceEstimates());
+    }
+
+    /**
+     * Test of the renderRegion function, of the RowEscapeTime class. The
+     * results for the Mandelbrot set should be exactly the same as from the
+     * point-by-point kernel.
+     */
+    @Test
+    public void testRenderRegionMandelbrot() {
+        System.out.println("renderRegion");
+        assertSameResults(Viewport.mandelbrot(new ComplexNumber(-2.75, -1.25),
+                32.0, 135, 80, 256));
+    }
+
+    /**
+     * Another test of the renderRegion function, of the RowEscapeTime class.
+     * The results for a Julia set should be exactly the same as from the
+     * point-by-point kernel, including points that escape right away.
+     */
+    @Test
+    public void testRenderRegionJulia() {
+        assertSameResults(Viewport.julia(new ComplexNumber(-300.0, -1.25),
+                0.25, 160, 10, 256, new ComplexNumber(-0.75, 0.1)));
+        assertSameResults(Viewport.julia(new ComplexNumber(-2.0, -1.25), 32.0,
+                128, 80, 256, new ComplexNumber(-0.75, 0.1)));
+    }
+
+    /**
+     * Test of the iterateRow function, of the RowEscapeTime class. A row that
+     * is shorter than the maximum width should only fill in as many results as
+     * requested.
+     */
+    @Test
+    public void testIterateRow() {
+        System.out.println("iterateRow");
+        ComplexArray points = new ComplexArray(4);
+        points.set(0, -0.25, 0.0);
+        points.set(1, 1.0, 1.0);
+        points.set(2, 9.0, 9.0);
+        IterationData data = new IterationData(4, 1);
+        data.getIterationCounts()[3] = -1;
+        RowEscapeTime instance = new RowEscapeTime(4);
+        instance.iterateRow(points, 3, false, 0.0, 0.0, 64, data, 0);
+        assertEquals(data.getIterationCount(0, 0), 64);
+        assert data.getIterationCount(1, 0) < 64 : "1 + i should escape";
+        assertEquals(data.getIterationCount(3, 0), -1);
+    }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the TileCache class.
+ * @author Alonso del Arte
+ */
+public class TileCacheNGTest {
+
+    /**
+     * Test of the get function, of the TileCache class. Once a value is
+     * complete, further requests should be hits, not loads.
+     */
+    @Test
+    public void testGet() {
+        System.out.println("get");
+        TileCache<String, Integer> instance = new TileCache<>(4);
+        AtomicInteger loaderCalls = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            int actual = instance.get("A", key -> {
+                loaderCalls.incrementAndGet();
+                return CompletableFuture.completedFuture(1);
+            }).join();
+            assertEquals(actual, 1);
+        }
+        assertEquals(loaderCalls.get(), 1);
+        assertEquals(instance.getLoadCount(), 1L);
+        assertEquals(instance.getHitCount(), 2L);
+    }
+
+    /**
+     * Another test of the get function, of the TileCache class. Concurrent
+     * requests for a key that's being computed should all get the same future,
+     * and the computation should be started only once.
+     * @throws InterruptedException If the test is interrupted.
+     */
+    @Test
+    public void testGetMergesConcurrentRequests()
+            throws InterruptedException {
+        TileCache<String, Integer> instance = new TileCache<>(4);
+        CompletableFuture<Integer> computation = new CompletableFuture<>();
+        AtomicInteger loaderCalls = new AtomicInteger();
+        int threadCount = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch ready = new CountDownLatch(threadCount);
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < threadCount; i++) {
+            results.add(CompletableFuture.supplyAsync(() -> {
+                ready.countDown();
+                return instance.get("A", key -> {
+                    loaderCalls.incrementAndGet();
+                    return computation;
+                });
+            }, pool).thenCompose(future -> future));
+        }
+        boolean threadsStarted = ready.await(10, TimeUnit.SECONDS);
+        assertTrue(threadsStarted, "Threads didn't start");
+        assertEquals(instance.getInFlightCount(), 1);
+        computation.complete(42);
+        for (CompletableFuture<Integer> result : results) {
+            assertEquals((int) result.join(), 42);
+        }
+        pool.shutdown();
+        assertEquals(loaderCalls.get(), 1);
+        assertEquals(instance.getInFlightCount(), 0);
+        assertEquals(instance.getIfPresent("A"), Integer.valueOf(42));
+    }
+
+    /**
+     * Another test of the get function, of the TileCache class. A failed
+     * computation should not be cached.
+     */
+    @Test
+    public void testGetDoesNotCacheFailures() {
+        TileCache<String, Integer> instance = new TileCache<>(4);
+        CompletableFuture<Integer> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new ArithmeticException("For testing"));
+        CompletableFuture<Integer> result = instance.get("A", key -> failed);
+        assert result.isCompletedExceptionally() : "Failure should propagate";
+        assertFalse(instance.contains("A"));
+        int actual = instance.get("A",
+                key -> CompletableFuture.completedFuture(7)).join();
+        assertEquals(actual, 7);
+    }
+
+    /**
+     * Test of the put function, of the TileCache class. When the cache is
+     * full, the least recently used value should be evicted.
+     */
+    @Test
+    public void testPut() {
+        System.out.println("put");
+        TileCache<String, Integer> instance = new TileCache<>(2);
+        instance.put("A", 1);
+        instance.put("B", 2);
+        instance.getIfPresent("A");
+        instance.put("C", 3);
+        assertEquals(instance.size(), 2);
+        assertEquals(instance.getIfPresent("A"), Integer.valueOf(1));
+        assertNull(instance.getIfPresent("B"));
+        assertEquals(instance.getIfPresent("C"), Integer.valueOf(3));
+    }
+
+    /**
+     * Test of the constructor, of the TileCache class. A capacity less than 1
+     * should be rejected.
+     */
+    @Test(expectedExceptions = {IllegalArgumentException.class})
+    public void testConstructorRejectsZeroCapacity() {
+        TileCache<String, Integer> instance = new TileCache<>(0);
+        System.out.println("Should not have been able to create "
+                + instance.toString());
+    }
+
+}
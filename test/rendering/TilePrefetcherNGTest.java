@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the TilePrefetcher class. The tile engine for these tests runs its
+ * tasks only when the test says so, which makes the timing of cancellations
+ * deterministic.
+ * @author Alonso del Arte
+ */
+public class TilePrefetcherNGTest {
+
+    private static final List<TileKey> PLAN = Arrays.asList(
+            TileKey.mandelbrot(6, 0, 0, 64), TileKey.mandelbrot(6, 1, 0, 64),
+            TileKey.mandelbrot(6, 0, 1, 64), TileKey.mandelbrot(6, 1, 1, 64));
+
+    private static final class ManualExecutor implements Executor {
+
+        private final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            this.tasks.add(command);
+        }
+
+        void runAll() {
+            while (!this.tasks.isEmpty()) {
+                this.tasks.remove(0).run();
+            }
+        }
+
+        void runOne() {
+            this.tasks.remove(0).run();
+        }
+
+    }
+
+    /**
+     * Test of the prefetch function, of the TilePrefetcher class. The planned
+     * tiles should end up in the cache.
+     */
+    @Test
+    public void testPrefetch() {
+        System.out.println("prefetch");
+        ManualExecutor executor = new ManualExecutor();
+        TileEngine engine = new TileEngine(executor, 16, 16);
+        TilePrefetcher instance = new TilePrefetcher(engine);
+        instance.prefetch(() -> PLAN);
+        executor.runAll();
+        assertEquals(instance.getRequestedCount(), PLAN.size());
+        for (TileKey key : PLAN) {
+            assertNotNull(engine.getCache().getIfPresent(key),
+                    key.toString() + " should have been prefetched");
+        }
+    }
+
+    /**
+     * Another test of the prefetch function, of the TilePrefetcher class. A
+     * prefetch should supersede one whose plan hasn't been worked out yet.
+     */
+    @Test
+    public void testPrefetchSupersedesEarlierPlan() {
+        ManualExecutor executor = new ManualExecutor();
+        TileEngine engine = new TileEngine(executor, 16, 16);
+        TilePrefetcher instance = new TilePrefetcher(engine);
+        instance.prefetch(() -> PLAN);
+        instance.prefetch(() -> PLAN.subList(0, 1));
+        executor.runAll();
+        assertEquals(instance.getRequestedCount(), 1L);
+        assertEquals(engine.getCache().size(), 1);
+    }
+
+    /**
+     * Test of the cancel function, of the TilePrefetcher class. Tiles that
+     * haven't started should not be rendered, except for a tile that was
+     * requested as visible in the meantime.
+     */
+    @Test
+    public void testCancel() {
+        System.out.println("cancel");
+        ManualExecutor executor = new ManualExecutor();
+        TileEngine engine = new TileEngine(executor, 16, 16);
+        TilePrefetcher instance = new TilePrefetcher(engine);
+        instance.prefetch(() -> PLAN);
+        executor.runOne();
+        assertEquals(engine.getScheduler().getWaitingCount(), PLAN.size());
+        TileKey wanted = PLAN.get(3);
+        CompletableFuture<IterationData> visible = engine.request(wanted,
+                TilePriority.VISIBLE, 0.0);
+        assertEquals(instance.cancel(), PLAN.size() - 1);
+        executor.runAll();
+        assertEquals(instance.getCancelledCount(), PLAN.size() - 1);
+        assert visible.isDone() && !visible.isCompletedExceptionally()
+                : "Visible request should not have been cancelled";
+        assertEquals(engine.getCache().size(), 1);
+        assertEquals(engine.getCache().getInFlightCount(), 0);
+        assertNotNull(engine.getCache().getIfPresent(wanted));
+    }
+
+    /**
+     * Another test of the cancel function, of the TilePrefetcher class. Tiles
+     * requested by another prefetcher on the same engine should not be
+     * cancelled.
+     */
+    @Test
+    public void testCancelLeavesOtherPrefetcherAlone() {
+        ManualExecutor executor = new ManualExecutor();
+        TileEngine engine = new TileEngine(executor, 16, 16);
+        TilePrefetcher instance = new TilePrefetcher(engine);
+        TilePrefetcher other = new TilePrefetcher(engine);
+        instance.prefetch(() -> PLAN.subList(0, 2));
+        other.prefetch(() -> PLAN.subList(2, 4));
+        executor.runOne();
+        executor.runOne();
+        assertEquals(engine.getScheduler().getWaitingCount(), PLAN.size());
+        assertEquals(instance.cancel(), 2);
+        assertEquals(engine.getScheduler().getWaitingCount(), 2);
+        executor.runAll();
+        assertEquals(other.getCancelledCount(), 0L);
+        for (TileKey key : PLAN.subList(2, 4)) {
+            assertNotNull(engine.getCache().getIfPresent(key),
+                    key.toString() + " should still have been prefetched");
+        }
+        assertNull(engine.getCache().getIfPresent(PLAN.get(0)));
+    }
+
+}
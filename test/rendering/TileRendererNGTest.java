@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import numerics.ComplexNumber;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the TileRenderer class.
+ * @author Alonso del Arte
+ */
+public class TileRendererNGTest {
+
+    private static final Viewport VIEWPORT = Viewport.mandelbrot(
+            new ComplexNumber(-2.75, -1.25), 32.0, 135, 80, 256);
+
+    /**
+     * Test of the render function, of the TileRenderer class. Every pixel
+     * should have the same iteration count as the kernel gives for it, even
+     * with a tile size that doesn't divide the dimensions evenly.
+     */
+    @Test
+    public void testRender() {
+        System.out.println("render");
+        TileRenderer instance = new TileRenderer(
+                ForkJoinPool.commonPool(), 17);
+        IterationData actual = instance.render(VIEWPORT);
+        IterationData expected = new IterationData(1, 1);
+        for (int y = 0; y < VIEWPORT.getHeight(); y++) {
+            for (int x = 0; x < VIEWPORT.getWidth(); x++) {
+                EscapeTime.iterate(VIEWPORT, x, y, expected, 0);
+                assertEquals(actual.getIterationCount(x, y),
+                        expected.getIterationCount(0, 0),
+                        "Iteration count at " + x + ", " + y);
+            }
+        }
+    }
+
+    /**
+     * Another test of the render function, of the TileRenderer class.
+     * Rendering a viewport in bands, as for saving at a different resolution,
+     * should give the same results as rendering it whole.
+     */
+    @Test
+    public void testRenderInRegions() {
+        TileRenderer instance = new TileRenderer();
+        IterationData whole = instance.render(VIEWPORT);
+        int bandRows = 24;
+        for (int y0 = 0; y0 < VIEWPORT.getHeight(); y0 += bandRows) {
+            int rows = Math.min(bandRows, VIEWPORT.getHeight() - y0);
+            IterationData band = instance.render(VIEWPORT.region(0, y0,
+                    VIEWPORT.getWidth(), rows));
+            for (int y = 0; y < rows; y++) {
+                for (int x = 0; x < VIEWPORT.getWidth(); x++) {
+                    assertEquals(band.getSmoothValue(x, y),
+                            whole.getSmoothValue(x, y0 + y),
+                            "Smooth value at " + x + ", " + (y0 + y));
+                }
+            }
+        }
+    }
+
+    /**
+     * Test of the addRenderListener function, of the TileRenderer class. The
+     * listener should get metrics consistent with the iteration data.
+     */
+    @Test
+    public void testAddRenderListener() {
+        System.out.println("addRenderListener");
+        TileRenderer instance = new TileRenderer();
+        List<RenderMetrics> received = new ArrayList<>();
+        instance.addRenderListener(received::add);
+        IterationData data = instance.render(VIEWPORT);
+        assertEquals(received.size(), 1);
+        RenderMetrics metrics = received.get(0);
+        long expectedTotal = 0L;
+        long expectedMaxed = 0L;
+        for (int count : data.getIterationCounts()) {
+            expectedTotal += count;
+            if (count == 256) {
+                expectedMaxed++;
+            }
+        }
+        assertEquals(metrics.getTotalIterations(), expectedTotal);
+        assertEquals(metrics.getMaxedFraction(),
+                (double) expectedMaxed / (135 * 80), 0.0000001);
+        assertEquals(metrics.getTileCount(), 6);
+        long histogramTotal = 0L;
+        for (long bucket : metrics.getIterationHistogram()) {
+            histogramTotal += bucket;
+        }
+        assertEquals(histogramTotal, 135L * 80L);
+        assert metrics.getPixelsPerSecond() > 0.0
+                : "Pixels per second should be positive";
+    }
+
+    /**
+     * Test of the removeRenderListener function, of the TileRenderer class.
+     * After removal, the listener should not be called anymore.
+     */
+    @Test
+    public void testRemoveRenderListener() {
+        System.out.println("removeRenderListener");
+        TileRenderer instance = new TileRenderer();
+        RenderStats stats = new RenderStats();
+        instance.addRenderListener(stats);
+        instance.render(VIEWPORT);
+        instance.removeRenderListener(stats);
+        instance.render(VIEWPORT);
+        assertEquals(stats.getFramesRendered(), 1L);
+    }
+
+    /**
+     * Test of the render function, of the TileRenderer class, with a render
+     * mode other than exact. Each tile should be rendered with the mode.
+     */
+    @Test
+    public void testRenderWithMode() {
+        System.out.println("render with mode");
+        AtomicInteger tileCount = new AtomicInteger();
+        RenderMode mode = (viewport, x0, y0, x1, y1, data) -> {
+            tileCount.incrementAndGet();
+            return RenderMode.EXACT.renderRegion(viewport, x0, y0, x1, y1,
+                    data);
+        };
+        TileRenderer instance = new TileRenderer(ForkJoinPool.commonPool(),
+                64, mode);
+        assertEquals(instance.getRenderMode(), mode);
+        IterationData actual = instance.render(VIEWPORT);
+        IterationData expected = new TileRenderer().render(VIEWPORT);
+        assertEquals(actual.getSmoothValues(), expected.getSmoothValues());
+        assertEquals(tileCount.get(), 6);
+    }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package rendering;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the TileScheduler class.
+ * @author Alonso del Arte
+ */
+public class TileSchedulerNGTest {
+
+    private static TileKey key(int tileX) {
+        return TileKey.mandelbrot(8, tileX, 0, 256);
+    }
+
+    /**
+     * Test of the submit function, of the TileScheduler class. While the only
+     * thread is busy, jobs should pile up and then run visible before
+     * prefetch, nearer before farther.
+     * @throws InterruptedException If the test is interrupted.
+     */
+    @Test
+    public void testSubmit() throws InterruptedException {
+        System.out.println("submit");
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        TileScheduler<Integer> instance = new TileScheduler<>(pool);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        instance.submit(key(0), TilePriority.VISIBLE, 0.0, () -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            return 0;
+        });
+        boolean blockerStarted = started.await(10, TimeUnit.SECONDS);
+        assertTrue(blockerStarted, "Blocker didn't start");
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        double[] distances = {0.0, 300.0, 100.0, 200.0};
+        TilePriority[] priorities = {TilePriority.PREFETCH,
+            TilePriority.VISIBLE, TilePriority.VISIBLE, TilePriority.PREFETCH};
+        for (int i = 0; i < distances.length; i++) {
+            int tileX = i + 1;
+            futures.add(instance.submit(key(tileX), priorities[i],
+                    distances[i], () -> {
+                        order.add(tileX);
+                        return tileX;
+                    }));
+        }
+        assertEquals(instance.getWaitingCount(), 4);
+        release.countDown();
+        for (CompletableFuture<Integer> future : futures) {
+            future.join();
+        }
+        pool.shutdown();
+        assertEquals(order, Arrays.asList(3, 2, 1, 4));
+    }
+
+    /**
+     * Another test of the submit function, of the TileScheduler class.
+     * Submitting a key that's already waiting should give the same future, run
+     * the computation once, and move the job up if more urgent.
+     * @throws InterruptedException If the test is interrupted.
+     */
+    @Test
+    public void testSubmitDuplicateKey() throws InterruptedException {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        TileScheduler<Integer> instance = new TileScheduler<>(pool);
+        CountDownLatch release = new CountDownLatch(1);
+        instance.submit(key(0), TilePriority.VISIBLE, 0.0, () -> {
+            try {
+                release.await();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            return 0;
+        });
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<Integer> first = instance.submit(key(1),
+                TilePriority.PREFETCH, 0.0, () -> {
+                    calls.incrementAndGet();
+                    order.add(1);
+                    return 1;
+                });
+        CompletableFuture<Integer> other = instance.submit(key(2),
+                TilePriority.VISIBLE, 50.0, () -> {
+                    order.add(2);
+                    return 2;
+                });
+        CompletableFuture<Integer> second = instance.submit(key(1),
+                TilePriority.VISIBLE, 10.0, () -> {
+                    calls.incrementAndGet();
+                    return -1;
+                });
+        assertSame(second, first);
+        release.countDown();
+        assertEquals((int) second.join(), 1);
+        other.join();
+        pool.shutdown();
+        boolean terminated = pool.awaitTermination(10, TimeUnit.SECONDS);
+        assertTrue(terminated, "Pool stuck");
+        assertEquals(calls.get(), 1);
+        assertEquals(order, Arrays.asList(1, 2));
+        assertEquals(instance.getWaitingCount(), 0);
+    }
+
+}
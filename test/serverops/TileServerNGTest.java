@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2026 Alonso del Arte
+ *
+ * This program is free software: you can redistribute it and/or modify it under
+ * the terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or FITNESS
+ * FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package serverops;
+
+import colors.mappers.CyclicColorMapper;
+import numerics.ComplexNumber;
+import rendering.RenderJobExecutor;
+import rendering.TileEngine;
+import rendering.TileKey;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.imageio.ImageIO;
+
+import static org.testng.Assert.*;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+/**
+ * Tests of the TileServer class.
+ * @author Alonso del Arte
+ */
+public class TileServerNGTest {
+
+    private TileServer server;
+
+    @BeforeClass
+    public void setUpClass() throws IOException {
+        this.server = new TileServer(0);
+        this.server.start();
+    }
+
+    @AfterClass
+    public void tearDownClass() {
+        this.server.stop(0);
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        URL url = new URL("http://localhost:" + this.server.getPort() + path);
+        return (HttpURLConnection) url.openConnection();
+    }
+
+    /**
+     * Test of the parseTileKey function, of the TileServer class.
+     */
+    @Test
+    public void testParseTileKey() {
+        System.out.println("parseTileKey");
+        TileKey expected = TileKey.mandelbrot(9, 5, 2,
+                TileServer.iterationMaximumFor(3));
+        assertEquals(TileServer.parseTileKey("/mandelbrot/3/5/2.png", null),
+                expected);
+        expected = TileKey.julia(6, 0, 0, TileServer.iterationMaximumFor(0),
+                new ComplexNumber(-0.75, 0.1));
+        assertEquals(TileServer.parseTileKey("/julia/0/0/0.png",
+                "c=-0.75,0.1"), expected);
+    }
+
+    /**
+     * Another test of the parseTileKey function, of the TileServer class.
+     * Paths that don't name a tile inside the square should give null.
+     */
+    @Test
+    public void testParseTileKeyRejectsBadPaths() {
+        String[] paths = {"/mandelbrot/3/8/0.png", "/mandelbrot/3/5.png",
+            "/mandelbrot/99/0/0.png", "/julia/0/0/0.png", "/other/0/0/0.png"};
+        for (String path : paths) {
+            assertNull(TileServer.parseTileKey(path, null), path);
+        }
+        assertNull(TileServer.parseTileKey("/julia/0/0/0.png", "c=x,y"));
+    }
+
+    /**
+     * Test of the requestPNG function, of the TileServer class, through HTTP.
+     * A tile should come back as a PNG of the tile size.
+     * @throws IOException If the request fails.
+     */
+    @Test
+    public void testServeTile() throws IOException {
+        System.out.println("requestPNG");
+        HttpURLConnection connection = this.open("/mandelbrot/1/0/1.png");
+        assertEquals(connection.getResponseCode(), 200);
+        assertEquals(connection.getContentType(), "image/png");
+        BufferedImage image;
+        try (InputStream stream = connection.getInputStream()) {
+            image = ImageIO.read(stream);
+        }
+        assertEquals(image.getWidth(), TileServer.TILE_SIZE);
+        assertEquals(image.getHeight(), TileServer.TILE_SIZE);
+    }
+
+    /**
+     * Another test of the requestPNG function, of the TileServer class, through
+     * HTTP. Many concurrent requests for the same tile should cause only one
+     * render and one encoding.
+     */
+    @Test
+    public void testServeTileMergesConcurrentRequests() {
+        int requestCount = 64;
+        String path = "/julia/2/1/2.png?c=-0.75,0.1";
+        long rendersBefore = this.server.getEngine().getCache().getLoadCount();
+        long encodingsBefore = this.server.getPNGCache().getLoadCount();
+        ExecutorService pool = Executors.newFixedThreadPool(requestCount);
+        List<CompletableFuture<Integer>> statuses = new ArrayList<>();
+        for (int i = 0; i < requestCount; i++) {
+            statuses.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    HttpURLConnection connection = this.open(path);
+                    int status = connection.getResponseCode();
+                    try (InputStream stream = connection.getInputStream()) {
+                        while (stream.read() != -1) {
+                            // Drain the response
+                        }
+                    }
+                    return status;
+                } catch (IOException ioe) {
+                    throw new RuntimeException(ioe);
+                }
+            }, pool));
+        }
+        for (CompletableFuture<Integer> status : statuses) {
+            assertEquals((int) status.join(), 200);
+        }
+        pool.shutdown();
+        assertEquals(this.server.getEngine().getCache().getLoadCount()
+                - rendersBefore, 1L);
+        assertEquals(this.server.getPNGCache().getLoadCount()
+                - encodingsBefore, 1L);
+    }
+
+    /**
+     * Another test of the requestPNG function, of the TileServer class,
+     * through HTTP. A path that's not a tile should give a 404.
+     * @throws IOException If the request fails.
+     */
+    @Test
+    public void testServeTileNotFound() throws IOException {
+        HttpURLConnection connection = this.open("/mandelbrot/0/1/0.png");
+        assertEquals(connection.getResponseCode(), 404);
+    }
+
+    /**
+     * Test of the stop function, of the TileServer class. A server should
+     * shut down the job executor it created, but not one it was given.
+     * @throws IOException If a server can't be created.
+     */
+    @Test
+    public void testStop() throws IOException {
+        System.out.println("stop");
+        TileServer owning = new TileServer(0);
+        owning.start();
+        owning.stop(0);
+        RenderJobExecutor ownJobs = owning.getJobExecutor();
+        assertTrue(ownJobs.getKernelPool().isShutdown(),
+                "Own job executor should have been shut down");
+        RenderJobExecutor sharedJobs = new RenderJobExecutor();
+        try {
+            TileServer sharing = new TileServer(0, new TileEngine(
+                    sharedJobs.getKernelPool(), TileServer.TILE_SIZE,
+                    TileEngine.DEFAULT_CACHE_CAPACITY),
+                    new CyclicColorMapper(), 16, sharedJobs);
+            sharing.start();
+            sharing.stop(0);
+            assertFalse(sharedJobs.getKernelPool().isShutdown(),
+                    "Shared job executor should have been left running");
+        } finally {
+            sharedJobs.shutdown();
+        }
+    }
+
+}